@@ -56,6 +56,9 @@ public class CursorEntryPacketIterator implements IEntryPacketIterator {
         int batchSize = spaceIteratorConfiguration.getBatchSize();
         if (batchSize <= 0)
             throw new IllegalArgumentException("batchSize must be greater than zero.");
+        int prefetchBatches = spaceIteratorConfiguration.getPrefetchBatches();
+        if (prefetchBatches < 0)
+            throw new IllegalArgumentException("prefetchBatches must not be negative.");
         if (_logger.isLoggable(Level.FINE))
             _logger.log(Level.FINE, "SpaceIterator initialized with batchSize=" + batchSize);
         Duration maxInactiveDuration = spaceIteratorConfiguration.getMaxInactiveDuration() == null ? SpaceIteratorConfiguration.getDefaultMaxInactiveDuration() : spaceIteratorConfiguration.getMaxInactiveDuration();
@@ -65,7 +68,7 @@ public class CursorEntryPacketIterator implements IEntryPacketIterator {
         this._serverLookupTimeout = _spaceProxy.getDirectProxy().getProxyRouter().getConfig().getActiveServerLookupTimeout();
         this._queryPacket = toTemplatePacket(query);
         this._buffer = new LinkedList<>();
-        this._spaceIteratorBatchResultsManager = new SpaceIteratorBatchResultsManager(_spaceProxy, batchSize, spaceIteratorConfiguration.getReadModifiers().getCode(), _queryPacket, maxInactiveDuration.toMillis());
+        this._spaceIteratorBatchResultsManager = new SpaceIteratorBatchResultsManager(_spaceProxy, batchSize, prefetchBatches, spaceIteratorConfiguration.getReadModifiers().getCode(), _queryPacket, maxInactiveDuration.toMillis());
         this._bufferIterator = getNextBatch();
     }
 
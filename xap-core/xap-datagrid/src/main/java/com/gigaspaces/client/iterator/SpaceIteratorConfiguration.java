@@ -3,6 +3,8 @@ package com.gigaspaces.client.iterator;
 import com.gigaspaces.client.ReadModifiers;
 
 import java.time.Duration;
+import static com.j_spaces.kernel.SystemProperties.SPACE_ITERATOR_PREFETCH_BATCHES;
+import static com.j_spaces.kernel.SystemProperties.SPACE_ITERATOR_PREFETCH_BATCHES_DEFAULT;
 import static com.j_spaces.kernel.SystemProperties.SPACE_ITERATOR_TYPE;
 import static com.j_spaces.kernel.SystemProperties.SPACE_ITERATOR_TYPE_DEFAULT;
 
@@ -22,6 +24,7 @@ public class SpaceIteratorConfiguration {
     private int batchSize = getDefaultBatchSize();
     private Duration maxInactiveDuration = null;
     private ReadModifiers readModifiers;
+    private int prefetchBatches = Integer.getInteger(SPACE_ITERATOR_PREFETCH_BATCHES, SPACE_ITERATOR_PREFETCH_BATCHES_DEFAULT);
 
     /**
      * Constructs a new configuration with default values
@@ -102,4 +105,26 @@ public class SpaceIteratorConfiguration {
         this.readModifiers = readModifiers;
         return this;
     }
+
+    /**
+     * @return number of batches each partition fetches ahead of the batch being consumed.
+     * Note: relevant only to {@link SpaceIteratorType#CURSOR}
+     * @since 15.5
+     */
+    public int getPrefetchBatches() {
+        return prefetchBatches;
+    }
+
+    /**
+     * Sets the number of batches each partition fetches ahead of the batch being consumed, so the
+     * space keeps scanning while the client consumes. 0 fetches a partition's next batch only when
+     * its current batch is consumed. Note: relevant only to {@link SpaceIteratorType#CURSOR}
+     * @param prefetchBatches
+     * @return updated iterator configuration
+     * @since 15.5
+     */
+    public SpaceIteratorConfiguration setPrefetchBatches(int prefetchBatches) {
+        this.prefetchBatches = prefetchBatches;
+        return this;
+    }
 }
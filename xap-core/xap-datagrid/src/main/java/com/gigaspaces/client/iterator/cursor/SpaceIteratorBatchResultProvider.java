@@ -15,6 +15,7 @@ import net.jini.core.transaction.TransactionException;
 
 import java.io.Serializable;
 import java.rmi.RemoteException;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.*;
 import java.util.logging.Level;
@@ -38,17 +39,24 @@ public class SpaceIteratorBatchResultProvider implements Serializable {
     private final UUID _uuid;
     private final int _numberOfPartitions;
     private final transient SpaceIteratorBatchResultListener _spaceIteratorBatchResultListener;
+    // number of batches each partition fetches ahead of the consumer
+    private final transient int _prefetchBatches;
+    private final transient Map<Integer, PartitionPrefetch> _partitionsPrefetch;
+    private transient volatile boolean _closed;
 
 
-    public SpaceIteratorBatchResultProvider(ISpaceProxy spaceProxy, int batchSize, int readModifiers, ITemplatePacket queryPacket, UUID uuid, long maxInactiveDuration){
+    public SpaceIteratorBatchResultProvider(ISpaceProxy spaceProxy, int batchSize, int prefetchBatches, int readModifiers, ITemplatePacket queryPacket, UUID uuid, long maxInactiveDuration){
         this._spaceProxy = spaceProxy;
         this._batchSize = batchSize;
+        this._prefetchBatches = prefetchBatches;
+        this._partitionsPrefetch = new ConcurrentHashMap<>();
         this._readModifiers = readModifiers;
         this._maxInactiveDuration = maxInactiveDuration;
         this._queryPacket = queryPacket;
         this._uuid = uuid;
         this._numberOfPartitions = _spaceProxy.getDirectProxy().getSpaceClusterInfo().getNumberOfPartitions();
-        this._queue = new LinkedBlockingQueue<>(getInitialNumberOfActivePartitions());
+        // each partition may have its current batch and the prefetched ones waiting to be consumed
+        this._queue = new LinkedBlockingQueue<>(getInitialNumberOfActivePartitions() * (prefetchBatches + 1));
         this._spaceIteratorBatchResultListener = new SpaceIteratorBatchResultListener(this);
         initBatchTask();
     }
@@ -88,7 +96,9 @@ public class SpaceIteratorBatchResultProvider implements Serializable {
             spaceIteratorBatchResult = new SpaceIteratorBatchResult(spaceIteratorBatchAsyncResult.getException(), _uuid);
         }
         if(spaceIteratorBatchResult != null) {
+            // queue the batch before requesting the next one, whose reply must not overtake it
             addBatchResult(spaceIteratorBatchResult);
+            onBatchReceived(spaceIteratorBatchResult);
             return;
         }
         throw new IllegalStateException("Received async space iterator batch without result or exception");
@@ -103,14 +113,75 @@ public class SpaceIteratorBatchResultProvider implements Serializable {
     public void triggerSinglePartitionBatchTask(int partitionId, int batchNumber) throws RemoteException, TransactionException {
         if(_logger.isLoggable(Level.FINE))
             _logger.fine("Triggering task for space iterator " + _uuid + " in partition " + partitionId + " fetch batchNumber " + batchNumber);
+        getPartitionPrefetch(partitionId).setRequestedBatchNumber(batchNumber);
         _spaceProxy.execute(new SinglePartitionGetBatchForIteratorSpaceTask(this, batchNumber), partitionId, null, _spaceIteratorBatchResultListener);
     }
 
+    /**
+     * Requests the next batch of the partition of a full batch which was received, unless the
+     * partition already has enough batches waiting to be consumed.
+     */
+    private void onBatchReceived(SpaceIteratorBatchResult batch) {
+        if (batch.isFailed() || (batch.getEntries() != null && batch.getEntries().length < _batchSize))
+            return;
+        PartitionPrefetch prefetch = getPartitionPrefetch(batch.getPartitionId());
+        synchronized (prefetch) {
+            // the batch is not the one requested last, the consumer will reject it
+            if (batch.getBatchNumber() != prefetch.requestedBatchNumber)
+                return;
+            prefetch.receivedBatches++;
+            if (prefetch.receivedBatches > _prefetchBatches) {
+                // wait for the consumer to catch up
+                prefetch.pendingBatchNumber = batch.getBatchNumber() + 1;
+                return;
+            }
+        }
+        triggerNextBatch(batch.getPartitionId(), batch.getBatchNumber() + 1);
+    }
+
+    /**
+     * Called when a full batch is consumed, requests the next batch of its partition if it was
+     * waiting for the consumer.
+     */
+    public void onBatchConsumed(SpaceIteratorBatchResult batch) {
+        PartitionPrefetch prefetch = getPartitionPrefetch(batch.getPartitionId());
+        int pendingBatchNumber;
+        synchronized (prefetch) {
+            prefetch.receivedBatches--;
+            pendingBatchNumber = prefetch.pendingBatchNumber;
+            prefetch.pendingBatchNumber = SpaceIteratorBatchResult.NO_BATCH_NUMBER;
+        }
+        if (pendingBatchNumber != SpaceIteratorBatchResult.NO_BATCH_NUMBER)
+            triggerNextBatch(batch.getPartitionId(), pendingBatchNumber);
+    }
+
+    private void triggerNextBatch(int partitionId, int batchNumber) {
+        if (_closed)
+            return;
+        try {
+            triggerSinglePartitionBatchTask(partitionId, batchNumber);
+        } catch (RemoteException | TransactionException e) {
+            addBatchResult(new SpaceIteratorBatchResult(e, _uuid, partitionId, batchNumber));
+        }
+    }
+
+    private PartitionPrefetch getPartitionPrefetch(int partitionId) {
+        PartitionPrefetch prefetch = _partitionsPrefetch.get(partitionId);
+        if (prefetch == null) {
+            PartitionPrefetch newPrefetch = new PartitionPrefetch();
+            prefetch = _partitionsPrefetch.putIfAbsent(partitionId, newPrefetch);
+            if (prefetch == null)
+                prefetch = newPrefetch;
+        }
+        return prefetch;
+    }
+
     private void triggerBatchTaskInAllPartitions() throws RemoteException, TransactionException {
         _spaceProxy.execute(new GetBatchForIteratorDistributedSpaceTask(this), null, null, null);
     }
 
     public void close() {
+        _closed = true;
         if(_logger.isLoggable(Level.FINE))
             _logger.fine("Sending close request to space iterator "  + _uuid);
         try {
@@ -176,4 +247,17 @@ public class SpaceIteratorBatchResultProvider implements Serializable {
         if (_logger.isLoggable(Level.WARNING))
             _logger.log(Level.WARNING, "Failed to renew space iterator " + getUuid() + " lease.", e);
     }
+
+    private static class PartitionPrefetch {
+        // batch number of the last batch requested from the partition
+        private int requestedBatchNumber;
+        // full batches received and not consumed yet
+        private int receivedBatches;
+        // batch number to request once a batch is consumed, or NO_BATCH_NUMBER
+        private int pendingBatchNumber = SpaceIteratorBatchResult.NO_BATCH_NUMBER;
+
+        private synchronized void setRequestedBatchNumber(int batchNumber) {
+            requestedBatchNumber = batchNumber;
+        }
+    }
 }
@@ -112,6 +112,20 @@ public abstract class PropertyStorageAdapter {
         return PooledObjectConverter.unzip(data);
     }
 
+    /**
+     * Helper method for serializing and block compressing a serializable object to a byte array.
+     */
+    protected byte[] compress(Object value) throws IOException {
+        return PooledObjectConverter.compress(value);
+    }
+
+    /**
+     * Helper method for block decompressing and deserializing a byte array to a serializable object.
+     */
+    protected Object decompress(byte[] data) throws IOException, ClassNotFoundException {
+        return PooledObjectConverter.decompress(data);
+    }
+
     /**
      * Helper method for wrapping a byte array in a container object for space storage.
      */
@@ -123,6 +123,14 @@ public class NIOConfiguration implements ITransportConfig, Cloneable, Externaliz
 
     private boolean _protocolValidationEnabled;
 
+    // Each side of a connection decides on its own whether to use direct buffers, so these are read
+    // from the local system properties also when the configuration is deserialized.
+    private transient boolean _directBuffersEnabled = Boolean.parseBoolean(System.getProperty(SystemProperties.LRMI_DIRECT_BUFFERS_ENABLED, String.valueOf(SystemProperties.LRMI_DIRECT_BUFFERS_ENABLED_DEFAULT)));
+    private transient int _directBufferSize = Integer.getInteger(SystemProperties.LRMI_DIRECT_BUFFER_SIZE, SystemProperties.LRMI_DIRECT_BUFFER_SIZE_DEFAULT);
+    private transient int _directBufferPoolSize = Integer.getInteger(SystemProperties.LRMI_DIRECT_BUFFER_POOL_SIZE, SystemProperties.LRMI_DIRECT_BUFFER_POOL_SIZE_DEFAULT);
+    private transient boolean _virtualThreadsEnabled = Boolean.parseBoolean(System.getProperty(SystemProperties.LRMI_VIRTUAL_THREADS_ENABLED, String.valueOf(SystemProperties.LRMI_VIRTUAL_THREADS_ENABLED_DEFAULT)));
+    private transient int _virtualThreadsMaxConcurrent = Integer.getInteger(SystemProperties.LRMI_VIRTUAL_THREADS_MAX_CONCURRENT, SystemProperties.LRMI_VIRTUAL_THREADS_MAX_CONCURRENT_DEFAULT);
+
     private interface BitMap {
         int MIN_THREADS = 1 << 0;
         int MAX_THREADS = 1 << 1;
@@ -726,6 +734,41 @@ public class NIOConfiguration implements ITransportConfig, Cloneable, Externaliz
         return _protocolValidationEnabled;
     }
 
+    /**
+     * @see SystemProperties#LRMI_DIRECT_BUFFERS_ENABLED
+     */
+    public boolean isDirectBuffersEnabled() {
+        return _directBuffersEnabled;
+    }
+
+    /**
+     * @see SystemProperties#LRMI_DIRECT_BUFFER_SIZE
+     */
+    public int getDirectBufferSize() {
+        return _directBufferSize;
+    }
+
+    /**
+     * @see SystemProperties#LRMI_DIRECT_BUFFER_POOL_SIZE
+     */
+    public int getDirectBufferPoolSize() {
+        return _directBufferPoolSize;
+    }
+
+    /**
+     * @see SystemProperties#LRMI_VIRTUAL_THREADS_ENABLED
+     */
+    public boolean isVirtualThreadsEnabled() {
+        return _virtualThreadsEnabled;
+    }
+
+    /**
+     * @see SystemProperties#LRMI_VIRTUAL_THREADS_MAX_CONCURRENT
+     */
+    public int getVirtualThreadsMaxConcurrent() {
+        return _virtualThreadsMaxConcurrent;
+    }
+
 
     @Override
     public String toString() {
@@ -760,6 +803,11 @@ public class NIOConfiguration implements ITransportConfig, Cloneable, Externaliz
         sb.append(", _customMinThreads=").append(_customMinThreads);
         sb.append(", _customMaxThreads=").append(_customMaxThreads);
         sb.append(", _protocolValidationEnabled=").append(_protocolValidationEnabled);
+        sb.append(", _directBuffersEnabled=").append(_directBuffersEnabled);
+        sb.append(", _directBufferSize=").append(_directBufferSize);
+        sb.append(", _directBufferPoolSize=").append(_directBufferPoolSize);
+        sb.append(", _virtualThreadsEnabled=").append(_virtualThreadsEnabled);
+        sb.append(", _virtualThreadsMaxConcurrent=").append(_virtualThreadsMaxConcurrent);
         sb.append('}');
         return sb.toString();
     }
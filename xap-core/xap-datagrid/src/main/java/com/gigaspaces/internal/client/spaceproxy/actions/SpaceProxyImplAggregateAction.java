@@ -49,7 +49,8 @@ public class SpaceProxyImplAggregateAction extends AggregateProxyAction<SpacePro
         AggregateEntriesSpaceOperationRequest request = new AggregateEntriesSpaceOperationRequest(actionInfo.queryPacket,
                 actionInfo.txn,
                 actionInfo.modifiers,
-                aggregators);
+                aggregators,
+                AggregationInternalUtils.getParallelism(actionInfo.aggregationSet));
 
         spaceProxy.getProxyRouter().execute(request);
         return request.getFinalResult(spaceProxy, actionInfo.queryPacket, actionInfo.isReturnPacket());
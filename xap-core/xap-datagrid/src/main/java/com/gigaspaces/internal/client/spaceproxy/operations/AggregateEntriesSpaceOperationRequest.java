@@ -54,6 +54,7 @@ public class AggregateEntriesSpaceOperationRequest extends SpaceOperationRequest
     private List<SpaceEntriesAggregator> aggregators;
     private Transaction txn;
     private int readModifiers;
+    private int parallelism;
 
     private transient Exception _exception;
 
@@ -64,9 +65,15 @@ public class AggregateEntriesSpaceOperationRequest extends SpaceOperationRequest
     }
 
     public AggregateEntriesSpaceOperationRequest(ITemplatePacket queryPacket, Transaction txn, int modifiers, List<SpaceEntriesAggregator> aggregators) {
+        this(queryPacket, txn, modifiers, aggregators, 0);
+    }
+
+    public AggregateEntriesSpaceOperationRequest(ITemplatePacket queryPacket, Transaction txn, int modifiers, List<SpaceEntriesAggregator> aggregators,
+                                                 int parallelism) {
         this.queryPacket = queryPacket;
         this.aggregators = aggregators;
         this.readModifiers = modifiers;
+        this.parallelism = parallelism;
         // Scanner currently does not use transactions.
         //this.txn = txn;
     }
@@ -176,6 +183,10 @@ public class AggregateEntriesSpaceOperationRequest extends SpaceOperationRequest
         return readModifiers;
     }
 
+    public int getParallelism() {
+        return parallelism;
+    }
+
     private static final short FLAG_TRANSACTION = 1 << 0;
     private static final short FLAG_MODIFIERS = 1 << 1;
 
@@ -202,6 +213,8 @@ public class AggregateEntriesSpaceOperationRequest extends SpaceOperationRequest
             if (readModifiers != DEFAULT_MODIFIERS)
                 out.writeInt(readModifiers);
         }
+        if (version.greaterOrEquals(PlatformLogicalVersion.v15_5_0))
+            out.writeInt(parallelism);
     }
 
     @Override
@@ -226,6 +239,8 @@ public class AggregateEntriesSpaceOperationRequest extends SpaceOperationRequest
         } else {
             this.readModifiers = DEFAULT_MODIFIERS;
         }
+        if (version.greaterOrEquals(PlatformLogicalVersion.v15_5_0))
+            this.parallelism = in.readInt();
     }
 
     private short buildFlags() {
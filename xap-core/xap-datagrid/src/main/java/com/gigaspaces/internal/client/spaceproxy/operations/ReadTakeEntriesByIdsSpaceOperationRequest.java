@@ -155,6 +155,12 @@ public class ReadTakeEntriesByIdsSpaceOperationRequest extends SpaceScatterGathe
         return _template.getRouting(0);
     }
 
+    @Override
+    public boolean supportsPartitionChunks() {
+        // concurrent requests to the same partition under one transaction are not chunked
+        return _transaction == null;
+    }
+
     public ReadTakeEntriesByIdsSpaceOperationResult getFinalResult() throws RemoteException, TransactionException, UnusableEntryException {
         ReadTakeEntriesByIdsSpaceOperationResult result;
         if (_results != null) {
@@ -41,6 +41,11 @@ public abstract class SpaceScatterGatherOperationRequest<TResult extends SpaceOp
         return _partitionInfo;
     }
 
+    @Override
+    public boolean supportsPartitionChunks() {
+        return false;
+    }
+
     protected int[] scatter(int[] data) {
         if (data == null)
             return null;
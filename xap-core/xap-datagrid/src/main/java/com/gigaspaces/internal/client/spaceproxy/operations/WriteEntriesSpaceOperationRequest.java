@@ -120,6 +120,12 @@ public class WriteEntriesSpaceOperationRequest extends SpaceScatterGatherOperati
         throw new IllegalStateException();
     }
 
+    @Override
+    public boolean supportsPartitionChunks() {
+        // concurrent requests to the same partition under one transaction are not chunked
+        return _txn == null;
+    }
+
     @Override
     public void scatterIndexesToPartitions(ScatterGatherOperationFutureListener<WriteEntriesSpaceOperationResult> listener) {
         for (int i = 0; i < _entriesPackets.length; i++) {
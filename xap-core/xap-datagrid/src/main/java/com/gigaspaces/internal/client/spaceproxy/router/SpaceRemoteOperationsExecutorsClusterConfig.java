@@ -35,6 +35,8 @@ public class SpaceRemoteOperationsExecutorsClusterConfig implements RemoteOperat
     private final int _threadPoolSize;
     private SpaceProxyLoadBalancerType _loadBalancerType;
     private final int _numOfOperationsTypes;
+    private final int _batchChunkSize;
+    private final int _batchMaxChunksInFlight;
 
     public SpaceRemoteOperationsExecutorsClusterConfig() {
         this(null);
@@ -50,6 +52,12 @@ public class SpaceRemoteOperationsExecutorsClusterConfig implements RemoteOperat
         this._numOfOperationsTypes = SpaceOperationsCodes.NUM_OF_OPERATIONS;
         this._loadBalancerType = PropertiesUtils.getEnum(properties, Constants.SpaceProxy.Router.LOAD_BALANCER_TYPE,
                 SpaceProxyLoadBalancerType.class, SpaceProxyLoadBalancerType.STICKY);
+        this._batchChunkSize = PropertiesUtils.getInteger(properties, Constants.SpaceProxy.Router.BATCH_CHUNK_SIZE,
+                Constants.SpaceProxy.Router.BATCH_CHUNK_SIZE_DEFAULT);
+        this._batchMaxChunksInFlight = PropertiesUtils.getInteger(properties, Constants.SpaceProxy.Router.BATCH_MAX_CHUNKS_IN_FLIGHT,
+                Constants.SpaceProxy.Router.BATCH_MAX_CHUNKS_IN_FLIGHT_DEFAULT);
+        if (_batchMaxChunksInFlight < 1)
+            throw new IllegalArgumentException(Constants.SpaceProxy.Router.BATCH_MAX_CHUNKS_IN_FLIGHT + " must be positive - " + _batchMaxChunksInFlight);
     }
 
     @Override
@@ -76,4 +84,14 @@ public class SpaceRemoteOperationsExecutorsClusterConfig implements RemoteOperat
     public int getNumOfOperationsTypes() {
         return _numOfOperationsTypes;
     }
+
+    @Override
+    public int getBatchChunkSize() {
+        return _batchChunkSize;
+    }
+
+    @Override
+    public int getBatchMaxChunksInFlight() {
+        return _batchMaxChunksInFlight;
+    }
 }
@@ -54,6 +54,7 @@ import com.gigaspaces.internal.server.space.redolog.storage.BufferedRedoLogFileS
 import com.gigaspaces.internal.server.space.redolog.storage.CacheLastRedoLogFileStorageDecorator;
 import com.gigaspaces.internal.server.space.redolog.storage.IRedoLogFileStorage;
 import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.*;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.mapped.MappedByteBufferStorageFactory;
 import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.raf.RAFByteBufferStorageFactory;
 import com.gigaspaces.internal.utils.StringUtils;
 import com.gigaspaces.internal.utils.collections.CopyOnUpdateMap;
@@ -66,6 +67,7 @@ import com.gigaspaces.metrics.Gauge;
 import com.gigaspaces.metrics.MetricRegistrator;
 import com.j_spaces.core.cluster.RedoLogCompaction;
 import com.j_spaces.core.cluster.SwapBacklogConfig;
+import com.j_spaces.core.cluster.SwapRedoLogStorageType;
 import com.j_spaces.core.cluster.startup.CompactionResult;
 import com.j_spaces.core.exception.internal.ReplicationInternalSpaceException;
 import com.j_spaces.kernel.JSpaceUtilities;
@@ -356,11 +358,18 @@ public abstract class AbstractSingleFileGroupBacklog<T extends IReplicationOrder
         return new MemoryRedoLogFile<T>(_name, this);
     }
 
+    private IByteBufferStorageFactory createByteBufferStorageFactory(SwapBacklogConfig swapBacklogConfig) {
+        String fileName = "redolog_" + _name.replace(":", "_");
+        if (swapBacklogConfig.getStorageType() == SwapRedoLogStorageType.MAPPED)
+            return new MappedByteBufferStorageFactory(fileName, swapBacklogConfig.getMappedWindowSize());
+
+        return new RAFByteBufferStorageFactory(fileName);
+    }
+
     private IRedoLogFile<T> createSwapBacklog(SourceGroupConfig groupConfig) {
         BacklogConfig backlogConfig = groupConfig.getBacklogConfig();
         SwapBacklogConfig swapBacklogConfig = backlogConfig.getSwapBacklogConfig();
-        IByteBufferStorageFactory byteBufferStorageProvider = new RAFByteBufferStorageFactory("redolog_"
-                + _name.replace(":", "_"));
+        IByteBufferStorageFactory byteBufferStorageProvider = createByteBufferStorageFactory(swapBacklogConfig);
         // Configure ByteBufferRedoLogFile
         ByteBufferRedoLogFileConfig<T> storageConfig = new ByteBufferRedoLogFileConfig<T>();
         storageConfig.setMaxSizePerSegment(swapBacklogConfig.getSegmentSize());
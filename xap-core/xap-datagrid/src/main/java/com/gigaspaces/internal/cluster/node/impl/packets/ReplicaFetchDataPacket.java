@@ -45,6 +45,14 @@ public class ReplicaFetchDataPacket
         _fetchBatchSize = fetchBatchSize;
     }
 
+    public int getFetchBatchSize() {
+        return _fetchBatchSize;
+    }
+
+    public void setFetchBatchSize(int fetchBatchSize) {
+        _fetchBatchSize = fetchBatchSize;
+    }
+
     public Collection<ISpaceReplicaData> accept(IIncomingReplicationFacade incomingReplicationFacade) {
         return incomingReplicationFacade.getNextReplicaBatch(_replicaRemoteContext, _fetchBatchSize);
     }
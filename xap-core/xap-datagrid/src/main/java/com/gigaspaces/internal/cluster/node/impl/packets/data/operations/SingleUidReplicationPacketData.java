@@ -25,8 +25,11 @@ import com.gigaspaces.internal.cluster.node.impl.packets.data.filters.Replicatio
 import com.gigaspaces.internal.io.IOUtils;
 import com.gigaspaces.internal.metadata.ITypeDesc;
 import com.gigaspaces.internal.server.metadata.IServerTypeDesc;
+import com.gigaspaces.internal.server.space.CompactUid;
 import com.gigaspaces.internal.server.space.metadata.SpaceTypeManager;
 import com.gigaspaces.internal.server.storage.IEntryData;
+import com.gigaspaces.internal.version.PlatformLogicalVersion;
+import com.gigaspaces.lrmi.LRMIInvocationContext;
 import com.j_spaces.core.OperationID;
 import com.j_spaces.core.cluster.IReplicationFilterEntry;
 import com.j_spaces.core.cluster.ReplicationFilterException;
@@ -81,13 +84,16 @@ public abstract class SingleUidReplicationPacketData extends AbstractReplication
     public void readExternal(ObjectInput in) throws IOException,
             ClassNotFoundException {
         super.readExternal(in);
-        readExternalImpl(in);
+        readExternalImpl(in, LRMIInvocationContext.getEndpointLogicalVersion());
         _transient = in.readBoolean();
     }
 
-    private final void readExternalImpl(ObjectInput in) throws IOException,
+    private final void readExternalImpl(ObjectInput in, PlatformLogicalVersion version) throws IOException,
             ClassNotFoundException {
-        _uid = IOUtils.readString(in);
+        if (version.greaterOrEquals(PlatformLogicalVersion.v15_5_0))
+            _uid = CompactUid.readUid(in);
+        else
+            _uid = IOUtils.readString(in);
         _operationID = IOUtils.readObject(in);
     }
 
@@ -95,27 +101,30 @@ public abstract class SingleUidReplicationPacketData extends AbstractReplication
     public void readFromSwap(ObjectInput in) throws IOException,
             ClassNotFoundException {
         super.readFromSwap(in);
-        readExternalImpl(in);
+        readExternalImpl(in, PlatformLogicalVersion.getLogicalVersion());
         _transient = in.readBoolean();
         _entryData = deserializeEntryData(in);
     }
 
     public void writeExternal(ObjectOutput out) throws IOException {
         super.writeExternal(out);
-        writeExternalImpl(out);
+        writeExternalImpl(out, LRMIInvocationContext.getEndpointLogicalVersion());
         out.writeBoolean(_transient);
     }
 
     @Override
     public void writeToSwap(ObjectOutput out) throws IOException {
         super.writeToSwap(out);
-        writeExternalImpl(out);
+        writeExternalImpl(out, PlatformLogicalVersion.getLogicalVersion());
         out.writeBoolean(_transient);
         serializeEntryData(_entryData, out);
     }
 
-    private final void writeExternalImpl(ObjectOutput out) throws IOException {
-        IOUtils.writeString(out, _uid);
+    private final void writeExternalImpl(ObjectOutput out, PlatformLogicalVersion version) throws IOException {
+        if (version.greaterOrEquals(PlatformLogicalVersion.v15_5_0))
+            CompactUid.writeUid(out, _uid);
+        else
+            IOUtils.writeString(out, _uid);
         IOUtils.writeObject(out, _operationID);
     }
 
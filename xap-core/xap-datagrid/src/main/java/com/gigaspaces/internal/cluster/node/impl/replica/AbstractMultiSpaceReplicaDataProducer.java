@@ -16,12 +16,16 @@
 
 package com.gigaspaces.internal.cluster.node.impl.replica;
 
+import com.gigaspaces.internal.cluster.node.impl.replica.data.AbstractEntryReplicaData;
 import com.gigaspaces.internal.cluster.node.replica.SpaceCopyReplicaParameters;
 import com.gigaspaces.internal.server.space.SpaceEngine;
+import com.gigaspaces.internal.transport.ITemplatePacket;
 import com.gigaspaces.internal.utils.StringUtils;
 import com.gigaspaces.logger.Constants;
+import com.j_spaces.kernel.SystemProperties;
 
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
 
@@ -56,6 +60,18 @@ public abstract class AbstractMultiSpaceReplicaDataProducer
     protected abstract List<ISingleStageReplicaDataProducer<? extends IExecutableSpaceReplicaData>> buildDataProducers(
             SpaceCopyReplicaParameters parameters);
 
+    /**
+     * Creates the producer of the entries matching the template, the entries of the whole space
+     * are split into concurrent streams if enabled.
+     */
+    protected ISingleStageReplicaDataProducer<AbstractEntryReplicaData> createEntryReplicaProducer(
+            SpaceCopyReplicaParameters parameters, ITemplatePacket templatePacket) {
+        if (templatePacket == null && Boolean.parseBoolean(System.getProperty(SystemProperties.REPLICATION_REPLICA_MULTI_STREAM,
+                SystemProperties.REPLICATION_REPLICA_MULTI_STREAM_DEFAULT)))
+            return new MultiStreamEntryReplicaProducer(_engine, parameters, _requestContext);
+        return new EntryReplicaProducer(_engine, parameters, templatePacket, _requestContext);
+    }
+
     public IExecutableSpaceReplicaData produceNextData(ISynchronizationCallback synchCallback) {
         if (_closed)
             return null;
@@ -105,14 +121,30 @@ public abstract class AbstractMultiSpaceReplicaDataProducer
     protected void onClose() {
     }
 
+    public void onBatchProduced() {
+        for (ISingleStageReplicaDataProducer<? extends IExecutableSpaceReplicaData> dataProducer : _dataProducers) {
+            if (dataProducer instanceof MultiStreamEntryReplicaProducer)
+                ((MultiStreamEntryReplicaProducer) dataProducer).releaseStream();
+        }
+    }
+
+    public boolean isConcurrentBatchesSupported() {
+        final int currentProducer = _currentProducer;
+        return currentProducer < _dataProducers.size()
+                && _dataProducers.get(currentProducer) instanceof MultiStreamEntryReplicaProducer;
+    }
+
     public CurrentStageInfo nextReplicaStage() {
         boolean isLast = _currentProducer == (_dataProducers.size() - 1);
-        String currentProducerName = _dataProducers.get(_currentProducer).getName();
+        ISingleStageReplicaDataProducer<? extends IExecutableSpaceReplicaData> currentProducer = _dataProducers.get(_currentProducer);
+        String currentProducerName = currentProducer.getName();
+        Map<String, Integer> streamsProgress = currentProducer instanceof MultiStreamEntryReplicaProducer
+                ? ((MultiStreamEntryReplicaProducer) currentProducer).getStreamsProgress() : null;
         if (!isLast)
             _currentProducer++;
         String nextProducerName = isLast ? null : _dataProducers.get(_currentProducer).getName();
 
-        return new CurrentStageInfo(currentProducerName, nextProducerName, isLast);
+        return new CurrentStageInfo(currentProducerName, nextProducerName, isLast, streamsProgress);
     }
 
     protected String getLogPrefix() {
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.internal.cluster.node.impl.replica;
+
+/**
+ * Adapts the size of the replica batches fetched by a consumer to the measured throughput: the
+ * size grows while the throughput does not degrade and backs off when it does, between the initial
+ * size and the max size. Not thread safe, each consumer has its own instance.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class AdaptiveReplicaBatchSize {
+    // throughput may fluctuate a little without being considered as degraded
+    private static final double DEGRADATION_TOLERANCE = 0.9;
+
+    private final int _minBatchSize;
+    private final int _maxBatchSize;
+    private int _batchSize;
+    private double _lastThroughput;
+
+    public AdaptiveReplicaBatchSize(int initialBatchSize, int maxBatchSize) {
+        _minBatchSize = initialBatchSize;
+        _maxBatchSize = Math.max(initialBatchSize, maxBatchSize);
+        _batchSize = initialBatchSize;
+    }
+
+    public int getBatchSize() {
+        return _batchSize;
+    }
+
+    /**
+     * Records a completed fetch and computes the size of the next one.
+     *
+     * @param requestedSize the batch size requested
+     * @param receivedSize  the number of items received
+     * @param duration      the fetch duration in nanoseconds
+     * @return the size of the next batch
+     */
+    public int onBatchCompleted(int requestedSize, int receivedSize, long duration) {
+        // a partial batch is the end of the stage, its throughput is not representative
+        if (receivedSize < requestedSize)
+            return _batchSize;
+
+        final double throughput = receivedSize / (double) Math.max(duration, 1);
+        if (throughput >= _lastThroughput * DEGRADATION_TOLERANCE)
+            _batchSize = Math.min(_maxBatchSize, _batchSize + Math.max(1, _batchSize / 2));
+        else
+            _batchSize = Math.max(_minBatchSize, _batchSize * 3 / 4);
+        _lastThroughput = throughput;
+        return _batchSize;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveReplicaBatchSize [batchSize=" + _batchSize + ", min=" + _minBatchSize + ", max=" + _maxBatchSize + "]";
+    }
+}
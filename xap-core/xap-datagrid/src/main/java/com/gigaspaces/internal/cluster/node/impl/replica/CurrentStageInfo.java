@@ -17,11 +17,15 @@
 package com.gigaspaces.internal.cluster.node.impl.replica;
 
 import com.gigaspaces.internal.io.IOUtils;
+import com.gigaspaces.internal.version.PlatformLogicalVersion;
+import com.gigaspaces.lrmi.LRMIInvocationContext;
 
 import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * @since 9.0.1
@@ -34,14 +38,20 @@ public class CurrentStageInfo implements Externalizable {
     private String _stageName;
     private String _nextStageName;
     private boolean _isLastStage;
+    private Map<String, Integer> _streamsProgress;
 
     public CurrentStageInfo() {
     }
 
     public CurrentStageInfo(String stageName, String nextStageName, boolean isLastStage) {
+        this(stageName, nextStageName, isLastStage, null);
+    }
+
+    public CurrentStageInfo(String stageName, String nextStageName, boolean isLastStage, Map<String, Integer> streamsProgress) {
         this._stageName = stageName;
         this._nextStageName = nextStageName;
         this._isLastStage = isLastStage;
+        this._streamsProgress = streamsProgress;
     }
 
     public String getStageName() {
@@ -56,11 +66,31 @@ public class CurrentStageInfo implements Externalizable {
         return _isLastStage;
     }
 
+    /**
+     * @return the number of items each stream of the completed stage produced, keyed by stream
+     * name, or null if the stage was not split into streams
+     * @since 15.5
+     */
+    public Map<String, Integer> getStreamsProgress() {
+        return _streamsProgress;
+    }
+
     @Override
     public void writeExternal(ObjectOutput out) throws IOException {
         IOUtils.writeString(out, _stageName);
         IOUtils.writeString(out, _nextStageName);
         out.writeBoolean(_isLastStage);
+        if (LRMIInvocationContext.getEndpointLogicalVersion().greaterOrEquals(PlatformLogicalVersion.v15_5_0)) {
+            if (_streamsProgress == null) {
+                out.writeInt(-1);
+            } else {
+                out.writeInt(_streamsProgress.size());
+                for (Map.Entry<String, Integer> entry : _streamsProgress.entrySet()) {
+                    IOUtils.writeString(out, entry.getKey());
+                    out.writeInt(entry.getValue());
+                }
+            }
+        }
     }
 
     @Override
@@ -68,6 +98,14 @@ public class CurrentStageInfo implements Externalizable {
         this._stageName = IOUtils.readString(in);
         this._nextStageName = IOUtils.readString(in);
         this._isLastStage = in.readBoolean();
+        if (LRMIInvocationContext.getEndpointLogicalVersion().greaterOrEquals(PlatformLogicalVersion.v15_5_0)) {
+            int size = in.readInt();
+            if (size >= 0) {
+                _streamsProgress = new LinkedHashMap<String, Integer>(size);
+                for (int i = 0; i < size; i++)
+                    _streamsProgress.put(IOUtils.readString(in), in.readInt());
+            }
+        }
     }
 
 }
@@ -20,4 +20,16 @@ package com.gigaspaces.internal.cluster.node.impl.replica;
 public interface ISpaceReplicaDataProducer<T extends ISpaceReplicaData> extends ISingleStageReplicaDataProducer<T> {
     public CurrentStageInfo nextReplicaStage();
 
+    /**
+     * Called by the thread which produced a replica batch once the batch is complete, so resources
+     * held for the batch (e.g. a stream) can be released.
+     */
+    public void onBatchProduced();
+
+    /**
+     * @return true if the current stage can produce batches for several threads concurrently,
+     * otherwise batches must be produced one at a time so fifo batch ids follow the production order
+     */
+    public boolean isConcurrentBatchesSupported();
+
 }
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.internal.cluster.node.impl.replica;
+
+import com.gigaspaces.internal.cluster.node.impl.replica.data.AbstractEntryReplicaData;
+import com.gigaspaces.internal.cluster.node.replica.SpaceCopyReplicaParameters;
+import com.gigaspaces.internal.server.metadata.IServerTypeDesc;
+import com.gigaspaces.internal.server.space.SpaceEngine;
+import com.gigaspaces.internal.transport.TemplatePacket;
+import com.gigaspaces.logger.Constants;
+import com.j_spaces.core.cluster.IReplicationFilterEntry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Produces the entries of the space split into streams, one {@link EntryReplicaProducer} per top
+ * level type, so concurrent replica batch requests are served from different streams in parallel.
+ *
+ * A stream is held by the producing thread until {@link #releaseStream()} is called at the end of
+ * the batch, so the entries of a type are never interleaved between batches (which keeps fifo
+ * batches in order).
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class MultiStreamEntryReplicaProducer
+        implements ISingleStageReplicaDataProducer<AbstractEntryReplicaData> {
+    protected final static Logger _logger = Logger.getLogger(Constants.LOGGER_REPLICATION_REPLICA);
+
+    private final SpaceEngine _engine;
+    private final Stream[] _streams;
+    private final AtomicInteger _nextStream = new AtomicInteger();
+    private final ThreadLocal<Stream> _currentStream = new ThreadLocal<Stream>();
+
+    public MultiStreamEntryReplicaProducer(SpaceEngine engine, SpaceCopyReplicaParameters parameters, Object requestContext) {
+        this(engine, createStreamProducers(engine, parameters, requestContext));
+        if (_logger.isLoggable(Level.FINER))
+            _logger.finer(engine.getReplicationNode() + "context [" + requestContext + "] created " + _streams.length + " entries replica streams " + getStreamsProgress().keySet());
+    }
+
+    /**
+     * @param streamProducers the producer of each stream, keyed by the stream type name
+     */
+    MultiStreamEntryReplicaProducer(SpaceEngine engine, Map<String, ? extends ISingleStageReplicaDataProducer<AbstractEntryReplicaData>> streamProducers) {
+        _engine = engine;
+        _streams = new Stream[streamProducers.size()];
+        int i = 0;
+        for (Map.Entry<String, ? extends ISingleStageReplicaDataProducer<AbstractEntryReplicaData>> entry : streamProducers.entrySet())
+            _streams[i++] = new Stream(entry.getKey(), entry.getValue());
+    }
+
+    private static Map<String, EntryReplicaProducer> createStreamProducers(SpaceEngine engine, SpaceCopyReplicaParameters parameters, Object requestContext) {
+        List<IServerTypeDesc> streamTypes = new ArrayList<IServerTypeDesc>();
+        Collection<IServerTypeDesc> types = engine.getTypeManager().getSafeTypeTable().values();
+        collectStreamTypes(types, IServerTypeDesc.ROOT_TYPE_NAME, streamTypes);
+
+        Map<String, EntryReplicaProducer> streamProducers = new LinkedHashMap<String, EntryReplicaProducer>();
+        for (IServerTypeDesc typeDesc : streamTypes)
+            streamProducers.put(typeDesc.getTypeName(),
+                    new EntryReplicaProducer(engine, parameters, new TemplatePacket(typeDesc.getTypeDesc()), requestContext));
+        return streamProducers;
+    }
+
+    /**
+     * Collects the highest active types under the specified type, each one covers its sub types so
+     * the streams do not overlap. Inactive types hold no entries, so their sub types are used.
+     */
+    private static void collectStreamTypes(Collection<IServerTypeDesc> types, String superTypeName, List<IServerTypeDesc> result) {
+        for (IServerTypeDesc typeDesc : types) {
+            IServerTypeDesc[] superTypes = typeDesc.getSuperTypes();
+            if (superTypes.length < 2 || !superTypes[1].getTypeName().equals(superTypeName) || result.contains(typeDesc))
+                continue;
+            if (typeDesc.isActive())
+                result.add(typeDesc);
+            else
+                collectStreamTypes(types, typeDesc.getTypeName(), result);
+        }
+    }
+
+    /**
+     * Produces the next entry from the stream held by the calling thread, acquiring a stream if
+     * none is held or if the held stream is exhausted.
+     */
+    public AbstractEntryReplicaData produceNextData(ISynchronizationCallback synchCallback) {
+        while (true) {
+            Stream stream = _currentStream.get();
+            if (stream == null) {
+                stream = acquireStream();
+                if (stream == null)
+                    return null;
+                _currentStream.set(stream);
+            }
+            AbstractEntryReplicaData data = stream.produceNextData(synchCallback);
+            if (data != null)
+                return data;
+            // continue the batch from another stream
+            releaseStream();
+        }
+    }
+
+    /**
+     * Releases the stream held by the calling thread, called once the batch is complete.
+     */
+    public void releaseStream() {
+        Stream stream = _currentStream.get();
+        if (stream == null)
+            return;
+        _currentStream.remove();
+        stream._lock.unlock();
+    }
+
+    private Stream acquireStream() {
+        final int start = _nextStream.getAndIncrement() & Integer.MAX_VALUE;
+        Stream pending = null;
+        for (int i = 0; i < _streams.length; i++) {
+            Stream stream = _streams[(start + i) % _streams.length];
+            if (stream._exhausted)
+                continue;
+            if (stream._lock.tryLock()) {
+                if (!stream._exhausted)
+                    return stream;
+                stream._lock.unlock();
+            } else if (pending == null) {
+                pending = stream;
+            }
+        }
+        if (pending == null)
+            return null;
+        // all the remaining streams are held, wait for one of them instead of ending the stage
+        pending._lock.lock();
+        if (!pending._exhausted)
+            return pending;
+        pending._lock.unlock();
+        return acquireStream();
+    }
+
+    public CloseStatus close(boolean forced) {
+        for (Stream stream : _streams)
+            stream._producer.close(forced);
+        return CloseStatus.CLOSED;
+    }
+
+    public IReplicationFilterEntry toFilterEntry(AbstractEntryReplicaData data) {
+        return data.toFilterEntry(_engine.getTypeManager());
+    }
+
+    /**
+     * @return the number of entries produced by each stream, keyed by the stream type name
+     */
+    public Map<String, Integer> getStreamsProgress() {
+        Map<String, Integer> progress = new LinkedHashMap<String, Integer>();
+        for (Stream stream : _streams)
+            progress.put(stream._typeName, stream._produced);
+        return progress;
+    }
+
+    public String dumpState() {
+        StringBuilder dump = new StringBuilder("Multi stream entries replica producer: streams [" + _streams.length + "]");
+        for (Stream stream : _streams)
+            dump.append(" [").append(stream._typeName).append(": ").append(stream._producer.dumpState()).append("]");
+        return dump.toString();
+    }
+
+    @Override
+    public String getName() {
+        return "MultiStreamEntryReplicaProducer";
+    }
+
+    private static class Stream {
+        private final String _typeName;
+        private final ISingleStageReplicaDataProducer<AbstractEntryReplicaData> _producer;
+        private final ReentrantLock _lock = new ReentrantLock();
+        private volatile boolean _exhausted;
+        // updated by the thread holding the stream lock
+        private volatile int _produced;
+
+        private Stream(String typeName, ISingleStageReplicaDataProducer<AbstractEntryReplicaData> producer) {
+            _typeName = typeName;
+            _producer = producer;
+        }
+
+        private AbstractEntryReplicaData produceNextData(ISynchronizationCallback synchCallback) {
+            AbstractEntryReplicaData data = _producer.produceNextData(synchCallback);
+            if (data == null)
+                _exhausted = true;
+            else
+                _produced++;
+            return data;
+        }
+    }
+}
@@ -47,7 +47,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -70,7 +72,11 @@ public class ReplicationNodeReplicaHandler {
     private final boolean _isFiltered;
     private int _lastContextId;
     private volatile DirectPersistencyBackupSyncIteratorHandler _directPersistencyBackupSyncIteratorHandler;
-    private final ReentrantLock _lock;
+    // batches of a concurrent stage are produced under the read lock so concurrent consumers are
+    // served in parallel, other batches, stage changes, creating and clearing replica requests
+    // require the write lock
+    private final Lock _lock;
+    private final Lock _batchLock;
     private final SpaceEngine _spaceEngine;
     private volatile SpaceReplicaFifoBatchesHandler _fifoBatchesHandler;
 
@@ -83,7 +89,9 @@ public class ReplicationNodeReplicaHandler {
         _replicaDataProducerBuilder = replicaDataProducerBuilder;
         _outFilter = outFilter;
         _isFiltered = (_outFilter != null);
-        _lock = new ReentrantLock();
+        ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock();
+        _lock = rwLock.writeLock();
+        _batchLock = rwLock.readLock();
         if (_replicaDataProducerBuilder != null && (_replicaDataProducerBuilder instanceof SpaceReplicaDataProducerBuilder))
             _spaceEngine = ((SpaceReplicaDataProducerBuilder)(_replicaDataProducerBuilder)).getSpaceEngine();
         else
@@ -209,7 +217,8 @@ public class ReplicationNodeReplicaHandler {
 
     public Collection<ISpaceReplicaData> getNextReplicaBatch(
             final Object context, int batchSize) {
-        _lock.lock();
+        final Lock lock = lockForBatch(context);
+        ISpaceReplicaDataProducer producer = null;
         try {
             if (_logger.isLoggable(Level.FINEST))
                 _logger.finest(_replicationNode.getLogPrefix() + "context ["
@@ -244,15 +253,15 @@ public class ReplicationNodeReplicaHandler {
                 }
             };
 
+            producer = replicaData.getProducer();
             SpaceReplicaBatch result = new SpaceReplicaBatch(batchSize);
             boolean isFifoBatch = false;
             while (result.size() < batchSize) {
-                ISpaceReplicaData data = replicaData.getProducer().produceNextData(syncCallback);
+                ISpaceReplicaData data = producer.produceNextData(syncCallback);
                 if (data == null)
                     break;
                 if (_isFiltered && data.supportsReplicationFilter()) {
-                    IReplicationFilterEntry filterEntry = replicaData.getProducer()
-                            .toFilterEntry(data);
+                    IReplicationFilterEntry filterEntry = producer.toFilterEntry(data);
                     _outFilter.filterOut(filterEntry,
                             replicaData.getOriginLookupName());
                     // If filtered, we continue without adding this data
@@ -281,10 +290,36 @@ public class ReplicationNodeReplicaHandler {
         }
         finally
         {
-            _lock.unlock();
+            // release the producer stream only after the fifo id is set, so fifo batches of a
+            // stream are numbered in the order they were produced
+            if (producer != null)
+                producer.onBatchProduced();
+            lock.unlock();
         }
     }
 
+    /**
+     * Locks the production of a batch of the specified context. Only a stage which supports it
+     * produces batches concurrently, under the read lock. Other stages are served one batch at a
+     * time under the write lock, otherwise a batch which completes first could get a lower fifo id
+     * than a batch holding earlier entries. Stage changes take the write lock, so the stage cannot
+     * change while a batch is produced.
+     */
+    private Lock lockForBatch(Object context) {
+        _batchLock.lock();
+        boolean concurrent = false;
+        try {
+            concurrent = getReplicaContext(context).getProducer().isConcurrentBatchesSupported();
+        } finally {
+            if (!concurrent)
+                _batchLock.unlock();
+        }
+        if (concurrent)
+            return _batchLock;
+        _lock.lock();
+        return _lock;
+    }
+
     private boolean isFifoType(ISpaceReplicaData data) {
         if (data.isEntryReplicaData()) {
             CacheManager cacheManager = _spaceEngine.getCacheManager();
@@ -310,7 +345,13 @@ public class ReplicationNodeReplicaHandler {
     public CurrentStageInfo nextReplicaState(Object context) {
         ReplicaRequestData replicaData = getReplicaContext(context);
 
-        CurrentStageInfo currentStage = replicaData.getProducer().nextReplicaStage();
+        final CurrentStageInfo currentStage;
+        _lock.lock();
+        try {
+            currentStage = replicaData.getProducer().nextReplicaStage();
+        } finally {
+            _lock.unlock();
+        }
         if (currentStage.isLastStage()) {
             if (_logger.isLoggable(Level.FINER))
                 _logger.finer(_replicationNode.getLogPrefix() + "context ["
@@ -462,7 +503,7 @@ public class ReplicationNodeReplicaHandler {
         private final ISpaceReplicaDataProducer<? extends ISpaceReplicaData> _producer;
         private final boolean _synchronizeReplica;
         private volatile long _lastTouched;
-        private int _fifoIdGenerator = 0;
+        private final AtomicInteger _fifoIdGenerator = new AtomicInteger();
 
         public ReplicaRequestData(
                 String groupName,
@@ -501,7 +542,7 @@ public class ReplicationNodeReplicaHandler {
         }
 
         public int nextFifoBatchId() {
-            return ++_fifoIdGenerator;
+            return _fifoIdGenerator.incrementAndGet();
         }
 
         @Override
@@ -66,7 +66,7 @@ public class SpaceCopyReplicaDataProducer
         if (_logger.isLoggable(Level.FINEST))
             _logger.finest(_engine.getReplicationNode() + "created SpaceTypeReplicaDataProducer");
         for (ITemplatePacket templatePacket : parameters.getTemplatePackets()) {
-            dataProducers.add(new EntryReplicaProducer(_engine, parameters, templatePacket, _requestContext));
+            dataProducers.add(createEntryReplicaProducer(parameters, templatePacket));
             if (_logger.isLoggable(Level.FINEST))
                 _logger.finest(getLogPrefix() + "created EntryReplicaProducer for templatePacket " + templatePacket);
         }
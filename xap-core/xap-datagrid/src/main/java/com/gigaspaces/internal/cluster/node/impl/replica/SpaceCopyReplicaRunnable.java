@@ -30,6 +30,7 @@ import com.gigaspaces.internal.utils.concurrent.IAsyncHandlerProvider.CycleResul
 import com.gigaspaces.logger.Constants;
 import com.gigaspaces.time.SystemTime;
 import com.j_spaces.core.cluster.IReplicationFilterEntry;
+import com.j_spaces.kernel.SystemProperties;
 
 import java.util.Collection;
 import java.util.concurrent.ExecutionException;
@@ -62,6 +63,8 @@ public class SpaceCopyReplicaRunnable
     private final CyclicAtomicInteger _orderProvider;
     private volatile boolean _aborted;
     private volatile long _lastIterationTimeStamp = SystemTime.timeMillis();
+    private final AdaptiveReplicaBatchSize _adaptiveBatchSize;
+    private volatile long _dispatchTime;
 
     public SpaceCopyReplicaRunnable(ReplicationNode replicationNode, IReplicationMonitoredConnection originConnection,
                                     ISpaceReplicaDataConsumer replicaDataProcessor,
@@ -79,6 +82,11 @@ public class SpaceCopyReplicaRunnable
         _fetchDataPacket = new ReplicaFetchDataPacket(replicaRemoteContext,
                 fetchBatchSize);
         _intermediateResult = _replicaDataProducer.createEmptyResult();
+        _adaptiveBatchSize = Boolean.parseBoolean(System.getProperty(SystemProperties.REPLICATION_REPLICA_ADAPTIVE_BATCH_SIZE,
+                SystemProperties.REPLICATION_REPLICA_ADAPTIVE_BATCH_SIZE_DEFAULT))
+                ? new AdaptiveReplicaBatchSize(fetchBatchSize, Integer.getInteger(SystemProperties.REPLICATION_REPLICA_MAX_BATCH_SIZE,
+                SystemProperties.REPLICATION_REPLICA_MAX_BATCH_SIZE_DEFAULT))
+                : null;
     }
 
     public ISpaceCopyIntermediateResult getIntermediateResult() {
@@ -90,6 +98,7 @@ public class SpaceCopyReplicaRunnable
             if (_aborted)
                 throw new ReplicaAbortedException();
 
+            _dispatchTime = System.nanoTime();
             AsyncFuture<Collection<ISpaceReplicaData>> future = _originConnection.dispatchAsync(_fetchDataPacket);
             future.setListener(this);
             return CycleResult.SUSPEND;
@@ -147,6 +156,8 @@ public class SpaceCopyReplicaRunnable
                     stageName = stageInfo.getStageName();
                     hasMoreStages = !stageInfo.isLastStage();
                     nextStageName = stageInfo.getNextStageName();
+                    if (stageInfo.getStreamsProgress() != null && _logger.isLoggable(Level.FINE))
+                        _logger.fine(_replicationNode.getLogPrefix() + " stage [" + stageName + "] streams progress " + stageInfo.getStreamsProgress());
                 }
 
                 if (hasMoreStages) {
@@ -161,6 +172,8 @@ public class SpaceCopyReplicaRunnable
                     _state.signalEntireCopyStageDoneSucessfully();
                 }
             } else {
+                if (_adaptiveBatchSize != null)
+                    adaptBatchSize(result.getResult().size());
                 if (result.getResult() instanceof SpaceReplicaBatch) {
                     SpaceReplicaBatch batch = (SpaceReplicaBatch) result.getResult();
                     if (batch.isFifoBatch()) {
@@ -180,6 +193,16 @@ public class SpaceCopyReplicaRunnable
         }
     }
 
+    private void adaptBatchSize(int receivedSize) {
+        final int requestedSize = _fetchDataPacket.getFetchBatchSize();
+        final int nextSize = _adaptiveBatchSize.onBatchCompleted(requestedSize, receivedSize, System.nanoTime() - _dispatchTime);
+        if (nextSize != requestedSize) {
+            _fetchDataPacket.setFetchBatchSize(nextSize);
+            if (_logger.isLoggable(Level.FINEST))
+                _logger.finest(_replicationNode.getLogPrefix() + " replica fetch batch size changed from " + requestedSize + " to " + nextSize);
+        }
+    }
+
     protected void processBatch(Collection<ISpaceReplicaData> copiedData, boolean resumeNow) {
         try {
             _lastIterationTimeStamp = SystemTime.timeMillis();
@@ -54,7 +54,7 @@ public class SynchronizeReplicaDataProducer
             if (parameters.getSynchronizationListFetcher() != null) {
                 dataProducers.add(new DirectPersisntecyEntryReplicaProducer(_engine, parameters, templatePacket, _requestContext));
             } else {
-                dataProducers.add(new EntryReplicaProducer(_engine, parameters, templatePacket, _requestContext));
+                dataProducers.add(createEntryReplicaProducer(parameters, templatePacket));
             }
             if (_logger.isLoggable(Level.FINEST))
                 _logger.finest(_engine.getReplicationNode() + "created EntryReplicaProducer for templatePacket " + templatePacket);
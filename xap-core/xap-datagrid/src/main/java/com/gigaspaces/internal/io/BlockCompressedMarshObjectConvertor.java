@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.internal.io;
+
+import com.gigaspaces.internal.utils.pool.IMemoryAwareResourcePool;
+import com.j_spaces.kernel.pool.Resource;
+
+import java.io.IOException;
+
+/**
+ * A {@link CompressedMarshObjectConvertor} variant which compresses the serialized object with a
+ * fast block compression codec instead of zip. Objects which serialize to less than the threshold
+ * are kept uncompressed.
+ *
+ * Notice! this implementation is not Thread safe and should be use in conjunction with {@link
+ * com.j_spaces.kernel.pool.ResourcePool} only.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class BlockCompressedMarshObjectConvertor extends Resource implements MarshObjectConvertorResource {
+    private final MarshObjectConvertor _convertor;
+    private final BlockCompressionCodec _codec;
+    private final int _threshold;
+
+    public BlockCompressedMarshObjectConvertor(BlockCompressionCodec codec, int threshold) {
+        this(codec, threshold, null, ObjectInputStreamFactory.Default.instance);
+    }
+
+    public BlockCompressedMarshObjectConvertor(BlockCompressionCodec codec, int threshold, IMemoryAwareResourcePool resourcePool,
+                                               ObjectInputStreamFactory objectInputStreamFactory) {
+        this._convertor = new MarshObjectConvertor(resourcePool, objectInputStreamFactory);
+        this._codec = codec;
+        this._threshold = threshold;
+    }
+
+    @Override
+    public byte[] toBinary(Object o) throws IOException {
+        return _codec.encode(_convertor.toBinary(o), _threshold);
+    }
+
+    @Override
+    public Object fromBinary(byte[] data) throws IOException, ClassNotFoundException {
+        return _convertor.fromBinary(_codec.decode(data));
+    }
+
+    @Override
+    public void clear() {
+        _convertor.clear();
+    }
+
+    @Override
+    public long getUsedMemory() {
+        return _convertor.getUsedMemory();
+    }
+}
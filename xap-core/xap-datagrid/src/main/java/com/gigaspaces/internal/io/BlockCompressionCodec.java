@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.io;
+
+import com.gigaspaces.internal.backport.java.util.concurrent.atomic.LongAdder;
+
+import java.io.IOException;
+
+/**
+ * A block compression codec, compressing each buffer on its own (no state is kept between buffers)
+ * which makes it usable for independent network packets and stored values.
+ *
+ * Encoded blocks start with a flag byte: blocks smaller than the threshold, or which do not shrink,
+ * are stored raw after the flag, otherwise the flag is followed by the original length and the
+ * compressed data. Implementations are thread safe.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public abstract class BlockCompressionCodec {
+
+    public static final String LZ4 = "lz4";
+    public static final String ZSTD = "zstd";
+
+    private static final byte RAW = 0;
+    private static final byte COMPRESSED = 1;
+    private static final int HEADER_LENGTH = 5;
+
+    private final String _name;
+    private final LongAdder _uncompressedBytes = new LongAdder();
+    private final LongAdder _compressedBytes = new LongAdder();
+    private final LongAdder _rawBlocks = new LongAdder();
+    private final LongAdder _compressTime = new LongAdder();
+    private final LongAdder _decompressTime = new LongAdder();
+
+    protected BlockCompressionCodec(String name) {
+        this._name = name;
+    }
+
+    /**
+     * Returns the codec registered under the specified name.
+     *
+     * @throws IllegalArgumentException if the codec is unknown or not available in this JVM
+     */
+    public static BlockCompressionCodec forName(String name) {
+        if (LZ4.equalsIgnoreCase(name))
+            return LZ4BlockCodec.INSTANCE;
+        if (ZSTD.equalsIgnoreCase(name)) {
+            BlockCompressionCodec codec = ZstdBlockCodec.getInstance();
+            if (codec == null)
+                throw new IllegalArgumentException("Compression codec [" + name + "] requires zstd-jni (com.github.luben:zstd-jni) in the classpath");
+            return codec;
+        }
+        throw new IllegalArgumentException("Unknown compression codec [" + name + "], supported codecs are [" + LZ4 + ", " + ZSTD + "]");
+    }
+
+    public String getName() {
+        return _name;
+    }
+
+    /**
+     * Returns the maximal length of the compressed form of a block of the specified length.
+     */
+    protected abstract int maxCompressedLength(int length);
+
+    /**
+     * Returns an upper bound of the length a valid compressed block of the specified length can
+     * decompress to, used to reject corrupted lengths before allocating.
+     */
+    protected abstract long maxDecompressedLength(int compressedLength);
+
+    /**
+     * Compresses the source block into the destination, which holds at least {@link
+     * #maxCompressedLength(int)} bytes.
+     *
+     * @return the compressed length
+     */
+    protected abstract int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff) throws IOException;
+
+    /**
+     * Decompresses the source block into exactly {@code dstLen} bytes of the destination.
+     *
+     * @throws IOException if the source is not a valid compressed block of that length
+     */
+    protected abstract void decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen) throws IOException;
+
+    public byte[] encode(byte[] src, int threshold) throws IOException {
+        return encode(src, 0, src.length, threshold);
+    }
+
+    /**
+     * Encodes the specified block, compressing it if it is at least {@code threshold} bytes long.
+     */
+    public byte[] encode(byte[] src, int off, int len, int threshold) throws IOException {
+        if (len >= threshold) {
+            final long startTime = System.nanoTime();
+            byte[] buffer = new byte[HEADER_LENGTH + maxCompressedLength(len)];
+            int compressedLength = compress(src, off, len, buffer, HEADER_LENGTH);
+            _compressTime.add(System.nanoTime() - startTime);
+            if (compressedLength < len) {
+                buffer[0] = COMPRESSED;
+                writeInt(buffer, 1, len);
+                byte[] result = new byte[HEADER_LENGTH + compressedLength];
+                System.arraycopy(buffer, 0, result, 0, result.length);
+                _uncompressedBytes.add(len);
+                _compressedBytes.add(result.length);
+                return result;
+            }
+        }
+        // too small or incompressible
+        byte[] result = new byte[len + 1];
+        result[0] = RAW;
+        System.arraycopy(src, off, result, 1, len);
+        _rawBlocks.increment();
+        return result;
+    }
+
+    public byte[] decode(byte[] src) throws IOException {
+        return decode(src, 0, src.length);
+    }
+
+    /**
+     * Decodes a block created by {@link #encode(byte[], int, int, int)}.
+     */
+    public byte[] decode(byte[] src, int off, int len) throws IOException {
+        if (len < 1)
+            throw new IOException("Empty compressed block");
+        if (src[off] == RAW) {
+            byte[] result = new byte[len - 1];
+            System.arraycopy(src, off + 1, result, 0, result.length);
+            return result;
+        }
+        if (src[off] != COMPRESSED || len < HEADER_LENGTH)
+            throw new IOException("Corrupted compressed block header");
+        final int length = readInt(src, off + 1);
+        if (length < 0 || length > maxDecompressedLength(len - HEADER_LENGTH))
+            throw new IOException("Corrupted compressed block length [" + length + "]");
+        final long startTime = System.nanoTime();
+        byte[] result = new byte[length];
+        decompress(src, off + HEADER_LENGTH, len - HEADER_LENGTH, result, 0, length);
+        _decompressTime.add(System.nanoTime() - startTime);
+        return result;
+    }
+
+    /**
+     * Total length of the blocks which were compressed, before compression.
+     */
+    public LongAdder getUncompressedBytesCounter() {
+        return _uncompressedBytes;
+    }
+
+    /**
+     * Total length of the blocks which were compressed, after compression.
+     */
+    public LongAdder getCompressedBytesCounter() {
+        return _compressedBytes;
+    }
+
+    /**
+     * Number of blocks which were encoded raw, either below the threshold or incompressible.
+     */
+    public LongAdder getRawBlocksCounter() {
+        return _rawBlocks;
+    }
+
+    public LongAdder getCompressTimeCounter() {
+        return _compressTime;
+    }
+
+    public LongAdder getDecompressTimeCounter() {
+        return _decompressTime;
+    }
+
+    /**
+     * Returns the compressed to uncompressed length ratio of the blocks compressed so far.
+     */
+    public double getCompressionRatio() {
+        long uncompressed = _uncompressedBytes.sum();
+        return uncompressed == 0 ? 1 : (double) _compressedBytes.sum() / uncompressed;
+    }
+
+    private static void writeInt(byte[] buffer, int off, int value) {
+        buffer[off] = (byte) (value >>> 24);
+        buffer[off + 1] = (byte) (value >>> 16);
+        buffer[off + 2] = (byte) (value >>> 8);
+        buffer[off + 3] = (byte) value;
+    }
+
+    private static int readInt(byte[] buffer, int off) {
+        return ((buffer[off] & 0xFF) << 24) | ((buffer[off + 1] & 0xFF) << 16)
+                | ((buffer[off + 2] & 0xFF) << 8) | (buffer[off + 3] & 0xFF);
+    }
+
+    @Override
+    public String toString() {
+        return _name;
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.io;
+
+import java.io.IOException;
+
+/**
+ * Pure java implementation of the LZ4 block format, using the fast (single probe hash table)
+ * compression strategy.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class LZ4BlockCodec extends BlockCompressionCodec {
+
+    public static final LZ4BlockCodec INSTANCE = new LZ4BlockCodec();
+
+    private static final int MIN_MATCH = 4;
+    // the last 5 bytes are always literals, and the last match starts at least 12 bytes before the end
+    private static final int LAST_LITERALS = 5;
+    private static final int MF_LIMIT = 12;
+    private static final int MAX_DISTANCE = 0xFFFF;
+    private static final int HASH_LOG = 12;
+    private static final int SKIP_STRENGTH = 6;
+    private static final int RUN_MASK = 0x0F;
+
+    // positions are validated on use, so the table is not cleared between blocks
+    private static final ThreadLocal<int[]> _hashTable = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1 << HASH_LOG];
+        }
+    };
+
+    private LZ4BlockCodec() {
+        super(LZ4);
+    }
+
+    @Override
+    protected int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    @Override
+    protected long maxDecompressedLength(int compressedLength) {
+        // each input byte adds at most 255 bytes to a literal or match length
+        return (long) compressedLength * 255;
+    }
+
+    @Override
+    protected int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff) {
+        final int[] table = _hashTable.get();
+        final int end = srcOff + srcLen;
+        final int matchLimit = end - LAST_LITERALS;
+        final int mfLimit = end - MF_LIMIT;
+
+        int anchor = srcOff;
+        int ip = srcOff;
+        int op = dstOff;
+        while (ip < mfLimit) {
+            final int sequence = readInt(src, ip);
+            final int h = hash(sequence);
+            int ref = table[h];
+            table[h] = ip;
+            if (ref < srcOff || ref >= ip || ip - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+                ip += 1 + ((ip - anchor) >>> SKIP_STRENGTH);
+                continue;
+            }
+            while (ip > anchor && ref > srcOff && src[ip - 1] == src[ref - 1]) {
+                ip--;
+                ref--;
+            }
+            int matchLength = MIN_MATCH;
+            while (ip + matchLength < matchLimit && src[ip + matchLength] == src[ref + matchLength])
+                matchLength++;
+
+            op = writeLiterals(src, anchor, ip - anchor, dst, op, matchLength - MIN_MATCH);
+            dst[op++] = (byte) (ip - ref);
+            dst[op++] = (byte) ((ip - ref) >>> 8);
+            if (matchLength - MIN_MATCH >= RUN_MASK)
+                op = writeLength(matchLength - MIN_MATCH - RUN_MASK, dst, op);
+
+            ip += matchLength;
+            anchor = ip;
+            if (ip - 2 < mfLimit)
+                table[hash(readInt(src, ip - 2))] = ip - 2;
+        }
+        op = writeLiterals(src, anchor, end - anchor, dst, op, 0);
+        return op - dstOff;
+    }
+
+    @Override
+    protected void decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen) throws IOException {
+        final int end = srcOff + srcLen;
+        final int dstEnd = dstOff + dstLen;
+        int ip = srcOff;
+        int op = dstOff;
+        while (ip < end) {
+            final int token = src[ip++] & 0xFF;
+
+            int literalLength = token >>> 4;
+            if (literalLength == RUN_MASK) {
+                int b;
+                do {
+                    if (ip >= end)
+                        throw corrupted(ip);
+                    b = src[ip++] & 0xFF;
+                    literalLength += b;
+                } while (b == 0xFF);
+            }
+            if (literalLength > end - ip || literalLength > dstEnd - op)
+                throw corrupted(ip);
+            System.arraycopy(src, ip, dst, op, literalLength);
+            ip += literalLength;
+            op += literalLength;
+            // the last sequence has no match
+            if (ip == end)
+                break;
+
+            if (end - ip < 2)
+                throw corrupted(ip);
+            final int offset = (src[ip] & 0xFF) | ((src[ip + 1] & 0xFF) << 8);
+            ip += 2;
+            if (offset == 0 || offset > op - dstOff)
+                throw corrupted(ip);
+
+            int matchLength = token & RUN_MASK;
+            if (matchLength == RUN_MASK) {
+                int b;
+                do {
+                    if (ip >= end)
+                        throw corrupted(ip);
+                    b = src[ip++] & 0xFF;
+                    matchLength += b;
+                } while (b == 0xFF);
+            }
+            matchLength += MIN_MATCH;
+            if (matchLength > dstEnd - op)
+                throw corrupted(ip);
+            final int ref = op - offset;
+            if (offset >= matchLength) {
+                System.arraycopy(dst, ref, dst, op, matchLength);
+            } else {
+                // overlapping copy repeats the last offset bytes
+                for (int i = 0; i < matchLength; i++)
+                    dst[op + i] = dst[ref + i];
+            }
+            op += matchLength;
+        }
+        if (op != dstEnd)
+            throw new IOException("Corrupted LZ4 block - decompressed " + (op - dstOff) + " bytes instead of " + dstLen);
+    }
+
+    private static int writeLiterals(byte[] src, int off, int length, byte[] dst, int op, int matchLength) {
+        final int tokenPos = op++;
+        int token = Math.min(matchLength, RUN_MASK);
+        if (length >= RUN_MASK) {
+            token |= RUN_MASK << 4;
+            op = writeLength(length - RUN_MASK, dst, op);
+        } else {
+            token |= length << 4;
+        }
+        dst[tokenPos] = (byte) token;
+        System.arraycopy(src, off, dst, op, length);
+        return op + length;
+    }
+
+    private static int writeLength(int length, byte[] dst, int op) {
+        while (length >= 0xFF) {
+            dst[op++] = (byte) 0xFF;
+            length -= 0xFF;
+        }
+        dst[op++] = (byte) length;
+        return op;
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+    private static int readInt(byte[] buffer, int off) {
+        return (buffer[off] & 0xFF) | ((buffer[off + 1] & 0xFF) << 8)
+                | ((buffer[off + 2] & 0xFF) << 16) | ((buffer[off + 3] & 0xFF) << 24);
+    }
+
+    private static IOException corrupted(int position) {
+        return new IOException("Corrupted LZ4 block at position " + position);
+    }
+}
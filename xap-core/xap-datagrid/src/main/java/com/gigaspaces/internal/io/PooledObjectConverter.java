@@ -38,6 +38,7 @@ public class PooledObjectConverter {
 
     private static MemoryBoundedResourcePool<MarshObjectConvertor> binaryConverterPool = new BinaryFactory().toConverterPool();
     private static MemoryBoundedResourcePool<CompressedMarshObjectConvertor> zipConverterPool = new ZipFactory().toConverterPool();
+    private static volatile MemoryBoundedResourcePool<BlockCompressedMarshObjectConvertor> blockCompressionConverterPool;
 
     public static byte[] serialize(Object value) throws IOException {
         return toBinary(value, binaryConverterPool);
@@ -55,6 +56,25 @@ public class PooledObjectConverter {
         return fromBinary(data, zipConverterPool);
     }
 
+    public static byte[] compress(Object value) throws IOException {
+        return toBinary(value, getBlockCompressionConverterPool());
+    }
+
+    public static Object decompress(byte[] data) throws IOException, ClassNotFoundException {
+        return fromBinary(data, getBlockCompressionConverterPool());
+    }
+
+    // created on first use, so a misconfigured codec fails only the users of block compression
+    private static MemoryBoundedResourcePool<BlockCompressedMarshObjectConvertor> getBlockCompressionConverterPool() {
+        if (blockCompressionConverterPool == null) {
+            synchronized (PooledObjectConverter.class) {
+                if (blockCompressionConverterPool == null)
+                    blockCompressionConverterPool = new BlockCompressionFactory().toConverterPool();
+            }
+        }
+        return blockCompressionConverterPool;
+    }
+
     private static <T extends MarshObjectConvertorResource> byte[] toBinary(Object value, MemoryBoundedResourcePool<T> converterPool) throws IOException {
         T converter = converterPool.getResource();
         try {
@@ -104,4 +124,23 @@ public class PooledObjectConverter {
             return new MemoryBoundedResourcePool<>(this, 0, maxResources, poolMemoryBounds);
         }
     }
+
+    private static class BlockCompressionFactory implements IMemoryAwareResourceFactory<BlockCompressedMarshObjectConvertor> {
+        private final BlockCompressionCodec codec = BlockCompressionCodec.forName(System.getProperty(SystemProperties.STORAGE_TYPE_SERIALIZATION_BLOCK_COMPRESSION_CODEC, BlockCompressionCodec.LZ4));
+        private final int threshold = Integer.getInteger(SystemProperties.STORAGE_TYPE_SERIALIZATION_BLOCK_COMPRESSION_THRESHOLD, SystemProperties.STORAGE_TYPE_SERIALIZATION_BLOCK_COMPRESSION_THRESHOLD_DEFAULT);
+
+        @Override
+        public BlockCompressedMarshObjectConvertor allocate() {
+            return allocate(null);
+        }
+
+        @Override
+        public BlockCompressedMarshObjectConvertor allocate(IMemoryAwareResourcePool resourcePool) {
+            return new BlockCompressedMarshObjectConvertor(codec, threshold, resourcePool, ContextClassResolverObjectInputStream.Factory.instance);
+        }
+
+        private MemoryBoundedResourcePool<BlockCompressedMarshObjectConvertor> toConverterPool() {
+            return new MemoryBoundedResourcePool<>(this, 0, maxResources, poolMemoryBounds);
+        }
+    }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.io;
+
+import com.gigaspaces.logger.Constants;
+import com.j_spaces.kernel.SystemProperties;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Zstandard block codec, delegating to zstd-jni (com.github.luben:zstd-jni) which is bound at
+ * runtime so it is only required when the codec is used.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class ZstdBlockCodec extends BlockCompressionCodec {
+
+    private static final Logger _logger = Logger.getLogger(Constants.LOGGER_LRMI);
+    private static final int MAX_BLOCK_SIZE = 128 * 1024;
+    private static final String ZSTD_CLASS_NAME = "com.github.luben.zstd.Zstd";
+
+    private static volatile ZstdBlockCodec _instance;
+    private static volatile boolean _initialized;
+
+    private final int _level;
+    private final Method _compressBound;
+    private final Method _compress;
+    private final Method _decompress;
+    private final Method _isError;
+    private final Method _getErrorName;
+
+    private ZstdBlockCodec(Class<?> zstdClass, int level) throws NoSuchMethodException {
+        super(ZSTD);
+        this._level = level;
+        this._compressBound = zstdClass.getMethod("compressBound", long.class);
+        this._compress = zstdClass.getMethod("compressByteArray", byte[].class, int.class, int.class, byte[].class, int.class, int.class, int.class);
+        this._decompress = zstdClass.getMethod("decompressByteArray", byte[].class, int.class, int.class, byte[].class, int.class, int.class);
+        this._isError = zstdClass.getMethod("isError", long.class);
+        this._getErrorName = zstdClass.getMethod("getErrorName", long.class);
+    }
+
+    /**
+     * @return the codec, or null if zstd-jni is not in the classpath
+     */
+    public static ZstdBlockCodec getInstance() {
+        if (!_initialized) {
+            synchronized (ZstdBlockCodec.class) {
+                if (!_initialized) {
+                    _instance = create();
+                    _initialized = true;
+                }
+            }
+        }
+        return _instance;
+    }
+
+    private static ZstdBlockCodec create() {
+        final int level = Integer.getInteger(SystemProperties.COMPRESSION_ZSTD_LEVEL, SystemProperties.COMPRESSION_ZSTD_LEVEL_DEFAULT);
+        try {
+            return new ZstdBlockCodec(Class.forName(ZSTD_CLASS_NAME), level);
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (Throwable e) {
+            if (_logger.isLoggable(Level.WARNING))
+                _logger.log(Level.WARNING, "Failed to bind to zstd-jni, zstd compression is not available", e);
+            return null;
+        }
+    }
+
+    @Override
+    protected int maxCompressedLength(int length) {
+        return (int) ((Long) invoke(_compressBound, (long) length)).longValue();
+    }
+
+    @Override
+    protected long maxDecompressedLength(int compressedLength) {
+        // the densest zstd block is a 4 bytes RLE block (3 bytes header + 1 byte) of up to 128KB
+        return (long) compressedLength * (MAX_BLOCK_SIZE / 4);
+    }
+
+    @Override
+    protected int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff) throws IOException {
+        long result = (Long) invoke(_compress, dst, dstOff, dst.length - dstOff, src, srcOff, srcLen, _level);
+        return (int) checkResult(result);
+    }
+
+    @Override
+    protected void decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen) throws IOException {
+        long result = checkResult((Long) invoke(_decompress, dst, dstOff, dstLen, src, srcOff, srcLen));
+        if (result != dstLen)
+            throw new IOException("Corrupted zstd block - decompressed " + result + " bytes instead of " + dstLen);
+    }
+
+    private long checkResult(long result) throws IOException {
+        if ((Boolean) invoke(_isError, result))
+            throw new IOException("Zstd failure: " + invoke(_getErrorName, result));
+        return result;
+    }
+
+    private static Object invoke(Method method, Object... args) {
+        try {
+            return method.invoke(null, args);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.internal.query;
+
+import com.gigaspaces.internal.server.storage.IEntryData;
+import com.gigaspaces.internal.server.storage.ITemplateHolder;
+import com.gigaspaces.query.aggregators.SpaceEntriesAggregator;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Aggregator context which hands the entries matched by the scanning thread to worker threads in
+ * batches. Each worker aggregates with its own clone of the aggregators (and its own path cache),
+ * and {@link #finish()} merges the workers into the original aggregators using {@link
+ * SpaceEntriesAggregator#aggregateIntermediateResult}, exactly like partition results are merged
+ * by the client.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class ParallelEntryHolderAggregatorContext extends EntryHolderAggregatorContext {
+
+    private final List<SpaceEntriesAggregator> aggregators;
+    private final ITemplateHolder template;
+    private final int partitionId;
+    private final Executor executor;
+    private final int parallelism;
+    private final int batchSize;
+    private final Semaphore permits;
+    private final Queue<Worker> idleWorkers = new ConcurrentLinkedQueue<Worker>();
+    private final Queue<Worker> workers = new ConcurrentLinkedQueue<Worker>();
+    private volatile Throwable error;
+    private volatile boolean cancelled;
+    private Batch batch;
+
+    public ParallelEntryHolderAggregatorContext(List<SpaceEntriesAggregator> aggregators, ITemplateHolder template,
+                                                int partitionId, Executor executor, int parallelism, int batchSize) {
+        super(aggregators, template, partitionId);
+        this.aggregators = aggregators;
+        this.template = template;
+        this.partitionId = partitionId;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+        // Limiting the number of batches in flight bounds both memory and the number of workers:
+        this.permits = new Semaphore(parallelism);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public void scan(IEntryData entryData, String uid, boolean isTransient) {
+        // A failure is reported by finish(), there's no point in aggregating more entries:
+        if (error != null || cancelled)
+            return;
+        if (batch == null)
+            batch = new Batch(batchSize);
+        batch.add(entryData, uid, isTransient);
+        if (batch.size == batchSize)
+            submit();
+    }
+
+    /**
+     * Waits for all the matched entries to be aggregated and merges the workers results into the
+     * original aggregators.
+     */
+    public void finish() throws Exception {
+        if (batch != null)
+            submit();
+        permits.acquireUninterruptibly(parallelism);
+        permits.release(parallelism);
+
+        if (error != null) {
+            if (error instanceof Exception)
+                throw (Exception) error;
+            throw (Error) error;
+        }
+
+        for (Worker worker : workers) {
+            for (int i = 0; i < aggregators.size(); i++) {
+                Serializable result = worker.aggregators.get(i).getIntermediateResult();
+                if (result != null)
+                    aggregators.get(i).aggregateIntermediateResult(result);
+            }
+        }
+    }
+
+    /**
+     * Stops aggregating entries which were not processed yet, without waiting for the workers.
+     */
+    public void cancel() {
+        cancelled = true;
+        batch = null;
+    }
+
+    private void submit() {
+        final Batch currBatch = batch;
+        batch = null;
+        permits.acquireUninterruptibly();
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (error == null && !cancelled)
+                            aggregate(currBatch);
+                    } catch (Throwable e) {
+                        error = e;
+                    } finally {
+                        permits.release();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            error = e;
+            permits.release();
+        }
+    }
+
+    private void aggregate(Batch batch) {
+        Worker worker = idleWorkers.poll();
+        if (worker == null) {
+            worker = new Worker();
+            workers.add(worker);
+        }
+        try {
+            for (int i = 0; i < batch.size; i++)
+                worker.context.scan(batch.entries[i], batch.uids[i], batch.transients[i]);
+        } finally {
+            idleWorkers.add(worker);
+        }
+    }
+
+    private class Worker {
+        private final List<SpaceEntriesAggregator> aggregators;
+        private final EntryHolderAggregatorContext context;
+
+        private Worker() {
+            this.aggregators = new ArrayList<SpaceEntriesAggregator>(ParallelEntryHolderAggregatorContext.this.aggregators.size());
+            for (SpaceEntriesAggregator aggregator : ParallelEntryHolderAggregatorContext.this.aggregators)
+                aggregators.add(aggregator.clone());
+            this.context = new EntryHolderAggregatorContext(aggregators, template, partitionId);
+        }
+    }
+
+    private static class Batch {
+        private final IEntryData[] entries;
+        private final String[] uids;
+        private final boolean[] transients;
+        private int size;
+
+        private Batch(int capacity) {
+            this.entries = new IEntryData[capacity];
+            this.uids = new String[capacity];
+            this.transients = new boolean[capacity];
+        }
+
+        private void add(IEntryData entryData, String uid, boolean isTransient) {
+            entries[size] = entryData;
+            uids[size] = uid;
+            transients[size] = isTransient;
+            size++;
+        }
+    }
+}
@@ -36,6 +36,7 @@ public class ExplainPlanImpl implements ExplainPlan {
     private final SQLQuery<?> query;
     private final Map<String,SingleExplainPlan> plans = new HashMap<String, SingleExplainPlan>();
     private final IntegerObjectMap<String> indexInfoDescCache = CollectionsFactory.getInstance().createIntegerObjectMap();
+    private volatile JoinInfo joinInfo;
 
     public ExplainPlanImpl(SQLQuery query) {
         this.query = query;
@@ -61,6 +62,14 @@ public class ExplainPlanImpl implements ExplainPlan {
         return plans;
     }
 
+    public JoinInfo getJoinInfo() {
+        return joinInfo;
+    }
+
+    public void setJoinInfo(JoinInfo joinInfo) {
+        this.joinInfo = joinInfo;
+    }
+
     public void reset() {
         plans.clear();
         indexInfoDescCache.clear();
@@ -81,6 +90,8 @@ public class ExplainPlanImpl implements ExplainPlan {
 
     protected void append(TextReportFormatter report) {
         report.line("Query: " + query.toString());
+        if (joinInfo != null)
+            append(report, joinInfo);
         if (plans.isEmpty()) {
             report.line("Not executed yet");
         } else {
@@ -89,6 +100,15 @@ public class ExplainPlanImpl implements ExplainPlan {
         }
     }
 
+    protected void append(TextReportFormatter report, JoinInfo joinInfo) {
+        report.line("Join strategy: " + joinInfo.getStrategy());
+        report.indent();
+        for (String step : joinInfo.getSteps()) {
+            report.line(step);
+        }
+        report.unindent();
+    }
+
     protected void appendSummary(TextReportFormatter report) {
         report.line("Execution Information Summary:");
         report.indent();
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gigaspaces.internal.query.explainplan;
+
+import com.gigaspaces.api.ExperimentalApi;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The strategy chosen for a join query, and the order in which the tables were joined.
+ *
+ * @since 15.5
+ */
+@ExperimentalApi
+public class JoinInfo {
+
+    public enum JoinStrategy {
+        /**
+         * The largest table is scanned and probes hash tables built on the join columns of the
+         * other tables.
+         */
+        HASH,
+        /**
+         * The tables are iterated in their query order, checking each combination.
+         */
+        NESTED_LOOP
+    }
+
+    private final JoinStrategy strategy;
+    private final List<String> steps = new ArrayList<String>();
+
+    public JoinInfo(JoinStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public JoinStrategy getStrategy() {
+        return strategy;
+    }
+
+    public List<String> getSteps() {
+        return steps;
+    }
+
+    public void addStep(String step) {
+        steps.add(step);
+    }
+
+    @Override
+    public String toString() {
+        return "JoinInfo{" +
+                "strategy=" + strategy +
+                ", steps=" + steps +
+                '}';
+    }
+}
@@ -32,4 +32,8 @@ public interface RemoteOperationsExecutorsClusterConfig {
     SpaceProxyLoadBalancerType getLoadBalancerType();
 
     int getNumOfOperationsTypes();
+
+    int getBatchChunkSize();
+
+    int getBatchMaxChunksInFlight();
 }
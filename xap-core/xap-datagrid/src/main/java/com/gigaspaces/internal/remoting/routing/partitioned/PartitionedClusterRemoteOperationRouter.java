@@ -235,6 +235,14 @@ public class PartitionedClusterRemoteOperationRouter extends AbstractRemoteOpera
         }
     }
 
+    public int getBatchChunkSize() {
+        return _partitionedCluster.getConfig().getBatchChunkSize();
+    }
+
+    public int getBatchMaxChunksInFlight() {
+        return _partitionedCluster.getConfig().getBatchMaxChunksInFlight();
+    }
+
     public int getNextDistributionPartitionId(RemoteOperationRequest<?> request) {
         return request.requiresPartitionedPreciseDistribution() ? getNextPreciseDistributionPartitionId(request.getPreciseDistributionGroupingCode()) : getNextApproxDistributionPartitionId();
     }
@@ -310,10 +318,12 @@ public class PartitionedClusterRemoteOperationRouter extends AbstractRemoteOpera
     private <T extends RemoteOperationResult> void executeScatterConcurrentAsync(ScatterGatherRemoteOperationRequest<T> request, ScatterGatherOperationFutureListener<T> listener) {
         request.scatterIndexesToPartitions(listener);
 
-        // Dispatch each request to its respective partition asynchronously:
+        // Dispatch each request to its respective partition asynchronously (if the partition indexes
+        // were split into chunks, the listener dispatches the remaining chunks as earlier ones complete):
+        final int maxChunksInFlight = getBatchMaxChunksInFlight();
         for (int partitionId : listener.getPartitionIds()) {
-            ScatterGatherRemoteOperationRequest<T> partitionRequest = listener.getPartitionRequest(partitionId, request);
-            this._partitions[partitionId].executeAsync(partitionRequest, listener);
+            for (ScatterGatherRemoteOperationRequest<T> partitionRequest : listener.getInitialPartitionRequests(partitionId, request, maxChunksInFlight))
+                this._partitions[partitionId].executeAsync(partitionRequest, listener);
         }
     }
 
@@ -324,8 +334,9 @@ public class PartitionedClusterRemoteOperationRouter extends AbstractRemoteOpera
 
         // Dispatch each request to its respective partition in one way mode:
         for (int partitionId : listener.getPartitionIds()) {
-            ScatterGatherRemoteOperationRequest<?> partitionRequest = listener.getPartitionRequest(partitionId, request);
-            this._partitions[partitionId].executeOneway(partitionRequest);
+            List<ScatterGatherRemoteOperationRequest<?>> partitionRequests = listener.getInitialPartitionRequests(partitionId, request, Integer.MAX_VALUE);
+            for (ScatterGatherRemoteOperationRequest<?> partitionRequest : partitionRequests)
+                this._partitions[partitionId].executeOneway(partitionRequest);
         }
 
     }
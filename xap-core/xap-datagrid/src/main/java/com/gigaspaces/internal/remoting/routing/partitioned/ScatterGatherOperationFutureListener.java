@@ -23,8 +23,10 @@ import com.gigaspaces.internal.remoting.RemoteOperationFutureListener;
 import com.gigaspaces.internal.remoting.RemoteOperationRequest;
 import com.gigaspaces.internal.remoting.RemoteOperationResult;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
 
 /**
  * @author Niv Ingberg
@@ -36,6 +38,10 @@ public class ScatterGatherOperationFutureListener<T extends RemoteOperationResul
     private final ScatterGatherRemoteOperationRequest<T> _mainRequest;
     private final PartitionedClusterRemoteOperationRouter _router;
     private final List<ScatterGatherRemoteOperationRequest<T>> _previousResults;
+    private final int _chunkSize;
+    // Full chunks per partition which were not dispatched yet (only when chunking is enabled):
+    private final IntegerObjectMap<Queue<ScatterGatherRemoteOperationRequest<T>>> _pendingChunks;
+    private int _numOfRequests;
     private int[] _partitionIds;
 
     public ScatterGatherOperationFutureListener(ScatterGatherRemoteOperationRequest<T> mainRequest, AsyncFutureListener<Object> listener, PartitionedClusterRemoteOperationRouter router, boolean getResultOnCompletion) {
@@ -44,6 +50,9 @@ public class ScatterGatherOperationFutureListener<T extends RemoteOperationResul
         this._router = router;
         this._previousResults = new ArrayList<ScatterGatherRemoteOperationRequest<T>>();
         this._map = CollectionsFactory.getInstance().createIntegerObjectMap();
+        this._chunkSize = mainRequest.getPartitionedClusterExecutionType() == PartitionedClusterExecutionType.SCATTER_CONCURRENT &&
+                mainRequest.supportsPartitionChunks() ? router.getBatchChunkSize() : 0;
+        this._pendingChunks = _chunkSize > 0 ? CollectionsFactory.getInstance().<Queue<ScatterGatherRemoteOperationRequest<T>>>createIntegerObjectMap() : null;
     }
 
     public void mapValuesByHashCode(Object[] array, ScatterGatherRemoteOperationRequest<T> request) {
@@ -70,9 +79,20 @@ public class ScatterGatherOperationFutureListener<T extends RemoteOperationResul
 
     public ScatterGatherPartitionInfo addPartition(int partitionId, ScatterGatherRemoteOperationRequest<T> request) {
         ScatterGatherRemoteOperationRequest<T> partitionRequest = _map.get(partitionId);
+        if (partitionRequest != null && _chunkSize > 0 && partitionRequest.getPartitionInfo().size() >= _chunkSize) {
+            // Current chunk is full - queue it and start a new one:
+            Queue<ScatterGatherRemoteOperationRequest<T>> chunks = _pendingChunks.get(partitionId);
+            if (chunks == null) {
+                chunks = new ArrayDeque<ScatterGatherRemoteOperationRequest<T>>();
+                _pendingChunks.put(partitionId, chunks);
+            }
+            chunks.add(partitionRequest);
+            partitionRequest = null;
+        }
         if (partitionRequest == null) {
             partitionRequest = (ScatterGatherRemoteOperationRequest<T>) request.createCopy(partitionId);
             _map.put(partitionId, partitionRequest);
+            _numOfRequests++;
         }
 
         return partitionRequest.getPartitionInfo();
@@ -96,6 +116,32 @@ public class ScatterGatherOperationFutureListener<T extends RemoteOperationResul
         return partitionRequest;
     }
 
+    /**
+     * Returns the requests to dispatch initially to the specified partition - a single request
+     * unless the partition indexes were split into chunks, in which case up to maxRequests chunks
+     * are returned and the rest are dispatched as earlier chunks of the partition complete.
+     */
+    public List<ScatterGatherRemoteOperationRequest<T>> getInitialPartitionRequests(int partitionId, ScatterGatherRemoteOperationRequest<T> mainRequest, int maxRequests) {
+        Queue<ScatterGatherRemoteOperationRequest<T>> chunks = _pendingChunks != null ? _pendingChunks.get(partitionId) : null;
+        List<ScatterGatherRemoteOperationRequest<T>> result = new ArrayList<ScatterGatherRemoteOperationRequest<T>>();
+        if (chunks == null) {
+            result.add(getPartitionRequest(partitionId, mainRequest));
+            return result;
+        }
+        // The last chunk of the partition is still in the map:
+        chunks.add(_map.get(partitionId));
+        while (result.size() < maxRequests && !chunks.isEmpty()) {
+            ScatterGatherRemoteOperationRequest<T> partitionRequest = chunks.poll();
+            partitionRequest.loadPartitionData(mainRequest);
+            result.add(partitionRequest);
+        }
+        return result;
+    }
+
+    public int getNumOfRequests() {
+        return _numOfRequests;
+    }
+
     @Override
     protected boolean onOperationResultArrival(RemoteOperationRequest<T> request) {
         ScatterGatherRemoteOperationRequest<T> partitionRequest = (ScatterGatherRemoteOperationRequest<T>) request;
@@ -105,7 +151,7 @@ public class ScatterGatherOperationFutureListener<T extends RemoteOperationResul
         if (_mainRequest == partitionRequest)
             _mainRequest.setRemoteOperationResult(null);
         // If there are enough accumulated results, or this is the last possible result, signal completion:
-        if (!continueProcessing || _previousResults.size() + 1 >= _map.size())
+        if (!continueProcessing || _previousResults.size() + 1 >= _numOfRequests)
             return true;
 
         //TODO: should there be some round robin here as well? Is there anyone using this atm? (Eitan)
@@ -116,6 +162,15 @@ public class ScatterGatherOperationFutureListener<T extends RemoteOperationResul
             partitionRequest = getPartitionRequest(partitionId, _mainRequest);
             // Process request in next partition asynchronously:
             _router.getPartitionRouter(partitionId).executeAsync(partitionRequest, this);
+        } else if (_pendingChunks != null) {
+            // Keep the partition pipeline full by dispatching its next chunk, if any:
+            int partitionId = partitionRequest.getPartitionInfo().getPartitionId();
+            Queue<ScatterGatherRemoteOperationRequest<T>> chunks = _pendingChunks.get(partitionId);
+            ScatterGatherRemoteOperationRequest<T> nextChunk = chunks != null ? chunks.poll() : null;
+            if (nextChunk != null) {
+                nextChunk.loadPartitionData(_mainRequest);
+                _router.getPartitionRouter(partitionId).executeAsync(nextChunk, this);
+            }
         }
         return false;
     }
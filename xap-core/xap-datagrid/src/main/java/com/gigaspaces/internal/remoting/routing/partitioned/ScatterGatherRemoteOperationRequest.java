@@ -33,4 +33,10 @@ public interface ScatterGatherRemoteOperationRequest<TResult extends RemoteOpera
     ScatterGatherPartitionInfo getPartitionInfo();
 
     boolean processPartitionResult(ScatterGatherRemoteOperationRequest<TResult> partitionRequest, List<ScatterGatherRemoteOperationRequest<TResult>> previousRequests);
+
+    /**
+     * Returns true if the indexes scattered to a partition may be split into several partition
+     * requests which are executed concurrently and whose results are processed independently.
+     */
+    boolean supportsPartitionChunks();
 }
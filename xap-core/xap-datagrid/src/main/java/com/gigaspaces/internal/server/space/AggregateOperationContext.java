@@ -16,9 +16,15 @@
 
 package com.gigaspaces.internal.server.space;
 
+import com.gigaspaces.internal.query.EntryHolderAggregatorContext;
+import com.gigaspaces.internal.query.ParallelEntryHolderAggregatorContext;
+import com.gigaspaces.internal.server.storage.ITemplateHolder;
 import com.gigaspaces.internal.transport.ITemplatePacket;
+import com.gigaspaces.query.aggregators.SpaceEntriesAggregator;
 
 import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * Created by niv on 6/17/14.
@@ -26,8 +32,44 @@ import java.util.HashSet;
 @com.gigaspaces.api.InternalApi
 public class AggregateOperationContext extends BatchQueryOperationContext {
 
+    private final Executor aggregationExecutor;
+    private final int parallelism;
+    private final int batchSize;
+    private ParallelEntryHolderAggregatorContext parallelAggregatorContext;
+
     public AggregateOperationContext(ITemplatePacket template, int maxEntries, int minEntries) {
+        this(template, maxEntries, minEntries, null, 1, 0);
+    }
+
+    public AggregateOperationContext(ITemplatePacket template, int maxEntries, int minEntries,
+                                     Executor aggregationExecutor, int parallelism, int batchSize) {
         super(template, maxEntries, minEntries);
+        this.aggregationExecutor = aggregationExecutor;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+    }
+
+    public EntryHolderAggregatorContext createAggregatorContext(List<SpaceEntriesAggregator> aggregators, ITemplateHolder template,
+                                                                int partitionId) {
+        if (aggregationExecutor == null || parallelism < 2)
+            return new EntryHolderAggregatorContext(aggregators, template, partitionId);
+        parallelAggregatorContext = new ParallelEntryHolderAggregatorContext(aggregators, template, partitionId,
+                aggregationExecutor, parallelism, batchSize);
+        return parallelAggregatorContext;
+    }
+
+    /**
+     * Merges the results of the parallel aggregation workers (if any) into the operation
+     * aggregators.
+     */
+    public void finishAggregation() throws Exception {
+        if (parallelAggregatorContext != null)
+            parallelAggregatorContext.finish();
+    }
+
+    public void cancelAggregation() {
+        if (parallelAggregatorContext != null)
+            parallelAggregatorContext.cancel();
     }
 
     @Override
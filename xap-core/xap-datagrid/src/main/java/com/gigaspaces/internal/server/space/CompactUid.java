@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.internal.server.space;
+
+import com.gigaspaces.internal.io.IOUtils;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * Compact binary form of the uids generated by {@link SpaceUidFactory#generateUid()}, which have
+ * the form {@code A<partition>[_<backup>]^<timestamp>^<counter>}. The form is two longs: the member
+ * id (partition and backup id) with the factory timestamp, and the counter.
+ *
+ * Uids of any other form (e.g. uids created from a type name and an id) have no compact form and
+ * are serialized as strings.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class CompactUid {
+
+    private static final byte UID_STRING = 0;
+    private static final byte UID_COMPACT = 1;
+
+    private static final int TIMESTAMP_BITS = 42;
+    private static final int BACKUP_BITS = 5;
+    private static final long MAX_TIMESTAMP = (1L << TIMESTAMP_BITS) - 1;
+    // backup ids are kept incremented by one, zero marks a member id without a backup id
+    private static final int MAX_BACKUP_ID = (1 << BACKUP_BITS) - 2;
+    private static final int MAX_PARTITION_ID = (1 << (63 - TIMESTAMP_BITS - BACKUP_BITS)) - 1;
+    private static final char BACKUP_SEPARATOR = '_';
+    // 18 digits never overflow a long
+    private static final int MAX_DIGITS = 18;
+
+    private CompactUid() {
+    }
+
+    /**
+     * Writes the uid in its compact form if it has one, otherwise as a string.
+     */
+    public static void writeUid(ObjectOutput out, String uid) throws IOException {
+        final long memberAndTimestamp;
+        final long counter;
+        final int counterPos = uid == null ? -1 : uid.lastIndexOf(SpaceUidFactory.SEPARATOR);
+        if (counterPos != -1
+                && (counter = parseNumber(uid, counterPos + 1, uid.length())) > 0
+                && (memberAndTimestamp = parseMemberAndTimestamp(uid, counterPos)) != -1) {
+            out.writeByte(UID_COMPACT);
+            out.writeLong(memberAndTimestamp);
+            out.writeLong(counter);
+        } else {
+            out.writeByte(UID_STRING);
+            IOUtils.writeString(out, uid);
+        }
+    }
+
+    public static String readUid(ObjectInput in) throws IOException, ClassNotFoundException {
+        final byte code = in.readByte();
+        switch (code) {
+            case UID_COMPACT:
+                long memberAndTimestamp = in.readLong();
+                return toString(memberAndTimestamp, in.readLong());
+            case UID_STRING:
+                return IOUtils.readString(in);
+            default:
+                throw new IllegalStateException("Failed to deserialize a uid: unrecognized uid type code - " + code);
+        }
+    }
+
+    private static String toString(long memberAndTimestamp, long counter) {
+        final long partitionId = memberAndTimestamp >>> (TIMESTAMP_BITS + BACKUP_BITS);
+        final long backupId = ((memberAndTimestamp >>> TIMESTAMP_BITS) & ((1 << BACKUP_BITS) - 1)) - 1;
+        final long timestamp = memberAndTimestamp & MAX_TIMESTAMP;
+        // the uid is written backwards into a reused per thread buffer, so only the uid string
+        // itself is allocated
+        final int length = 1 + SpaceUidFactory.numOfDigits(partitionId)
+                + (backupId != -1 ? 1 + SpaceUidFactory.numOfDigits(backupId) : 0)
+                + 1 + SpaceUidFactory.numOfDigits(timestamp)
+                + 1 + SpaceUidFactory.numOfDigits(counter);
+        final char[] buffer = SpaceUidFactory.uidBuffer(length);
+        int pos = SpaceUidFactory.writeNumber(buffer, length, counter);
+        buffer[--pos] = SpaceUidFactory.SEPARATOR;
+        pos = SpaceUidFactory.writeNumber(buffer, pos, timestamp);
+        buffer[--pos] = SpaceUidFactory.SEPARATOR;
+        if (backupId != -1) {
+            pos = SpaceUidFactory.writeNumber(buffer, pos, backupId);
+            buffer[--pos] = BACKUP_SEPARATOR;
+        }
+        pos = SpaceUidFactory.writeNumber(buffer, pos, partitionId);
+        buffer[--pos] = SpaceUidFactory.PREFIX_AUTO.charAt(0);
+        return new String(buffer, 0, length);
+    }
+
+    private static long parseMemberAndTimestamp(String uid, int end) {
+        if (!uid.startsWith(SpaceUidFactory.PREFIX_AUTO))
+            return -1;
+        final int timestampPos = uid.lastIndexOf(SpaceUidFactory.SEPARATOR, end - 1);
+        if (timestampPos == -1)
+            return -1;
+        final long timestamp = parseNumber(uid, timestampPos + 1, end);
+        if (timestamp < 0 || timestamp > MAX_TIMESTAMP)
+            return -1;
+
+        final long memberId = parseMemberId(uid, SpaceUidFactory.PREFIX_AUTO.length(), timestampPos);
+        return memberId == -1 ? -1 : memberId | timestamp;
+    }
+
+    private static long parseMemberId(String uid, int start, int end) {
+        int backupPos = -1;
+        for (int i = start; i < end; i++) {
+            if (uid.charAt(i) == BACKUP_SEPARATOR) {
+                backupPos = i;
+                break;
+            }
+        }
+        final long partitionId = parseNumber(uid, start, backupPos == -1 ? end : backupPos);
+        if (partitionId < 0 || partitionId > MAX_PARTITION_ID)
+            return -1;
+        long backupId = 0;
+        if (backupPos != -1) {
+            backupId = parseNumber(uid, backupPos + 1, end);
+            if (backupId < 0 || backupId > MAX_BACKUP_ID)
+                return -1;
+            backupId++;
+        }
+        return (partitionId << (TIMESTAMP_BITS + BACKUP_BITS)) | (backupId << TIMESTAMP_BITS);
+    }
+
+    /**
+     * Parses a non negative decimal number in its canonical form (no sign and no leading zeros),
+     * so that formatting it back yields the same characters.
+     *
+     * @return the number, or -1 if the characters are not such a number
+     */
+    private static long parseNumber(String s, int start, int end) {
+        final int length = end - start;
+        if (length <= 0 || length > MAX_DIGITS || (s.charAt(start) == '0' && length > 1))
+            return -1;
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9')
+                return -1;
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
@@ -79,6 +79,7 @@ import com.gigaspaces.internal.server.space.operations.WriteEntryResult;
 import com.gigaspaces.internal.server.space.recovery.direct_persistency.StorageConsistencyModes;
 import com.gigaspaces.internal.server.space.replication.SpaceReplicationInitializer;
 import com.gigaspaces.internal.server.space.replication.SpaceReplicationManager;
+import com.gigaspaces.internal.server.space.snapshot.SpaceSnapshotManager;
 import com.gigaspaces.internal.server.storage.*;
 import com.gigaspaces.internal.sync.SynchronizationStorageAdapter;
 import com.gigaspaces.internal.sync.hybrid.SyncHybridSAException;
@@ -93,6 +94,7 @@ import com.gigaspaces.lrmi.nio.IResponseContext;
 import com.gigaspaces.lrmi.nio.ResponseContext;
 import com.gigaspaces.management.space.SpaceQueryDetails;
 import com.gigaspaces.metrics.*;
+import com.gigaspaces.query.aggregators.AggregationInternalUtils;
 import com.gigaspaces.query.aggregators.SpaceEntriesAggregator;
 import com.gigaspaces.security.authorities.SpaceAuthority.SpacePrivilege;
 import com.gigaspaces.server.blobstore.BlobStoreException;
@@ -106,6 +108,8 @@ import com.j_spaces.core.Constants.SpaceProxy;
 import com.j_spaces.core.admin.SpaceRuntimeInfo;
 import com.j_spaces.core.admin.TemplateInfo;
 import com.j_spaces.core.cache.*;
+import com.j_spaces.core.cache.columnar.ColumnarAggregation;
+import com.j_spaces.core.cache.columnar.ColumnarTypeStore;
 import com.j_spaces.core.cache.context.Context;
 import com.j_spaces.core.cache.blobStore.IBlobStoreEntryHolder;
 import com.j_spaces.core.cache.blobStore.BlobStoreEntryHolder;
@@ -146,6 +150,8 @@ import javax.transaction.xa.Xid;
 import java.rmi.RemoteException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -201,11 +207,14 @@ public class SpaceEngine implements ISpaceModeListener {
     private final FifoGroupsHandler _fifoGroupsHandler;
     private LeaseManager _leaseManager;
     private MemoryManager _memoryManager;
+    private SpaceSnapshotManager _snapshotManager;
     private ServerIteratorsManager _serverIteratorsManager;
 
     /*--------- Working Groups ---------*/
     private final WorkingGroup<BusPacket<Processor>> _processorWG;
     private final Processor _coreProcessor; //only for SA
+    private final Object _aggregationPoolLock = new Object();
+    private volatile ForkJoinPool _aggregationPool; // created on first parallel aggregation
     /*--------- end of Working Groups ---------*/
 
     /**
@@ -456,6 +465,34 @@ public class SpaceEngine implements ISpaceModeListener {
                 return countTransactions(TransactionInfo.Types.ALL, TransactionConstants.ACTIVE);
             }
         });
+
+        if (_templateScanner.getNotifyMatchingLatency() != null)
+            registrator.register(registrator.toPath("notify", "matching-latency"), _templateScanner.getNotifyMatchingLatency());
+
+        registrator.register(registrator.toPath("notify", "queue-size"), new Gauge<Long>() {
+            @Override
+            public Long getValue() throws Exception {
+                return _dataEventManager.getQueueSize() + _dataEventManager.getListenerQueuesSize();
+            }
+        });
+
+        registrator.register(registrator.toPath("initial-load", "found"), new Gauge<Integer>() {
+            @Override
+            public Integer getValue() throws Exception {
+                InitialLoadInfo initialLoadInfo = _cacheManager.getInitialLoadInfo();
+                return initialLoadInfo != null ? initialLoadInfo.getFoundInDatabase() : 0;
+            }
+        });
+
+        registrator.register(registrator.toPath("initial-load", "inserted"), new Gauge<Integer>() {
+            @Override
+            public Integer getValue() throws Exception {
+                InitialLoadInfo initialLoadInfo = _cacheManager.getInitialLoadInfo();
+                return initialLoadInfo != null ? initialLoadInfo.getInsertedToCache() : 0;
+            }
+        });
+
+        _spaceImpl.getOperationsExecutor().registerMetrics(this);
     }
 
     private IDuplicateOperationFilter createDuplicateOperationIDFilter() {
@@ -583,6 +620,9 @@ public class SpaceEngine implements ISpaceModeListener {
             //expiration manager
             _cacheManager.startTemplateExpirationManager();
 
+            _snapshotManager = new SpaceSnapshotManager(this);
+            _snapshotManager.start();
+
             // create and start replicator, if this space is replicated
             if (isReplicated()) {
                 if (considerMemoryRecovery && _clusterPolicy.m_ReplicationPolicy.m_ReplicationGroupMembersNames.size() > 1) {
@@ -612,6 +652,8 @@ public class SpaceEngine implements ISpaceModeListener {
             _dataEventManager.close();
             if (_leaseManager != null)
                 _leaseManager.close();
+            if (_snapshotManager != null)
+                _snapshotManager.close();
 
             throw new CreateException(msg + " " + ex.getMessage(), ex);
         }
@@ -689,6 +731,10 @@ public class SpaceEngine implements ISpaceModeListener {
         return _typeManager;
     }
 
+    public SpaceSnapshotManager getSnapshotManager() {
+        return _snapshotManager;
+    }
+
     public FilterManager getFilterManager() {
         return _filterManager;
     }
@@ -1949,7 +1995,9 @@ public class SpaceEngine implements ISpaceModeListener {
         tHolder.setID(template.getID());
         tHolder.setBatchOperationContext(batchOperationContext);
         if (aggregators != null)
-            tHolder.setAggregatorContext(new EntryHolderAggregatorContext(aggregators, tHolder, getPartitionIdZeroBased()));
+            tHolder.setAggregatorContext(batchOperationContext instanceof AggregateOperationContext
+                    ? ((AggregateOperationContext) batchOperationContext).createAggregatorContext(aggregators, tHolder, getPartitionIdZeroBased())
+                    : new EntryHolderAggregatorContext(aggregators, tHolder, getPartitionIdZeroBased()));
 
         if (take) // call  filters for take
         {
@@ -3505,6 +3553,9 @@ public class SpaceEngine implements ISpaceModeListener {
         if (_processorWG != null)
             _processorWG.shutdown();
 
+        if (_aggregationPool != null)
+            _aggregationPool.shutdownNow();
+
         if (_leaseManager != null)
             _leaseManager.close();
 
@@ -3514,6 +3565,9 @@ public class SpaceEngine implements ISpaceModeListener {
         if (_memoryManager != null)
             _memoryManager.close();
 
+        if (_snapshotManager != null)
+            _snapshotManager.close();
+
         if (_cacheManager != null)
             _cacheManager.shutDown();
 
@@ -3524,6 +3578,7 @@ public class SpaceEngine implements ISpaceModeListener {
             _spaceImpl.getClusterFailureDetector().terminate();
         }
 
+        _spaceImpl.getOperationsExecutor().unregisterMetrics(this);
         if (_metricRegistrator != null)
             _metricRegistrator.clear();
 
@@ -6247,26 +6302,135 @@ public class SpaceEngine implements ISpaceModeListener {
     public void aggregate(ITemplatePacket queryPacket, List<SpaceEntriesAggregator> aggregators, int readModifiers,
                           SpaceContext sc)
             throws Exception {
+        aggregate(queryPacket, aggregators, readModifiers, 0, sc);
+    }
+
+    /**
+     * @param parallelism maximal number of threads aggregating the matched entries, 1 or less
+     *                    aggregates on the matching thread.
+     * @see com.gigaspaces.query.aggregators.AggregationSet#parallel(int)
+     */
+    public void aggregate(ITemplatePacket queryPacket, List<SpaceEntriesAggregator> aggregators, int readModifiers,
+                          int parallelism, SpaceContext sc)
+            throws Exception {
         if (Modifiers.contains(readModifiers, Modifiers.EXPLAIN_PLAN)) {
             throw new UnsupportedOperationException("Sql explain plan is not supported for aggregation");
         }
-        BatchQueryOperationContext batchContext = new AggregateOperationContext(queryPacket, Integer.MAX_VALUE, 1);
-        AnswerHolder ah = readMultiple(queryPacket,
-                null /*txn*/,
-                0 /*timeout*/,
-                false, /*ifExists*/
-                false, /*take*/
-                sc,
-                false, /*returnOnlyUid*/
-                readModifiers,
-                batchContext,
-                aggregators,
-                null);
+        if (aggregateColumnar(queryPacket, aggregators))
+            return;
+        final int maxThreads = Integer.getInteger(SystemProperties.ENGINE_AGGREGATION_THREADS, SystemProperties.ENGINE_AGGREGATION_THREADS_DEFAULT);
+        if (AggregationInternalUtils.isServerDefaultParallelism(parallelism))
+            parallelism = maxThreads;
+        parallelism = Math.min(parallelism, maxThreads);
+        AggregateOperationContext batchContext = parallelism > 1
+                ? new AggregateOperationContext(queryPacket, Integer.MAX_VALUE, 1, getAggregationPool(maxThreads), parallelism,
+                Integer.getInteger(SystemProperties.ENGINE_AGGREGATION_BATCH_SIZE, SystemProperties.ENGINE_AGGREGATION_BATCH_SIZE_DEFAULT))
+                : new AggregateOperationContext(queryPacket, Integer.MAX_VALUE, 1);
+        boolean finished = false;
+        try {
+            AnswerHolder ah = readMultiple(queryPacket,
+                    null /*txn*/,
+                    0 /*timeout*/,
+                    false, /*ifExists*/
+                    false, /*take*/
+                    sc,
+                    false, /*returnOnlyUid*/
+                    readModifiers,
+                    batchContext,
+                    aggregators,
+                    null);
+
+            if (ah != null && ah.getException() != null) {
+                throw ah.getException();
+            }
+
+            batchContext.finishAggregation();
+            finished = true;
+        } finally {
+            if (!finished)
+                batchContext.cancelAggregation();
+        }
+    }
+
+    /**
+     * Aggregates a query which matches all the entries of its type directly from the columnar
+     * stores of the type and its sub types, if all of them keep one.
+     *
+     * @return false if the entries should be scanned instead
+     * @see SystemProperties#ENGINE_COLUMNAR_TYPES
+     */
+    private boolean aggregateColumnar(ITemplatePacket queryPacket, List<SpaceEntriesAggregator> aggregators) {
+        if (!isMatchAllQuery(queryPacket))
+            return false;
+        if (_filterManager._isFilter[FilterOperationCodes.BEFORE_READ_MULTIPLE] || _filterManager._isFilter[FilterOperationCodes.AFTER_READ_MULTIPLE])
+            return false;
+        final IServerTypeDesc serverTypeDesc = _typeManager.getServerTypeDesc(queryPacket.getTypeName());
+        if (serverTypeDesc == null)
+            return false;
+        final List<ColumnarTypeStore> stores = new ArrayList<ColumnarTypeStore>();
+        for (IServerTypeDesc subTypeDesc : serverTypeDesc.getAssignableTypes()) {
+            TypeData typeData = _cacheManager.getTypeData(subTypeDesc);
+            if (typeData == null)
+                continue;
+            ColumnarTypeStore store = typeData.getColumnarStore();
+            if (store == null || !ColumnarAggregation.isSupported(store, aggregators))
+                return false;
+            stores.add(store);
+        }
 
-        if (ah != null && ah.getException() != null) {
-            throw ah.getException();
+        int locked = 0;
+        try {
+            for (ColumnarTypeStore store : stores) {
+                store.lockForScan();
+                locked++;
+            }
+            // checked under the scan locks so uncommitted changes cannot reach the stores
+            if (!getTransactionHandler().getXtnTable().isEmpty())
+                return false;
+            final long expirationLimit = _leaseManager.isSlaveLeaseManagerForEntries() ? 0 : SystemTime.timeMillis();
+            for (ColumnarTypeStore store : stores)
+                ColumnarAggregation.aggregate(store, aggregators, expirationLimit);
+            return true;
+        } finally {
+            for (int i = 0; i < locked; i++)
+                stores.get(i).unlockForScan();
         }
+    }
 
+    private static boolean isMatchAllQuery(ITemplatePacket queryPacket) {
+        if (queryPacket.getTypeName() == null || queryPacket.getCustomQuery() != null || queryPacket.getExtendedMatchCodes() != null)
+            return false;
+        if (queryPacket.getUID() != null || queryPacket.getMultipleUIDs() != null)
+            return false;
+        final Object[] values = queryPacket.getFieldValues();
+        if (values != null)
+            for (Object value : values)
+                if (value != null)
+                    return false;
+        final Map<String, Object> dynamicProperties = queryPacket.getDynamicProperties();
+        return dynamicProperties == null || dynamicProperties.isEmpty();
+    }
+
+    private ForkJoinPool getAggregationPool(int threads) {
+        ForkJoinPool pool = _aggregationPool;
+        if (pool == null) {
+            synchronized (_aggregationPoolLock) {
+                pool = _aggregationPool;
+                if (pool == null) {
+                    pool = new ForkJoinPool(threads, new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+                        @Override
+                        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+                            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                            thread.setName(getSpaceName() + "-aggregation-" + thread.getPoolIndex());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    }, null, false);
+                    _aggregationPool = pool;
+                }
+            }
+        }
+        return pool;
     }
 
     public int countIncomingConnections() throws RemoteException {
@@ -7164,6 +7328,13 @@ public class SpaceEngine implements ISpaceModeListener {
     }
 
     public MetricRegistrator getDataTypeReadCountMetricRegistrator( String dataTypeName ) {
+        return getDataTypeMetricRegistrator( dataTypeName );
+    }
+
+    /**
+     * Returns the registrator of metrics which are tagged with the specified data type name.
+     */
+    public MetricRegistrator getDataTypeMetricRegistrator( String dataTypeName ) {
 
         MetricRegistrator metricRegistrator = _dataTypesMetricRegistrators.get( dataTypeName );
         if( metricRegistrator == null ){
@@ -535,6 +535,14 @@ public class SpaceImpl extends AbstractService implements IRemoteSpace, IInterna
         return _engine;
     }
 
+    public RecoveryManager getRecoveryManager() {
+        return _recoveryManager;
+    }
+
+    public SpaceOperationsExecutor getOperationsExecutor() {
+        return _operationsExecutor;
+    }
+
     public QuiesceHandler getQuiesceHandler() {
         return _quiesceHandler;
     }
@@ -30,10 +30,17 @@ public class SpaceUidFactory {
     public static final String PREFIX_AUTO = "A";
     public static final String PREFIX_MANUAL = "M";
 
+    private static final ThreadLocal<char[]> _uidBuffer = new ThreadLocal<char[]>() {
+        @Override
+        protected char[] initialValue() {
+            return new char[64];
+        }
+    };
+
     private final String _memberId;
     private final AtomicLong _counter;
     private String _timeStamp;
-    private String _prefix;
+    private char[] _prefixChars;
 
     private final CopyOnUpdateMap<String, String> _typeUidFactoryCache;
 
@@ -54,7 +61,7 @@ public class SpaceUidFactory {
                 return;
 
             _timeStamp = Long.toString(SystemTime.timeMillis());
-            _prefix = PREFIX_AUTO + _memberId + SEPARATOR + _timeStamp + SEPARATOR;
+            _prefixChars = (PREFIX_AUTO + _memberId + SEPARATOR + _timeStamp + SEPARATOR).toCharArray();
             _counter.set(0);
         }
     }
@@ -78,8 +85,47 @@ public class SpaceUidFactory {
 
     public String generateUid() {
         final long id = getNextId();
-        // NOTE: This is currently the most efficient way known to concatenate two strings. 
-        return _prefix.concat(Long.toString(id));
+        // write the prefix and the counter digits into a reused per thread buffer, so only the uid
+        // string itself is allocated (instead of the counter string and the concatenated string).
+        final char[] prefix = _prefixChars;
+        final int length = prefix.length + numOfDigits(id);
+        final char[] buffer = uidBuffer(length);
+        System.arraycopy(prefix, 0, buffer, 0, prefix.length);
+        writeNumber(buffer, length, id);
+        return new String(buffer, 0, length);
+    }
+
+    /**
+     * @return a per thread buffer of at least the given length to build uid characters in
+     */
+    static char[] uidBuffer(int length) {
+        char[] buffer = _uidBuffer.get();
+        if (buffer.length < length) {
+            buffer = new char[length];
+            _uidBuffer.set(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Writes the decimal digits of a non negative number so that the last digit is at end - 1.
+     *
+     * @return the position of the first digit
+     */
+    static int writeNumber(char[] buffer, int end, long value) {
+        int pos = end;
+        do {
+            buffer[--pos] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        return pos;
+    }
+
+    static int numOfDigits(long value) {
+        int digits = 1;
+        for (long limit = 10; value >= limit && digits < 19; limit *= 10)
+            digits++;
+        return digits;
     }
 
     public String createUidFromTypeAndId(String typeName, String id, boolean validate) {
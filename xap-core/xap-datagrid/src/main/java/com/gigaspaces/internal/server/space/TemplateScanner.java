@@ -28,6 +28,7 @@ import com.gigaspaces.internal.server.storage.IEntryHolder;
 import com.gigaspaces.internal.server.storage.ITemplateHolder;
 import com.gigaspaces.internal.server.storage.ITransactionalEntryData;
 import com.gigaspaces.internal.server.storage.NotifyTemplateHolder;
+import com.gigaspaces.metrics.LatencyHistogram;
 import com.j_spaces.core.EntryDeletedException;
 import com.j_spaces.core.FifoException;
 import com.j_spaces.core.NoMatchException;
@@ -42,6 +43,7 @@ import com.j_spaces.core.sadapter.SAException;
 import com.j_spaces.kernel.ICollection;
 import com.j_spaces.kernel.IStoredList;
 import com.j_spaces.kernel.IStoredListIterator;
+import com.j_spaces.kernel.SystemProperties;
 
 import com.j_spaces.kernel.list.ScanSingleListIterator;
 import net.jini.core.transaction.server.ServerTransaction;
@@ -65,6 +67,8 @@ public class TemplateScanner {
     private final CacheManager _cacheManager;
     private final SpaceDataEventManager _dataEventManager;
     private final RegexCache _regexCache;
+    // time to match an entry against the notify templates, null if latency metrics are disabled
+    private final LatencyHistogram _notifyMatchingLatency;
 
     public TemplateScanner(SpaceTypeManager typeManager, CacheManager cacheManager,
                            SpaceDataEventManager dataEventManager, SpaceEngine engine) {
@@ -73,6 +77,12 @@ public class TemplateScanner {
         this._dataEventManager = dataEventManager;
         this._regexCache = new RegexCache(engine.getConfigReader());
         this._engine = engine;
+        this._notifyMatchingLatency = SystemProperties.getBoolean(SystemProperties.SPACE_OPERATIONS_LATENCY_METRICS_ENABLED, SystemProperties.SPACE_OPERATIONS_LATENCY_METRICS_ENABLED_DEFAULT)
+                ? new LatencyHistogram() : null;
+    }
+
+    public LatencyHistogram getNotifyMatchingLatency() {
+        return _notifyMatchingLatency;
     }
 
     //TODO test with template null
@@ -192,7 +202,10 @@ public class TemplateScanner {
                     ", notifyTypes=" + notifyContextsHolder.getNotifyTypes());
 
 
+        final long startTime = _notifyMatchingLatency != null ? System.nanoTime() : 0;
         scanTemplates(context, notifyContextsHolder.getNotifyEntry(), txn, fifoSearch, notifyContextsHolder, FifoGroupsSearch.NO);
+        if (_notifyMatchingLatency != null)
+            _notifyMatchingLatency.update(System.nanoTime() - startTime);
 
         for (NotifyContext notifyContext : notifyContextsHolder.getNotifyContexts()) {
             //	marks that all the templates for this entry was already found
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.server.space.events;
+
+import com.gigaspaces.internal.server.storage.NotifyTemplateHolder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded queue of the events waiting to be delivered to a single notify listener.
+ *
+ * At most one notifier thread drains the queue at a time, so a slow listener occupies a single
+ * notifier thread. Adding never blocks: once the queue is full the caller applies its overflow
+ * policy. A drain delivers a limited number of events and then goes back to the end of the
+ * notifier queue, so a listener with a large backlog does not hold a notifier thread for all of
+ * it.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class ListenerEventQueue {
+
+    private final BlockingQueue<RemoteEventBusPacket> _packets;
+    private final AtomicBoolean _scheduled;
+    // maximal number of events delivered by a single drain
+    private final int _drainLimit;
+    // number of events queued in all the listeners queues
+    private final AtomicLong _totalSize;
+    private final RemoteEventBusPacket _drainPacket;
+
+    public ListenerEventQueue(NotifyTemplateHolder template, int capacity, int drainLimit, AtomicLong totalSize) {
+        _packets = new ArrayBlockingQueue<RemoteEventBusPacket>(capacity);
+        _scheduled = new AtomicBoolean(false);
+        _drainLimit = drainLimit;
+        _totalSize = totalSize;
+        _drainPacket = new DrainPacket(template);
+    }
+
+    /**
+     * Adds an event to the queue, unless it is full.
+     *
+     * @return false if the queue is full and the event was not added
+     */
+    public boolean offer(RemoteEventBusPacket packet) {
+        if (!_packets.offer(packet))
+            return false;
+        _totalSize.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Called after an event was added.
+     *
+     * @return the packet which drains the queue if it should be dispatched, null if the queue is
+     * already being drained
+     */
+    public RemoteEventBusPacket schedule() {
+        return _scheduled.compareAndSet(false, true) ? _drainPacket : null;
+    }
+
+    public int size() {
+        return _packets.size();
+    }
+
+    private class DrainPacket extends RemoteEventBusPacket {
+        private DrainPacket(NotifyTemplateHolder template) {
+            super(template, null, 0, null, false);
+        }
+
+        @Override
+        public void execute(SpaceDataEventDispatcher dispatcher) throws Exception {
+            for (; ; ) {
+                RemoteEventBusPacket packet;
+                for (int i = 0; i < _drainLimit && (packet = _packets.poll()) != null; i++) {
+                    _totalSize.decrementAndGet();
+                    dispatcher.dispatch(packet);
+                }
+                if (!_packets.isEmpty()) {
+                    // still scheduled, let the events of other listeners go first
+                    dispatcher.redispatch(this);
+                    return;
+                }
+                _scheduled.set(false);
+                // an event may have been added after the last poll and before the flag was reset
+                if (_packets.isEmpty() || !_scheduled.compareAndSet(false, true))
+                    return;
+            }
+        }
+    }
+}
@@ -69,6 +69,13 @@ public class SpaceDataEventDispatcher implements IConsumerObject<RemoteEventBusP
         }
     }
 
+    /**
+     * Puts the packet back at the end of the notifier queue.
+     */
+    void redispatch(RemoteEventBusPacket packet) {
+        _dataEventManager.enqueue(packet);
+    }
+
     public void execute(RemoteEventBusPacket re) throws Exception {
         final int ttl = re.getTTL();
         NotifyTemplateHolder th = (NotifyTemplateHolder) re.getEntryHolder();
@@ -41,6 +41,11 @@ import java.util.logging.Logger;
 
 import static com.j_spaces.core.Constants.Engine.ENGINE_NOTIFIER_RETRIES_DEFAULT;
 import static com.j_spaces.core.Constants.Engine.ENGINE_NOTIFIER_TTL_PROP;
+import static com.j_spaces.core.Constants.Engine.ENGINE_NOTIFY_LISTENER_QUEUE_CAPACITY_DEFAULT;
+import static com.j_spaces.core.Constants.Engine.ENGINE_NOTIFY_LISTENER_QUEUE_CAPACITY_PROP;
+import static com.j_spaces.core.Constants.Engine.ENGINE_NOTIFY_LISTENER_QUEUE_OVERFLOW_POLICY_DEFAULT;
+import static com.j_spaces.core.Constants.Engine.ENGINE_NOTIFY_LISTENER_QUEUE_OVERFLOW_POLICY_DROP;
+import static com.j_spaces.core.Constants.Engine.ENGINE_NOTIFY_LISTENER_QUEUE_OVERFLOW_POLICY_PROP;
 import static com.j_spaces.core.Constants.Engine.ENGINE_NOTIFY_MAX_THREADS_DEFAULT;
 import static com.j_spaces.core.Constants.Engine.ENGINE_NOTIFY_MAX_THREADS_PROP;
 import static com.j_spaces.core.Constants.Engine.ENGINE_NOTIFY_MIN_THREADS_DEFAULT;
@@ -70,6 +75,14 @@ public class SpaceDataEventManager implements ISpaceModeListener {
     private final BatchNotifyExecutor _batchNotifier;
     // number of notify retries
     private final int _notifyTTL;
+    // maximal number of events delivered by a notifier thread from a listener queue before it moves on
+    private static final int LISTENER_QUEUE_DRAIN_LIMIT = 100;
+    // capacity of the events queue of each listener, 0 if events are dispatched directly
+    private final int _listenerQueueCapacity;
+    // true to discard events whose listener queue is full, false to dispatch them directly
+    private final boolean _dropOnListenerQueueOverflow;
+    // number of events queued in all the listeners queues
+    private final AtomicLong _listenerQueuesSize;
 
     public SpaceDataEventManager(IDirectSpaceProxy spaceProxy, FilterManager filterManager,
                                  SpaceImpl spaceImpl, SpaceConfigReader configReader) {
@@ -83,6 +96,11 @@ public class SpaceDataEventManager implements ISpaceModeListener {
         int maxThreads = configReader.getIntSpaceProperty(
                 ENGINE_NOTIFY_MAX_THREADS_PROP, ENGINE_NOTIFY_MAX_THREADS_DEFAULT);
         _notifyTTL = configReader.getIntSpaceProperty(ENGINE_NOTIFIER_TTL_PROP, ENGINE_NOTIFIER_RETRIES_DEFAULT);
+        _listenerQueueCapacity = configReader.getIntSpaceProperty(
+                ENGINE_NOTIFY_LISTENER_QUEUE_CAPACITY_PROP, ENGINE_NOTIFY_LISTENER_QUEUE_CAPACITY_DEFAULT);
+        _dropOnListenerQueueOverflow = ENGINE_NOTIFY_LISTENER_QUEUE_OVERFLOW_POLICY_DROP.equalsIgnoreCase(configReader.getSpaceProperty(
+                ENGINE_NOTIFY_LISTENER_QUEUE_OVERFLOW_POLICY_PROP, ENGINE_NOTIFY_LISTENER_QUEUE_OVERFLOW_POLICY_DEFAULT));
+        _listenerQueuesSize = new AtomicLong(0);
         _dataEventDispatcher = new SpaceDataEventDispatcher(this);
         this._dataEventDispatcherWorkingGroup = new WorkingGroup<RemoteEventBusPacket>(
                 _dataEventDispatcher, Thread.NORM_PRIORITY,
@@ -168,6 +186,14 @@ public class SpaceDataEventManager implements ISpaceModeListener {
         return _dataEventDispatcherWorkingGroup.getQueue().size();
     }
 
+    /**
+     * @return the number of events waiting in the listeners queues, 0 if listener queues are not
+     * enabled
+     */
+    public long getListenerQueuesSize() {
+        return _listenerQueuesSize.get();
+    }
+
     public void executePacket(RemoteEventBusPacket re, NotifyTemplateHolder th)
             throws RemoteException, UnknownEventException {
         if (th.isBatching())
@@ -199,6 +225,8 @@ public class SpaceDataEventManager implements ISpaceModeListener {
                 if (packet.isFromReplication() && !template.isTriggerNotify() && _spaceImpl.isBackup()) {
                     if (packet.getOperationID() != null)
                         _backupLog.add(packet);
+                } else if (_listenerQueueCapacity > 0) {
+                    enqueueToListener(template, packet);
                 } else {
                     _dataEventDispatcherWorkingGroup.enqueueBlocked(packet);
                 }
@@ -206,6 +234,25 @@ public class SpaceDataEventManager implements ISpaceModeListener {
         }
     }
 
+    private void enqueueToListener(NotifyTemplateHolder template, RemoteEventBusPacket packet) {
+        final ListenerEventQueue eventQueue = template.getEventQueue(_listenerQueueCapacity, LISTENER_QUEUE_DRAIN_LIMIT, _listenerQueuesSize);
+        if (eventQueue.offer(packet)) {
+            RemoteEventBusPacket drainPacket = eventQueue.schedule();
+            if (drainPacket != null)
+                _dataEventDispatcherWorkingGroup.enqueueBlocked(drainPacket);
+        } else if (_dropOnListenerQueueOverflow) {
+            if (_logger.isLoggable(Level.FINE))
+                _logger.fine("The events queue of the listener of template " + template.getUID() + " is full, event is dropped.");
+            notifyReturned(packet.getStatus(), template);
+        } else {
+            _dataEventDispatcherWorkingGroup.enqueueBlocked(packet);
+        }
+    }
+
+    void enqueue(RemoteEventBusPacket packet) {
+        _dataEventDispatcherWorkingGroup.enqueueBlocked(packet);
+    }
+
     private boolean executeBeforeNotifyTriggeredFilters(NotifyContext notifyContext, ITemplateHolder template) {
         /* the first notification causes the BEFORE_ALL_NOTIFY_TRIGGER
          * No synchronization is needed cause the search is done by only one thread. */
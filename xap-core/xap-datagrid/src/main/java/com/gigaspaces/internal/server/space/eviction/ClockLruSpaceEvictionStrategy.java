@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.internal.server.space.eviction;
+
+import com.gigaspaces.metrics.Gauge;
+import com.gigaspaces.metrics.MetricRegistrator;
+import com.gigaspaces.metrics.ThroughputMetric;
+import com.gigaspaces.server.eviction.EvictableServerEntry;
+import com.gigaspaces.server.eviction.SpaceEvictionManager;
+import com.gigaspaces.server.eviction.SpaceEvictionStrategy;
+import com.gigaspaces.server.eviction.SpaceEvictionStrategyConfig;
+import com.j_spaces.kernel.SystemProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Approximate LRU based on the CLOCK (second chance) algorithm. Entries are kept in striped
+ * segments, and touching an entry only sets a reference bit on its node - no lock is taken and no
+ * chain is re-linked on the read path. Eviction sweeps a segment with a clock hand, clearing
+ * reference bits and choosing entries which were not referenced since the previous sweep.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class ClockLruSpaceEvictionStrategy extends SpaceEvictionStrategy {
+    private static final Logger _logger = Logger.getLogger(com.gigaspaces.logger.Constants.LOGGER_CACHE);
+    private static final int INITIAL_SEGMENT_CAPACITY = 16;
+
+    private final Segment[] _segments;
+    private final AtomicInteger _size = new AtomicInteger();
+    private final LongAdder _hits = new LongAdder();
+    private final LongAdder _misses = new LongAdder();
+    private final ThroughputMetric _evictions = new ThroughputMetric();
+    private int _evictionCursor; //non volatile- only used to spread sweeps across segments
+
+    public ClockLruSpaceEvictionStrategy() {
+        this(Integer.getInteger(SystemProperties.ENGINE_LRU_SEGMENTS, SystemProperties.ENGINE_LRU_SEGMENTS_DEFAULT));
+    }
+
+    public ClockLruSpaceEvictionStrategy(int numOfSegments) {
+        if (numOfSegments <= 0)
+            numOfSegments = SystemProperties.ENGINE_LRU_SEGMENTS_DEFAULT;
+        _segments = new Segment[numOfSegments];
+        for (int i = 0; i < numOfSegments; i++)
+            _segments[i] = new Segment();
+    }
+
+    @Override
+    public void initialize(SpaceEvictionManager evictionManager, SpaceEvictionStrategyConfig config) {
+        super.initialize(evictionManager, config);
+        if (_logger.isLoggable(Level.FINE))
+            _logger.log(Level.FINE, this.getClass().getSimpleName() + " started: [" +
+                    "max-cache-size= " + config.getMaxCacheSize() +
+                    ", segments= " + _segments.length +
+                    "]");
+    }
+
+    /**
+     * Determines whether this eviction strategy implementation requires concurrency protection from
+     * the space.
+     */
+    @Override
+    public boolean requiresConcurrencyProtection() {
+        return false;
+    }
+
+    @Override
+    public void onInsert(EvictableServerEntry entry) {
+        introduce(entry);
+    }
+
+    @Override
+    public void onLoad(EvictableServerEntry entry) {
+        _misses.increment();
+        introduce(entry);
+    }
+
+    @Override
+    public void onRead(EvictableServerEntry entry) {
+        _hits.increment();
+        touch(entry);
+    }
+
+    @Override
+    public void onUpdate(EvictableServerEntry entry) {
+        touch(entry);
+    }
+
+    @Override
+    public void onRemove(EvictableServerEntry entry) {
+        Node node = (Node) entry.getEvictionPayLoad();
+        if (node == null || !node.segment.remove(node))
+            throw new IllegalStateException("The removed entry is not registered in the eviction strategy - [type=" + entry.getSpaceTypeDescriptor().getTypeName() + ", uid=" + entry.getUID() + "]");
+        _size.decrementAndGet();
+    }
+
+    @Override
+    public int evict(int numOfEntries) {
+        int numToEvict = Math.min(numOfEntries, _size.get());
+        if (numToEvict <= 0)
+            return 0;
+
+        int evicted = 0;
+        // each segment is visited at most twice - the first sweep may only clear reference bits
+        for (int i = 0; i < _segments.length * 2 && evicted < numToEvict; i++) {
+            if (isClosed())
+                break;
+            Segment segment = _segments[Math.abs(_evictionCursor++ % _segments.length)];
+            // candidates are chosen under the segment lock but evicted outside of it, since
+            // eviction locks the entry and calls back onRemove
+            for (Node node : segment.sweep(numToEvict - evicted)) {
+                if (node.removed)
+                    continue;
+                if (getEvictionManager().tryEvict(node.entry))
+                    evicted++;
+                if (evicted == numToEvict)
+                    break;
+            }
+        }
+        _evictions.add(evicted);
+        return evicted;
+    }
+
+    /**
+     * Registers the hit ratio and eviction throughput of this strategy.
+     */
+    public void registerMetrics(MetricRegistrator registrator) {
+        registrator.register("hit-ratio", new Gauge<Double>() {
+            private long prevHits;
+            private long prevMisses;
+
+            @Override
+            public synchronized Double getValue() {
+                long hits = _hits.sum();
+                long misses = _misses.sum();
+                double result = calculatePercent(hits - prevHits, (hits - prevHits) + (misses - prevMisses));
+                prevHits = hits;
+                prevMisses = misses;
+                return result;
+            }
+        });
+        registrator.register("evicted-tp", _evictions);
+        registrator.register("evicted-total", _evictions.getTotalMetric());
+    }
+
+    public int size() {
+        return _size.get();
+    }
+
+    private void introduce(EvictableServerEntry entry) {
+        // Note: the size is intentionally incremented before the entry is added, as in the concurrent LRU.
+        _size.incrementAndGet();
+        Segment segment = _segments[ThreadLocalRandom.current().nextInt(_segments.length)];
+        Node node = new Node(entry, segment);
+        entry.setEvictionPayLoad(node);
+        segment.add(node);
+    }
+
+    private static void touch(EvictableServerEntry entry) {
+        Node node = (Node) entry.getEvictionPayLoad();
+        // read before write to avoid invalidating the cache line of hot entries on every read
+        if (node != null && !node.referenced)
+            node.referenced = true;
+    }
+
+    private static final class Node {
+        private final EvictableServerEntry entry;
+        private final Segment segment;
+        private volatile boolean referenced;
+        private volatile boolean removed;
+        private int index; //guarded by the segment lock
+
+        private Node(EvictableServerEntry entry, Segment segment) {
+            this.entry = entry;
+            this.segment = segment;
+        }
+    }
+
+    private static final class Segment {
+        private final ReentrantLock _lock = new ReentrantLock();
+        private Node[] _nodes = new Node[INITIAL_SEGMENT_CAPACITY];
+        private int _count;
+        private int _hand;
+
+        private void add(Node node) {
+            _lock.lock();
+            try {
+                if (_count == _nodes.length) {
+                    Node[] nodes = new Node[_nodes.length * 2];
+                    System.arraycopy(_nodes, 0, nodes, 0, _count);
+                    _nodes = nodes;
+                }
+                node.index = _count;
+                _nodes[_count++] = node;
+            } finally {
+                _lock.unlock();
+            }
+        }
+
+        private boolean remove(Node node) {
+            _lock.lock();
+            try {
+                if (node.removed)
+                    return false;
+                node.removed = true;
+                // move the last node into the vacated slot
+                Node last = _nodes[--_count];
+                _nodes[node.index] = last;
+                last.index = node.index;
+                _nodes[_count] = null;
+                if (_nodes.length > INITIAL_SEGMENT_CAPACITY && _count < _nodes.length / 4) {
+                    Node[] nodes = new Node[_nodes.length / 2];
+                    System.arraycopy(_nodes, 0, nodes, 0, _count);
+                    _nodes = nodes;
+                }
+                return true;
+            } finally {
+                _lock.unlock();
+            }
+        }
+
+        private List<Node> sweep(int max) {
+            List<Node> candidates = new ArrayList<Node>(Math.min(max, INITIAL_SEGMENT_CAPACITY));
+            _lock.lock();
+            try {
+                int limit = _count * 2;
+                for (int scanned = 0; scanned < limit && candidates.size() < max; scanned++) {
+                    if (_hand >= _count)
+                        _hand = 0;
+                    Node node = _nodes[_hand++];
+                    if (node.referenced)
+                        node.referenced = false;
+                    else
+                        candidates.add(node);
+                }
+            } finally {
+                _lock.unlock();
+            }
+            return candidates;
+        }
+    }
+}
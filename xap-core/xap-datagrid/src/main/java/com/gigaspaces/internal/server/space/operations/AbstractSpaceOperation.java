@@ -29,6 +29,14 @@ public abstract class AbstractSpaceOperation<TResult extends RemoteOperationResu
 
     public abstract String getLogName(TRequest request, TResult result);
 
+    /**
+     * Returns the name of the space type the request operates on, used to track metrics per type,
+     * or null if the operation is not type specific.
+     */
+    public String getTypeName(TRequest request) {
+        return null;
+    }
+
     public boolean isGenericLogging() {
         return true;
     }
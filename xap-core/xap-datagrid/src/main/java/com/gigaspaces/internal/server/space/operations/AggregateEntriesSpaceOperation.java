@@ -40,7 +40,8 @@ public class AggregateEntriesSpaceOperation extends AbstractSpaceOperation<Aggre
 
             space.beginPacketOperation(true, request.getSpaceContext(), requiredPrivilege, request.getQueryPacket());
 
-            space.getEngine().aggregate(request.getQueryPacket(), request.getAggregators(), request.getReadModifiers(), request.getSpaceContext());
+            space.getEngine().aggregate(request.getQueryPacket(), request.getAggregators(), request.getReadModifiers(),
+                    request.getParallelism(), request.getSpaceContext());
 
             Object[] intermediateResults = new Object[request.getAggregators().size()];
             for (int i = 0; i < intermediateResults.length; i++)
@@ -56,4 +57,9 @@ public class AggregateEntriesSpaceOperation extends AbstractSpaceOperation<Aggre
     public String getLogName(AggregateEntriesSpaceOperationRequest request, AggregateEntriesSpaceOperationResult result) {
         return "scan";
     }
+
+    @Override
+    public String getTypeName(AggregateEntriesSpaceOperationRequest request) {
+        return request.getQueryPacket() != null ? request.getQueryPacket().getTypeName() : null;
+    }
 }
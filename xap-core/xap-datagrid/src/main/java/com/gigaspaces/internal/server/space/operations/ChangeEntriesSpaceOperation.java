@@ -213,5 +213,8 @@ public class ChangeEntriesSpaceOperation
         return "change";
     }
 
-
+    @Override
+    public String getTypeName(ChangeEntriesSpaceOperationRequest request) {
+        return request.getTemplatePacket() != null ? request.getTemplatePacket().getTypeName() : null;
+    }
 }
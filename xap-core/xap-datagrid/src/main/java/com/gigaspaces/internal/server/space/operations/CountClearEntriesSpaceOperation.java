@@ -48,4 +48,8 @@ public class CountClearEntriesSpaceOperation extends AbstractSpaceOperation<Coun
         return request.isClear() ? "clear" : "count";
     }
 
+    @Override
+    public String getTypeName(CountClearEntriesSpaceOperationRequest request) {
+        return request.getTemplatePacket() != null ? request.getTemplatePacket().getTypeName() : null;
+    }
 }
@@ -43,4 +43,9 @@ public class ReadTakeEntriesByIdsSpaceOperation extends AbstractSpaceOperation<R
                              ReadTakeEntriesByIdsSpaceOperationResult result) {
         return request.isTake() ? "take by ids" : "read by ids";
     }
+
+    @Override
+    public String getTypeName(ReadTakeEntriesByIdsSpaceOperationRequest request) {
+        return request.getTemplate() != null ? request.getTemplate().getTypeName() : null;
+    }
 }
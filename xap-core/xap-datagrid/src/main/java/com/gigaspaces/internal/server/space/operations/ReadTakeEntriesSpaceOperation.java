@@ -61,4 +61,9 @@ public class ReadTakeEntriesSpaceOperation extends AbstractSpaceOperation<ReadTa
                              ReadTakeEntriesSpaceOperationResult result) {
         return request.isTake() ? "take entries" : "read entries";
     }
+
+    @Override
+    public String getTypeName(ReadTakeEntriesSpaceOperationRequest request) {
+        return request.getTemplatePacket() != null ? request.getTemplatePacket().getTypeName() : null;
+    }
 }
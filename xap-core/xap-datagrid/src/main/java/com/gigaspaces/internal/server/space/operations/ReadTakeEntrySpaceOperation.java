@@ -65,4 +65,9 @@ public class ReadTakeEntrySpaceOperation extends AbstractSpaceOperation<ReadTake
                              ReadTakeEntrySpaceOperationResult result) {
         return request.isTake() ? "take" : "read";
     }
+
+    @Override
+    public String getTypeName(ReadTakeEntrySpaceOperationRequest request) {
+        return request.getTemplatePacket() != null ? request.getTemplatePacket().getTypeName() : null;
+    }
 }
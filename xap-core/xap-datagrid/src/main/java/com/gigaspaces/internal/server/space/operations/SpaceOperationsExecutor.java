@@ -18,10 +18,18 @@ package com.gigaspaces.internal.server.space.operations;
 
 import com.gigaspaces.internal.remoting.RemoteOperationRequest;
 import com.gigaspaces.internal.remoting.RemoteOperationResult;
+import com.gigaspaces.internal.server.space.SpaceEngine;
 import com.gigaspaces.internal.server.space.SpaceImpl;
+import com.gigaspaces.metrics.LatencyHistogram;
+import com.gigaspaces.metrics.MetricConstants;
+import com.gigaspaces.metrics.MetricRegistrator;
 import com.j_spaces.core.exception.ClosedResourceException;
+import com.j_spaces.kernel.SystemProperties;
 
 import java.rmi.RemoteException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.logging.Level;
 
 /**
@@ -30,35 +38,86 @@ import java.util.logging.Level;
  */
 @com.gigaspaces.api.InternalApi
 public class SpaceOperationsExecutor {
+    private static final String[] OPERATIONS_METRIC_NAMES = initOperationsMetricNames();
+    // Types beyond this limit are only recorded in the per operation latencies
+    private static final int MAX_TYPES_LATENCIES = 1024;
+
     private final AbstractSpaceOperation<?, ?>[] _operations;
+    // Latency per operation code, null if latency metrics are disabled
+    private final LatencyHistogram[] _latencies;
+    // Latency per space type and operation code, created on the first operation of each type/code
+    // and discarded when the type is dropped
+    private final Map<String, AtomicReferenceArray<LatencyHistogram>> _typesLatencies;
+    // Engine whose registrators hold the latency metrics, guarded by _typesLatencies
+    private SpaceEngine _metricsEngine;
 
     public SpaceOperationsExecutor() {
-        this._operations = new AbstractSpaceOperation[SpaceOperationsCodes.NUM_OF_OPERATIONS];
-        this._operations[SpaceOperationsCodes.EXECUTE_TASK] = new ExecuteTaskSpaceOperation();
-        this._operations[SpaceOperationsCodes.ABORT_TRANSACTION] = new AbortPreparedTransactionSpaceOperation();
-        this._operations[SpaceOperationsCodes.COMMIT_TRANSACTION] = new CommitPreparedTransactionSpaceOperation();
-        this._operations[SpaceOperationsCodes.PREPARE_AND_COMMIT_TRANSACTION] = new PrepareAndCommitTransactionSpaceOperation();
-        this._operations[SpaceOperationsCodes.GET_ENTRY_TYPE_DESCRIPTOR] = new GetEntryTypeDescriptorSpaceOperation();
-        this._operations[SpaceOperationsCodes.REGISTER_ENTRY_TYPE_DESCRIPTOR] = new RegisterEntryTypeDescriptorSpaceOperation();
-        this._operations[SpaceOperationsCodes.ADD_ENTRY_TYPE_INDEXES] = new AddEntryTypeIndexesSpaceOperation();
-        this._operations[SpaceOperationsCodes.UPDATE_LEASE] = new UpdateLeaseSpaceOperation();
-        this._operations[SpaceOperationsCodes.UPDATE_LEASES] = new UpdateLeasesSpaceOperation();
-        this._operations[SpaceOperationsCodes.WRITE_ENTRY] = new WriteEntrySpaceOperation();
-        this._operations[SpaceOperationsCodes.WRITE_ENTRIES] = new WriteEntriesSpaceOperation();
-        this._operations[SpaceOperationsCodes.READ_TAKE_ENTRY] = new ReadTakeEntrySpaceOperation();
-        this._operations[SpaceOperationsCodes.READ_TAKE_ENTRIES] = new ReadTakeEntriesSpaceOperation();
-        this._operations[SpaceOperationsCodes.READ_TAKE_ENTRIES_BY_IDS] = new ReadTakeEntriesByIdsSpaceOperation();
-        this._operations[SpaceOperationsCodes.READ_TAKE_ENTRIES_UIDS] = new ReadTakeEntriesUidsSpaceOperation();
-        this._operations[SpaceOperationsCodes.COUNT_CLEAR_ENTRIES] = new CountClearEntriesSpaceOperation();
-        this._operations[SpaceOperationsCodes.REGISTER_ENTRIES_LISTENER] = new RegisterEntriesListenerSpaceOperation();
-        this._operations[SpaceOperationsCodes.CHANGE_ENTRIES] = new ChangeEntriesSpaceOperation();
-        this._operations[SpaceOperationsCodes.REGISTER_LOCAL_VIEW] = new RegisterLocalViewSpaceOperation();
-        this._operations[SpaceOperationsCodes.UNREGISTER_LOCAL_VIEW] = new UnregisterLocalViewSpaceOperation();
-        this._operations[SpaceOperationsCodes.AGGREGATE_ENTRIES] = new AggregateEntriesSpaceOperation();
+        this(createOperations());
     }
 
     public SpaceOperationsExecutor(AbstractSpaceOperation<?, ?>[] operations) {
         this._operations = operations;
+        if (SystemProperties.getBoolean(SystemProperties.SPACE_OPERATIONS_LATENCY_METRICS_ENABLED, SystemProperties.SPACE_OPERATIONS_LATENCY_METRICS_ENABLED_DEFAULT)) {
+            this._latencies = new LatencyHistogram[operations.length];
+            for (int i = 0; i < operations.length; i++)
+                if (operations[i] != null)
+                    _latencies[i] = new LatencyHistogram();
+        } else {
+            this._latencies = null;
+        }
+        this._typesLatencies = new ConcurrentHashMap<String, AtomicReferenceArray<LatencyHistogram>>();
+    }
+
+    private static AbstractSpaceOperation<?, ?>[] createOperations() {
+        AbstractSpaceOperation<?, ?>[] operations = new AbstractSpaceOperation[SpaceOperationsCodes.NUM_OF_OPERATIONS];
+        operations[SpaceOperationsCodes.EXECUTE_TASK] = new ExecuteTaskSpaceOperation();
+        operations[SpaceOperationsCodes.ABORT_TRANSACTION] = new AbortPreparedTransactionSpaceOperation();
+        operations[SpaceOperationsCodes.COMMIT_TRANSACTION] = new CommitPreparedTransactionSpaceOperation();
+        operations[SpaceOperationsCodes.PREPARE_AND_COMMIT_TRANSACTION] = new PrepareAndCommitTransactionSpaceOperation();
+        operations[SpaceOperationsCodes.GET_ENTRY_TYPE_DESCRIPTOR] = new GetEntryTypeDescriptorSpaceOperation();
+        operations[SpaceOperationsCodes.REGISTER_ENTRY_TYPE_DESCRIPTOR] = new RegisterEntryTypeDescriptorSpaceOperation();
+        operations[SpaceOperationsCodes.ADD_ENTRY_TYPE_INDEXES] = new AddEntryTypeIndexesSpaceOperation();
+        operations[SpaceOperationsCodes.UPDATE_LEASE] = new UpdateLeaseSpaceOperation();
+        operations[SpaceOperationsCodes.UPDATE_LEASES] = new UpdateLeasesSpaceOperation();
+        operations[SpaceOperationsCodes.WRITE_ENTRY] = new WriteEntrySpaceOperation();
+        operations[SpaceOperationsCodes.WRITE_ENTRIES] = new WriteEntriesSpaceOperation();
+        operations[SpaceOperationsCodes.READ_TAKE_ENTRY] = new ReadTakeEntrySpaceOperation();
+        operations[SpaceOperationsCodes.READ_TAKE_ENTRIES] = new ReadTakeEntriesSpaceOperation();
+        operations[SpaceOperationsCodes.READ_TAKE_ENTRIES_BY_IDS] = new ReadTakeEntriesByIdsSpaceOperation();
+        operations[SpaceOperationsCodes.READ_TAKE_ENTRIES_UIDS] = new ReadTakeEntriesUidsSpaceOperation();
+        operations[SpaceOperationsCodes.COUNT_CLEAR_ENTRIES] = new CountClearEntriesSpaceOperation();
+        operations[SpaceOperationsCodes.REGISTER_ENTRIES_LISTENER] = new RegisterEntriesListenerSpaceOperation();
+        operations[SpaceOperationsCodes.CHANGE_ENTRIES] = new ChangeEntriesSpaceOperation();
+        operations[SpaceOperationsCodes.REGISTER_LOCAL_VIEW] = new RegisterLocalViewSpaceOperation();
+        operations[SpaceOperationsCodes.UNREGISTER_LOCAL_VIEW] = new UnregisterLocalViewSpaceOperation();
+        operations[SpaceOperationsCodes.AGGREGATE_ENTRIES] = new AggregateEntriesSpaceOperation();
+        return operations;
+    }
+
+    private static String[] initOperationsMetricNames() {
+        String[] names = new String[SpaceOperationsCodes.NUM_OF_OPERATIONS];
+        names[SpaceOperationsCodes.EXECUTE_TASK] = "execute";
+        names[SpaceOperationsCodes.ABORT_TRANSACTION] = "abort-transaction";
+        names[SpaceOperationsCodes.COMMIT_TRANSACTION] = "commit-transaction";
+        names[SpaceOperationsCodes.PREPARE_AND_COMMIT_TRANSACTION] = "prepare-and-commit-transaction";
+        names[SpaceOperationsCodes.UPDATE_LEASE] = "update-lease";
+        names[SpaceOperationsCodes.UPDATE_LEASES] = "update-leases";
+        names[SpaceOperationsCodes.GET_ENTRY_TYPE_DESCRIPTOR] = "get-type-descriptor";
+        names[SpaceOperationsCodes.REGISTER_ENTRY_TYPE_DESCRIPTOR] = "register-type-descriptor";
+        names[SpaceOperationsCodes.ADD_ENTRY_TYPE_INDEXES] = "add-type-indexes";
+        names[SpaceOperationsCodes.WRITE_ENTRY] = "write";
+        names[SpaceOperationsCodes.WRITE_ENTRIES] = "write-multiple";
+        names[SpaceOperationsCodes.READ_TAKE_ENTRY] = "read-take";
+        names[SpaceOperationsCodes.READ_TAKE_ENTRIES] = "read-take-multiple";
+        names[SpaceOperationsCodes.READ_TAKE_ENTRIES_BY_IDS] = "read-take-by-ids";
+        names[SpaceOperationsCodes.READ_TAKE_ENTRIES_UIDS] = "read-take-uids";
+        names[SpaceOperationsCodes.COUNT_CLEAR_ENTRIES] = "count-clear";
+        names[SpaceOperationsCodes.REGISTER_ENTRIES_LISTENER] = "register-listener";
+        names[SpaceOperationsCodes.CHANGE_ENTRIES] = "change";
+        names[SpaceOperationsCodes.REGISTER_LOCAL_VIEW] = "register-local-view";
+        names[SpaceOperationsCodes.UNREGISTER_LOCAL_VIEW] = "unregister-local-view";
+        names[SpaceOperationsCodes.AGGREGATE_ENTRIES] = "aggregate";
+        return names;
     }
 
     public <T extends RemoteOperationResult> T executeOperation(RemoteOperationRequest<T> request, SpaceImpl space, boolean oneway) {
@@ -72,6 +131,7 @@ public class SpaceOperationsExecutor {
 
         // Initialize operation result:
         T result = request.createRemoteOperationResult();
+        final long startTime = _latencies != null ? System.nanoTime() : 0;
         try {
             // TODO: Handle availability aspect.
             // TODO: Handle security aspect.
@@ -92,6 +152,100 @@ public class SpaceOperationsExecutor {
             result.setExecutionException(e);
         }
 
+        if (_latencies != null)
+            recordLatency(operationCode, operation.getTypeName(request), System.nanoTime() - startTime);
         return result;
     }
+
+    /**
+     * Registers the latency metrics with the metric registrators of the specified engine. Called
+     * whenever the space creates an engine, since metrics are unregistered when the engine closes.
+     */
+    public void registerMetrics(SpaceEngine engine) {
+        if (_latencies == null)
+            return;
+        synchronized (_typesLatencies) {
+            _metricsEngine = engine;
+            final MetricRegistrator registrator = engine.getMetricRegistrator();
+            for (int code = 0; code < _latencies.length; code++)
+                if (_latencies[code] != null)
+                    registrator.register(toLatencyMetricName(registrator, code), _latencies[code]);
+            for (Map.Entry<String, AtomicReferenceArray<LatencyHistogram>> entry : _typesLatencies.entrySet()) {
+                final MetricRegistrator typeRegistrator = engine.getDataTypeMetricRegistrator(entry.getKey());
+                for (int code = 0; code < entry.getValue().length(); code++)
+                    if (entry.getValue().get(code) != null)
+                        typeRegistrator.register(toLatencyMetricName(typeRegistrator, code), entry.getValue().get(code));
+            }
+        }
+    }
+
+    /**
+     * Stops registering new latency metrics with the specified engine, which is closing.
+     */
+    public void unregisterMetrics(SpaceEngine engine) {
+        synchronized (_typesLatencies) {
+            if (_metricsEngine == engine)
+                _metricsEngine = null;
+        }
+    }
+
+    private void recordLatency(int operationCode, String typeName, long duration) {
+        _latencies[operationCode].update(duration);
+        if (typeName == null)
+            return;
+        AtomicReferenceArray<LatencyHistogram> typeLatencies = _typesLatencies.get(typeName);
+        LatencyHistogram histogram = typeLatencies != null ? typeLatencies.get(operationCode) : null;
+        if (histogram == null)
+            histogram = createTypeLatency(typeName, operationCode);
+        if (histogram != null)
+            histogram.update(duration);
+    }
+
+    /**
+     * Unregisters and discards the latency metrics of the specified type, which was dropped from
+     * the space.
+     */
+    public void unregisterTypeMetrics(String typeName) {
+        if (_latencies == null)
+            return;
+        synchronized (_typesLatencies) {
+            final AtomicReferenceArray<LatencyHistogram> typeLatencies = _typesLatencies.remove(typeName);
+            if (typeLatencies == null || _metricsEngine == null)
+                return;
+            final MetricRegistrator typeRegistrator = _metricsEngine.getDataTypeMetricRegistrator(typeName);
+            for (int code = 0; code < typeLatencies.length(); code++)
+                if (typeLatencies.get(code) != null)
+                    typeRegistrator.unregisterByPrefix(toLatencyMetricName(typeRegistrator, code));
+        }
+    }
+
+    private LatencyHistogram createTypeLatency(String typeName, int operationCode) {
+        synchronized (_typesLatencies) {
+            AtomicReferenceArray<LatencyHistogram> typeLatencies = _typesLatencies.get(typeName);
+            if (typeLatencies == null) {
+                if (_typesLatencies.size() >= MAX_TYPES_LATENCIES)
+                    return null;
+                typeLatencies = new AtomicReferenceArray<LatencyHistogram>(_latencies.length);
+                _typesLatencies.put(typeName, typeLatencies);
+            }
+            LatencyHistogram histogram = typeLatencies.get(operationCode);
+            if (histogram == null) {
+                histogram = new LatencyHistogram();
+                typeLatencies.set(operationCode, histogram);
+                // Without an engine, it is registered once the space creates the next one
+                if (_metricsEngine != null) {
+                    final MetricRegistrator typeRegistrator = _metricsEngine.getDataTypeMetricRegistrator(typeName);
+                    typeRegistrator.register(toLatencyMetricName(typeRegistrator, operationCode), histogram);
+                }
+            }
+            return histogram;
+        }
+    }
+
+    private static String toLatencyMetricName(MetricRegistrator registrator, int operationCode) {
+        final String operationName = operationCode < OPERATIONS_METRIC_NAMES.length && OPERATIONS_METRIC_NAMES[operationCode] != null
+                ? OPERATIONS_METRIC_NAMES[operationCode]
+                : "operation-" + operationCode;
+        return registrator.toPath(MetricConstants.OPERATIONS_METRIC_NAME, operationName + "-latency");
+    }
 }
@@ -71,4 +71,9 @@ public class WriteEntrySpaceOperation extends AbstractSpaceOperation<WriteEntryS
                              WriteEntrySpaceOperationResult result) {
         return "write";
     }
+
+    @Override
+    public String getTypeName(WriteEntrySpaceOperationRequest request) {
+        return request.getEntryPacket() != null ? request.getEntryPacket().getTypeName() : null;
+    }
 }
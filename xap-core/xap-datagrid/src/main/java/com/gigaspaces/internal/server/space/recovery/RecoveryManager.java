@@ -17,6 +17,8 @@
 package com.gigaspaces.internal.server.space.recovery;
 
 import com.gigaspaces.cluster.activeelection.SpaceMode;
+import com.gigaspaces.internal.cluster.node.replica.ISpaceCopyResult;
+import com.gigaspaces.internal.cluster.node.replica.ISpaceSynchronizeReplicaState;
 import com.gigaspaces.internal.server.space.SpaceImpl;
 import com.gigaspaces.internal.server.space.recovery.strategy.AllInCacheCentralDBBackupSpaceRecovery;
 import com.gigaspaces.internal.server.space.recovery.strategy.LRUCentralDBBackupSpaceRecovery;
@@ -24,7 +26,11 @@ import com.gigaspaces.internal.server.space.recovery.strategy.NonCentralDBBackup
 import com.gigaspaces.internal.server.space.recovery.strategy.NonPrimaryBackupSpaceRecovery;
 import com.gigaspaces.internal.server.space.recovery.strategy.PrimarySpaceRecovery;
 import com.gigaspaces.internal.server.space.recovery.strategy.SpaceRecoverStrategy;
+import com.gigaspaces.internal.server.space.snapshot.SpaceSnapshotManager;
 import com.j_spaces.core.SpaceRecoveryException;
+import com.j_spaces.core.client.FinderException;
+
+import java.rmi.RemoteException;
 
 import static com.j_spaces.core.Constants.CacheManager.CACHE_POLICY_ALL_IN_CACHE;
 import static com.j_spaces.core.Constants.CacheManager.CACHE_POLICY_LRU;
@@ -72,6 +78,41 @@ public class RecoveryManager {
         return new NonCentralDBBackupSpaceRecovery(_space);
     }
 
+    /**
+     * Restores the space from its latest memory snapshot if no other space was reachable to recover
+     * from and no data was loaded from a data source. A failed copy from a reachable space is left
+     * to fail the recovery, since the snapshot may miss operations that space acknowledged.
+     *
+     * @param recoveryState the result of the recovery from another space, null if no space was
+     *                      found
+     * @return true if a snapshot was restored
+     */
+    public boolean recoverFromSnapshot(ISpaceSynchronizeReplicaState recoveryState)
+            throws Exception {
+        if (recoveryState != null && !isRecoverySourceUnreachable(recoveryState.getCopyResult()))
+            return false;
+
+        SpaceSnapshotManager snapshotManager = _space.getEngine().getSnapshotManager();
+        if (snapshotManager == null || !snapshotManager.isEnabled())
+            return false;
+
+        if (_space.getEngine().getCacheManager().getNumberOfEntries() > 0)
+            return false;
+
+        return snapshotManager.restore() >= 0;
+    }
+
+    /**
+     * @return true if the copy failed because none of the recovery targets could be reached, see
+     * {@link com.gigaspaces.internal.server.space.recovery.group.RecoveryGroup}
+     */
+    private static boolean isRecoverySourceUnreachable(ISpaceCopyResult copyResult) {
+        if (copyResult.isSuccessful())
+            return false;
+        Exception failureReason = copyResult.getFailureReason();
+        return failureReason instanceof FinderException || failureReason instanceof RemoteException;
+    }
+
     /**
      * @param spaceMode
      * @return
@@ -63,7 +63,9 @@ public class NonPrimaryBackupSpaceRecovery
      */
     public ISpaceSynchronizeReplicaState recover() throws Exception {
         recoverFromDB();
-        return recoverFromOtherSpace();
+        ISpaceSynchronizeReplicaState recoveryState = recoverFromOtherSpace();
+        _space.getRecoveryManager().recoverFromSnapshot(recoveryState);
+        return recoveryState;
     }
 
     /* (non-Javadoc)
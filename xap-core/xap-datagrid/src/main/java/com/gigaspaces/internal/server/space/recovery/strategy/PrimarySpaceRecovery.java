@@ -61,7 +61,9 @@ public class PrimarySpaceRecovery
      */
     public ISpaceSynchronizeReplicaState recover() throws Exception {
         recoverFromDB();
-        return recoverFromOtherSpace();
+        ISpaceSynchronizeReplicaState recoveryState = recoverFromOtherSpace();
+        _space.getRecoveryManager().recoverFromSnapshot(recoveryState);
+        return recoveryState;
     }
 
     /* (non-Javadoc)
@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.mapped;
+
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.ByteBufferStorageException;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.IByteBufferStorage;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.IByteBufferStorageCursor;
+import com.gigaspaces.logger.Constants;
+import com.gigaspaces.start.SystemLocations;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link IByteBufferStorage} implementation that is based on memory mapped windows of a file.
+ * <p>
+ * The cursor maps a window of the file around its current position and remaps it once an
+ * operation falls outside of it. Appending at the end of the storage simply maps the next window,
+ * which grows the file sequentially. When a read needs a new window the whole window is loaded
+ * into physical memory up front, so a cursor replaying the segment reads ahead in large sequential
+ * chunks instead of a system call per packet. The file is unmapped and deleted once the storage
+ * is closed, which happens when the segment is deleted after its packets were confirmed.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class MappedByteBufferStorage
+        implements IByteBufferStorage {
+
+    private static final Logger _logger = Logger.getLogger(Constants.LOGGER_REPLICATION_BACKLOG);
+
+    private static final int PAGE_SIZE = 4096;
+
+    private final File _file;
+    private final int _windowSize;
+    private volatile Cursor _cursor;
+    private volatile boolean _closed;
+
+    public MappedByteBufferStorage(String fileName, int windowSize) throws ByteBufferStorageException {
+        _windowSize = windowSize;
+        try {
+            File workLocation = SystemLocations.singleton().work().toFile();
+            workLocation.mkdirs();
+            File replicationDirPath = new File(workLocation, "replication");
+            replicationDirPath.mkdirs();
+            _file = File.createTempFile(fileName, "tmp", replicationDirPath);
+        } catch (IOException e) {
+            throw new ByteBufferStorageException("error creating temp file", e);
+        }
+        try {
+            getFile().deleteOnExit();
+        } catch (Throwable t) {
+            //Do nothing, this can occurr if deleteOnExit is called when the jvm is during shutdown.
+        }
+    }
+
+    public void clear() throws ByteBufferStorageException {
+        if (_cursor == null)
+            getCursor();
+
+        _cursor.clear();
+    }
+
+    public synchronized void close() {
+        if (_cursor != null)
+            _cursor.close();
+        _cursor = null;
+        getFile().delete();
+        _closed = true;
+    }
+
+    public File getFile() {
+        return _file;
+    }
+
+    public int getWindowSize() {
+        return _windowSize;
+    }
+
+    public synchronized IByteBufferStorageCursor getCursor()
+            throws ByteBufferStorageException {
+        if (_closed)
+            throw new MappedByteBufferStorageException("storage is closed");
+        if (_cursor == null)
+            try {
+                _cursor = new Cursor();
+            } catch (FileNotFoundException e) {
+                throw new ByteBufferStorageException("error creating cursor over the temp file", e);
+            }
+
+        return _cursor;
+    }
+
+    public String getName() {
+        try {
+            return _file.getAbsolutePath();
+        } catch (Throwable t) {
+            //We dont want to throw exception from here
+            return null;
+        }
+    }
+
+    private class Cursor implements IByteBufferStorageCursor {
+
+        private final RandomAccessFile _raf;
+        private final FileChannel _channel;
+        private MappedByteBuffer _window;
+        private long _windowStart;
+        private long _position;
+
+        public Cursor() throws FileNotFoundException {
+            _raf = new RandomAccessFile(_file, "rw");
+            _channel = _raf.getChannel();
+        }
+
+        /**
+         * Makes sure the current window covers the next length bytes starting at the cursor
+         * position and returns the offset of the cursor position inside that window
+         */
+        private int windowOffset(int length, boolean read) {
+            if (_window == null || _position < _windowStart || _position + length > _windowStart + _window.capacity())
+                remap(length, read);
+            return (int) (_position - _windowStart);
+        }
+
+        private void remap(int length, boolean read) {
+            unmapWindow();
+            long start = _position - (_position % PAGE_SIZE);
+            int size = (int) Math.max(_windowSize, _position + length - start);
+            try {
+                _window = _channel.map(FileChannel.MapMode.READ_WRITE, start, size);
+            } catch (IOException e) {
+                throw new MappedByteBufferStorageException(e);
+            }
+            _windowStart = start;
+            if (read)
+                _window.load();
+        }
+
+        private void unmapWindow() {
+            if (_window != null) {
+                MappedByteBuffer window = _window;
+                _window = null;
+                unmap(window);
+            }
+        }
+
+        public void clear() {
+            unmapWindow();
+            try {
+                _channel.truncate(0);
+            } catch (IOException e) {
+                throw new MappedByteBufferStorageException(e);
+            }
+            _position = 0;
+        }
+
+        public void close() {
+            try {
+                unmapWindow();
+                _raf.close();
+            } catch (IOException e) {
+                throw new MappedByteBufferStorageException(e);
+            } finally {
+                _cursor = null;
+            }
+        }
+
+        public long getPosition() {
+            return _position;
+        }
+
+        public void movePosition(long offset) {
+            _position += offset;
+        }
+
+        public void setPosition(long position) {
+            _position = position;
+        }
+
+        public byte readByte() {
+            int windowOffset = windowOffset(1, true);
+            byte value = _window.get(windowOffset);
+            _position += 1;
+            return value;
+        }
+
+        public void readBytes(byte[] result, int offset, int length) {
+            int windowOffset = windowOffset(length, true);
+            _window.position(windowOffset);
+            _window.get(result, offset, length);
+            _position += length;
+        }
+
+        public int readInt() {
+            int windowOffset = windowOffset(4, true);
+            int value = _window.getInt(windowOffset);
+            _position += 4;
+            return value;
+        }
+
+        public long readLong() {
+            int windowOffset = windowOffset(8, true);
+            long value = _window.getLong(windowOffset);
+            _position += 8;
+            return value;
+        }
+
+        public void writeByte(byte value) {
+            int windowOffset = windowOffset(1, false);
+            _window.put(windowOffset, value);
+            _position += 1;
+        }
+
+        public void writeBytes(byte[] array, int offset, int length) {
+            int windowOffset = windowOffset(length, false);
+            _window.position(windowOffset);
+            _window.put(array, offset, length);
+            _position += length;
+        }
+
+        public void writeInt(int value) {
+            int windowOffset = windowOffset(4, false);
+            _window.putInt(windowOffset, value);
+            _position += 4;
+        }
+
+        public void writeLong(long value) {
+            int windowOffset = windowOffset(8, false);
+            _window.putLong(windowOffset, value);
+            _position += 8;
+        }
+    }
+
+    private static final Unmapper _unmapper = initUnmapper();
+
+    /**
+     * Releases the mapping eagerly instead of waiting for the buffer to be garbage collected, which
+     * would keep the memory and the file (on some platforms) around after the segment was deleted
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        if (_unmapper == null)
+            return;
+        try {
+            _unmapper.unmap(buffer);
+        } catch (Throwable t) {
+            if (_logger.isLoggable(Level.FINE))
+                _logger.log(Level.FINE, "Failed to unmap swap redo log segment window, it will be released by the garbage collector", t);
+        }
+    }
+
+    private interface Unmapper {
+        void unmap(ByteBuffer buffer) throws Exception;
+    }
+
+    private static Unmapper initUnmapper() {
+        // Java 9 and above
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            final Object unsafe = theUnsafe.get(null);
+            return new Unmapper() {
+                @Override
+                public void unmap(ByteBuffer buffer) throws Exception {
+                    invokeCleaner.invoke(unsafe, buffer);
+                }
+            };
+        } catch (Throwable t) {
+            // Fall back to the Java 8 cleaner
+        }
+        try {
+            final Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            final Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+            return new Unmapper() {
+                @Override
+                public void unmap(ByteBuffer buffer) throws Exception {
+                    Object bufferCleaner = cleaner.invoke(buffer);
+                    if (bufferCleaner != null)
+                        clean.invoke(bufferCleaner);
+                }
+            };
+        } catch (Throwable t) {
+            if (_logger.isLoggable(Level.FINE))
+                _logger.log(Level.FINE, "Eager unmapping of swap redo log segment windows is not supported", t);
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.mapped;
+
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.ByteBufferStorageException;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.IByteBufferStorage;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.IByteBufferStorageFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link IByteBufferStorageFactory} implementation that provides {@link MappedByteBufferStorage}
+ * instances, each segment of the redo log is backed by its own memory mapped file
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class MappedByteBufferStorageFactory
+        implements IByteBufferStorageFactory {
+
+    public static final int DEFAULT_WINDOW_SIZE = 4 * 1024 * 1024;
+
+    private final String _fileName;
+    private final int _windowSize;
+    private AtomicInteger _counter = new AtomicInteger(0);
+
+    public MappedByteBufferStorageFactory(String fileName) {
+        this(fileName, DEFAULT_WINDOW_SIZE);
+    }
+
+    public MappedByteBufferStorageFactory(String fileName, int windowSize) {
+        if (windowSize <= 0)
+            throw new IllegalArgumentException("window size must be positive [" + windowSize + "]");
+        this._fileName = fileName;
+        this._windowSize = windowSize;
+    }
+
+    public IByteBufferStorage createStorage() throws ByteBufferStorageException {
+        int index = _counter.getAndIncrement();
+        return new MappedByteBufferStorage(_fileName + "_" + index, _windowSize);
+    }
+
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.server.space.snapshot;
+
+import com.gigaspaces.internal.server.metadata.IServerTypeDesc;
+import com.gigaspaces.internal.server.space.SpaceConfigReader;
+import com.gigaspaces.internal.server.space.SpaceEngine;
+import com.gigaspaces.internal.server.storage.IEntryHolder;
+import com.gigaspaces.internal.transport.EntryPacketFactory;
+import com.gigaspaces.internal.transport.IEntryPacket;
+import com.gigaspaces.logger.Constants;
+import com.gigaspaces.time.SystemTime;
+import com.j_spaces.core.ISpaceState;
+import com.j_spaces.core.SpaceOperations;
+import com.j_spaces.core.XtnEntry;
+import com.j_spaces.core.XtnStatus;
+import com.j_spaces.core.cache.CacheManager;
+import com.j_spaces.core.cache.IEntryCacheInfo;
+import com.j_spaces.core.cache.TypeData;
+import com.j_spaces.kernel.JSpaceUtilities;
+import com.j_spaces.kernel.list.IScanListIterator;
+import com.j_spaces.kernel.locks.ILockObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.j_spaces.core.Constants.CacheManager.CACHE_MANAGER_SNAPSHOT_DIR_DEFAULT;
+import static com.j_spaces.core.Constants.CacheManager.CACHE_MANAGER_SNAPSHOT_DIR_PROP;
+import static com.j_spaces.core.Constants.CacheManager.CACHE_MANAGER_SNAPSHOT_INTERVAL_DEFAULT;
+import static com.j_spaces.core.Constants.CacheManager.CACHE_MANAGER_SNAPSHOT_INTERVAL_PROP;
+import static com.j_spaces.core.Constants.CacheManager.CACHE_MANAGER_SNAPSHOT_RESTORE_THREADS_DEFAULT;
+import static com.j_spaces.core.Constants.CacheManager.CACHE_MANAGER_SNAPSHOT_RESTORE_THREADS_PROP;
+import static com.j_spaces.core.Constants.CacheManager.CACHE_MANAGER_SNAPSHOT_RETAINED_DEFAULT;
+import static com.j_spaces.core.Constants.CacheManager.CACHE_MANAGER_SNAPSHOT_RETAINED_PROP;
+
+/**
+ * Periodically writes a snapshot of the types and entries of an all-in-cache memory space to local
+ * disk, and restores the latest snapshot when the space is restarted with no other member to
+ * recover from.
+ *
+ * Snapshots do not block space operations - the entries of each type are scanned while the space
+ * keeps running, and each entry is copied under its own lock in its last committed state. A
+ * snapshot is therefore consistent per entry but not across entries.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class SpaceSnapshotManager {
+
+    private static final Logger _logger = Logger.getLogger(Constants.LOGGER_ENGINE);
+
+    private final SpaceEngine _engine;
+    private final File _directory;
+    private final long _interval;
+    private final int _retained;
+    private final int _restoreThreads;
+    private final Object _snapshotLock = new Object();
+    private Timer _timer;
+    private volatile boolean _closed;
+
+    public SpaceSnapshotManager(SpaceEngine engine) {
+        this._engine = engine;
+        final SpaceConfigReader configReader = engine.getConfigReader();
+        final String directory = configReader.getSpaceProperty(CACHE_MANAGER_SNAPSHOT_DIR_PROP, CACHE_MANAGER_SNAPSHOT_DIR_DEFAULT);
+        final CacheManager cacheManager = engine.getCacheManager();
+        final boolean supported = cacheManager.isMemorySpace() && cacheManager.isAllInCachePolicy() && !cacheManager.isBlobStoreCachePolicy();
+        if (directory == null || directory.trim().length() == 0 || !supported) {
+            if (directory != null && directory.trim().length() != 0 && _logger.isLoggable(Level.WARNING))
+                _logger.warning("Memory snapshots of [" + engine.getFullSpaceName() + "] are ignored, they are supported only for all-in-cache memory spaces");
+            this._directory = null;
+        } else {
+            this._directory = new File(directory.trim(), engine.getFullSpaceName().replace(':', '_'));
+        }
+        this._interval = configReader.getLongSpaceProperty(CACHE_MANAGER_SNAPSHOT_INTERVAL_PROP, CACHE_MANAGER_SNAPSHOT_INTERVAL_DEFAULT);
+        this._retained = Math.max(1, configReader.getIntSpaceProperty(CACHE_MANAGER_SNAPSHOT_RETAINED_PROP, CACHE_MANAGER_SNAPSHOT_RETAINED_DEFAULT));
+        this._restoreThreads = Math.max(1, configReader.getIntSpaceProperty(CACHE_MANAGER_SNAPSHOT_RESTORE_THREADS_PROP, CACHE_MANAGER_SNAPSHOT_RESTORE_THREADS_DEFAULT));
+    }
+
+    public boolean isEnabled() {
+        return _directory != null;
+    }
+
+    /**
+     * Starts taking periodic snapshots, snapshots are skipped while the space is not started so a
+     * recovering space does not overwrite its previous snapshot.
+     */
+    public synchronized void start() {
+        if (!isEnabled() || _closed || _interval <= 0)
+            return;
+        _timer = new Timer("GS-SpaceSnapshot-" + _engine.getFullSpaceName(), true);
+        _timer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                if (_engine.getSpaceImpl().getState() != ISpaceState.STARTED)
+                    return;
+                try {
+                    takeSnapshot();
+                } catch (Exception e) {
+                    if (!_closed && _logger.isLoggable(Level.WARNING))
+                        _logger.log(Level.WARNING, "Failed to take memory snapshot of [" + _engine.getFullSpaceName() + "]", e);
+                }
+            }
+        }, _interval, _interval);
+    }
+
+    public synchronized void close() {
+        _closed = true;
+        if (_timer != null) {
+            _timer.cancel();
+            _timer = null;
+        }
+    }
+
+    /**
+     * Writes a snapshot of the current space contents and removes old snapshots.
+     *
+     * @return the snapshot file
+     */
+    public File takeSnapshot() throws IOException {
+        synchronized (_snapshotLock) {
+            if (!_directory.isDirectory() && !_directory.mkdirs())
+                throw new IOException("Failed to create snapshot directory " + _directory);
+
+            final long startTime = SystemTime.timeMillis();
+            final SpaceSnapshotWriter writer = new SpaceSnapshotWriter(_directory, startTime);
+            boolean committed = false;
+            try {
+                final List<IServerTypeDesc> types = getSnapshotTypes();
+                for (IServerTypeDesc serverTypeDesc : types)
+                    writer.writeType(serverTypeDesc.getTypeDesc());
+                for (int i = 0; i < types.size(); i++)
+                    writeTypeEntries(writer, i, types.get(i));
+                writer.commit();
+                committed = true;
+            } finally {
+                if (!committed)
+                    writer.abort();
+            }
+
+            removeOldSnapshots();
+            if (_logger.isLoggable(Level.FINE))
+                _logger.fine("Memory snapshot of [" + _engine.getFullSpaceName() + "] written to " + writer.getFile()
+                        + " [entries=" + writer.getEntriesCount() + ", duration=" + JSpaceUtilities.formatMillis(SystemTime.timeMillis() - startTime) + "]");
+            return writer.getFile();
+        }
+    }
+
+    /**
+     * Restores the latest valid snapshot into the space. Each snapshot is read once in full before
+     * any of its entries is written, snapshots which cannot be restored (e.g. truncated, corrupted
+     * or written by a different version) are skipped in favor of the next older one.
+     *
+     * @return the number of restored entries, or -1 if there was no snapshot to restore
+     */
+    public long restore() throws Exception {
+        if (!isEnabled())
+            return -1;
+        for (File file : SpaceSnapshotReader.listSnapshots(_directory)) {
+            final SpaceSnapshotReader reader;
+            try {
+                SpaceSnapshotReader.validate(file);
+                reader = new SpaceSnapshotReader(file);
+            } catch (IOException e) {
+                if (_logger.isLoggable(Level.WARNING))
+                    _logger.log(Level.WARNING, "Skipping memory snapshot " + file + " of [" + _engine.getFullSpaceName() + "]", e);
+                continue;
+            }
+            try {
+                final long startTime = SystemTime.timeMillis();
+                final SpaceSnapshotRestorer restorer = new SpaceSnapshotRestorer(_engine, reader, _restoreThreads);
+                final long restored = restorer.restore();
+                if (_logger.isLoggable(Level.INFO))
+                    _logger.info("Restored [" + _engine.getFullSpaceName() + "] from memory snapshot " + file
+                            + " [entries=" + restored + ", expired=" + restorer.getExpiredCount()
+                            + ", age=" + JSpaceUtilities.formatMillis(startTime - reader.getCreationTime())
+                            + ", duration=" + JSpaceUtilities.formatMillis(SystemTime.timeMillis() - startTime) + "]");
+                return restored;
+            } finally {
+                reader.close();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the active user types, super types before their sub types
+     */
+    private List<IServerTypeDesc> getSnapshotTypes() {
+        final List<IServerTypeDesc> result = new ArrayList<IServerTypeDesc>();
+        for (IServerTypeDesc serverTypeDesc : _engine.getTypeManager().getSafeTypeTable().values()) {
+            if (serverTypeDesc.isRootType() || serverTypeDesc.isInactive() || serverTypeDesc.getTypeDesc() == null
+                    || IServerTypeDesc.ROOT_SYSTEM_TYPE_NAME.equals(serverTypeDesc.getTypeName()))
+                continue;
+            result.add(serverTypeDesc);
+        }
+        Collections.sort(result, new Comparator<IServerTypeDesc>() {
+            @Override
+            public int compare(IServerTypeDesc t1, IServerTypeDesc t2) {
+                return Integer.compare(t1.getSuperTypes().length, t2.getSuperTypes().length);
+            }
+        });
+        return result;
+    }
+
+    private void writeTypeEntries(SpaceSnapshotWriter writer, int typeIndex, IServerTypeDesc serverTypeDesc)
+            throws IOException {
+        final CacheManager cacheManager = _engine.getCacheManager();
+        final TypeData typeData = cacheManager.getTypeData(serverTypeDesc);
+        if (typeData == null)
+            return;
+        final IScanListIterator<IEntryCacheInfo> entries = typeData.scanTypeEntries();
+        if (entries == null)
+            return;
+        try {
+            while (entries.hasNext()) {
+                if (_closed)
+                    throw new IOException("Memory snapshot of [" + _engine.getFullSpaceName() + "] was interrupted by space shutdown");
+                final IEntryCacheInfo pEntry = entries.next();
+                if (pEntry == null)
+                    continue;
+                final IEntryHolder entryHolder = pEntry.getEntryHolder(cacheManager);
+                final long[] expirationTime = new long[1];
+                final IEntryPacket entryPacket = createEntryPacket(cacheManager, entryHolder, expirationTime);
+                if (entryPacket != null)
+                    writer.writeEntry(typeIndex, expirationTime[0], entryPacket);
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to scan entries of type " + serverTypeDesc.getTypeName(), e);
+        } finally {
+            try {
+                entries.releaseScan();
+            } catch (Exception e) {
+                // nothing to do
+            }
+        }
+    }
+
+    /**
+     * Copies the last committed state of the entry under the entry lock.
+     *
+     * @return the packet, or null if the entry should not be part of the snapshot
+     */
+    private IEntryPacket createEntryPacket(CacheManager cacheManager, IEntryHolder entryHolder, long[] expirationTime) {
+        final ILockObject entryLock = cacheManager.getLockManager().getLockObject(entryHolder);
+        try {
+            synchronized (entryLock) {
+                final IEntryHolder committed = getCommittedEntry(entryHolder);
+                if (committed == null)
+                    return null;
+                final long expiration = committed.getEntryData().getExpirationTime();
+                final long ttl = expiration == Long.MAX_VALUE ? Long.MAX_VALUE : expiration - SystemTime.timeMillis();
+                if (ttl <= 0)
+                    return null;
+                final IEntryPacket entryPacket = EntryPacketFactory.createFullPacketForReplication(committed, null, entryHolder.getUID(), ttl);
+                entryPacket.setSerializeTypeDesc(false);
+                expirationTime[0] = expiration;
+                return entryPacket;
+            }
+        } finally {
+            cacheManager.getLockManager().freeLockObject(entryLock);
+        }
+    }
+
+    private static IEntryHolder getCommittedEntry(IEntryHolder entryHolder) {
+        if (entryHolder.isDeleted())
+            return null;
+        final XtnEntry xtnEntry = entryHolder.getWriteLockOwner();
+        if (xtnEntry == null || xtnEntry.getStatus() == XtnStatus.COMMITED || xtnEntry.getStatus() == XtnStatus.COMMITING)
+            return entryHolder;
+        switch (entryHolder.getWriteLockOperation()) {
+            case SpaceOperations.WRITE:
+                // written by a transaction which was not committed yet
+                return null;
+            case SpaceOperations.UPDATE:
+                return entryHolder.hasShadow(true /* safeEntry */) ? entryHolder.getShadow() : entryHolder;
+            default:
+                return entryHolder;
+        }
+    }
+
+    private void removeOldSnapshots() {
+        final List<File> snapshots = SpaceSnapshotReader.listSnapshots(_directory);
+        for (int i = _retained; i < snapshots.size(); i++) {
+            if (!snapshots.get(i).delete() && _logger.isLoggable(Level.WARNING))
+                _logger.warning("Failed to delete old memory snapshot " + snapshots.get(i));
+        }
+    }
+}
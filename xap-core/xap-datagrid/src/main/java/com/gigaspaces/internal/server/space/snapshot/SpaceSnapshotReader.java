@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.server.space.snapshot;
+
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.DefaultPacketStreamSerializer;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.PacketSerializer;
+import com.gigaspaces.internal.version.PlatformLogicalVersion;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+import static com.gigaspaces.internal.server.space.snapshot.SpaceSnapshotWriter.END_RECORD;
+import static com.gigaspaces.internal.server.space.snapshot.SpaceSnapshotWriter.ENTRY_RECORD;
+import static com.gigaspaces.internal.server.space.snapshot.SpaceSnapshotWriter.FORMAT_VERSION;
+import static com.gigaspaces.internal.server.space.snapshot.SpaceSnapshotWriter.MAGIC;
+import static com.gigaspaces.internal.server.space.snapshot.SpaceSnapshotWriter.SNAPSHOT_PREFIX;
+import static com.gigaspaces.internal.server.space.snapshot.SpaceSnapshotWriter.SNAPSHOT_SUFFIX;
+import static com.gigaspaces.internal.server.space.snapshot.SpaceSnapshotWriter.TYPE_RECORD;
+
+/**
+ * Reads a memory snapshot file written by {@link SpaceSnapshotWriter}. Records are read
+ * sequentially by a single thread while their payloads may be deserialized concurrently using
+ * {@link #deserialize(byte[])}.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class SpaceSnapshotReader {
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final File _file;
+    private final DataInputStream _input;
+    private final CRC32 _checksum = new CRC32();
+    private final PacketSerializer<Object> _serializer = new PacketSerializer<Object>(new DefaultPacketStreamSerializer<Object>());
+    private final long _creationTime;
+
+    private byte _recordType = -1;
+    private int _typeIndex;
+    private long _expirationTime;
+    private byte[] _payload;
+    private int _typesCount;
+    private long _entriesCount;
+
+    /**
+     * Opens the specified snapshot and validates its header.
+     *
+     * @throws IOException if the file is not a snapshot or was written by a different platform
+     *                     version
+     */
+    public SpaceSnapshotReader(File file) throws IOException {
+        this._file = file;
+        this._input = new DataInputStream(new CheckedInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE), _checksum));
+        try {
+            if (_input.readInt() != MAGIC)
+                throw new IOException("File " + file + " is not a space snapshot");
+            final byte formatVersion = _input.readByte();
+            if (formatVersion != FORMAT_VERSION)
+                throw new IOException("Unsupported snapshot format version " + formatVersion + " in " + file);
+            final Object version = deserialize(readPayload());
+            if (!PlatformLogicalVersion.getLogicalVersion().equals(version))
+                throw new IOException("Snapshot " + file + " was written by version " + version + " and cannot be restored by version " + PlatformLogicalVersion.getLogicalVersion());
+            this._creationTime = _input.readLong();
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    public File getFile() {
+        return _file;
+    }
+
+    public long getCreationTime() {
+        return _creationTime;
+    }
+
+    /**
+     * Reads the next type or entry record.
+     *
+     * @return false if the end record was reached
+     * @throws IOException if the snapshot is truncated or corrupted
+     */
+    public boolean next() throws IOException {
+        _recordType = _input.readByte();
+        switch (_recordType) {
+            case TYPE_RECORD:
+                _payload = readPayload();
+                _typesCount++;
+                return true;
+            case ENTRY_RECORD:
+                _typeIndex = _input.readInt();
+                if (_typeIndex < 0 || _typeIndex >= _typesCount)
+                    throw new IOException("Corrupted snapshot " + _file + " - entry of unknown type index " + _typeIndex);
+                _expirationTime = _input.readLong();
+                _payload = readPayload();
+                _entriesCount++;
+                return true;
+            case END_RECORD:
+                final int typesCount = _input.readInt();
+                final long entriesCount = _input.readLong();
+                if (typesCount != _typesCount || entriesCount != _entriesCount)
+                    throw new IOException("Corrupted snapshot " + _file + " - expected " + typesCount + " types and " + entriesCount
+                            + " entries but found " + _typesCount + " types and " + _entriesCount + " entries");
+                final long expectedChecksum = _checksum.getValue();
+                final long checksum = _input.readLong();
+                if (checksum != expectedChecksum)
+                    throw new IOException("Corrupted snapshot " + _file + " - checksum mismatch");
+                if (_input.read() != -1)
+                    throw new IOException("Corrupted snapshot " + _file + " - unexpected data after the end record");
+                _payload = null;
+                return false;
+            default:
+                throw new IOException("Corrupted snapshot " + _file + " - unknown record type " + _recordType);
+        }
+    }
+
+    /**
+     * Reads the whole snapshot without deserializing its records, so a truncated or corrupted
+     * snapshot is detected before any of its entries is restored.
+     *
+     * @throws IOException if the snapshot cannot be restored
+     */
+    public static void validate(File file) throws IOException {
+        final SpaceSnapshotReader reader = new SpaceSnapshotReader(file);
+        try {
+            while (reader.next()) {
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    public boolean isTypeRecord() {
+        return _recordType == TYPE_RECORD;
+    }
+
+    public int getTypeIndex() {
+        return _typeIndex;
+    }
+
+    public long getExpirationTime() {
+        return _expirationTime;
+    }
+
+    /**
+     * @return the serialized payload of the current record
+     */
+    public byte[] getPayload() {
+        return _payload;
+    }
+
+    public long getEntriesCount() {
+        return _entriesCount;
+    }
+
+    /**
+     * Deserializes a record payload, may be called concurrently.
+     */
+    public Object deserialize(byte[] payload) throws IOException {
+        try {
+            return _serializer.deserializePacket(payload);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Failed to deserialize snapshot record of " + _file, e);
+        }
+    }
+
+    public void close() {
+        try {
+            _input.close();
+        } catch (IOException e) {
+            // nothing to do
+        }
+    }
+
+    private byte[] readPayload() throws IOException {
+        final int length = _input.readInt();
+        if (length < 0)
+            throw new IOException("Corrupted snapshot " + _file + " - negative record length " + length);
+        final byte[] payload = new byte[length];
+        _input.readFully(payload);
+        return payload;
+    }
+
+    /**
+     * @return the completed snapshots in the specified directory, newest first
+     */
+    public static List<File> listSnapshots(File directory) {
+        List<File> result = new ArrayList<File>();
+        File[] files = directory.listFiles();
+        if (files == null)
+            return result;
+        for (File file : files) {
+            if (getSnapshotTime(file) >= 0)
+                result.add(file);
+        }
+        Collections.sort(result, new Comparator<File>() {
+            @Override
+            public int compare(File f1, File f2) {
+                return Long.compare(getSnapshotTime(f2), getSnapshotTime(f1));
+            }
+        });
+        return result;
+    }
+
+    private static long getSnapshotTime(File file) {
+        final String name = file.getName();
+        if (!name.startsWith(SNAPSHOT_PREFIX) || !name.endsWith(SNAPSHOT_SUFFIX))
+            return -1;
+        try {
+            return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
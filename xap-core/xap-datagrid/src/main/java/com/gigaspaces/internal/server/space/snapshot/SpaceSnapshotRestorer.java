@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.server.space.snapshot;
+
+import com.gigaspaces.internal.metadata.ITypeDesc;
+import com.gigaspaces.internal.server.space.SpaceEngine;
+import com.gigaspaces.internal.transport.IEntryPacket;
+import com.gigaspaces.internal.utils.concurrent.GSThread;
+import com.gigaspaces.time.SystemTime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes the contents of a memory snapshot back into the space. Types are registered by the
+ * reading thread, entries are deserialized and written by several threads so the entries and their
+ * indexes are rebuilt concurrently.
+ *
+ * Entries of fifo and fifo grouping types are routed by type so each such type is written by a
+ * single thread in snapshot order, batches of other entries are spread over the threads round
+ * robin.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class SpaceSnapshotRestorer {
+
+    private static final List<Record> END_OF_SNAPSHOT = Collections.emptyList();
+    private static final int BATCH_SIZE = 1000;
+    private static final int QUEUE_CAPACITY = 4;
+
+    private final SpaceEngine _engine;
+    private final SpaceSnapshotReader _reader;
+    private final Worker[] _workers;
+    private final List<Record>[] _pendingBatches;
+    private final List<Boolean> _fifoTypes = new ArrayList<Boolean>();
+    private final AtomicLong _restored = new AtomicLong();
+    private final AtomicLong _expired = new AtomicLong();
+    private volatile Throwable _failure;
+    private int _nextWorker;
+
+    @SuppressWarnings("unchecked")
+    public SpaceSnapshotRestorer(SpaceEngine engine, SpaceSnapshotReader reader, int threads) {
+        this._engine = engine;
+        this._reader = reader;
+        this._workers = new Worker[threads];
+        this._pendingBatches = new List[threads];
+        for (int i = 0; i < threads; i++) {
+            _workers[i] = new Worker(engine.getFullSpaceName() + "-snapshot-restore-" + i);
+            _pendingBatches[i] = new ArrayList<Record>(BATCH_SIZE);
+        }
+    }
+
+    /**
+     * @return the number of restored entries
+     */
+    public long restore() throws Exception {
+        for (Worker worker : _workers)
+            worker.start();
+        try {
+            while (_reader.next()) {
+                if (_reader.isTypeRecord())
+                    restoreType((ITypeDesc) _reader.deserialize(_reader.getPayload()));
+                else
+                    add(new Record(_reader.getTypeIndex(), _reader.getExpirationTime(), _reader.getPayload()));
+            }
+            for (int i = 0; i < _workers.length; i++) {
+                if (!_pendingBatches[i].isEmpty())
+                    dispatch(i, _pendingBatches[i]);
+                dispatch(i, END_OF_SNAPSHOT);
+            }
+            for (Worker worker : _workers)
+                worker.join();
+            throwIfFailed();
+            return _restored.get();
+        } catch (Exception e) {
+            for (Worker worker : _workers)
+                worker.interrupt();
+            throw e;
+        }
+    }
+
+    public long getExpiredCount() {
+        return _expired.get();
+    }
+
+    private void restoreType(ITypeDesc typeDesc) throws Exception {
+        _engine.getTypeManager().addTypeDesc(typeDesc);
+        _fifoTypes.add(typeDesc.isFifoSupported() || typeDesc.getFifoGroupingPropertyPath() != null);
+    }
+
+    private void add(Record record) throws Exception {
+        final int index = _fifoTypes.get(record._typeIndex) ? record._typeIndex % _workers.length : _nextWorker;
+        final List<Record> batch = _pendingBatches[index];
+        batch.add(record);
+        if (batch.size() >= BATCH_SIZE) {
+            _pendingBatches[index] = new ArrayList<Record>(BATCH_SIZE);
+            dispatch(index, batch);
+            _nextWorker = (_nextWorker + 1) % _workers.length;
+        }
+    }
+
+    private void dispatch(int index, List<Record> batch) throws Exception {
+        while (!_workers[index]._queue.offer(batch, 1, TimeUnit.SECONDS))
+            throwIfFailed();
+        throwIfFailed();
+    }
+
+    private void throwIfFailed() throws Exception {
+        final Throwable failure = _failure;
+        if (failure == null)
+            return;
+        if (failure instanceof Exception)
+            throw (Exception) failure;
+        if (failure instanceof Error)
+            throw (Error) failure;
+        throw new IllegalStateException("Snapshot restore failed", failure);
+    }
+
+    private void write(Record record) throws Exception {
+        long ttl = Long.MAX_VALUE;
+        if (record._expirationTime != Long.MAX_VALUE) {
+            ttl = record._expirationTime - SystemTime.timeMillis();
+            if (ttl <= 0) {
+                _expired.incrementAndGet();
+                return;
+            }
+        }
+        final IEntryPacket entryPacket = (IEntryPacket) _reader.deserialize(record._payload);
+        // written like the entries of a space copy (see SpaceEngineReplicaConsumerFacade): a
+        // replicated space marks them as replicated, so the restored contents are not added to the
+        // redo log and sent again to the mirror and the backups, which recover them by a space copy
+        _engine.write(entryPacket,
+                null /* txn */,
+                ttl,
+                0 /* modifiers */,
+                _engine.isReplicated() /* fromRepl */,
+                true /* origin */,
+                null);
+        _restored.incrementAndGet();
+    }
+
+    private static class Record {
+        private final int _typeIndex;
+        private final long _expirationTime;
+        private final byte[] _payload;
+
+        private Record(int typeIndex, long expirationTime, byte[] payload) {
+            this._typeIndex = typeIndex;
+            this._expirationTime = expirationTime;
+            this._payload = payload;
+        }
+    }
+
+    private class Worker extends GSThread {
+        private final BlockingQueue<List<Record>> _queue = new ArrayBlockingQueue<List<Record>>(QUEUE_CAPACITY);
+
+        private Worker(String name) {
+            super(name);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    List<Record> batch = _queue.take();
+                    if (batch == END_OF_SNAPSHOT)
+                        break;
+                    // after a failure keep draining so the reading thread is never blocked
+                    if (_failure != null)
+                        continue;
+                    for (Record record : batch)
+                        write(record);
+                }
+            } catch (InterruptedException e) {
+                // aborted
+            } catch (Throwable e) {
+                if (_failure == null)
+                    _failure = e;
+                drain();
+            }
+        }
+
+        private void drain() {
+            try {
+                while (_queue.take() != END_OF_SNAPSHOT) {
+                }
+            } catch (InterruptedException e) {
+                // aborted
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.server.space.snapshot;
+
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.DefaultPacketStreamSerializer;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.PacketSerializer;
+import com.gigaspaces.internal.version.PlatformLogicalVersion;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Writes a memory snapshot file. The snapshot is written to a temporary file which is renamed to
+ * its final name only when {@link #commit()} is called, so an interrupted snapshot never replaces
+ * a complete one.
+ *
+ * The file starts with a header (magic, format version, the writing platform version and creation
+ * time) followed by type records, entry records and a trailing end record holding the record
+ * counts and a CRC32 checksum of all the preceding bytes. Types and entries are serialized one
+ * record at a time using a {@link PacketSerializer}.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class SpaceSnapshotWriter {
+
+    static final int MAGIC = 0x47534E50;
+    static final byte FORMAT_VERSION = 1;
+
+    static final byte END_RECORD = 0;
+    static final byte TYPE_RECORD = 1;
+    static final byte ENTRY_RECORD = 2;
+
+    static final String SNAPSHOT_PREFIX = "snapshot-";
+    static final String SNAPSHOT_SUFFIX = ".gsnap";
+    static final String TEMP_SUFFIX = ".tmp";
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final File _file;
+    private final File _tempFile;
+    private final FileOutputStream _fileOutput;
+    private final DataOutputStream _output;
+    private final CRC32 _checksum = new CRC32();
+    private final PacketSerializer<Object> _serializer = new PacketSerializer<Object>(new DefaultPacketStreamSerializer<Object>());
+    private int _typesCount;
+    private long _entriesCount;
+    private boolean _closed;
+
+    public SpaceSnapshotWriter(File directory, long creationTime) throws IOException {
+        this._file = new File(directory, SNAPSHOT_PREFIX + creationTime + SNAPSHOT_SUFFIX);
+        this._tempFile = new File(directory, _file.getName() + TEMP_SUFFIX);
+        this._fileOutput = new FileOutputStream(_tempFile);
+        this._output = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(_fileOutput, BUFFER_SIZE), _checksum));
+
+        _output.writeInt(MAGIC);
+        _output.writeByte(FORMAT_VERSION);
+        writePayload(PlatformLogicalVersion.getLogicalVersion());
+        _output.writeLong(creationTime);
+    }
+
+    public File getFile() {
+        return _file;
+    }
+
+    /**
+     * Writes a type record, types must be written before the entries referring to them and super
+     * types before their sub types.
+     *
+     * @return the index of the type, used by the entry records of this type
+     */
+    public int writeType(Object typeDesc) throws IOException {
+        _output.writeByte(TYPE_RECORD);
+        writePayload(typeDesc);
+        return _typesCount++;
+    }
+
+    public void writeEntry(int typeIndex, long expirationTime, Object entryPacket) throws IOException {
+        _output.writeByte(ENTRY_RECORD);
+        _output.writeInt(typeIndex);
+        _output.writeLong(expirationTime);
+        writePayload(entryPacket);
+        _entriesCount++;
+    }
+
+    public long getEntriesCount() {
+        return _entriesCount;
+    }
+
+    /**
+     * Writes the end record, syncs the file to disk and renames it to its final name.
+     */
+    public void commit() throws IOException {
+        _output.writeByte(END_RECORD);
+        _output.writeInt(_typesCount);
+        _output.writeLong(_entriesCount);
+        _output.writeLong(_checksum.getValue());
+        _output.flush();
+        _fileOutput.getFD().sync();
+        close();
+        if (!_tempFile.renameTo(_file))
+            throw new IOException("Failed to rename snapshot file " + _tempFile + " to " + _file);
+    }
+
+    /**
+     * Discards an uncommitted snapshot.
+     */
+    public void abort() {
+        try {
+            close();
+        } catch (IOException e) {
+            // the file is deleted anyway
+        }
+        _tempFile.delete();
+    }
+
+    private void close() throws IOException {
+        if (_closed)
+            return;
+        _closed = true;
+        _output.close();
+    }
+
+    private void writePayload(Object payload) throws IOException {
+        ByteBuffer buffer = _serializer.serializePacket(payload);
+        _output.writeInt(buffer.limit());
+        _output.write(buffer.array(), 0, buffer.limit());
+    }
+}
@@ -21,6 +21,7 @@ import com.gigaspaces.events.NotifyInfo;
 import com.gigaspaces.internal.server.metadata.IServerTypeDesc;
 import com.gigaspaces.internal.server.space.FifoSearch;
 import com.gigaspaces.internal.server.space.events.BatchNotifyExecutor.EventHolder;
+import com.gigaspaces.internal.server.space.events.ListenerEventQueue;
 import com.gigaspaces.internal.server.space.events.NotifyContextsHolder;
 import com.gigaspaces.internal.transport.EntryPacketFactory;
 import com.gigaspaces.internal.transport.IEntryPacket;
@@ -71,6 +72,8 @@ public class NotifyTemplateHolder extends TemplateHolder {
     private final Queue<EventHolder> _pendingBatchEvents;
     private final AtomicInteger _numPendingBatchEvents;
     private long _batchOrder;
+    // events waiting to be delivered to the listener, created on the first event if listener queues are enabled
+    private volatile ListenerEventQueue _eventQueue;
 
     public NotifyTemplateHolder(IServerTypeDesc typeDesc, ITemplatePacket template,
                                 String uid, long expirationTime, long eventId,
@@ -200,6 +203,18 @@ public class NotifyTemplateHolder extends TemplateHolder {
         return _notifyInfo.isBatching();
     }
 
+    public ListenerEventQueue getEventQueue(int capacity, int drainLimit, AtomicLong totalSize) {
+        ListenerEventQueue eventQueue = _eventQueue;
+        if (eventQueue == null) {
+            synchronized (this) {
+                if (_eventQueue == null)
+                    _eventQueue = new ListenerEventQueue(this, capacity, drainLimit, totalSize);
+                eventQueue = _eventQueue;
+            }
+        }
+        return eventQueue;
+    }
+
     public int getBatchSize() {
         return _notifyInfo.getBatchSize();
     }
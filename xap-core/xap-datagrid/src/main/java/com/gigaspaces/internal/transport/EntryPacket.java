@@ -25,6 +25,7 @@ import com.gigaspaces.internal.metadata.EntryType;
 import com.gigaspaces.internal.metadata.ITypeDesc;
 import com.gigaspaces.internal.metadata.PropertyInfo;
 import com.gigaspaces.internal.query.ICustomQuery;
+import com.gigaspaces.internal.server.space.CompactUid;
 import com.gigaspaces.internal.version.PlatformLogicalVersion;
 import com.j_spaces.core.EntrySerializationException;
 
@@ -283,8 +284,12 @@ public class EntryPacket extends AbstractEntryPacket {
 
             if (_typeName != null)
                 IOUtils.writeRepetitiveString(out, _typeName);
-            if (_uid != null)
-                IOUtils.writeString(out, _uid);
+            if (_uid != null) {
+                if (version.greaterOrEquals(PlatformLogicalVersion.v15_5_0))
+                    CompactUid.writeUid(out, _uid);
+                else
+                    IOUtils.writeString(out, _uid);
+            }
             if (_version != 0)
                 out.writeInt(_version);
             if (_timeToLive != 0)
@@ -331,7 +336,7 @@ public class EntryPacket extends AbstractEntryPacket {
             if ((flags & FLAG_CLASSNAME) != 0)
                 _typeName = IOUtils.readRepetitiveString(in);
             if ((flags & FLAG_UID) != 0)
-                _uid = IOUtils.readString(in);
+                _uid = version.greaterOrEquals(PlatformLogicalVersion.v15_5_0) ? CompactUid.readUid(in) : IOUtils.readString(in);
             if ((flags & FLAG_VERSION) != 0)
                 _version = in.readInt();
             if ((flags & FLAG_TIME_TO_LIVE) != 0)
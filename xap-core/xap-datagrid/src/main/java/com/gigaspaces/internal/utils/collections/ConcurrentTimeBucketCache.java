@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.utils.collections;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A lock free, fixed size cache mapping time buckets to values in O(1).
+ *
+ * The cache has a fixed number of slots, each covering one tick, so a bucket time is mapped to
+ * slot (time / tick) mod slots. Buckets within one revolution (the horizon) from the current time
+ * never share a slot. Buckets beyond the horizon are not cached. A slot held by a bucket which has
+ * already passed is reused by a newer one.
+ *
+ * This is not an index by itself: the caller keeps every bucket in its own map, which stays the
+ * source of truth, and uses the cache to skip the map lookup for the near buckets.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class ConcurrentTimeBucketCache<V> {
+    private final long _tick;
+    private final long _horizon;
+    private final int _mask;
+    private final AtomicReferenceArray<Slot<V>> _slots;
+
+    private static final class Slot<V> {
+        private final long _time;
+        private final V _value;
+
+        private Slot(long time, V value) {
+            _time = time;
+            _value = value;
+        }
+    }
+
+    /**
+     * @param tick       the time covered by a single slot
+     * @param numOfSlots number of slots, rounded up to a power of 2
+     */
+    public ConcurrentTimeBucketCache(long tick, int numOfSlots) {
+        if (tick <= 0)
+            throw new IllegalArgumentException("tick must be positive: " + tick);
+        if (numOfSlots <= 0)
+            throw new IllegalArgumentException("numOfSlots must be positive: " + numOfSlots);
+        int size = Integer.highestOneBit(numOfSlots);
+        if (size < numOfSlots)
+            size <<= 1;
+        _tick = tick;
+        _horizon = tick * size;
+        _mask = size - 1;
+        _slots = new AtomicReferenceArray<Slot<V>>(size);
+    }
+
+    public long getHorizon() {
+        return _horizon;
+    }
+
+    /**
+     * Returns the value of the given bucket time, or null if it is not in the cache.
+     */
+    public V get(long time) {
+        Slot<V> slot = _slots.get(index(time));
+        return slot != null && slot._time == time ? slot._value : null;
+    }
+
+    /**
+     * Sets the value of the given bucket time, unless it is beyond the horizon from now or its slot
+     * is held by a newer bucket.
+     *
+     * @return true if the value was put in the cache
+     */
+    public boolean put(long time, V value, long now) {
+        if (time - now >= _horizon)
+            return false;
+        final int index = index(time);
+        while (true) {
+            Slot<V> slot = _slots.get(index);
+            if (slot != null) {
+                if (slot._time > time)
+                    return false;
+                if (slot._time == time && slot._value == value)
+                    return true;
+            }
+            if (_slots.compareAndSet(index, slot, new Slot<V>(time, value)))
+                return true;
+        }
+    }
+
+    /**
+     * Removes the given bucket time, only if it is currently mapped to the given value.
+     *
+     * @return true if the value was removed
+     */
+    public boolean remove(long time, V value) {
+        final int index = index(time);
+        Slot<V> slot = _slots.get(index);
+        return slot != null && slot._time == time && slot._value == value && _slots.compareAndSet(index, slot, null);
+    }
+
+    private int index(long time) {
+        return (int) ((time / _tick) & _mask);
+    }
+}
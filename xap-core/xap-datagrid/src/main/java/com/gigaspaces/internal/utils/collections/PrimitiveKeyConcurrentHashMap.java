@@ -0,0 +1,463 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.utils.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A {@link ConcurrentMap} for {@link Long} or {@link Integer} keys which keeps the keys as
+ * primitive longs in open addressing tables, so no map node is allocated per key and lookups do
+ * not go through {@link Object#hashCode()} and {@link Object#equals(Object)} of the key.
+ * <p>
+ * The map is split into segments, each guarded by a {@link StampedLock}. Updates take the write
+ * lock of their segment, lookups are optimistic and fall back to the read lock only if an update
+ * ran concurrently on the same segment. Keys which are not of the exact key type of the map (e.g.
+ * an Integer used with a map of Long keys) are kept in a regular {@link ConcurrentHashMap}, so the
+ * map behaves exactly like a {@link ConcurrentHashMap} for any key.
+ * <p>
+ * Iteration is weakly consistent, it works on a snapshot of each segment taken when the iterator
+ * reaches it. Null keys and values are not supported.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class PrimitiveKeyConcurrentHashMap<V> extends AbstractMap<Object, V> implements ConcurrentMap<Object, V> {
+
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int MIN_TABLE_CAPACITY = 8;
+    private static final Table EMPTY_TABLE = new Table(1);
+
+    private final Class<?> _keyType;
+    private final Segment[] _segments;
+    private final int _segmentShift;
+    private final ConcurrentHashMap<Object, V> _otherKeys = new ConcurrentHashMap<Object, V>();
+    private Set<Entry<Object, V>> _entrySet;
+
+    /**
+     * @return the key type a {@link PrimitiveKeyConcurrentHashMap} would use for values of the given
+     * type, or null if values of this type cannot be kept as primitive keys
+     */
+    public static Class<?> getPrimitiveKeyType(Class<?> valueType) {
+        if (valueType == long.class || valueType == Long.class)
+            return Long.class;
+        if (valueType == int.class || valueType == Integer.class)
+            return Integer.class;
+        return null;
+    }
+
+    public PrimitiveKeyConcurrentHashMap(Class<?> keyType, int concurrencyLevel) {
+        if (keyType != Long.class && keyType != Integer.class)
+            throw new IllegalArgumentException("Unsupported key type " + keyType + ", only Long and Integer keys are supported");
+        _keyType = keyType;
+        int numOfSegments = 1;
+        int segmentBits = 0;
+        while (numOfSegments < concurrencyLevel && numOfSegments < (1 << 16)) {
+            numOfSegments <<= 1;
+            segmentBits++;
+        }
+        _segmentShift = 32 - segmentBits;
+        _segments = new Segment[numOfSegments];
+        for (int i = 0; i < _segments.length; i++)
+            _segments[i] = new Segment();
+    }
+
+    public Class<?> getKeyType() {
+        return _keyType;
+    }
+
+    private boolean isPrimitiveKey(Object key) {
+        return key.getClass() == _keyType;
+    }
+
+    private Object toKeyObject(long key) {
+        return _keyType == Long.class ? (Object) Long.valueOf(key) : (Object) Integer.valueOf((int) key);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private Segment segmentFor(int hash) {
+        return _segmentShift == 32 ? _segments[0] : _segments[hash >>> _segmentShift];
+    }
+
+    @Override
+    public V get(Object key) {
+        if (!isPrimitiveKey(key))
+            return _otherKeys.get(key);
+        return getPrimitive(((Number) key).longValue());
+    }
+
+    @SuppressWarnings("unchecked")
+    public V getPrimitive(long key) {
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+        StampedLock lock = segment._lock;
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            Object value = segment.find(key, hash);
+            if (lock.validate(stamp))
+                return (V) value;
+        }
+        stamp = lock.readLock();
+        try {
+            return (V) segment.find(key, hash);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V put(Object key, V value) {
+        if (!isPrimitiveKey(key))
+            return _otherKeys.put(key, value);
+        return update(((Number) key).longValue(), value, false);
+    }
+
+    @Override
+    public V putIfAbsent(Object key, V value) {
+        if (!isPrimitiveKey(key))
+            return _otherKeys.putIfAbsent(key, value);
+        return update(((Number) key).longValue(), value, true);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V replace(Object key, V value) {
+        if (!isPrimitiveKey(key))
+            return _otherKeys.replace(key, value);
+        if (value == null)
+            throw new NullPointerException();
+        long primitiveKey = ((Number) key).longValue();
+        int hash = hash(primitiveKey);
+        Segment segment = segmentFor(hash);
+        long stamp = segment._lock.writeLock();
+        try {
+            int index = segment.indexOf(primitiveKey, hash);
+            if (index < 0)
+                return null;
+            return (V) segment.setValue(index, value);
+        } finally {
+            segment._lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean replace(Object key, V oldValue, V newValue) {
+        if (!isPrimitiveKey(key))
+            return _otherKeys.replace(key, oldValue, newValue);
+        if (oldValue == null || newValue == null)
+            throw new NullPointerException();
+        long primitiveKey = ((Number) key).longValue();
+        int hash = hash(primitiveKey);
+        Segment segment = segmentFor(hash);
+        long stamp = segment._lock.writeLock();
+        try {
+            int index = segment.indexOf(primitiveKey, hash);
+            if (index < 0 || !oldValue.equals(segment._table._values[index]))
+                return false;
+            segment.setValue(index, newValue);
+            return true;
+        } finally {
+            segment._lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (!isPrimitiveKey(key))
+            return _otherKeys.remove(key);
+        return removeInternal(((Number) key).longValue(), null);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (!isPrimitiveKey(key))
+            return _otherKeys.remove(key, value);
+        return value != null && removeInternal(((Number) key).longValue(), value) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V update(long key, V value, boolean onlyIfAbsent) {
+        if (value == null)
+            throw new NullPointerException();
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+        long stamp = segment._lock.writeLock();
+        try {
+            int index = segment.indexOf(key, hash);
+            if (index >= 0)
+                return onlyIfAbsent ? (V) segment._table._values[index] : (V) segment.setValue(index, value);
+            segment.insert(key, hash, value);
+            return null;
+        } finally {
+            segment._lock.unlockWrite(stamp);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V removeInternal(long key, Object expected) {
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+        long stamp = segment._lock.writeLock();
+        try {
+            int index = segment.indexOf(key, hash);
+            if (index < 0)
+                return null;
+            Object value = segment._table._values[index];
+            if (expected != null && !expected.equals(value))
+                return null;
+            segment.delete(index);
+            return (V) value;
+        } finally {
+            segment._lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int size() {
+        long size = _otherKeys.size();
+        for (Segment segment : _segments)
+            size += segment._size;
+        return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (Segment segment : _segments)
+            if (segment._size != 0)
+                return false;
+        return _otherKeys.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        for (Segment segment : _segments) {
+            long stamp = segment._lock.writeLock();
+            try {
+                segment._table = EMPTY_TABLE;
+                segment._size = 0;
+            } finally {
+                segment._lock.unlockWrite(stamp);
+            }
+        }
+        _otherKeys.clear();
+    }
+
+    @Override
+    public Set<Entry<Object, V>> entrySet() {
+        Set<Entry<Object, V>> entrySet = _entrySet;
+        if (entrySet == null)
+            _entrySet = entrySet = new EntrySet();
+        return entrySet;
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<Object, V>> {
+        @Override
+        public Iterator<Entry<Object, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return PrimitiveKeyConcurrentHashMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            PrimitiveKeyConcurrentHashMap.this.clear();
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Entry<Object, V>> {
+        private int _nextSegment;
+        private Iterator<Entry<Object, V>> _current;
+        private Entry<Object, V> _last;
+
+        @Override
+        public boolean hasNext() {
+            while (_current == null || !_current.hasNext()) {
+                if (_nextSegment > _segments.length)
+                    return false;
+                _current = _nextSegment == _segments.length ? _otherKeys.entrySet().iterator() : snapshot(_segments[_nextSegment]);
+                _nextSegment++;
+            }
+            return true;
+        }
+
+        @Override
+        public Entry<Object, V> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            _last = _current.next();
+            return _last;
+        }
+
+        @Override
+        public void remove() {
+            if (_last == null)
+                throw new IllegalStateException();
+            PrimitiveKeyConcurrentHashMap.this.remove(_last.getKey(), _last.getValue());
+            _last = null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Iterator<Entry<Object, V>> snapshot(Segment segment) {
+            long stamp = segment._lock.readLock();
+            try {
+                if (segment._size == 0)
+                    return null;
+                List<Entry<Object, V>> entries = new ArrayList<Entry<Object, V>>(segment._size);
+                Table table = segment._table;
+                for (int i = 0; i < table._values.length; i++) {
+                    Object value = table._values[i];
+                    if (value != null)
+                        entries.add(new SimpleImmutableEntry<Object, V>(toKeyObject(table._keys[i]), (V) value));
+                }
+                return entries.iterator();
+            } finally {
+                segment._lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    private static final class Table {
+        private final long[] _keys;
+        // a null value marks an empty slot
+        private final Object[] _values;
+
+        private Table(int capacity) {
+            _keys = new long[capacity];
+            _values = new Object[capacity];
+        }
+    }
+
+    /**
+     * A linear probing table. Removals shift the following entries back instead of leaving
+     * tombstones behind, so a lookup stops at the first empty slot.
+     */
+    private static final class Segment {
+        private final StampedLock _lock = new StampedLock();
+        private Table _table = EMPTY_TABLE;
+        // written under the lock, volatile since size() and isEmpty() read it without locking
+        private volatile int _size;
+
+        /**
+         * May run without holding the lock, the caller validates the result against the lock stamp
+         */
+        private Object find(long key, int hash) {
+            Table table = _table;
+            long[] keys = table._keys;
+            Object[] values = table._values;
+            int mask = values.length - 1;
+            int index = hash & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                Object value = values[index];
+                if (value == null)
+                    return null;
+                if (keys[index] == key)
+                    return value;
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        private int indexOf(long key, int hash) {
+            Table table = _table;
+            int mask = table._values.length - 1;
+            int index = hash & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                if (table._values[index] == null)
+                    return -1;
+                if (table._keys[index] == key)
+                    return index;
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+
+        private Object setValue(int index, Object value) {
+            Object previous = _table._values[index];
+            _table._values[index] = value;
+            return previous;
+        }
+
+        private void insert(long key, int hash, Object value) {
+            if (_size + 1 > _table._values.length * LOAD_FACTOR)
+                _table = rehash(_table, Math.max(MIN_TABLE_CAPACITY, _table._values.length << 1));
+            insert(_table, key, hash, value);
+            _size++;
+        }
+
+        private static void insert(Table table, long key, int hash, Object value) {
+            int mask = table._values.length - 1;
+            int index = hash & mask;
+            while (table._values[index] != null)
+                index = (index + 1) & mask;
+            table._keys[index] = key;
+            table._values[index] = value;
+        }
+
+        private static Table rehash(Table table, int capacity) {
+            Table newTable = new Table(capacity);
+            for (int i = 0; i < table._values.length; i++) {
+                Object value = table._values[i];
+                if (value != null)
+                    insert(newTable, table._keys[i], hash(table._keys[i]), value);
+            }
+            return newTable;
+        }
+
+        private void delete(int index) {
+            Table table = _table;
+            long[] keys = table._keys;
+            Object[] values = table._values;
+            int mask = values.length - 1;
+            int next = index;
+            while (true) {
+                next = (next + 1) & mask;
+                if (values[next] == null)
+                    break;
+                int home = hash(keys[next]) & mask;
+                // move the entry back unless its home slot lies cyclically in (index, next]
+                boolean keep = index <= next ? (index < home && home <= next) : (index < home || home <= next);
+                if (!keep) {
+                    keys[index] = keys[next];
+                    values[index] = values[next];
+                    index = next;
+                }
+            }
+            values[index] = null;
+            _size--;
+        }
+    }
+}
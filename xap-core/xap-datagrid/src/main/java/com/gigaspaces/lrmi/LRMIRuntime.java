@@ -31,6 +31,7 @@ import com.gigaspaces.logger.LogUtils;
 import com.gigaspaces.lrmi.ProtocolAdapter.Side;
 import com.gigaspaces.lrmi.nio.Pivot;
 import com.gigaspaces.lrmi.nio.async.LRMIThreadPoolExecutor;
+import com.gigaspaces.lrmi.nio.async.LRMIVirtualThreadExecutor;
 import com.gigaspaces.lrmi.nio.watchdog.Watchdog;
 import com.gigaspaces.management.transport.ITransportConnection;
 import com.j_spaces.core.service.ServiceConfigLoader;
@@ -46,6 +47,7 @@ import java.rmi.RemoteException;
 import java.security.SecureRandom;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Executor;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -79,6 +81,8 @@ public class LRMIRuntime {
     final private ObjectRegistry _objectRegistry;
     final private long _id;
     final private LRMIThreadPoolExecutor _lrmiThreadPool;
+    // executes the regular priority invocations on virtual threads, null if not enabled or supported
+    final private LRMIVirtualThreadExecutor _lrmiVirtualThreadExecutor;
     final private LRMIThreadPoolExecutor _livenessPriorityThreadPool;
     final private LRMIThreadPoolExecutor _monitoringPriorityThreadPool;
     final private LRMIThreadPoolExecutor _customThreadPool;
@@ -146,6 +150,18 @@ public class LRMIRuntime {
                 Thread.NORM_PRIORITY,
                 "LRMI-Custom",
                 true, true);
+        _lrmiVirtualThreadExecutor = nioConfig.isVirtualThreadsEnabled() ? createVirtualThreadExecutor(nioConfig.getVirtualThreadsMaxConcurrent()) : null;
+    }
+
+    private static LRMIVirtualThreadExecutor createVirtualThreadExecutor(int maxConcurrent) {
+        LRMIVirtualThreadExecutor executor = LRMIVirtualThreadExecutor.create("LRMI-Virtual", maxConcurrent);
+        if (executor == null) {
+            if (_logger.isLoggable(Level.WARNING))
+                _logger.warning("LRMI virtual threads are enabled but not supported by this JVM, using the LRMI connection thread pool");
+        } else if (_logger.isLoggable(Level.INFO)) {
+            _logger.info("LRMI invocations are executed on virtual threads, at most " + maxConcurrent + " concurrently");
+        }
+        return executor;
     }
 
 
@@ -202,6 +218,14 @@ public class LRMIRuntime {
         return _lrmiThreadPool;
     }
 
+    /**
+     * @return the executor of the regular priority invocations, the virtual thread executor if
+     * enabled, otherwise the LRMI connection thread pool
+     */
+    public Executor getInvocationExecutor() {
+        return _lrmiVirtualThreadExecutor != null ? _lrmiVirtualThreadExecutor : _lrmiThreadPool;
+    }
+
     public DynamicThreadPoolExecutor getMonitoringPriorityThreadPool() {
         return _monitoringPriorityThreadPool;
     }
@@ -511,6 +535,8 @@ public class LRMIRuntime {
         _stubCache.clear();
 
         _lrmiThreadPool.shutdownNow();
+        if (_lrmiVirtualThreadExecutor != null)
+            _lrmiVirtualThreadExecutor.shutdownNow();
         _monitoringPriorityThreadPool.shutdownNow();
         _livenessPriorityThreadPool.shutdownNow();
         _customThreadPool.shutdown();
@@ -226,12 +226,13 @@ public class CPeer extends BaseClientPeer {
 
             _socketDisplayString = NIOUtils.getSocketDisplayString(m_SockChannel);
 
+            DirectBufferPool directBufferPool = DirectBufferPool.create((NIOConfiguration) _config);
             if (_writer != null)
                 _generatedTraffic += _writer.getGeneratedTraffic();
-            _writer = new Writer(m_SockChannel, _slowConsumerThroughput, _slowConsumerLatency, _slowConsumerRetries, null);
+            _writer = new Writer(m_SockChannel, _slowConsumerThroughput, _slowConsumerLatency, _slowConsumerRetries, null, directBufferPool);
             if (_reader != null)
                 _receivedTraffic += _reader.getReceivedTraffic();
-            _reader = new Reader(m_SockChannel, _slowConsumerRetries);
+            _reader = new Reader(m_SockChannel, _slowConsumerRetries, directBufferPool);
 
             // save connection URL
             setConnectionURL(connectionURL);
@@ -309,12 +310,13 @@ public class CPeer extends BaseClientPeer {
             m_SockChannel = createChannel(transformedAddress.getHost(), transformedAddress.getPort());
             _socketDisplayString = NIOUtils.getSocketDisplayString(m_SockChannel);
 
+            DirectBufferPool directBufferPool = DirectBufferPool.create((NIOConfiguration) _config);
             if (_writer != null)
                 _generatedTraffic += _writer.getGeneratedTraffic();
-            _writer = new Writer(m_SockChannel, _slowConsumerThroughput, _slowConsumerLatency, _slowConsumerRetries, null);
+            _writer = new Writer(m_SockChannel, _slowConsumerThroughput, _slowConsumerLatency, _slowConsumerRetries, null, directBufferPool);
             if (_reader != null)
                 _receivedTraffic += _reader.getReceivedTraffic();
-            _reader = new Reader(m_SockChannel, _slowConsumerRetries);
+            _reader = new Reader(m_SockChannel, _slowConsumerRetries, directBufferPool);
 
             // save connection URL
             setConnectionURL(connectionURL);
@@ -118,8 +118,9 @@ public class ChannelEntry implements IWriteInterestManager {
         _readSelectorThread = readSelectorThread;
         _writeSelectorThread = writeSelectorThread;
         _socketChannel = channel;
-        _writer = new Writer(channel, this);
-        _reader = new Reader(channel, _pivot.getSystemRequestHandler());
+        DirectBufferPool directBufferPool = _pivot.createDirectBufferPool();
+        _writer = new Writer(channel, this, directBufferPool);
+        _reader = new Reader(channel, _pivot.getSystemRequestHandler(), directBufferPool);
         _connectionID = UIDGen.nextId();
         _connectionTimeStamp = SystemTime.timeMillis();
         _clientEndPointAddress = clientEndPointAddress;
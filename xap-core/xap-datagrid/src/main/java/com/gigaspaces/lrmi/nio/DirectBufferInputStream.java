@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gigaspaces.lrmi.nio;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * An input stream over a chain of buffers taken from a {@link DirectBufferPool}. A packet is read
+ * from the channel with a single scattering read into the buffers returned by {@link #prepare},
+ * and then unmarshalled from this stream.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class DirectBufferInputStream extends InputStream {
+    private final DirectBufferPool _pool;
+    private ByteBuffer[] _buffers = new ByteBuffer[4];
+    private int _count;
+    private int _index;
+    private boolean _pooled;
+
+    public DirectBufferInputStream(DirectBufferPool pool) {
+        _pool = pool;
+    }
+
+    /**
+     * Releases the current content and takes enough buffers from the pool to hold the given number
+     * of bytes.
+     *
+     * @return the buffers to read into, only the first {@link #getBufferCount()} are used.
+     */
+    public ByteBuffer[] prepare(int length) {
+        release();
+        int count = Math.max(1, (length + _pool.getBufferSize() - 1) / _pool.getBufferSize());
+        if (count > _buffers.length)
+            _buffers = new ByteBuffer[count];
+        for (int i = 0; i < count; i++)
+            _buffers[i] = _pool.acquire();
+        _buffers[count - 1].limit(length - (count - 1) * _pool.getBufferSize());
+        _count = count;
+        _pooled = true;
+        return _buffers;
+    }
+
+    public int getBufferCount() {
+        return _count;
+    }
+
+    /**
+     * Makes the bytes read into the prepared buffers available to this stream.
+     */
+    public void flip() {
+        for (int i = 0; i < _count; i++)
+            _buffers[i].flip();
+        _index = 0;
+    }
+
+    /**
+     * Reads from the given buffer, which is not returned to the pool.
+     */
+    public void setBuffer(ByteBuffer buffer) {
+        release();
+        _buffers[0] = buffer;
+        _count = 1;
+        _pooled = false;
+    }
+
+    /**
+     * Releases the current content, returning pooled buffers to the pool.
+     */
+    public void release() {
+        if (_pooled)
+            _pool.release(_buffers, _count);
+        else
+            Arrays.fill(_buffers, 0, _count, null);
+        _count = 0;
+        _index = 0;
+        _pooled = false;
+    }
+
+    @Override
+    public int read() {
+        ByteBuffer buffer = currentBuffer();
+        return buffer == null ? -1 : buffer.get() & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0)
+            return 0;
+        int total = 0;
+        while (total < len) {
+            ByteBuffer buffer = currentBuffer();
+            if (buffer == null)
+                break;
+            int length = Math.min(len - total, buffer.remaining());
+            buffer.get(b, off + total, length);
+            total += length;
+        }
+        return total == 0 ? -1 : total;
+    }
+
+    @Override
+    public int available() {
+        int available = 0;
+        for (int i = _index; i < _count; i++)
+            available += _buffers[i].remaining();
+        return available;
+    }
+
+    private ByteBuffer currentBuffer() {
+        while (_index < _count) {
+            ByteBuffer buffer = _buffers[_index];
+            if (buffer.hasRemaining())
+                return buffer;
+            _index++;
+        }
+        return null;
+    }
+}
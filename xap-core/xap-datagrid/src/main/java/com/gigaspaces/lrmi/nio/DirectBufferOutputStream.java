@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gigaspaces.lrmi.nio;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * An output stream which writes to a chain of buffers taken from a {@link DirectBufferPool}, so a
+ * packet can be marshalled straight into direct memory and sent with a single gathering write.
+ * <p>
+ * The buffers of a packet are handed over by {@link #finish} and are owned by the caller from that
+ * point, which has to release them back to the pool once they are written.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class DirectBufferOutputStream extends OutputStream {
+    private final DirectBufferPool _pool;
+    private ByteBuffer[] _buffers = new ByteBuffer[4];
+    private int _count;
+    private ByteBuffer _current;
+
+    public DirectBufferOutputStream(DirectBufferPool pool) {
+        _pool = pool;
+    }
+
+    /**
+     * Starts a new packet, leaving the given number of bytes at its start for the header.
+     */
+    public void begin(int headerLength) {
+        discard();
+        nextBuffer();
+        _current.position(headerLength);
+    }
+
+    @Override
+    public void write(int b) {
+        if (_current == null || !_current.hasRemaining())
+            nextBuffer();
+        _current.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        while (len > 0) {
+            if (_current == null || !_current.hasRemaining())
+                nextBuffer();
+            int length = Math.min(len, _current.remaining());
+            _current.put(b, off, length);
+            off += length;
+            len -= length;
+        }
+    }
+
+    /**
+     * @return number of bytes written since {@link #begin}, including the header.
+     */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < _count; i++)
+            size += _buffers[i].position();
+        return size;
+    }
+
+    /**
+     * Writes the length of the data which follows the header at the start of the packet and hands
+     * over the buffers of the packet, ready to be written to a channel.
+     */
+    public ByteBuffer[] finish(int headerLength) {
+        if (_count == 0)
+            throw new IllegalStateException("No packet was started");
+        _buffers[0].putInt(0, size() - headerLength);
+        ByteBuffer[] result = Arrays.copyOf(_buffers, _count);
+        for (ByteBuffer buffer : result)
+            buffer.flip();
+        Arrays.fill(_buffers, 0, _count, null);
+        _count = 0;
+        _current = null;
+        return result;
+    }
+
+    /**
+     * Releases the buffers of the current packet back to the pool.
+     */
+    public void discard() {
+        _pool.release(_buffers, _count);
+        _count = 0;
+        _current = null;
+    }
+
+    private void nextBuffer() {
+        if (_count == _buffers.length)
+            _buffers = Arrays.copyOf(_buffers, _count * 2);
+        _current = _pool.acquire();
+        _buffers[_count++] = _current;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gigaspaces.lrmi.nio;
+
+import com.gigaspaces.config.lrmi.nio.NIOConfiguration;
+import com.gigaspaces.internal.backport.java.util.concurrent.atomic.LongAdder;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+
+/**
+ * A pool of fixed size direct buffers used by the {@link Reader} and {@link Writer} of a single
+ * connection. Buffers which are released when the pool is full are left to the garbage collector.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class DirectBufferPool {
+    private static final LongAdder allocatedBytes = new LongAdder();
+    private static final LongAdder reusedBuffers = new LongAdder();
+
+    private final int _bufferSize;
+    private final int _maxPooledBuffers;
+    private final ArrayDeque<ByteBuffer> _pool;
+
+    public static LongAdder getAllocatedBytesCounter() {
+        return allocatedBytes;
+    }
+
+    public static LongAdder getReusedBuffersCounter() {
+        return reusedBuffers;
+    }
+
+    /**
+     * @return a new pool for a connection, or null if direct buffers are disabled by the
+     * configuration
+     */
+    public static DirectBufferPool create(NIOConfiguration config) {
+        if (config == null || !config.isDirectBuffersEnabled())
+            return null;
+        return new DirectBufferPool(config.getDirectBufferSize(), config.getDirectBufferPoolSize());
+    }
+
+    public DirectBufferPool(int bufferSize, int maxPooledBuffers) {
+        if (bufferSize < 8)
+            throw new IllegalArgumentException("Direct buffer size must be at least 8 bytes, got " + bufferSize);
+        _bufferSize = bufferSize;
+        _maxPooledBuffers = maxPooledBuffers;
+        _pool = new ArrayDeque<ByteBuffer>(maxPooledBuffers);
+    }
+
+    public int getBufferSize() {
+        return _bufferSize;
+    }
+
+    /**
+     * @return the number of bytes which can be held in buffers without allocating new ones once
+     * the pool is full
+     */
+    public long getCapacity() {
+        return (long) _bufferSize * _maxPooledBuffers;
+    }
+
+    public synchronized int size() {
+        return _pool.size();
+    }
+
+    public ByteBuffer acquire() {
+        ByteBuffer buffer;
+        synchronized (this) {
+            buffer = _pool.poll();
+        }
+        if (buffer != null) {
+            reusedBuffers.increment();
+            buffer.clear();
+            return buffer;
+        }
+        allocatedBytes.add(_bufferSize);
+        buffer = ByteBuffer.allocateDirect(_bufferSize);
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        return buffer;
+    }
+
+    public void release(ByteBuffer buffer) {
+        synchronized (this) {
+            if (_pool.size() < _maxPooledBuffers)
+                _pool.offer(buffer);
+        }
+    }
+
+    public void release(ByteBuffer[] buffers, int count) {
+        for (int i = 0; i < count; i++) {
+            release(buffers[i]);
+            buffers[i] = null;
+        }
+    }
+}
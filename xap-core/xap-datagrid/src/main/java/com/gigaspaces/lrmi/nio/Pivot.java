@@ -244,6 +244,7 @@ public class Pivot {
     //default response handler used by the response context.
     final private DefaultResponseHandler _defaultResponseHandler = new DefaultResponseHandler();
     final private boolean _protocolValidationEnabled;
+    final private NIOConfiguration _config;
 
     final private SystemRequestHandler _systemRequestHandler = new SystemRequestHandlerImpl();
 
@@ -256,12 +257,13 @@ public class Pivot {
                 config.getBindPort(),
                 config.getReadSelectorThreads());
 
-        _threadPool = LRMIRuntime.getRuntime().getThreadPool();
+        _threadPool = LRMIRuntime.getRuntime().getInvocationExecutor();
         _livenessPriorityThreadPool = LRMIRuntime.getRuntime().getLivenessPriorityThreadPool();
         _monitoringPriorityThreadPool = LRMIRuntime.getRuntime().getMonitoringPriorityThreadPool();
         _customThreadPool = LRMIRuntime.getRuntime().getCustomThreadPool();
 
         _protocolValidationEnabled = config.isProtocolValidationEnabled();
+        _config = config;
     }
 
     void shutdown() {
@@ -722,6 +724,13 @@ public class Pivot {
         return _protocolValidationEnabled;
     }
 
+    /**
+     * @return a direct buffer pool for a new channel, or null if direct buffers are disabled
+     */
+    public DirectBufferPool createDirectBufferPool() {
+        return DirectBufferPool.create(_config);
+    }
+
     public LRMIInboundMonitoringDetailsImpl getMonitoringDetails() {
         Collection<ChannelEntry> channels = m_Channels.values();
         LongObjectMap<LRMIServiceMonitoringDetailsImpl> servicesTrackingDetails = CollectionsFactory.getInstance().createLongObjectMap();
@@ -64,6 +64,7 @@ public class Reader {
     private static final Logger _slowerConsumerLogger = Logger.getLogger(Constants.LOGGER_LRMI_SLOW_COMSUMER);
     public static final long SUSPICIOUS_THRESHOLD = Long.valueOf(System.getProperty("com.gs.lrmi.suspicious-threshold", "20000000"));
     private static final LongAdder receivedTraffic = new LongAdder();
+    private static final LongAdder allocatedBytes = new LongAdder();
 
     private static final byte[] DUMMY_BUFFER = new byte[0];
 
@@ -90,6 +91,12 @@ public class Reader {
     /* data length buffer */
     final private ByteBuffer _headerBuffer = ByteBuffer.allocateDirect(4); // 4 == size of int in bytes
 
+    /* pooled direct buffers for blocking reads, null if direct buffers are disabled */
+    final private DirectBufferPool _directBufferPool;
+    final private DirectBufferInputStream _directIn;
+    private MarshalInputStream _directOis;
+    final private ByteBuffer _resetByteBuffer = ByteBuffer.wrap(_resetBuffer);
+
     private boolean _bufferIsOccupied = false;
 
     private IOFilterManager _filterManager;
@@ -106,20 +113,40 @@ public class Reader {
         return receivedTraffic;
     }
 
+    /**
+     * @return the number of bytes allocated on the heap for packets which could not reuse the
+     * cached buffer
+     */
+    public static LongAdder getAllocatedBytesCounter() {
+        return allocatedBytes;
+    }
+
     public Reader(SocketChannel sockChannel, int slowConsumerRetries) {
-        this(sockChannel, slowConsumerRetries, null);
+        this(sockChannel, slowConsumerRetries, null, null);
+    }
+
+    public Reader(SocketChannel sockChannel, int slowConsumerRetries, DirectBufferPool directBufferPool) {
+        this(sockChannel, slowConsumerRetries, null, directBufferPool);
     }
 
     public Reader(SocketChannel sockChannel, SystemRequestHandler systemRequestHandler) {
-        this(sockChannel, Integer.MAX_VALUE, systemRequestHandler);
+        this(sockChannel, systemRequestHandler, null);
+    }
+
+    public Reader(SocketChannel sockChannel, SystemRequestHandler systemRequestHandler, DirectBufferPool directBufferPool) {
+        this(sockChannel, Integer.MAX_VALUE, systemRequestHandler, directBufferPool);
     }
 
-    private Reader(SocketChannel sockChannel, int slowConsumerRetries, SystemRequestHandler systemRequestHandler) {
+    private Reader(SocketChannel sockChannel, int slowConsumerRetries, SystemRequestHandler systemRequestHandler, DirectBufferPool directBufferPool) {
         _socketChannel = sockChannel;
         _headerBuffer.order(ByteOrder.BIG_ENDIAN);
         _streamContext = MarshalInputStream.createContext();
+        _directBufferPool = directBufferPool;
+        _directIn = directBufferPool != null ? new DirectBufferInputStream(directBufferPool) : null;
         try {
             _ois = new MarshalInputStream(_bais, _streamContext);
+            if (_directIn != null)
+                _directOis = new MarshalInputStream(_directIn, _streamContext);
         } catch (IOException e) {
             if (_logger.isLoggable(Level.SEVERE)) {
                 _logger.log(Level.SEVERE, e.getMessage(), e);
@@ -228,6 +255,16 @@ public class Reader {
 
     public ByteBuffer readBytesFromChannelBlocking(boolean createNewBuffer, int slowConsumerLatency, int sizeLimit)
             throws IOException {
+        return readFromChannelBlocking(false, createNewBuffer, slowConsumerLatency, sizeLimit);
+    }
+
+    /**
+     * @param direct whether to read into pooled direct buffers with scattering reads, which is done
+     *               unless the data is larger than the pool capacity.
+     * @return the buffer the data was read into, or null if it was read into {@link #_directIn}
+     */
+    private ByteBuffer readFromChannelBlocking(boolean direct, boolean createNewBuffer, int slowConsumerLatency, int sizeLimit)
+            throws IOException {
         /* read header (data length) */
         int bytesRead = 0;
         int retries = 0;
@@ -302,8 +339,15 @@ public class Reader {
         }
 
         /* allocate the buffer on demand, otherwise reuse the buffer */
-        ByteBuffer buffer;
-        buffer = getByteBufferAllocated(createNewBuffer, dataLength);
+        ByteBuffer buffer = null;
+        ByteBuffer[] directBuffers = null;
+        int directBufferCount = 0;
+        if (direct && dataLength <= _directBufferPool.getCapacity()) {
+            directBuffers = _directIn.prepare(dataLength);
+            directBufferCount = _directIn.getBufferCount();
+        } else {
+            buffer = getByteBufferAllocated(createNewBuffer, dataLength);
+        }
 
         /* read to bytes buffer */
         bytesRead = 0;
@@ -318,13 +362,18 @@ public class Reader {
 
         try {
             while (bytesRead < dataLength) {
-                ByteBuffer workingBuffer = buffer;
-                if (shouldUseSlidingWindow) {
-                    buffer.position(bytesRead).limit(Math.min(dataLength, bytesRead + BUFFER_LIMIT));
-                    workingBuffer = buffer.slice();
-                }
+                if (directBuffers != null) {
+                    // direct buffers are read into as is, no sliding window needed
+                    bRead = (int) _socketChannel.read(directBuffers, 0, directBufferCount);
+                } else {
+                    ByteBuffer workingBuffer = buffer;
+                    if (shouldUseSlidingWindow) {
+                        buffer.position(bytesRead).limit(Math.min(dataLength, bytesRead + BUFFER_LIMIT));
+                        workingBuffer = buffer.slice();
+                    }
 
-                bRead = _socketChannel.read(workingBuffer);
+                    bRead = _socketChannel.read(workingBuffer);
+                }
                 if (bRead == -1) // EOF
                     throwCloseConnection();
                 bytesRead += bRead;
@@ -373,6 +422,12 @@ public class Reader {
                 TemporarySelectorFactory.returnSelector(tempSelector);
             }
         }
+        if (directBuffers != null) {
+            _receivedTraffic += dataLength;
+            receivedTraffic.add(dataLength);
+            _directIn.flip();
+            return null;
+        }
         _receivedTraffic += buffer.position();
         receivedTraffic.add(buffer.position());
         buffer.position(0);
@@ -383,6 +438,7 @@ public class Reader {
     private ByteBuffer getByteBufferAllocated(boolean createNewBuffer, int dataLength) {
         try {
             if (createNewBuffer) {
+                allocatedBytes.add(dataLength);
                 return ByteBuffer.allocate(dataLength);
             } else {
                 return _bufferCache.get(dataLength);
@@ -564,7 +620,19 @@ public class Reader {
         }
 
         _bufferIsOccupied = true;
-        _bais.setBuffer(readBytesBlocking(false, slowConsumerTimeout, sizeLimit));
+        if (_directIn != null && _filterManager == null) {
+            ByteBuffer buffer = readFromChannelBlocking(true, false, slowConsumerTimeout, sizeLimit);
+            if (buffer == null) {
+                unmarshall(packet, _directOis);
+                if (_logger.isLoggable(Level.FINEST)) {
+                    _logger.finest("<-- Read packet " + packet);
+                }
+                return packet;
+            }
+            _bais.setBuffer(buffer.array());
+        } else {
+            _bais.setBuffer(readBytesBlocking(false, slowConsumerTimeout, sizeLimit));
+        }
         unmarshall(packet, _ois);
         if (_logger.isLoggable(Level.FINEST)) {
             _logger.finest("<-- Read packet " + packet);
@@ -588,16 +656,22 @@ public class Reader {
         } catch (LRMIUnhandledException e) {
             //Special exception that should be thrown as is without side effects
             boolean isReusedBuffer = mis == _ois;
+            boolean isDirectBuffer = mis == _directOis;
             try {
                 //We need to create a new buffer because this buffer is unusable anymore because it was not read fully
                 if (isReusedBuffer)
                     _ois = new MarshalInputStream(_bais, _streamContext);
+                else if (isDirectBuffer)
+                    _directOis = new MarshalInputStream(_directIn, _streamContext);
             } catch (IOException ioe) {
                 throw new UnMarshallingException("Failed to unmarsh :" + packet, ioe);
             } finally {
                 if (isReusedBuffer && _bufferIsOccupied) {
                     _bais.setBuffer(DUMMY_BUFFER); // release the internal reference for the byte array
                     _bufferIsOccupied = false;
+                } else if (isDirectBuffer && _bufferIsOccupied) {
+                    _directIn.release(); // return the direct buffers to the pool
+                    _bufferIsOccupied = false;
                 }
             }
 
@@ -622,6 +696,17 @@ public class Reader {
                     _bufferIsOccupied = false;
                 }
             }
+        } else if (mis == _directOis) {
+            try {
+                _resetByteBuffer.clear();
+                _directIn.setBuffer(_resetByteBuffer);
+                mis.readObject();
+            } finally {
+                if (_bufferIsOccupied) {
+                    _directIn.release();
+                    _bufferIsOccupied = false;
+                }
+            }
         }
     }
 
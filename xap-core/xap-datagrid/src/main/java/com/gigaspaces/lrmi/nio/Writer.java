@@ -65,9 +65,15 @@ public class Writer implements IChannelWriter {
 
     final static private int LENGTH_SIZE = 4; //4 bytes for length
 
-    final private MarshalOutputStream _oos;
+    private MarshalOutputStream _oos;
     final private GSByteArrayOutputStream _baos;
 
+    /**
+     * pooled direct buffers the packets are marshalled into, null if direct buffers are disabled
+     */
+    final private DirectBufferPool _directBufferPool;
+    private DirectBufferOutputStream _directStream;
+
     final static private int WRITE_DELAY_BEFORE_WARN = Integer.getInteger(SystemProperties.WRITE_DELAY_BEFORE_WARN, SystemProperties.WRITE_DELAY_BEFORE_WARN_DEFAULT);
 
     /**
@@ -82,6 +88,7 @@ public class Writer implements IChannelWriter {
     final private int _slowConsumerSleepTime;
     final private int _slowConsumerBytes;
     private static final LongAdder generatedTraffic = new LongAdder();
+    private static final LongAdder allocatedBytes = new LongAdder();
     private long _generatedTraffic;
 
     final private static byte[] DUMMY_BUFFER = new byte[0];
@@ -101,11 +108,28 @@ public class Writer implements IChannelWriter {
         return pendingWrites;
     }
 
+    /**
+     * @return the number of bytes allocated on the heap for packets which could not reuse the
+     * cached buffer
+     */
+    public static LongAdder getAllocatedBytesCounter() {
+        return allocatedBytes;
+    }
+
     public Writer(SocketChannel sockChannel, IWriteInterestManager writeInterestManager) {
-        this(sockChannel, 0, Integer.MAX_VALUE, Integer.MAX_VALUE, writeInterestManager);
+        this(sockChannel, writeInterestManager, null);
+    }
+
+    public Writer(SocketChannel sockChannel, IWriteInterestManager writeInterestManager, DirectBufferPool directBufferPool) {
+        this(sockChannel, 0, Integer.MAX_VALUE, Integer.MAX_VALUE, writeInterestManager, directBufferPool);
     }
 
     public Writer(SocketChannel sockChannel, int slowConsumerThroughput, int slowConsumerLatency, int slowConsumerRetries, IWriteInterestManager writeInterestManager) {
+        this(sockChannel, slowConsumerThroughput, slowConsumerLatency, slowConsumerRetries, writeInterestManager, null);
+    }
+
+    public Writer(SocketChannel sockChannel, int slowConsumerThroughput, int slowConsumerLatency, int slowConsumerRetries, IWriteInterestManager writeInterestManager,
+                  DirectBufferPool directBufferPool) {
         _sockChannel = sockChannel;
         _slowConsumerThroughput = slowConsumerThroughput;
         _slowConsumerLatency = slowConsumerLatency;
@@ -120,8 +144,14 @@ public class Writer implements IChannelWriter {
         try {
             _baos = new GSByteArrayOutputStream();
             _baos.setSize(LENGTH_SIZE); // mark the buffer to start writing only after the length place
-            _oos = new MarshalOutputStream(_baos, true); // add a TC_RESET using the MarshalOutputStream.writeStreamHeader() 
             initBuffer(_baos);
+            _directBufferPool = directBufferPool;
+            if (directBufferPool != null) {
+                _directStream = new DirectBufferOutputStream(directBufferPool);
+                _oos = new MarshalOutputStream(_directStream, true);
+            } else {
+                _oos = new MarshalOutputStream(_baos, true); // add a TC_RESET using the MarshalOutputStream.writeStreamHeader()
+            }
         } catch (Exception e) {
             if (_logger.isLoggable(Level.SEVERE)) {
                 _logger.log(Level.SEVERE, e.getMessage(), e);
@@ -187,6 +217,10 @@ public class Writer implements IChannelWriter {
         GSByteArrayOutputStream bos;
 
         final boolean reuseBuffer = requestReuseBuffer && _contexts.isEmpty();
+        if (reuseBuffer && _directStream != null) {
+            writeDirectPacket(packet, ctx);
+            return;
+        }
         if (reuseBuffer) {
             mos = _oos;
             bos = _baos;
@@ -215,13 +249,16 @@ public class Writer implements IChannelWriter {
                 bos.setBuffer(DUMMY_BUFFER); // set DUMMY_BUFFER to release the strong reference to the byte[]
                 bos.reset();
                 mos.reset();
-                if (buffer != byteBuffer) // replace the buffer in soft reference if needed
+                if (buffer != byteBuffer) { // replace the buffer in soft reference if needed
                     _bufferCache.set(buffer);
-                else
+                    allocatedBytes.add(buffer.capacity());
+                } else {
                     _bufferCache.notifyUsedSize(buffer.limit());
+                }
             } else {
                 //Clear context because this output stream is no longer used
                 mos.closeContext();
+                allocatedBytes.add(bos.getBuffer().length);
             }
         }
         _generatedTraffic += buffer.limit();
@@ -237,11 +274,55 @@ public class Writer implements IChannelWriter {
         }
     }
 
+    /**
+     * Marshals the packet into pooled direct buffers and writes them with a gathering write. The
+     * shared {@link #_oos} writes to the direct stream, so the class descriptors cache is kept the
+     * same way as in the heap buffer path.
+     */
+    private void writeDirectPacket(IPacket packet, Context ctx) throws IOException, IOFilterException {
+        _directStream.begin(LENGTH_SIZE);
+        ByteBuffer[] buffers;
+        try {
+            packet.writeExternal(_oos);
+            _oos.flush();
+            buffers = _directStream.finish(LENGTH_SIZE);
+        } catch (MarshalContextClearedException e) {
+            _directStream.discard();
+            //Keep original exception for upper layer to handle properly
+            throw e;
+        } catch (Exception e) {
+            _directStream.discard();
+            throw new MarshallingException("Failed to marsh: " + packet, e);
+        } finally {
+            _oos.reset();
+        }
+
+        long length = 0;
+        for (ByteBuffer buffer : buffers)
+            length += buffer.remaining();
+        _generatedTraffic += length;
+        generatedTraffic.add(length);
+
+        if (ctx != null) {
+            // non blocking mode, the buffers are released once the context is fully written.
+            ctx.setBuffers(buffers, _directBufferPool);
+            writeBytesNonBlocking(ctx);
+        } else {
+            try {
+                writeBuffersToChannelBlocking(buffers, length);
+            } finally {
+                _directBufferPool.release(buffers, buffers.length);
+            }
+        }
+    }
+
     public static class Context {
         public static enum Phase {START, WRITING, FINISH}
 
         private Phase phase = Phase.START;
         private ByteBuffer buffer;
+        private ByteBuffer[] buffers;
+        private DirectBufferPool bufferPool;
         private int totalBytesWritten = 0;
         private int currentPosition = 0;
         private int totalLength;
@@ -261,6 +342,26 @@ public class Writer implements IChannelWriter {
             return buffer;
         }
 
+        /**
+         * Sets pooled direct buffers to write with a gathering write instead of a single buffer.
+         * The buffers are released to the given pool once they are fully written.
+         */
+        public void setBuffers(ByteBuffer[] buffers, DirectBufferPool bufferPool) {
+            this.buffers = buffers;
+            this.bufferPool = bufferPool;
+        }
+
+        public ByteBuffer[] getBuffers() {
+            return buffers;
+        }
+
+        void releaseBuffers() {
+            if (bufferPool != null) {
+                bufferPool.release(buffers, buffers.length);
+                bufferPool = null;
+            }
+        }
+
         public void setTotalBytesWritten(int totalBytesWritten) {
             this.totalBytesWritten = totalBytesWritten;
         }
@@ -312,6 +413,8 @@ public class Writer implements IChannelWriter {
             res.setCurrentPosition(currentPosition);
             res.setTotalBytesWritten(totalBytesWritten);
             res.setBuffer(buffer);
+            // the duplicate does not own the pooled buffers, only the original releases them
+            res.setBuffers(buffers, null);
             return res;
         }
 
@@ -358,6 +461,16 @@ public class Writer implements IChannelWriter {
 
     public void setFilterManager(IOFilterManager filterManager) {
         this._filterManager = filterManager;
+        if (filterManager != null && _directStream != null) {
+            // filters work on a single heap buffer, fall back to marshalling into the cached buffer.
+            // This is called before anything is written, so the stream can still be replaced.
+            try {
+                _oos = new MarshalOutputStream(_baos, true);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to initialize LRMI Writer stream: ", e);
+            }
+            _directStream = null;
+        }
     }
 
 
@@ -398,6 +511,10 @@ public class Writer implements IChannelWriter {
     }
 
     protected void noneBlockingWrite(Context ctx) throws IOException {
+        if (ctx.getBuffers() != null) {
+            noneBlockingGatheringWrite(ctx);
+            return;
+        }
         if (ctx.getPhase() == Context.Phase.START) {
             int dataLength = ctx.getBuffer().remaining();
             ctx.setTotalLength(dataLength);
@@ -434,6 +551,95 @@ public class Writer implements IChannelWriter {
         }
     }
 
+    private void noneBlockingGatheringWrite(Context ctx) throws IOException {
+        ByteBuffer[] buffers = ctx.getBuffers();
+        if (ctx.getPhase() == Context.Phase.START) {
+            int dataLength = 0;
+            for (ByteBuffer buffer : buffers)
+                dataLength += buffer.remaining();
+            ctx.setTotalLength(dataLength);
+            ctx.setPhase(Context.Phase.WRITING);
+        }
+        if (ctx.getPhase() == Context.Phase.WRITING) {
+            while (ctx.getTotalBytesWritten() < ctx.getTotalLength()) {
+                long bytes = _sockChannel.write(buffers);
+                if (bytes == 0) // socket channel buffer seems to be full, need to wait on the selector.
+                    return;
+                ctx.setTotalBytesWritten(ctx.getTotalBytesWritten() + (int) bytes);
+            }
+            ctx.setPhase(Context.Phase.FINISH);
+            ctx.releaseBuffers();
+        }
+    }
+
+    /**
+     * Writes direct buffers with gathering writes. Direct buffers are written by the channel as is,
+     * so unlike {@link #writeBytesToChannelBlocking} no sliding window is needed.
+     */
+    private void writeBuffersToChannelBlocking(ByteBuffer[] buffers, long length) throws IOException {
+        long totalBytesWritten = 0;
+        long bytesRetries = 0;
+        int retries = _slowConsumerRetries;
+        Selector tempSelector = null;
+        SelectionKey tmpKey = null;
+
+        try {
+            while (totalBytesWritten < length) {
+                long bytes = _sockChannel.write(buffers);
+                totalBytesWritten += bytes;
+                if (totalBytesWritten >= length)
+                    break;
+
+                if (bytes == 0 && !_sockChannel.isBlocking()) {
+                    if (tempSelector == null) {
+                        tempSelector = TemporarySelectorFactory.getSelector();
+                        tmpKey = _sockChannel.register(tempSelector, SelectionKey.OP_WRITE);
+                    }
+                    tmpKey.interestOps(tmpKey.interestOps() | SelectionKey.OP_WRITE);
+                    tempSelector.select(1000);
+                    tmpKey.interestOps(tmpKey.interestOps() & (~SelectionKey.OP_WRITE));
+                }
+
+                bytesRetries += bytes;
+                if (_slowConsumer && bytesRetries < _slowConsumerBytes) {
+                    if (retries-- == 0) {
+                        String slowConsumerCloseMsg = prepareSlowConsumerCloseMsg(getEndPointAddress());
+                        if (_slowerConsumerLogger.isLoggable(Level.WARNING)) {
+                            _slowerConsumerLogger.warning(slowConsumerCloseMsg);
+                        }
+                        _sockChannel.close();
+                        throw new SlowConsumerException(slowConsumerCloseMsg);
+                    }
+                    try {
+                        if (_slowerConsumerLogger.isLoggable(Level.FINE)) {
+                            _slowerConsumerLogger.fine(prepareSlowConsumerSleepMsg(getEndPointAddress(), retries));
+                        }
+                        Thread.sleep(_slowConsumerSleepTime);
+                    } catch (InterruptedException e) {
+                        IOException ioe = new IOException("Interrupted while writing response.");
+                        ioe.initCause(e);
+                        throw ioe;
+                    }
+                } else {
+                    bytesRetries = 0;
+                    retries = _slowConsumerRetries;
+                }
+            }
+        } finally {
+            if (tmpKey != null)
+                tmpKey.cancel();
+
+            if (tempSelector != null) {
+                // releases and clears the key.
+                try {
+                    tempSelector.selectNow();
+                } catch (IOException ex) {
+                }
+
+                TemporarySelectorFactory.returnSelector(tempSelector);
+            }
+        }
+    }
 
     private void writeBytesBlocking(ByteBuffer dataBuffer) throws IOException, IOFilterException {
         if (_filterManager != null) {
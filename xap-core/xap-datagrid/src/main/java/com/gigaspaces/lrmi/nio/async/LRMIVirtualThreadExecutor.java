@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.lrmi.nio.async;
+
+import com.gigaspaces.start.SystemBoot;
+import com.j_spaces.kernel.threadpool.DynamicExecutors;
+
+import org.jini.rio.boot.CommonClassLoader;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Executes LRMI invocations on virtual threads, so invocations which block (e.g. read/take with a
+ * timeout) do not hold a pooled platform thread each. The number of concurrent invocations is
+ * bound: once the limit is reached {@link #execute(Runnable)} blocks until a running invocation
+ * completes, the same backpressure the LRMI connection thread pool applies when its queue is full.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class LRMIVirtualThreadExecutor implements Executor {
+    private final ExecutorService _executor;
+    private final Semaphore _permits;
+    private final boolean _useCommonClassLoader;
+
+    LRMIVirtualThreadExecutor(ExecutorService executor, int maxConcurrent, boolean useCommonClassLoader) {
+        if (maxConcurrent < 1)
+            throw new IllegalArgumentException("maxConcurrent must be positive: " + maxConcurrent);
+        this._executor = executor;
+        this._permits = new Semaphore(maxConcurrent);
+        this._useCommonClassLoader = useCommonClassLoader;
+    }
+
+    /**
+     * @return an executor which runs each task on a new virtual thread, at most
+     * <code>maxConcurrent</code> at a time, or null if virtual threads are not supported by this JVM
+     */
+    public static LRMIVirtualThreadExecutor create(String poolName, int maxConcurrent) {
+        ExecutorService executor = DynamicExecutors.newVirtualThreadPerTaskExecutor(poolName);
+        return executor != null ? new LRMIVirtualThreadExecutor(executor, maxConcurrent, SystemBoot.isRunningWithinGSC()) : null;
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        _permits.acquireUninterruptibly();
+        try {
+            _executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        // since the LRMI is loaded in the common class loader, make sure each invocation is using
+                        // the common class loader (even if it was dispatched in the context of a processing unit).
+                        if (_useCommonClassLoader)
+                            Thread.currentThread().setContextClassLoader(CommonClassLoader.getInstance());
+                        command.run();
+                    } finally {
+                        _permits.release();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // not submitted (e.g. the executor was shut down)
+            _permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of invocations which can be dispatched before dispatching blocks
+     */
+    public int getAvailablePermits() {
+        return _permits.availablePermits();
+    }
+
+    public void shutdownNow() {
+        _executor.shutdownNow();
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.lrmi.nio.filters;
+
+import com.gigaspaces.internal.io.BlockCompressionCodec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A network filter which compresses messages using a fast block compression codec (lz4 or zstd).
+ * Messages smaller than the threshold are sent uncompressed.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class IOStreamBlockCompressionFilter implements IOStreamFilter {
+
+    private final BlockCompressionCodec _codec;
+    private final int _threshold;
+
+    public IOStreamBlockCompressionFilter(BlockCompressionCodec codec, int threshold) {
+        this._codec = codec;
+        this._threshold = threshold;
+    }
+
+    public BlockCompressionCodec getCodec() {
+        return _codec;
+    }
+
+    public byte[] wrap(ByteBuffer buf) throws Exception {
+        if (buf.hasArray()) {
+            int off = buf.arrayOffset() + buf.position();
+            int len = buf.remaining();
+            buf.position(buf.limit());
+            return _codec.encode(buf.array(), off, len, _threshold);
+        }
+        return _codec.encode(toByteArray(buf), _threshold);
+    }
+
+    public byte[] unrwap(ByteBuffer buf) throws Exception {
+        if (buf.hasArray()) {
+            int off = buf.arrayOffset() + buf.position();
+            int len = buf.remaining();
+            buf.position(buf.limit());
+            return _codec.decode(buf.array(), off, len);
+        }
+        return _codec.decode(toByteArray(buf));
+    }
+
+    private static byte[] toByteArray(ByteBuffer buf) {
+        byte[] res = new byte[buf.remaining()];
+        buf.get(res, 0, res.length);
+        return res;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.lrmi.nio.filters;
+
+import com.gigaspaces.internal.io.BlockCompressionCodec;
+import com.j_spaces.kernel.SystemProperties;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Use this network filter factory to send messages compressed by a block compression codec
+ * between client and server. The codec is set by {@link SystemProperties#LRMI_COMPRESSION_CODEC}
+ * and the minimal compressed message size by {@link SystemProperties#LRMI_COMPRESSION_THRESHOLD}.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class IOStreamBlockCompressionFilterFactory implements IOFilterFactory {
+
+    private final BlockCompressionCodec _codec;
+    private final int _threshold;
+
+    public IOStreamBlockCompressionFilterFactory() {
+        this(BlockCompressionCodec.forName(System.getProperty(SystemProperties.LRMI_COMPRESSION_CODEC, SystemProperties.LRMI_COMPRESSION_CODEC_DEFAULT)),
+                Integer.getInteger(SystemProperties.LRMI_COMPRESSION_THRESHOLD, SystemProperties.LRMI_COMPRESSION_THRESHOLD_DEFAULT));
+    }
+
+    public IOStreamBlockCompressionFilterFactory(BlockCompressionCodec codec, int threshold) {
+        this._codec = codec;
+        this._threshold = threshold;
+    }
+
+    public IOFilter createFilter() throws Exception {
+        return new IOStreamBlockCompressionFilter(_codec, _threshold);
+    }
+
+    public IOFilter createClientFilter(InetSocketAddress remoteAddress) throws Exception {
+        return createFilter();
+    }
+
+    public IOFilter createServerFilter(InetSocketAddress remoteAddress) throws Exception {
+        return createFilter();
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.metrics;
+
+import com.gigaspaces.internal.backport.java.util.concurrent.atomic.LongAdder;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of latencies, recorded in nanoseconds.
+ *
+ * Values are counted in log-linear buckets (as in HdrHistogram): values below 64 are counted
+ * exactly, larger values in one of 32 buckets per power of two, so percentiles are accurate to
+ * about 3%. Values above ~18 minutes are counted in the last bucket.
+ *
+ * Recording is safe from any thread. {@link #sample()} is expected to be called by a single
+ * sampling thread, like {@link ThroughputMetric#sampleThroughput()}.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class LatencyHistogram extends Metric {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int EXACT_LIMIT = SUB_BUCKETS << 1;
+    private static final int FIRST_EXPONENT = SUB_BUCKET_BITS + 1;
+    private static final int MAX_EXPONENT = 40;
+    static final int NUM_OF_BUCKETS = EXACT_LIMIT + (MAX_EXPONENT - FIRST_EXPONENT) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(NUM_OF_BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    // Only accessed by the sampling thread.
+    private final long[] prevCounts = new long[NUM_OF_BUCKETS];
+    private long prevTotalNanos;
+
+    /**
+     * Records a single latency.
+     *
+     * @param nanos the latency in nanoseconds, negative values are recorded as 0
+     */
+    public void update(long nanos) {
+        if (nanos < 0)
+            nanos = 0;
+        counts.incrementAndGet(toBucket(nanos));
+        total.add(1);
+        totalNanos.add(nanos);
+        long currMax;
+        while (nanos > (currMax = maxNanos.get()) && !maxNanos.compareAndSet(currMax, nanos)) {
+        }
+    }
+
+    /**
+     * Returns the total number of latencies recorded.
+     */
+    public long getTotalCount() {
+        return total.sum();
+    }
+
+    /**
+     * Returns a snapshot of the latencies recorded since the previous call to sample.
+     */
+    public LatencyHistogramSnapshot sample() {
+        final long[] intervalCounts = new long[NUM_OF_BUCKETS];
+        long count = 0;
+        for (int i = 0; i < NUM_OF_BUCKETS; i++) {
+            long curr = counts.get(i);
+            intervalCounts[i] = curr - prevCounts[i];
+            prevCounts[i] = curr;
+            count += intervalCounts[i];
+        }
+        final long currTotalNanos = totalNanos.sum();
+        final long intervalNanos = currTotalNanos - prevTotalNanos;
+        prevTotalNanos = currTotalNanos;
+        // a latency recorded concurrently may be counted in the next interval but its max in this one
+        final long max = maxNanos.getAndSet(0);
+        return new LatencyHistogramSnapshot(intervalCounts, count, intervalNanos, max);
+    }
+
+    static int toBucket(long value) {
+        if (value < EXACT_LIMIT)
+            return (int) value;
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent >= MAX_EXPONENT)
+            return NUM_OF_BUCKETS - 1;
+        final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return EXACT_LIMIT + (exponent - FIRST_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the highest value counted in the specified bucket.
+     */
+    static long highestValueOf(int bucket) {
+        if (bucket < EXACT_LIMIT)
+            return bucket;
+        final int exponent = FIRST_EXPONENT + (bucket - EXACT_LIMIT) / SUB_BUCKETS;
+        final int subBucket = (bucket - EXACT_LIMIT) % SUB_BUCKETS;
+        final int shift = exponent - SUB_BUCKET_BITS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Latencies recorded by a {@link LatencyHistogram} during a single sampling interval. Values are
+ * reported in microseconds.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class LatencyHistogramSnapshot {
+    private static final double NANOS_PER_MICRO = 1000.0;
+
+    private final long[] counts;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    LatencyHistogramSnapshot(long[] counts, long count, long totalNanos, long maxNanos) {
+        this.counts = counts;
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : totalNanos / NANOS_PER_MICRO / count;
+    }
+
+    public double getMax() {
+        return maxNanos / NANOS_PER_MICRO;
+    }
+
+    /**
+     * Returns the latency which the specified percentage of the samples did not exceed.
+     *
+     * @param percentile a value between 0 and 100
+     */
+    public double getPercentile(double percentile) {
+        if (count == 0)
+            return 0;
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long accumulated = 0;
+        for (int i = 0; i < counts.length; i++) {
+            accumulated += counts[i];
+            if (accumulated >= rank) {
+                // the max is exact, while bucket values are rounded up
+                long value = LatencyHistogram.highestValueOf(i);
+                return (maxNanos != 0 ? Math.min(value, maxNanos) : value) / NANOS_PER_MICRO;
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Returns the values reported for this snapshot, by their name suffix.
+     */
+    public Map<String, Object> getValues() {
+        Map<String, Object> result = new LinkedHashMap<String, Object>();
+        result.put("count", count);
+        result.put("mean", getMean());
+        result.put("p50", getPercentile(50));
+        result.put("p90", getPercentile(90));
+        result.put("p99", getPercentile(99));
+        result.put("p999", getPercentile(99.9));
+        result.put("max", getMax());
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return getValues().toString();
+    }
+}
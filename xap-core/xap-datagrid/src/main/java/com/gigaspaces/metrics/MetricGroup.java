@@ -32,6 +32,7 @@ public class MetricGroup {
     private final ConcurrentHashMap<String, Gauge> gauges = new ConcurrentHashMap<String, Gauge>();
     private final ConcurrentHashMap<String, LongCounter> counters = new ConcurrentHashMap<String, LongCounter>();
     private final ConcurrentHashMap<String, ThroughputMetric> tpMetrics = new ConcurrentHashMap<String, ThroughputMetric>();
+    private final ConcurrentHashMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<String, LatencyHistogram>();
 
     Map<String, Metric> getMetrics() {
         return metrics;
@@ -54,11 +55,13 @@ public class MetricGroup {
             return (ConcurrentHashMap<String, T>) counters;
         if (metric instanceof ThroughputMetric)
             return (ConcurrentHashMap<String, T>) tpMetrics;
+        if (metric instanceof LatencyHistogram)
+            return (ConcurrentHashMap<String, T>) histograms;
         return null;
     }
 
     public boolean isEmpty() {
-        return gauges.isEmpty() && counters.isEmpty() && tpMetrics.isEmpty();
+        return gauges.isEmpty() && counters.isEmpty() && tpMetrics.isEmpty() && histograms.isEmpty();
     }
 
     public MetricGroupSnapshot snapshot() {
@@ -77,6 +80,11 @@ public class MetricGroup {
         for (Map.Entry<String, ThroughputMetric> entry : tpMetrics.entrySet())
             metricsValues.put(entry.getKey(), entry.getValue().sampleThroughput());
 
+        // Each histogram is reported as a set of values, e.g. foo_p99 (same separator as MetricManagerConfig)
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet())
+            for (Map.Entry<String, Object> value : entry.getValue().sample().getValues().entrySet())
+                metricsValues.put(entry.getKey() + '_' + value.getKey(), value.getValue());
+
         return new MetricGroupSnapshot(metricsValues);
     }
 
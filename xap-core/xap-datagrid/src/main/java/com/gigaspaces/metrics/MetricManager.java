@@ -16,6 +16,9 @@
 
 package com.gigaspaces.metrics;
 
+import com.gigaspaces.internal.io.BlockCompressionCodec;
+import com.gigaspaces.internal.io.LZ4BlockCodec;
+import com.gigaspaces.internal.io.ZstdBlockCodec;
 import com.gigaspaces.internal.os.OSStatistics;
 import com.gigaspaces.internal.os.OshiOSDetailsProbe;
 import com.gigaspaces.internal.os.OshiOSStatisticsProbe;
@@ -31,6 +34,7 @@ import com.gigaspaces.logger.Constants;
 import com.gigaspaces.lrmi.ConnectionPool;
 import com.gigaspaces.lrmi.LRMIRuntime;
 import com.gigaspaces.lrmi.nio.CPeer;
+import com.gigaspaces.lrmi.nio.DirectBufferPool;
 import com.gigaspaces.lrmi.nio.Reader;
 import com.gigaspaces.lrmi.nio.Writer;
 import com.gigaspaces.metrics.factories.JvmMemoryMetricFactory;
@@ -397,15 +401,37 @@ public class MetricManager implements Closeable {
         registrator.register("received-traffic", new LongCounter(Reader.getReceivedTrafficCounter()));
         registrator.register("generated-traffic", new LongCounter(Writer.getGeneratedTrafficCounter()));
         registrator.register("pending-writes", new LongCounter(Writer.getPendingWritesCounter()));
+        registrator.register("read-buffers-allocated-bytes", new LongCounter(Reader.getAllocatedBytesCounter()));
+        registrator.register("write-buffers-allocated-bytes", new LongCounter(Writer.getAllocatedBytesCounter()));
+        registrator.register("direct-buffers-allocated-bytes", new LongCounter(DirectBufferPool.getAllocatedBytesCounter()));
+        registrator.register("direct-buffers-reused", new LongCounter(DirectBufferPool.getReusedBuffersCounter()));
         registrator.register(MetricConstants.CONNECTIONS_METRIC_NAME, new LongCounter(CPeer.getConnectionsCounter()));
         registrator.register(MetricConstants.ACTIVE_CONNECTIONS_METRIC_NAME, new LongCounter(ConnectionPool.getActiveConnectionsCounter()));
         registerThreadPoolMetrics(registrator.extend("connection-pool"), lrmiRuntime.getThreadPool());
         registerThreadPoolMetrics(registrator.extend("liveness-pool"), lrmiRuntime.getLivenessPriorityThreadPool());
         registerThreadPoolMetrics(registrator.extend("monitoring-pool"), lrmiRuntime.getMonitoringPriorityThreadPool());
         registerThreadPoolMetrics(registrator.extend("custom-pool"), lrmiRuntime.getCustomThreadPool());
+        registerCompressionCodecMetrics(registrator.extend("compression").extend(LZ4BlockCodec.INSTANCE.getName()), LZ4BlockCodec.INSTANCE);
+        ZstdBlockCodec zstdCodec = ZstdBlockCodec.getInstance();
+        if (zstdCodec != null)
+            registerCompressionCodecMetrics(registrator.extend("compression").extend(zstdCodec.getName()), zstdCodec);
         return registrator;
     }
 
+    private static void registerCompressionCodecMetrics(MetricRegistrator registrator, final BlockCompressionCodec codec) {
+        registrator.register("uncompressed-bytes", new LongCounter(codec.getUncompressedBytesCounter()));
+        registrator.register("compressed-bytes", new LongCounter(codec.getCompressedBytesCounter()));
+        registrator.register("raw-blocks", new LongCounter(codec.getRawBlocksCounter()));
+        registrator.register("compress-time-nanos", new LongCounter(codec.getCompressTimeCounter()));
+        registrator.register("decompress-time-nanos", new LongCounter(codec.getDecompressTimeCounter()));
+        registrator.register("ratio", new Gauge<Double>() {
+            @Override
+            public Double getValue() throws Exception {
+                return codec.getCompressionRatio();
+            }
+        });
+    }
+
     public static void registerThreadPoolMetrics(MetricRegistrator registrator, final DynamicThreadPoolExecutor dynamicThreadPoolExecutor) {
         registrator.register("active-threads", new Gauge<Integer>() {
             @Override
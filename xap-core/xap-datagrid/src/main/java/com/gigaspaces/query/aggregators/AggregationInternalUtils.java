@@ -54,6 +54,14 @@ public class AggregationInternalUtils {
         return aggregationSet.getAggregators();
     }
 
+    public static int getParallelism(AggregationSet aggregationSet) {
+        return aggregationSet.getParallelism();
+    }
+
+    public static boolean isServerDefaultParallelism(int parallelism) {
+        return parallelism == AggregationSet.SERVER_DEFAULT_PARALLELISM;
+    }
+
     public static Map<String, Integer> index(List<SpaceEntriesAggregator> aggregators) {
         Map<String, Integer> nameIndex = new HashMap<String, Integer>();
         for (int i = 0; i < aggregators.size(); i++) {
@@ -92,4 +100,8 @@ public class AggregationInternalUtils {
     public static List<SpaceEntriesAggregator> getSelectors(GroupByAggregator aggregator) {
         return aggregator.getSelectAggregators();
     }
+
+    public static String[] getGroupByPaths(GroupByAggregator aggregator) {
+        return aggregator.getGroupByPaths();
+    }
 }
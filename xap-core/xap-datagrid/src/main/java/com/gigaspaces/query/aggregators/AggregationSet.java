@@ -29,7 +29,13 @@ import java.util.List;
 
 public class AggregationSet {
 
+    /**
+     * Parallelism value which instructs each partition to use its own default parallelism.
+     */
+    static final int SERVER_DEFAULT_PARALLELISM = -1;
+
     private final List<SpaceEntriesAggregator> aggregators = new ArrayList<SpaceEntriesAggregator>();
+    private int parallelism;
 
     public AggregationSet add(SpaceEntriesAggregator aggregator) {
         aggregators.add(aggregator);
@@ -122,7 +128,38 @@ public class AggregationSet {
         return add(aggregator);
     }
 
+    /**
+     * Aggregates the matching entries of each partition on multiple threads, using the number of
+     * threads configured on the server.
+     *
+     * @see #parallel(int)
+     * @since 15.5
+     */
+    public AggregationSet parallel() {
+        this.parallelism = SERVER_DEFAULT_PARALLELISM;
+        return this;
+    }
+
+    /**
+     * Aggregates the matching entries of each partition on up to the specified number of threads.
+     * Each thread aggregates its share of the entries with its own copy of the aggregators, and
+     * the copies are merged using {@link SpaceEntriesAggregator#aggregateIntermediateResult}.
+     * Entries are still matched by a single thread, so this pays off when aggregation (e.g. group
+     * by) dominates the cost of the query. A value of 1 or less aggregates on the matching thread.
+     *
+     * @param parallelism Maximum number of threads used by each partition
+     * @since 15.5
+     */
+    public AggregationSet parallel(int parallelism) {
+        this.parallelism = Math.max(parallelism, 0);
+        return this;
+    }
+
     List<SpaceEntriesAggregator> getAggregators() {
         return aggregators;
     }
+
+    int getParallelism() {
+        return parallelism;
+    }
 }
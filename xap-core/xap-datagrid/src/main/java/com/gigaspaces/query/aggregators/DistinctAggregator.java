@@ -109,8 +109,12 @@ public class DistinctAggregator<T> extends SpaceEntriesAggregator<DistinctResult
             return null;
 
 
-        for (RawEntry entry : map.values()) {
-            context.applyProjectionTemplate(entry);
+        // context is null when the results were merged from parallel aggregation workers, which
+        // already applied the projection:
+        if (context != null) {
+            for (RawEntry entry : map.values()) {
+                context.applyProjectionTemplate(entry);
+            }
         }
         return new DistinctResult(map);
     }
@@ -79,6 +79,10 @@ public class GroupByAggregator extends SpaceEntriesAggregator<GroupByResult> imp
         return aggregators;
     }
 
+    String[] getGroupByPaths() {
+        return groupByPaths;
+    }
+
     public GroupByAggregator select(SpaceEntriesAggregator... aggregators) {
         for (SpaceEntriesAggregator aggregator : aggregators)
             addSelector(aggregator);
@@ -143,11 +143,13 @@ public class OrderByAggregator<T> extends SpaceEntriesAggregator<OrderByAggregat
 
         OrderByScanResult orderByResult = new OrderByScanResult();
         if (map != null) {
-
-            for (List<RawEntry> entriesList : map.values()) {
-                for (RawEntry entry : entriesList)
-                    context.applyProjectionTemplate(entry);
-
+            // context is null when the results were merged from parallel aggregation workers, which
+            // already applied the projection:
+            if (context != null) {
+                for (List<RawEntry> entriesList : map.values()) {
+                    for (RawEntry entry : entriesList)
+                        context.applyProjectionTemplate(entry);
+                }
             }
             orderByResult.setResultMap(map);
         }
@@ -16,6 +16,8 @@
 
 package com.gigaspaces.query.extension;
 
+import com.gigaspaces.metrics.MetricRegistrator;
+
 /**
  * @author Niv Ingberg
  * @since 11.0
@@ -25,4 +27,14 @@ public interface QueryExtensionRuntimeInfo {
     String getSpaceInstanceName();
 
     String getSpaceInstanceWorkDirectory();
+
+    /**
+     * Returns a registrator for metrics reported by the query extension, or null if metrics are
+     * not available.
+     *
+     * @since 15.5
+     */
+    default MetricRegistrator getMetricRegistrator() {
+        return null;
+    }
 }
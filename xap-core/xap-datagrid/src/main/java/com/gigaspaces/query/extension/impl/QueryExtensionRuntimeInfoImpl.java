@@ -16,16 +16,19 @@
 
 package com.gigaspaces.query.extension.impl;
 
+import com.gigaspaces.metrics.MetricRegistrator;
 import com.gigaspaces.query.extension.QueryExtensionRuntimeInfo;
 
 @com.gigaspaces.api.InternalApi
 public class QueryExtensionRuntimeInfoImpl implements QueryExtensionRuntimeInfo {
     private final String nodeName;
     private final String workDir;
+    private final MetricRegistrator metricRegistrator;
 
-    public QueryExtensionRuntimeInfoImpl(String nodeName, String workDir) {
+    public QueryExtensionRuntimeInfoImpl(String nodeName, String workDir, MetricRegistrator metricRegistrator) {
         this.nodeName = nodeName;
         this.workDir = workDir;
+        this.metricRegistrator = metricRegistrator;
     }
 
     @Override
@@ -37,4 +40,9 @@ public class QueryExtensionRuntimeInfoImpl implements QueryExtensionRuntimeInfo
     public String getSpaceInstanceWorkDirectory() {
         return workDir;
     }
+
+    @Override
+    public MetricRegistrator getMetricRegistrator() {
+        return metricRegistrator;
+    }
 }
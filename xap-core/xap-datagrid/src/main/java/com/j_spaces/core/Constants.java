@@ -314,6 +314,24 @@ public interface Constants {
 
         String ENGINE_NOTIFY_MAX_THREADS_PROP = "engine.notify_max_threads";
 
+        /**
+         * Capacity of the queue of events waiting to be delivered to each notify listener, so a
+         * listener which falls behind occupies a single notifier thread. 0 (default) dispatches the
+         * events of all the listeners directly to the notifier threads.
+         */
+        String ENGINE_NOTIFY_LISTENER_QUEUE_CAPACITY_PROP = "engine.notify_listener_queue_capacity";
+        String ENGINE_NOTIFY_LISTENER_QUEUE_CAPACITY_DEFAULT = "0";
+
+        /**
+         * What to do with an event whose listener queue is full: <tt>dispatch</tt> (default) hands
+         * it directly to the notifier threads, as if listener queues were disabled, and
+         * <tt>drop</tt> discards it.
+         */
+        String ENGINE_NOTIFY_LISTENER_QUEUE_OVERFLOW_POLICY_PROP = "engine.notify_listener_queue_overflow_policy";
+        String ENGINE_NOTIFY_LISTENER_QUEUE_OVERFLOW_POLICY_DISPATCH = "dispatch";
+        String ENGINE_NOTIFY_LISTENER_QUEUE_OVERFLOW_POLICY_DROP = "drop";
+        String ENGINE_NOTIFY_LISTENER_QUEUE_OVERFLOW_POLICY_DEFAULT = ENGINE_NOTIFY_LISTENER_QUEUE_OVERFLOW_POLICY_DISPATCH;
+
         String ENGINE_THREADS_HIGHER_PRIORITY_PROP = "engine.threads_higher_priority";
 
         String ENGINE_DIRTY_READ_DEFAULT = "false";
@@ -531,6 +549,14 @@ public interface Constants {
         String FULL_LM_EXPIRATION_TIME_INTERVAL_PROP = SPACE_CONFIG_PREFIX + LM_EXPIRATION_TIME_INTERVAL_PROP;
         String LM_BACKUP_EXPIRATION_DELAY_PROP = "lease_manager.backup_leases_expiration_delay";
         String LM_SEGMEENTS_PER_EXPIRATION_CELL_PROP = "lease_manager.segments_per_expiration_cell";
+
+        // number of threads reaping expired entries, each expired cell is reaped by one of them
+        int LM_REAPER_THREADS_DEFAULT = 1;
+        String LM_REAPER_THREADS_PROP = "lease_manager.reaper_threads";
+
+        // number of slots in the cache used to find the expiration cell of a lease
+        int LM_EXPIRATION_CELLS_CACHE_SLOTS_DEFAULT = 1024;
+        String LM_EXPIRATION_CELLS_CACHE_SLOTS_PROP = "lease_manager.expiration_cells_cache_slots";
     }
 
     public interface SystemTime {
@@ -706,6 +732,30 @@ public interface Constants {
 
         String CACHE_MANAGER_INITIAL_LOAD_CLASS_PROP = "engine.initial_load_class";
 
+        /* number of threads inserting entries into the cache on initial load, 1 means the loading thread inserts them */
+        String CACHE_MANAGER_INITIAL_LOAD_THREADS_PROP = "engine.initial_load_threads";
+        String CACHE_MANAGER_INITIAL_LOAD_THREADS_DEFAULT = "1";
+
+        /* number of entries handed to an initial load insertion thread at once */
+        String CACHE_MANAGER_INITIAL_LOAD_BATCH_SIZE_PROP = "engine.initial_load_batch_size";
+        String CACHE_MANAGER_INITIAL_LOAD_BATCH_SIZE_DEFAULT = "1000";
+
+        /* local directory of the periodic memory snapshots of an all-in-cache memory space, snapshots are disabled if not set */
+        String CACHE_MANAGER_SNAPSHOT_DIR_PROP = "engine.snapshot_dir";
+        String CACHE_MANAGER_SNAPSHOT_DIR_DEFAULT = "";
+
+        /* interval in milliseconds between memory snapshots */
+        String CACHE_MANAGER_SNAPSHOT_INTERVAL_PROP = "engine.snapshot_interval";
+        String CACHE_MANAGER_SNAPSHOT_INTERVAL_DEFAULT = "600000";
+
+        /* number of completed memory snapshots kept in the snapshot directory */
+        String CACHE_MANAGER_SNAPSHOT_RETAINED_PROP = "engine.snapshot_retained";
+        String CACHE_MANAGER_SNAPSHOT_RETAINED_DEFAULT = "2";
+
+        /* number of threads writing the entries of a memory snapshot back into the space on restart */
+        String CACHE_MANAGER_SNAPSHOT_RESTORE_THREADS_PROP = "engine.snapshot_restore_threads";
+        String CACHE_MANAGER_SNAPSHOT_RESTORE_THREADS_DEFAULT = "4";
+
         String CACHE_MANAGER_MIN_EXTENDED_INDEX_ACTIVATION_DEFAULT = "1";
 
         String CACHE_MANAGER_MIN_EXTENDED_INDEX_ACTIVATION_PROP = "engine.extended-match.min_ext_index_activation_size";
@@ -727,6 +777,15 @@ public interface Constants {
          * touching is performed. 0 means always touch, 100 means no touch at all
          */
         String CACHE_MANAGER_LRU_TOUCH_THRESHOLD_DEFAULT = "50";
+
+        /**
+         * the LRU implementation used by the LRU cache policy - "concurrent" for the segmented
+         * chains LRU, or "clock" for the approximate (second chance) LRU which takes no lock on touch
+         */
+        String CACHE_MANAGER_LRU_STRATEGY_PROP = "engine.lru_strategy";
+        String CACHE_MANAGER_LRU_STRATEGY_CONCURRENT = "concurrent";
+        String CACHE_MANAGER_LRU_STRATEGY_CLOCK = "clock";
+        String CACHE_MANAGER_LRU_STRATEGY_DEFAULT = CACHE_MANAGER_LRU_STRATEGY_CONCURRENT;
         /**
          * size of evictable locks table
          */
@@ -859,6 +918,11 @@ public interface Constants {
             long ACTIVE_SERVER_LOOKUP_SAMPLING_INTERVAL_DEFAULT = 100;
             String THREAD_POOL_SIZE = PREFIX + "threadpool-size";
             String LOAD_BALANCER_TYPE = PREFIX + "load-balancer-type";
+            // max number of entries per partition request of a batch operation (0 means a single request per partition)
+            String BATCH_CHUNK_SIZE = PREFIX + "batch-chunk-size";
+            int BATCH_CHUNK_SIZE_DEFAULT = 0;
+            String BATCH_MAX_CHUNKS_IN_FLIGHT = PREFIX + "batch-max-chunks-in-flight";
+            int BATCH_MAX_CHUNKS_IN_FLIGHT_DEFAULT = 4;
         }
 
         public interface OldRouter {
@@ -38,7 +38,11 @@ import com.gigaspaces.internal.server.storage.ITemplateHolder;
 import com.gigaspaces.internal.server.storage.NotifyTemplateHolder;
 import com.gigaspaces.internal.transport.ITemplatePacket;
 import com.gigaspaces.internal.transport.TemplatePacket;
+import com.gigaspaces.internal.utils.collections.ConcurrentTimeBucketCache;
 import com.gigaspaces.internal.utils.concurrent.GSThread;
+import com.gigaspaces.internal.utils.concurrent.GSThreadFactory;
+import com.gigaspaces.metrics.Gauge;
+import com.gigaspaces.metrics.MetricRegistrator;
 import com.gigaspaces.time.SystemTime;
 import com.j_spaces.core.cache.CacheManager.RecentDeleteCodes;
 import com.j_spaces.core.cache.IEntryCacheInfo;
@@ -71,8 +75,15 @@ import net.jini.space.InternalSpaceException;
 import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -94,6 +105,10 @@ import static com.j_spaces.core.Constants.LeaseManager.LM_EXPIRATION_TIME_RECENT
 import static com.j_spaces.core.Constants.LeaseManager.LM_EXPIRATION_TIME_RECENT_UPDATES_PROP;
 import static com.j_spaces.core.Constants.LeaseManager.LM_EXPIRATION_TIME_STALE_REPLICAS_DEFAULT;
 import static com.j_spaces.core.Constants.LeaseManager.LM_EXPIRATION_TIME_STALE_REPLICAS_PROP;
+import static com.j_spaces.core.Constants.LeaseManager.LM_EXPIRATION_CELLS_CACHE_SLOTS_DEFAULT;
+import static com.j_spaces.core.Constants.LeaseManager.LM_EXPIRATION_CELLS_CACHE_SLOTS_PROP;
+import static com.j_spaces.core.Constants.LeaseManager.LM_REAPER_THREADS_DEFAULT;
+import static com.j_spaces.core.Constants.LeaseManager.LM_REAPER_THREADS_PROP;
 import static com.j_spaces.core.Constants.LeaseManager.LM_SEGMEENTS_PER_EXPIRATION_CELL_DEFAULT;
 import static com.j_spaces.core.Constants.LeaseManager.LM_SEGMEENTS_PER_EXPIRATION_CELL_PROP;
 
@@ -131,6 +146,8 @@ public class LeaseManager {
     private final com.j_spaces.core.cache.CacheManager _cacheManager;
     private final boolean _dontReapUnderXtnLeases;
     private final FastConcurrentSkipListMap<Long, Cell> _expirationList;
+    // O(1) lookup cache of the cells within its horizon, _expirationList holds all the cells in order
+    private final ConcurrentTimeBucketCache<Cell> _recentCells;
     private final AtomicLong _operationID;
     private final long _clientID;
     private final boolean _slaveLeaseManagerModeConfiguredForEntries;
@@ -143,7 +160,12 @@ public class LeaseManager {
     private final long _expirationTimeRecentUpdates;
     private final long _staleReplicaExpirationTime;
 
+    private final int _reaperThreads;
+
     private LeaseReaper _leaseReaperDaemon;
+    // helps the lease reaper reap expired entries, null if there is a single reaper thread
+    private ExecutorService _reaperPool;
+    private MetricRegistrator _metricRegistrator;
     private boolean _closed;
 
     private final boolean _supportsRecentExtendedUpdates;
@@ -178,6 +200,8 @@ public class LeaseManager {
         _expirationTimeRecentDeletes = getLongValue(configReader, LM_EXPIRATION_TIME_RECENT_DELETES_PROP, LM_EXPIRATION_TIME_RECENT_DELETES_DEFAULT);
         _expirationTimeRecentUpdates = getLongValue(configReader, LM_EXPIRATION_TIME_RECENT_UPDATES_PROP, LM_EXPIRATION_TIME_RECENT_UPDATES_DEFAULT);
         _staleReplicaExpirationTime = getLongValue(configReader, LM_EXPIRATION_TIME_STALE_REPLICAS_PROP, LM_EXPIRATION_TIME_STALE_REPLICAS_DEFAULT);
+        _recentCells = new ConcurrentTimeBucketCache<Cell>(_expirationTimeInterval, Math.max(1, getIntValue(configReader, LM_EXPIRATION_CELLS_CACHE_SLOTS_PROP, LM_EXPIRATION_CELLS_CACHE_SLOTS_DEFAULT)));
+        _reaperThreads = Math.max(1, getIntValue(configReader, LM_REAPER_THREADS_PROP, LM_REAPER_THREADS_DEFAULT));
 
         _supportsRecentExtendedUpdates = _engine.getCacheManager().isBlobStoreCachePolicy();
         logConfiguration();
@@ -232,7 +256,9 @@ public class LeaseManager {
                     + _expirationTimeRecentUpdates
                     + " ms\n\t"
                     + "Transactions of FIFO entries - every "
-                    + LM_EXPIRATION_TIME_FIFOENTRY_XTNINFO + " ms\n\t");
+                    + LM_EXPIRATION_TIME_FIFOENTRY_XTNINFO + " ms\n\t"
+                    + "Expired entries are reaped by "
+                    + _reaperThreads + " thread(s)\n\t");
         }
     }
 
@@ -240,11 +266,38 @@ public class LeaseManager {
     public synchronized void init() {
         if (_closed)
             return;
+        if (_reaperThreads > 1)
+            _reaperPool = Executors.newFixedThreadPool(_reaperThreads - 1, new GSThreadFactory(this.getClass().getSimpleName()
+                    + "$ReaperWorker [" + _spaceName + "]", true));
+        if (!_engine.isLocalCache()) {
+            _metricRegistrator = _engine.getMetricRegistrator().extend("lease-manager");
+            _metricRegistrator.register("expired-backlog", new Gauge<Long>() {
+                @Override
+                public Long getValue() {
+                    return getExpiredBacklog();
+                }
+            });
+        }
         LeaseReaper leaseReaperDaemon = new LeaseReaper(this.getClass().getSimpleName()
                 + "$Reaper [" + _spaceName + "]");
         _leaseReaperDaemon = leaseReaperDaemon;
     }
 
+    /**
+     * Returns the number of entries and templates whose lease cell has expired but were not reaped
+     * yet.
+     */
+    public long getExpiredBacklog() {
+        long currentTime = getEffectiveEntryLeaseTimeForReaper(SystemTime.timeMillis());
+        long result = 0;
+        for (Cell cell : _expirationList.values()) {
+            if (cell.getCellKey() > currentTime)
+                break;
+            result += cell.size();
+        }
+        return result;
+    }
+
     /* ----------------------------- public API ------------------------------ */
 
     public void registerEntryLease(IEntryCacheInfo entryCacheInfo, long expiration) {
@@ -499,6 +552,10 @@ public class LeaseManager {
         _closed = true;
         if (_leaseReaperDaemon != null)
             _leaseReaperDaemon.clean();
+        if (_reaperPool != null)
+            _reaperPool.shutdownNow();
+        if (_metricRegistrator != null)
+            _metricRegistrator.clear();
     }
 
     /**
@@ -583,17 +640,8 @@ public class LeaseManager {
             Long expirationTime = ((expiration / _expirationTimeInterval + 1) * _expirationTimeInterval);
 
             while (true) {
-                Cell cell = _expirationList.get(expirationTime);
-
-                if (cell == null) {
-                    cell = new Cell(_segmentsPerExpirationCell, expirationTime);
-                    Cell currCell = _expirationList.putIfAbsent(expirationTime, cell);
-                    if (currCell != null)
-                        cell = currCell;
-                    cell.register(leaseCacheInfo, entry, objectType);
-                } else {
-                    cell.register(leaseCacheInfo, entry, objectType);
-                }
+                Cell cell = getOrCreateCell(expirationTime);
+                cell.register(leaseCacheInfo, entry, objectType);
                 //if cell is marked as cleaned, reinsert it in order to avoid
                 //skippimg the entry. (note- the indicator is not volatile)
                 if (cell.isCleaned()) {
@@ -609,6 +657,27 @@ public class LeaseManager {
             leaseCacheInfo.setLeaseManagerListRefAndPosition(null, null);
     }
 
+    private Cell getOrCreateCell(Long expirationTime) {
+        Cell cell = _recentCells.get(expirationTime);
+        if (cell != null && !cell.isCleaned())
+            return cell;
+
+        cell = _expirationList.get(expirationTime);
+        if (cell == null) {
+            cell = new Cell(_segmentsPerExpirationCell, expirationTime);
+            Cell currCell = _expirationList.putIfAbsent(expirationTime, cell);
+            if (currCell != null)
+                cell = currCell;
+        }
+        _recentCells.put(expirationTime, cell, SystemTime.timeMillis());
+        return cell;
+    }
+
+    private Cell getCell(Long expirationTime) {
+        Cell cell = _recentCells.get(expirationTime);
+        return cell != null ? cell : _expirationList.get(expirationTime);
+    }
+
     /**
      * unregister from lease manager based on direct backrefs Note: entry/template must be locked
      */
@@ -624,7 +693,7 @@ public class LeaseManager {
                 leaseCacheInfo.getLeaseManagerListRef().remove(leaseCacheInfo.getLeaseManagerPosition());
             } else {//need to remove from cell
                 Long expirationTime = ((expiration / _expirationTimeInterval + 1) * _expirationTimeInterval);
-                Cell cell = _expirationList.get(expirationTime);
+                Cell cell = getCell(expirationTime);
                 if (cell != null)
                     cell.unregisterByPos(leaseCacheInfo.getLeaseManagerPosition(), true /*isEntry*/);
             }
@@ -1139,30 +1208,93 @@ public class LeaseManager {
         private static final int DETACH_LIMIT_TO_REPORT = 1000;
 
         private final void reapExpiredEntries() {
-            Context context = null;
-            int reapCount = 0;
-            int detached = 0;
             if (_expirationList.isEmpty())
                 return;
-            boolean reached_last_cell = false;
 
-            try {
-                Iterator iter = _expirationList.values().iterator();
-
-                while (iter.hasNext()) {
-                    if (reached_last_cell)
+            final ReapPass<Cell> pass = new ReapPass<Cell>(getCellsToReap());
+            int reapCount = 0;
+            int detached = 0;
+            final int numOfReapers = pass.getNumOfReapers(_reaperPool != null ? _reaperThreads : 1);
+            if (numOfReapers > 0) {
+                List<Future<ReapStats>> futures = new ArrayList<Future<ReapStats>>(numOfReapers - 1);
+                for (int i = 1; i < numOfReapers; i++) {
+                    futures.add(_reaperPool.submit(new Callable<ReapStats>() {
+                        @Override
+                        public ReapStats call() {
+                            return reapCells(pass);
+                        }
+                    }));
+                }
+                ReapStats stats = reapCells(pass);
+                reapCount += stats.reapCount;
+                detached += stats.detached;
+                for (Future<ReapStats> future : futures) {
+                    try {
+                        stats = future.get();
+                        reapCount += stats.reapCount;
+                        detached += stats.detached;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
                         break;
+                    } catch (ExecutionException e) {
+                        if (_logger.isLoggable(Level.SEVERE)) {
+                            _logger.log(Level.SEVERE,
+                                    this.getName()
+                                            + " - caught exception while reaping expired entries.",
+                                    e.getCause());
+                        }
+                    }
+                }
+            }
 
-                    long currentTime = getEffectiveEntryLeaseTimeForReaper(SystemTime.timeMillis());
+            if (reapCount > 0) {
+                if (_logger.isLoggable(Level.FINE)) {
+                    _logger.fine(this.getName()
+                            + " - Reaped expired leases. [Reaped: " + reapCount
+                            + "]");
+                }
+            }
+            if ((reapCount == 0 && detached > 0) || detached > DETACH_LIMIT_TO_REPORT) {
+                if (_logger.isLoggable(Level.INFO)) {
+                    _logger.info(this.getName()
+                            + " - Detached entries exist. [Detached: " + detached
+                            + "]");
+                }
+            }
 
-                    Cell cell = (Cell) iter.next();
-                    Long expirationTime = cell.getCellKey();
+            //remove empty cell items
+            reapEmptyLeaseCells();
+        }
 
-                    if (expirationTime.longValue() > currentTime) {
-                        if (!_force)
-                            break;
-                        reached_last_cell = true;
-                    }
+        /**
+         * Returns the expired cells, and in force mode also the first cell which is not expired yet.
+         */
+        private List<Cell> getCellsToReap() {
+            List<Cell> cells = new ArrayList<Cell>();
+            for (Cell cell : _expirationList.values()) {
+                long currentTime = getEffectiveEntryLeaseTimeForReaper(SystemTime.timeMillis());
+                if (cell.getCellKey() > currentTime) {
+                    if (_force)
+                        cells.add(cell);
+                    break;
+                }
+                cells.add(cell);
+            }
+            return cells;
+        }
+
+        /**
+         * Reaps the expired entries and templates of the cells taken from the given pass, until no
+         * cells are left in it.
+         */
+        private ReapStats reapCells(ReapPass<Cell> pass) {
+            Context context = null;
+            int reapCount = 0;
+            int detached = 0;
+
+            try {
+                for (Cell cell = pass.nextCell(); cell != null; cell = pass.nextCell()) {
+                    long currentTime = getEffectiveEntryLeaseTimeForReaper(SystemTime.timeMillis());
 
                     ILockObject entryLock = null;
                     Iterator<IEntryHolder> entriesUids = !isSlaveLeaseManagerForEntries() ? cell.mateExpriedEntriesUidsIter(_engine) : null;
@@ -1375,24 +1507,7 @@ public class LeaseManager {
                     }
                 }
             }
-
-            if (reapCount > 0) {
-                if (_logger.isLoggable(Level.FINE)) {
-                    _logger.fine(this.getName()
-                            + " - Reaped expired leases. [Reaped: " + reapCount
-                            + "]");
-                }
-            }
-            if ((reapCount == 0 && detached > 0) || detached > DETACH_LIMIT_TO_REPORT) {
-                if (_logger.isLoggable(Level.INFO)) {
-                    _logger.info(this.getName()
-                            + " - Detached entries exist. [Detached: " + detached
-                            + "]");
-                }
-            }
-
-            //remove empty cell items
-            reapEmptyLeaseCells();
+            return new ReapStats(reapCount, detached);
         }
 
         private final void reapEmptyLeaseCells() {
@@ -1420,6 +1535,7 @@ public class LeaseManager {
                     synchronized (cell) {
                         if (cell.isEmpty()) {
                             iter.remove();
+                            _recentCells.remove(cellTime, cell);
                             numOfCellsRemoved++;
                         }
                     }
@@ -2077,6 +2193,46 @@ public class LeaseManager {
 
     } //LeaseReaper class
 
+    /**
+     * The cells of a single reaping pass, handed out in expiration order so each cell is reaped by
+     * exactly one of the reaper threads.
+     */
+    static final class ReapPass<T> {
+        private final List<T> _cells;
+        private final AtomicInteger _nextCell = new AtomicInteger();
+
+        ReapPass(List<T> cells) {
+            _cells = cells;
+        }
+
+        /**
+         * Returns the number of threads worth reaping this pass, at most one per cell.
+         */
+        int getNumOfReapers(int reaperThreads) {
+            return Math.min(reaperThreads, _cells.size());
+        }
+
+        /**
+         * Returns the next cell to reap, or null if all the cells were taken.
+         */
+        T nextCell() {
+            if (_nextCell.get() >= _cells.size())
+                return null;
+            int index = _nextCell.getAndIncrement();
+            return index < _cells.size() ? _cells.get(index) : null;
+        }
+    }
+
+    private static final class ReapStats {
+        private final int reapCount;
+        private final int detached;
+
+        private ReapStats(int reapCount, int detached) {
+            this.reapCount = reapCount;
+            this.detached = detached;
+        }
+    }
+
     /**
      * Cell grouping entry/template within the <tt>LM_EXPIRATION_TIME_INTERVAL</tt> boundary of
      * their lease expiration.
@@ -2116,6 +2272,11 @@ public class LeaseManager {
             return _entriesExpired.isEmpty() && (_notifyTemplatesExpired == null || _notifyTemplatesExpired.isEmpty());
         }
 
+        private int size() {
+            IStoredList<Object> notifyTemplates = _notifyTemplatesExpired;
+            return _entriesExpired.size() + (notifyTemplates != null ? notifyTemplates.size() : 0);
+        }
+
         private Iterator<IEntryHolder> mateExpriedEntriesUidsIter(SpaceEngine engine) {
             return new EntriesCellIter(_entriesExpired, engine);
         }
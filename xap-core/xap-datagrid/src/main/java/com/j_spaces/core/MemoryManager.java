@@ -23,7 +23,6 @@ import com.gigaspaces.start.SystemInfo;
 import com.j_spaces.core.cache.AbstractCacheManager;
 import com.j_spaces.core.cache.CacheManager;
 import com.j_spaces.core.cache.blobStore.memory_pool.AbstractMemoryPool;
-import com.j_spaces.core.cache.blobStore.memory_pool.OffHeapMemoryPool;
 import com.j_spaces.kernel.JSpaceUtilities;
 import com.j_spaces.kernel.SystemProperties;
 
@@ -75,7 +75,7 @@ import com.j_spaces.core.admin.TemplateInfo;
 import com.j_spaces.core.cache.TerminatingFifoXtnsInfo.FifoXtnEntryInfo;
 import com.j_spaces.core.cache.blobStore.*;
 import com.j_spaces.core.cache.blobStore.memory_pool.AbstractMemoryPool;
-import com.j_spaces.core.cache.blobStore.memory_pool.OffHeapMemoryPool;
+import com.j_spaces.core.cache.blobStore.memory_pool.SlabMemoryPool;
 import com.j_spaces.core.cache.blobStore.optimizations.BlobStoreOperationOptimizations;
 import com.j_spaces.core.cache.blobStore.recovery.BlobStoreRecoveryHelper;
 import com.j_spaces.core.cache.blobStore.recovery.BlobStoreRecoveryHelperWrapper;
@@ -195,6 +195,8 @@ public class CacheManager extends AbstractCacheManager
 
     final private long _recoveryLogInterval = Long.getLong(SystemProperties.CACHE_MANAGER_RECOVER_INTERVAL_LOG, SystemProperties.CACHE_MANAGER_RECOVER_INTERVAL_DEFAULT);
     final private boolean _logRecoveryProcess = Boolean.parseBoolean(System.getProperty(SystemProperties.CACHE_MANAGER_LOG_RECOVER_PROCESS, "true"));
+    //progress of the current/last initial load, exposed as metrics
+    private volatile InitialLoadInfo _initialLoadInfo;
 
     private boolean _partialUpdateReplication;
 
@@ -404,8 +406,8 @@ public class CacheManager extends AbstractCacheManager
             _logger.warning(BLOBSTORE_OFF_HEAP_MIN_DIFF_TO_ALLOCATE_PROP + " is set but no off heap memory is used");
         } else {
             long minimalDiffToAllocate = StringUtils.parseStringAsBytes(customProperties.getProperty(BLOBSTORE_OFF_HEAP_MIN_DIFF_TO_ALLOCATE_PROP, BLOBSTORE_OFF_HEAP_MIN_DIFF_TO_ALLOCATE_DEFAULT_VALUE));
-            if(_blobStoreStorageHandler.getOffHeapStore() != null &&  _blobStoreStorageHandler.getOffHeapStore() instanceof OffHeapMemoryPool){
-                ((OffHeapMemoryPool) _blobStoreStorageHandler.getOffHeapStore()).setMinimalDiffToAllocate((int) minimalDiffToAllocate);
+            if(_blobStoreStorageHandler.getOffHeapStore() != null){
+                _blobStoreStorageHandler.getOffHeapStore().setMinimalDiffToAllocate((int) minimalDiffToAllocate);
             }
             if (_blobStoreStorageHandler.getOffHeapCache() != null) {
                 _blobStoreStorageHandler.getOffHeapCache().setMinimalDiffToAllocate((int) minimalDiffToAllocate);
@@ -421,7 +423,8 @@ public class CacheManager extends AbstractCacheManager
         final Map<String, QueryExtensionIndexManagerWrapper> queryExtensions = new HashMap<String, QueryExtensionIndexManagerWrapper>();
         final QueryExtensionRuntimeInfo info = new QueryExtensionRuntimeInfoImpl(
                 getEngine().getSpaceImpl().getNodeName(),
-                getEngine().getSpaceImpl().getDeployPath());
+                getEngine().getSpaceImpl().getDeployPath(),
+                getEngine().getMetricRegistrator().extend("query-extension"));
         // Load user-defined query extensions from config
         final SpaceInstanceConfig spaceInstanceConfig = (SpaceInstanceConfig) customProperties.get(Constants.Space.SPACE_CONFIG);
         if (spaceInstanceConfig != null && spaceInstanceConfig.getQueryExtensionProviders() != null) {
@@ -531,6 +534,8 @@ public class CacheManager extends AbstractCacheManager
 
         SpaceEvictionStrategyConfig config = new SpaceEvictionStrategyConfig(getMaxCacheSize());
         _evictionStrategy.initialize(this, config);
+        if (_evictionStrategy instanceof ClockLruSpaceEvictionStrategy && !_engine.isLocalCache())
+            ((ClockLruSpaceEvictionStrategy) _evictionStrategy).registerMetrics(_engine.getMetricRegistrator().extend("eviction"));
 
         if (isBlobStoreCachePolicy()) {
             loadDataFromDB = true;
@@ -797,6 +802,13 @@ public class CacheManager extends AbstractCacheManager
             return new AllInCacheSpaceEvictionStrategy();
 
         if (getCachePolicy() == CACHE_POLICY_LRU) {
+            String lruStrategy = configReader.getSpaceProperty(CACHE_MANAGER_LRU_STRATEGY_PROP,
+                    CACHE_MANAGER_LRU_STRATEGY_DEFAULT);
+            if (lruStrategy.equalsIgnoreCase(CACHE_MANAGER_LRU_STRATEGY_CLOCK))
+                return new ClockLruSpaceEvictionStrategy();
+            if (!lruStrategy.equalsIgnoreCase(CACHE_MANAGER_LRU_STRATEGY_CONCURRENT))
+                throw new CreateException("Unknown LRU strategy " + lruStrategy + " - must be " +
+                        CACHE_MANAGER_LRU_STRATEGY_CONCURRENT + " or " + CACHE_MANAGER_LRU_STRATEGY_CLOCK);
             int touchThreashold = configReader.getIntSpaceProperty(CACHE_MANAGER_LRU_TOUCH_THRESHOLD_PROP,
                     CACHE_MANAGER_LRU_TOUCH_THRESHOLD_DEFAULT);
             return new ConcurrentLruSpaceEvictionStrategy(touchThreashold, getMaxCacheSize());
@@ -910,6 +922,7 @@ public class CacheManager extends AbstractCacheManager
      */
     private void loadDataFromDB(Context context, SpaceConfigReader configReader) throws SAException {
         InitialLoadInfo initialLoadInfo = new InitialLoadInfo(_logger, _logRecoveryProcess, _recoveryLogInterval);
+        _initialLoadInfo = initialLoadInfo;
         if (isBlobStoreCachePolicy())
             initialLoadInfo.setBlobStoreFifoInitialLoader(new BlobStoreFifoInitialLoader());
         context.setInitialLoadInfo(initialLoadInfo);
@@ -963,11 +976,16 @@ public class CacheManager extends AbstractCacheManager
                 Long.MAX_VALUE /* expiration time*/,
                 isFifo);
 
+        //blob-store entries are inserted by the loading thread since their order and ssd writes depend on it
+        final int insertionThreads = isBlobStoreCachePolicy() ? 1 : configReader.getIntSpaceProperty(CACHE_MANAGER_INITIAL_LOAD_THREADS_PROP, CACHE_MANAGER_INITIAL_LOAD_THREADS_DEFAULT);
+
         ISAdapterIterator<IEntryHolder> entriesIterSA = null;
         try {
             context.setInInitialLoad(true);
             entriesIterSA = _storageAdapter.initialLoad(context, th);
-            if (entriesIterSA != null) {
+            if (entriesIterSA != null && insertionThreads > 1) {
+                parallelResidentEntriesInitialLoad(entriesIterSA, configReader, initialLoadInfo, insertionThreads);
+            } else if (entriesIterSA != null) {
                 IServerTypeDesc serverTypeDesc = null;
                 Set<String> typesIn = _persistentBlobStore ? new HashSet<String>() : null;
                 while (true) {
@@ -1057,6 +1075,63 @@ public class CacheManager extends AbstractCacheManager
         }
     }
 
+    private void parallelResidentEntriesInitialLoad(ISAdapterIterator<IEntryHolder> entriesIterSA, SpaceConfigReader configReader, InitialLoadInfo initialLoadInfo, int insertionThreads)
+            throws SAException {
+        final int batchSize = Math.max(1, configReader.getIntSpaceProperty(CACHE_MANAGER_INITIAL_LOAD_BATCH_SIZE_PROP, CACHE_MANAGER_INITIAL_LOAD_BATCH_SIZE_DEFAULT));
+        if (_logger.isLoggable(Level.FINE))
+            _logger.fine("Inserting initial load entries using " + insertionThreads + " threads, batch size=" + batchSize);
+        final ParallelInitialLoader loader = new ParallelInitialLoader(this, initialLoadInfo, insertionThreads, batchSize, _engine.getFullSpaceName());
+        loader.start();
+        boolean completed = false;
+        try {
+            while (true) {
+                IEntryHolder eh = entriesIterSA.next();
+                if (eh == null)
+                    break;
+                initialLoadInfo.incrementFoundInDatabase();
+                loader.add(eh);
+                initialLoadInfo.setLastLoggedTime(logInsertionIfNeeded(initialLoadInfo.getRecoveryStartTime(), initialLoadInfo.getLastLoggedTime(), initialLoadInfo.getInsertedToCache()));
+            }
+            loader.finish();
+            completed = true;
+        } finally {
+            if (!completed)
+                loader.abort();
+        }
+    }
+
+    /**
+     * Inserts an entry recovered by a resident (non blob-store) initial load, called concurrently by
+     * the {@link ParallelInitialLoader} threads.
+     */
+    void insertInitialLoadEntry(Context context, IEntryHolder eh, InitialLoadInfo initialLoadInfo) {
+        //Verify that entry read
+        //from the DB belongs to this partition
+        final SpaceEngine engine = getEngine();
+        if (engine.isPartitionedSpace()) {
+            if (eh.getRoutingValue() == null) {
+                initialLoadInfo.addInitialLoadError("Object without routing  -  [" + eh.getClassName() + ":" + eh.getUID() + "]");
+                return;
+            }
+            if (!engine.isEntryFromPartition(eh))
+                return;
+        }
+        if (isEntryInPureCache(eh.getUID())) {
+            initialLoadInfo.addInitialLoadError("Object with duplicate uid -  [" + eh.getClassName() + ":" + eh.getUID() + "]");
+            return;
+        }
+        safeInsertEntryToCache(context, eh, false /* newEntry */, null /*pType*/, false /*pin*/, InitialLoadOrigin.FROM_NON_BLOBSTORE /*fromInitialLoad*/);
+        initialLoadInfo.incrementInsertedToCache();
+    }
+
+    /**
+     * @return the progress of the current or last initial load, or null if no initial load was
+     * performed
+     */
+    public InitialLoadInfo getInitialLoadInfo() {
+        return _initialLoadInfo;
+    }
+
     //in case types loaded from mirror verify they reside in ssd
     private void insertMetadataTypeToBlobstoreIfNeeded(IEntryHolder eh, Set<String> typesIn) {
         if (!eh.getServerTypeDesc().getTypeDesc().isBlobstoreEnabled() || typesIn.contains(eh.getServerTypeDesc().getTypeDesc().getTypeName()))
@@ -3271,6 +3346,9 @@ public class CacheManager extends AbstractCacheManager
         AbstractMemoryPool memoryPool = hasBlobStoreOffHeapCache() ? getBlobStoreStorageHandler().getOffHeapCache() : getBlobStoreStorageHandler().getOffHeapStore();
 
         if (memoryPool != null && memoryPool.getUsedBytes() == 0) {
+            // the slab arenas are reserved even when all the entries were freed
+            if (memoryPool instanceof SlabMemoryPool)
+                memoryPool.close();
             return;
         }
 
@@ -3296,6 +3374,8 @@ public class CacheManager extends AbstractCacheManager
                         }
                     }
                 }
+                if (memoryPool instanceof SlabMemoryPool)
+                    memoryPool.close();
             } else if (memoryPool.isPmem()) {
                 memoryPool.close();
             }
@@ -3553,6 +3633,9 @@ public class CacheManager extends AbstractCacheManager
                     pEntry.getBackRefs().set(sequenceNumPlaceHolderPos + 1, pEntry.getBackRefs().remove(curpos));
             }
         }
+
+        if (pType.getColumnarStore() != null)
+            pType.getColumnarStore().insert(pEntry.getEntryHolder(this));
     }
 
 
@@ -3573,7 +3656,10 @@ public class CacheManager extends AbstractCacheManager
 
         if (template.getUidToOperateBy() != null)
             insertTemplateByUid(pTemplate, typeData);
-        else if (!anyIndexes)
+        else if (template.isNotifyTemplate() && typeData.getNotifyTemplatesIndex() != null) {
+            pTemplate.initBackRefs(0);
+            typeData.getNotifyTemplatesIndex().add(pTemplate);
+        } else if (!anyIndexes)
             insertNonIndexedTemplate(pTemplate, typeData, extendedMatch);
         else
             TypeDataIndex.insertIndexedTemplate(pTemplate, typeData, extendedMatch);
@@ -3893,6 +3979,9 @@ public class CacheManager extends AbstractCacheManager
                 queryExtensionIndexManager.removeEntry(new SpaceServerEntryImpl(pEntry, this), QueryExtensionIndexRemoveMode.NO_XTN, pEntry.getVersion());
         } /* if pType.m_AnyIndexes */
 
+        if (pType.getColumnarStore() != null)
+            pType.getColumnarStore().remove(pEntry.getUID());
+
         if (pEntry.getBackRefs() != null)
             pEntry.getBackRefs().clear();
     }
@@ -3929,7 +4018,9 @@ public class CacheManager extends AbstractCacheManager
 
         // remove template from type info.
         if (template.getUidToOperateBy() == null) {
-            if (!anyIndexes) {
+            if (template.isNotifyTemplate() && typeData.getNotifyTemplatesIndex() != null) {
+                typeData.getNotifyTemplatesIndex().remove(pTemplate);
+            } else if (!anyIndexes) {
                 refpos = removeNonIndexedTemplate(pTemplate,
                         extendedMatch,
                         typeData);
@@ -4735,8 +4826,17 @@ public class CacheManager extends AbstractCacheManager
         if (matchTarget == MatchTarget.NOTIFY && templateType.getM_NumRegularNotifyTemplatesStored() == 0)
             need_search = false;
 
-        // if there are no indexes on this class, do full-scan
         final IEntryData entryData = entry.getEntryData();
+        // notify templates indexed by all their fixed values
+        final NotifyTemplatesIndex notifyTemplatesIndex = matchTarget == MatchTarget.NOTIFY ? templateType.getNotifyTemplatesIndex() : null;
+        if (notifyTemplatesIndex != null) {
+            if (need_search)
+                result = notifyTemplatesIndex.getCandidates(entryData);
+            //get templates waiting for uid
+            return getTemplatesWaitingForUid(templateType, matchTarget, result, entry);
+        }
+
+        // if there are no indexes on this class, do full-scan
         if (!templateType.hasIndexes()) {
             if (need_search)
                 result = templateType.getTemplates(matchTarget);
@@ -5194,6 +5294,8 @@ public class CacheManager extends AbstractCacheManager
 
         } /* if pType.m_AnyIndexes */
 
+        if (restoreOriginalValues && pType.getColumnarStore() != null)
+            pType.getColumnarStore().update(pmaster.getEntryHolder(this));
 
         shadowEh.setDeleted(true);
     }
@@ -5495,6 +5597,7 @@ public class CacheManager extends AbstractCacheManager
             registrator.unregisterByPrefix(registrator.toPath("data", "entries", metricTypeName));
             registrator.unregisterByPrefix(registrator.toPath("data", "notify-templates", metricTypeName));
             _engine.getDataTypeReadCountMetricRegistrator( typeName ).unregisterByPrefix(registrator.toPath("data", "read-count"));
+            _engine.getSpaceImpl().getOperationsExecutor().unregisterTypeMetrics(typeName);
             if (!typeName.equals(IServerTypeDesc.ROOT_TYPE_NAME) && isBlobStoreCachePolicy()) {
                 short typeDescCode = _typeManager.getServerTypeDesc(typeName).getServerTypeDescCode();
                 if (getBlobStoreStorageHandler().getOffHeapCache() != null) {
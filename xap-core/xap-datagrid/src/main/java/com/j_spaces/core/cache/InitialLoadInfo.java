@@ -22,6 +22,7 @@ import com.gigaspaces.time.SystemTime;
 import com.j_spaces.core.cache.blobStore.sadapter.BlobStoreFifoInitialLoader;
 
 import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 /**
@@ -34,8 +35,9 @@ import java.util.logging.Logger;
 @com.gigaspaces.api.InternalApi
 public class InitialLoadInfo {
 
-    private int _foundInDatabase;
-    private int _insertedToCache;
+    // updated concurrently by parallel initial load and read by metrics
+    private final AtomicInteger _foundInDatabase = new AtomicInteger();
+    private final AtomicInteger _insertedToCache = new AtomicInteger();
     private long _recoveryStartTime;
     private long _lastLoggedTime;
     private final Logger _logger;
@@ -59,27 +61,27 @@ public class InitialLoadInfo {
     }
 
     public int getFoundInDatabase() {
-        return _foundInDatabase;
+        return _foundInDatabase.get();
     }
 
     public void setFoundInDatabase(int foundInDatabase) {
-        this._foundInDatabase = foundInDatabase;
+        this._foundInDatabase.set(foundInDatabase);
     }
 
     public void incrementFoundInDatabase() {
-        this._foundInDatabase++;
+        this._foundInDatabase.incrementAndGet();
     }
 
     public int getInsertedToCache() {
-        return _insertedToCache;
+        return _insertedToCache.get();
     }
 
     public void setInsertedToCache(int insertedToCache) {
-        this._insertedToCache = insertedToCache;
+        this._insertedToCache.set(insertedToCache);
     }
 
     public void incrementInsertedToCache() {
-        this._insertedToCache++;
+        this._insertedToCache.incrementAndGet();
     }
 
     public long getRecoveryStartTime() {
@@ -126,6 +128,15 @@ public class InitialLoadInfo {
         return _initialLoadErrors;
     }
 
+    /**
+     * Adds an error, may be called concurrently by initial load insertion threads.
+     */
+    public void addInitialLoadError(String error) {
+        synchronized (_initialLoadErrors) {
+            _initialLoadErrors.add(error);
+        }
+    }
+
     public Logger getLogger() {
         return _logger;
     }
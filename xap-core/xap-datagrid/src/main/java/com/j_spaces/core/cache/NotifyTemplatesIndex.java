@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.j_spaces.core.cache;
+
+import com.gigaspaces.internal.server.storage.IEntryData;
+import com.gigaspaces.internal.server.storage.ITemplateHolder;
+import com.gigaspaces.server.ServerEntry;
+import com.j_spaces.core.client.TemplateMatchCodes;
+import com.j_spaces.kernel.IObjectInfo;
+import com.j_spaces.kernel.IStoredList;
+import com.j_spaces.kernel.StoredListFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Index of the notify templates of a type by every fixed property they match by value, whether
+ * the property is a space index or not.
+ *
+ * A template is kept, for each fixed property, either in the list of the value it matches or in
+ * the list of the templates which do not match the property by value. The templates which may
+ * match an entry are the ones in the list of the entry's value and the ones which do not constrain
+ * the property, the property with the smallest such union is chosen. The templates still have to
+ * be fully matched.
+ *
+ * Holds all the notify templates of the type except the ones which match by uid, which are kept in
+ * their own structure. This includes the templates with extended match codes: a property matched
+ * by anything other than equality is unconstrained for the template.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class NotifyTemplatesIndex {
+
+    private final int _numOfProperties;
+    private final IStoredList<TemplateCacheInfo> _allTemplates;
+    private final ConcurrentHashMap<Object, IStoredList<TemplateCacheInfo>>[] _valueTemplates;
+    private final IStoredList<TemplateCacheInfo>[] _unconstrainedTemplates;
+    // number of templates which match each property by value
+    private final AtomicIntegerArray _numOfConstrained;
+    private final ConcurrentHashMap<TemplateCacheInfo, Registration> _registrations;
+
+    public NotifyTemplatesIndex(int numOfProperties) {
+        _numOfProperties = numOfProperties;
+        _allTemplates = StoredListFactory.createConcurrentList(true /*supportFifo*/);
+        _valueTemplates = new ConcurrentHashMap[numOfProperties];
+        _unconstrainedTemplates = new IStoredList[numOfProperties];
+        for (int i = 0; i < numOfProperties; i++) {
+            _valueTemplates[i] = new ConcurrentHashMap<Object, IStoredList<TemplateCacheInfo>>();
+            _unconstrainedTemplates[i] = StoredListFactory.createConcurrentList(true /*supportFifo*/);
+        }
+        _numOfConstrained = new AtomicIntegerArray(numOfProperties);
+        _registrations = new ConcurrentHashMap<TemplateCacheInfo, Registration>();
+    }
+
+    public int size() {
+        return _allTemplates.size();
+    }
+
+    public void add(TemplateCacheInfo pTemplate) {
+        final ITemplateHolder template = pTemplate.m_TemplateHolder;
+        final Object[] values = getFixedValues(template);
+        final IObjectInfo<TemplateCacheInfo>[] refs = new IObjectInfo[_numOfProperties];
+        for (int i = 0; i < _numOfProperties; i++) {
+            if (values[i] == null) {
+                refs[i] = _unconstrainedTemplates[i].add(pTemplate);
+            } else {
+                refs[i] = addValueTemplate(i, values[i], pTemplate);
+                _numOfConstrained.incrementAndGet(i);
+            }
+        }
+        IObjectInfo<TemplateCacheInfo> allRef = _allTemplates.add(pTemplate);
+        _registrations.put(pTemplate, new Registration(values, refs, allRef));
+    }
+
+    public void remove(TemplateCacheInfo pTemplate) {
+        final Registration registration = _registrations.remove(pTemplate);
+        if (registration == null)
+            return;
+        _allTemplates.remove(registration._allRef);
+        for (int i = 0; i < _numOfProperties; i++) {
+            Object value = registration._values[i];
+            if (value == null) {
+                _unconstrainedTemplates[i].remove(registration._refs[i]);
+                continue;
+            }
+            _numOfConstrained.decrementAndGet(i);
+            IStoredList<TemplateCacheInfo> templates = _valueTemplates[i].get(value);
+            if (templates == null)
+                continue;
+            templates.remove(registration._refs[i]);
+            // no more templates for this value, help GC unless a template was concurrently added
+            if (templates.invalidate())
+                _valueTemplates[i].remove(value, templates);
+        }
+    }
+
+    /**
+     * Returns the templates which may match the specified entry, either a stored list or an array
+     * of stored lists.
+     */
+    public Object getCandidates(ServerEntry entry) {
+        if (_allTemplates.isEmpty())
+            return null;
+
+        IStoredList<TemplateCacheInfo> minTemplates = null;
+        IStoredList<TemplateCacheInfo> minUnconstrained = null;
+        int minSize = _allTemplates.size();
+        for (int i = 0; i < _numOfProperties && minSize > 0; i++) {
+            if (_numOfConstrained.get(i) == 0)
+                continue;
+            Object value = entry.getFixedPropertyValue(i);
+            // a null value matches none of the templates which constrain the property
+            IStoredList<TemplateCacheInfo> templates = value == null ? null : _valueTemplates[i].get(value);
+            int size = _unconstrainedTemplates[i].size() + (templates == null ? 0 : templates.size());
+            if (size < minSize) {
+                minSize = size;
+                minTemplates = templates;
+                minUnconstrained = _unconstrainedTemplates[i];
+            }
+        }
+
+        if (minUnconstrained == null)
+            return _allTemplates;
+        if (minTemplates == null || minTemplates.isEmpty())
+            return minUnconstrained;
+        if (minUnconstrained.isEmpty())
+            return minTemplates;
+        return new IStoredList[]{minTemplates, minUnconstrained};
+    }
+
+    private IObjectInfo<TemplateCacheInfo> addValueTemplate(int pos, Object value, TemplateCacheInfo pTemplate) {
+        IStoredList<TemplateCacheInfo> templates = _valueTemplates[pos].get(value);
+        for (; ; ) {
+            if (templates != null) {
+                IObjectInfo<TemplateCacheInfo> oi = templates.add(pTemplate);
+                if (oi != null)
+                    return oi;
+                // invalidated by a concurrent remove, help remove it
+                _valueTemplates[pos].remove(value, templates);
+            }
+            IStoredList<TemplateCacheInfo> newTemplates = StoredListFactory.createConcurrentList(true /*supportFifo*/);
+            templates = _valueTemplates[pos].putIfAbsent(value, newTemplates);
+            if (templates == null)
+                templates = newTemplates;
+        }
+    }
+
+    /**
+     * Returns the values the template matches by equality per fixed property, null for the other
+     * properties.
+     */
+    private Object[] getFixedValues(ITemplateHolder template) {
+        final IEntryData entryData = template.getEntryData();
+        final short[] matchCodes = template.getExtendedMatchCodes();
+        final Object[] values = new Object[_numOfProperties];
+        final int numOfProperties = Math.min(_numOfProperties, entryData.getNumOfFixedProperties());
+        for (int i = 0; i < numOfProperties; i++) {
+            if (matchCodes != null && i < matchCodes.length && matchCodes[i] != TemplateMatchCodes.EQ)
+                continue;
+            values[i] = entryData.getFixedPropertyValue(i);
+        }
+        return values;
+    }
+
+    private static class Registration {
+        private final Object[] _values;
+        private final IObjectInfo<TemplateCacheInfo>[] _refs;
+        private final IObjectInfo<TemplateCacheInfo> _allRef;
+
+        private Registration(Object[] values, IObjectInfo<TemplateCacheInfo>[] refs, IObjectInfo<TemplateCacheInfo> allRef) {
+            _values = values;
+            _refs = refs;
+            _allRef = allRef;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.j_spaces.core.cache;
+
+import com.gigaspaces.internal.server.metadata.IServerTypeDesc;
+import com.gigaspaces.internal.server.storage.IEntryHolder;
+import com.gigaspaces.internal.utils.concurrent.GSThread;
+import com.j_spaces.core.cache.context.Context;
+import com.j_spaces.core.sadapter.SAException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts the entries of a resident initial load into the cache using several threads, while the
+ * loading thread keeps reading from the storage adapter.
+ *
+ * Entries are handed to the insertion threads in batches. Entries of fifo and fifo grouping types are
+ * routed by type name so each type is inserted by a single thread in the order it was loaded, other
+ * entries are routed by uid so duplicate uids are always detected by the same thread.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class ParallelInitialLoader {
+
+    private static final List<IEntryHolder> END_OF_LOAD = Collections.emptyList();
+    private static final int QUEUE_CAPACITY = 4;
+
+    private final CacheManager _cacheManager;
+    private final InitialLoadInfo _initialLoadInfo;
+    private final int _batchSize;
+    private final Worker[] _workers;
+    private final List<IEntryHolder>[] _pendingBatches;
+    private volatile Throwable _failure;
+
+    @SuppressWarnings("unchecked")
+    public ParallelInitialLoader(CacheManager cacheManager, InitialLoadInfo initialLoadInfo, int threads, int batchSize, String name) {
+        this._cacheManager = cacheManager;
+        this._initialLoadInfo = initialLoadInfo;
+        this._batchSize = batchSize;
+        this._workers = new Worker[threads];
+        this._pendingBatches = new List[threads];
+        for (int i = 0; i < threads; i++) {
+            _workers[i] = new Worker(name + "-initial-load-" + i);
+            _pendingBatches[i] = new ArrayList<IEntryHolder>(batchSize);
+        }
+    }
+
+    public void start() {
+        for (Worker worker : _workers)
+            worker.start();
+    }
+
+    /**
+     * Queues the specified entry for insertion, blocking while the insertion threads are behind.
+     */
+    public void add(IEntryHolder entryHolder) throws SAException {
+        final int index = route(entryHolder);
+        final List<IEntryHolder> batch = _pendingBatches[index];
+        batch.add(entryHolder);
+        if (batch.size() >= _batchSize) {
+            _pendingBatches[index] = new ArrayList<IEntryHolder>(_batchSize);
+            dispatch(index, batch);
+        }
+    }
+
+    /**
+     * Flushes the pending batches and waits for the insertion threads to complete.
+     *
+     * @throws SAException if an entry failed to be inserted
+     */
+    public void finish() throws SAException {
+        for (int i = 0; i < _workers.length; i++) {
+            if (!_pendingBatches[i].isEmpty())
+                dispatch(i, _pendingBatches[i]);
+            _pendingBatches[i] = null;
+        }
+        for (int i = 0; i < _workers.length; i++)
+            dispatch(i, END_OF_LOAD);
+        join();
+        throwIfFailed();
+    }
+
+    /**
+     * Stops the insertion threads without waiting for the queued entries, used when the load
+     * itself failed.
+     */
+    public void abort() {
+        for (Worker worker : _workers)
+            worker.interrupt();
+        try {
+            join();
+        } catch (SAException e) {
+            // already interrupted, the original failure is propagated by the caller
+        }
+    }
+
+    int route(IEntryHolder entryHolder) {
+        final IServerTypeDesc serverTypeDesc = entryHolder.getServerTypeDesc();
+        //fifo or f-g types keep their load order
+        final int hash = serverTypeDesc.isFifoSupported() || serverTypeDesc.getTypeDesc().getFifoGroupingPropertyPath() != null
+                ? entryHolder.getClassName().hashCode()
+                : entryHolder.getUID().hashCode();
+        return (hash & Integer.MAX_VALUE) % _workers.length;
+    }
+
+    private void dispatch(int index, List<IEntryHolder> batch) throws SAException {
+        try {
+            while (!_workers[index]._queue.offer(batch, 1, TimeUnit.SECONDS))
+                throwIfFailed();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SAException("Interrupted while waiting for initial load insertion", e);
+        }
+        throwIfFailed();
+    }
+
+    private void join() throws SAException {
+        try {
+            for (Worker worker : _workers)
+                worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SAException("Interrupted while waiting for initial load insertion", e);
+        }
+    }
+
+    private void throwIfFailed() throws SAException {
+        final Throwable failure = _failure;
+        if (failure == null)
+            return;
+        if (failure instanceof SAException)
+            throw (SAException) failure;
+        if (failure instanceof RuntimeException)
+            throw (RuntimeException) failure;
+        if (failure instanceof Error)
+            throw (Error) failure;
+        throw new SAException("Initial load insertion failed", failure);
+    }
+
+    private class Worker extends GSThread {
+        private final BlockingQueue<List<IEntryHolder>> _queue = new ArrayBlockingQueue<List<IEntryHolder>>(QUEUE_CAPACITY);
+
+        private Worker(String name) {
+            super(name);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            Context context = _cacheManager.getCacheContext();
+            try {
+                context.setInitialLoadInfo(_initialLoadInfo);
+                context.setInInitialLoad(true);
+                while (true) {
+                    List<IEntryHolder> batch = _queue.take();
+                    if (batch == END_OF_LOAD)
+                        break;
+                    // after a failure keep draining so the loading thread is never blocked
+                    if (_failure != null)
+                        continue;
+                    for (IEntryHolder entryHolder : batch)
+                        _cacheManager.insertInitialLoadEntry(context, entryHolder, _initialLoadInfo);
+                }
+            } catch (InterruptedException e) {
+                // aborted
+            } catch (Throwable e) {
+                if (_failure == null)
+                    _failure = e;
+                drain();
+            } finally {
+                context.setInInitialLoad(false);
+                _cacheManager.freeCacheContext(context);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (_queue.take() != END_OF_LOAD) {
+                }
+            } catch (InterruptedException e) {
+                // aborted
+            }
+        }
+    }
+}
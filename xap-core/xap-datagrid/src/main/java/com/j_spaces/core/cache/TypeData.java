@@ -39,6 +39,7 @@ import com.j_spaces.core.SpaceOperations;
 import com.j_spaces.core.XtnEntry;
 import com.j_spaces.core.admin.TemplateInfo;
 import com.j_spaces.core.cache.TypeDataIndex.UpdateIndexModes;
+import com.j_spaces.core.cache.columnar.ColumnarTypeStore;
 import com.j_spaces.core.cache.fifoGroup.FifoGroupCacheImpl;
 import com.j_spaces.core.client.SequenceNumberException;
 import com.j_spaces.kernel.IObjectInfo;
@@ -95,6 +96,9 @@ public class TypeData {
     private final IStoredList<TemplateCacheInfo> _readTakeExtendedTemplates;
     private final IStoredList<TemplateCacheInfo> _notifyExtendedTemplates;
 
+    //notify templates indexed by all their fixed values, null if not enabled
+    private final NotifyTemplatesIndex _notifyTemplatesIndex;
+
     /**
      * _ByUidTemplatesIndex is a special index that is storing templates waiting for an entry with
      * specific UID. Those templates are NOT index by their fields, just by the waiting UID
@@ -153,6 +157,9 @@ public class TypeData {
 
     private final boolean _isBlobStoreClass;
 
+    //columnar copy of numeric/indexed properties used by aggregations, null if not enabled for this type
+    private final ColumnarTypeStore _columnarStore;
+
     //the following describes the properties taking place in indexes(inc' segments)
     //used in off-heap initial  load of fifo/F-G classes
     private final boolean[] _indexesRelatedFixedProperties;
@@ -222,6 +229,7 @@ public class TypeData {
         HashSet<String> indexesRelatedDynamicProperties = new HashSet<String>();
 
         _isBlobStoreClass = typeDataFactory.getCcheManager().isblobStoreDataSpace() && serverTypeDesc.getTypeDesc().isBlobstoreEnabled();
+        _columnarStore = !isLocalCache && isResidentEntriesCachePolicy && !_isBlobStoreClass ? ColumnarTypeStore.createIfEnabled(serverTypeDesc.getTypeDesc()) : null;
 
         if (serverTypeDesc.getTypeDesc().hasSequenceNumber()) {
             if (_cacheManager.isEvictableCachePolicy() && !_cacheManager.isMemorySpace())
@@ -395,6 +403,8 @@ public class TypeData {
 
         _readTakeExtendedTemplates = createStoreList(_useConcurrentSl);
         _notifyExtendedTemplates = createStoreList(_useConcurrentSl);
+        _notifyTemplatesIndex = Boolean.parseBoolean(System.getProperty(SystemProperties.CACHE_MANAGER_NOTIFY_TEMPLATES_INDEX, SystemProperties.CACHE_MANAGER_NOTIFY_TEMPLATES_INDEX_DEFAULT))
+                ? new NotifyTemplatesIndex(_properties.length) : null;
 
         _readTakeUidTemplates = new ConcurrentHashMap<String, IStoredList<TemplateCacheInfo>>();
         _notifyUidTemplates = new ConcurrentHashMap<String, IStoredList<TemplateCacheInfo>>();
@@ -472,6 +482,7 @@ public class TypeData {
         _hasInitialIndexes = originalTypeData._hasInitialIndexes;
         _anyInitialExtendedIndex = originalTypeData._anyInitialExtendedIndex;
         _isBlobStoreClass = originalTypeData._isBlobStoreClass;
+        _columnarStore = originalTypeData._columnarStore;
         boolean[] indexesRelatedFixedProperties = new boolean[originalTypeData._indexesRelatedFixedProperties.length];
         System.arraycopy(originalTypeData._indexesRelatedFixedProperties, 0, indexesRelatedFixedProperties, 0, indexesRelatedFixedProperties.length);
         HashSet<String> indexesRelatedDynamicProperties = new HashSet<String>(originalTypeData._indexesRelatedDynamicProperties);
@@ -655,6 +666,7 @@ public class TypeData {
 
         _readTakeExtendedTemplates = originalTypeData._readTakeExtendedTemplates;
         _notifyExtendedTemplates = originalTypeData._notifyExtendedTemplates;
+        _notifyTemplatesIndex = originalTypeData._notifyTemplatesIndex;
 
         _readTakeUidTemplates = originalTypeData._readTakeUidTemplates;
         _notifyUidTemplates = originalTypeData._notifyUidTemplates;
@@ -794,6 +806,13 @@ public class TypeData {
         return _notifyTemplates;
     }
 
+    /**
+     * @return the index of the notify templates by all their fixed values, or null if not enabled
+     */
+    public NotifyTemplatesIndex getNotifyTemplatesIndex() {
+        return _notifyTemplatesIndex;
+    }
+
     public IStoredList<TemplateCacheInfo> getReadTakeTemplates() {
         return _readTakeTemplates;
     }
@@ -957,6 +976,10 @@ public class TypeData {
         return _isBlobStoreClass;
     }
 
+    public ColumnarTypeStore getColumnarStore() {
+        return _columnarStore;
+    }
+
 
     List<TypeDataIndex> getUniqueIndexes() {
         return _uniqueIndexes;
@@ -1041,6 +1064,9 @@ public class TypeData {
      */
     public void updateEntryReferences(CacheManager cacheManager, IEntryHolder eh, IEntryCacheInfo pEntry, IEntryData oldEntryData) {
 
+        if (_columnarStore != null)
+            _columnarStore.update(eh);
+
         if (!hasIndexes())
             return;
 
@@ -31,6 +31,7 @@ import com.gigaspaces.internal.server.storage.IEntryData;
 import com.gigaspaces.internal.server.storage.IEntryHolder;
 import com.gigaspaces.internal.server.storage.ShadowEntryHolder;
 import com.gigaspaces.internal.utils.StringUtils;
+import com.gigaspaces.internal.utils.collections.PrimitiveKeyConcurrentHashMap;
 import com.gigaspaces.internal.utils.collections.economy.EconomyConcurrentHashMap;
 import com.gigaspaces.internal.utils.collections.economy.HashEntryHandlerSpaceEntry;
 import com.gigaspaces.internal.utils.collections.economy.IEconomyConcurrentMap;
@@ -116,6 +117,9 @@ public class TypeDataIndex<K> {
 
     private final boolean _useEconomyHashMap;
 
+    //lock free SL for entries sharing a non-null value
+    private final boolean _useLockFreeSl;
+
     private Class<?> _valueType;
 
     //creation version of this index
@@ -169,6 +173,10 @@ public class TypeDataIndex<K> {
             if (_useEconomyHashMap) {
                 this._uniqueEntriesStore = index.isUnique() ? new EconomyConcurrentHashMap<Object, IEntryCacheInfo>(16, 0.75f, numOfCHMSegents, new HashEntryHandlerSpaceEntry(pos)) : null;
                 this._nonUniqueEntriesStore = new EconomyConcurrentHashMap<Object, IStoredList<IEntryCacheInfo>>(16, 0.75f, numOfCHMSegents, new HashEntryHandlerSpaceEntry<Object>(pos));
+            } else if (usePrimitiveKeyStore(valueClass)) {
+                Class<?> keyType = PrimitiveKeyConcurrentHashMap.getPrimitiveKeyType(valueClass);
+                this._uniqueEntriesStore = index.isUnique() ? new PrimitiveKeyConcurrentHashMap<IEntryCacheInfo>(keyType, numOfCHMSegents) : null;
+                this._nonUniqueEntriesStore = new PrimitiveKeyConcurrentHashMap<IStoredList<IEntryCacheInfo>>(keyType, numOfCHMSegents);
             } else {
                 this._uniqueEntriesStore = index.isUnique() ? new ConcurrentHashMap<Object, IEntryCacheInfo>(16, 0.75f, numOfCHMSegents) : null;
                 this._nonUniqueEntriesStore = new ConcurrentHashMap<Object, IStoredList<IEntryCacheInfo>>(16, 0.75f, numOfCHMSegents);
@@ -180,6 +188,7 @@ public class TypeDataIndex<K> {
 
         int numOfCoresToUseSL = Integer.getInteger(SystemProperties.ENGINE_CORES_TOUSE_CONCURRENT_SL, SystemProperties.ENGINE_CORES_TOUSE_CONCURRENT_SL_DEFAULT);
         _useConcurrentSl = Runtime.getRuntime().availableProcessors() >= numOfCoresToUseSL;
+        _useLockFreeSl = !_useEconomyHashMap && useLockFreeStoredList(index.getName());
 
         _RTTemplates = new ConcurrentHashMap<Object, IStoredList<TemplateCacheInfo>[]>();
         _NTemplates = new ConcurrentHashMap<Object, IStoredList<TemplateCacheInfo>[]>();
@@ -302,6 +311,25 @@ public class TypeDataIndex<K> {
         return _fifoGroupsIndexType;
     }
 
+    /**
+     * long/int values are kept as primitive keys instead of hashing the boxed values if enabled by
+     * {@link SystemProperties#CACHE_MANAGER_PRIMITIVE_KEY_INDEX}
+     */
+    private static boolean usePrimitiveKeyStore(Class<?> valueClass) {
+        return valueClass != null && PrimitiveKeyConcurrentHashMap.getPrimitiveKeyType(valueClass) != null
+                && Boolean.parseBoolean(System.getProperty(SystemProperties.CACHE_MANAGER_PRIMITIVE_KEY_INDEX, SystemProperties.CACHE_MANAGER_PRIMITIVE_KEY_INDEX_DEFAULT));
+    }
+
+    static boolean useLockFreeStoredList(String indexName) {
+        String indexNames = System.getProperty(SystemProperties.CACHE_MANAGER_LOCK_FREE_INDEX_LISTS, SystemProperties.CACHE_MANAGER_LOCK_FREE_INDEX_LISTS_DEFAULT);
+        for (String name : indexNames.split(",")) {
+            name = name.trim();
+            if (name.equals("*") || name.equals(indexName))
+                return true;
+        }
+        return false;
+    }
+
     public static boolean isIndexesBackRefsForBlobStoreData() {
         return _indexesBackrefsForBlobStoreData;
     }
@@ -485,6 +513,8 @@ public class TypeDataIndex<K> {
                     if (newSL == null) {
                         if (_useEconomyHashMap)
                             newSL = StoredListFactory.createConcurrentSegmentedList(false /*segmented*/, pType.isAllowFifoIndexScans(), fieldValue);
+                        else if (_useLockFreeSl)
+                            newSL = StoredListFactory.createLockFreeList();
                         else
                             newSL = StoredListFactory.createConcurrentList(pType.isAllowFifoIndexScans());
                     }
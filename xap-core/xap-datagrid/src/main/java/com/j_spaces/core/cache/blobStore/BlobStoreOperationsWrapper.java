@@ -28,6 +28,7 @@ import com.j_spaces.core.cache.CacheManager;
 import com.j_spaces.core.cache.blobStore.memory_pool.AbstractMemoryPool;
 import com.j_spaces.core.cache.blobStore.offheap.OffHeapStorageContainer;
 import com.j_spaces.core.cache.blobStore.memory_pool.OffHeapMemoryPool;
+import com.j_spaces.core.cache.blobStore.memory_pool.SlabMemoryPool;
 import com.j_spaces.kernel.threadpool.DynamicExecutors;
 
 import java.util.List;
@@ -48,11 +49,23 @@ public class BlobStoreOperationsWrapper extends BlobStoreExtendedStorageHandler
     private static final int _blobStorePreFetchMinThreads = Integer.getInteger(Constants.CacheManager.CACHE_MANAGER_BLOBSTORE_PREFETCH_MIN_THREADS_PROP, Constants.CacheManager.CACHE_MANAGER_BLOBSTORE_PREFETCH_MIN_THREADS_DEFAULT);
     private static final int _blobStorePreFetchMaxThreads = Integer.getInteger(Constants.CacheManager.CACHE_MANAGER_BLOBSTORE_PREFETCH_MAX_THREADS_PROP, Constants.CacheManager.CACHE_MANAGER_BLOBSTORE_PREFETCH_MAX_THREADS_DEFAULT);
 
+    public static final String OFF_HEAP_CACHE_MEMORY_THRESHOLD_PROP = "off-heap-cache-memory-threshold";
+    /**
+     * Selects the off heap cache memory pool: {@value #OFF_HEAP_CACHE_MEMORY_POOL_MALLOC} (default)
+     * allocates native memory per entry, {@value #OFF_HEAP_CACHE_MEMORY_POOL_SLAB} carves entries
+     * out of pre-allocated arenas.
+     */
+    public static final String OFF_HEAP_CACHE_MEMORY_POOL_PROP = "off-heap-cache-memory-pool";
+    public static final String OFF_HEAP_CACHE_MEMORY_POOL_MALLOC = "malloc";
+    public static final String OFF_HEAP_CACHE_MEMORY_POOL_SLAB = "slab";
+    public static final String OFF_HEAP_CACHE_SLAB_ARENA_SIZE_PROP = "off-heap-cache-slab-arena-size";
+    public static final String OFF_HEAP_CACHE_SLAB_MAX_SLOT_SIZE_PROP = "off-heap-cache-slab-max-slot-size";
+
     private final CacheManager _cacheManager;
     private final BlobStoreStorageHandler _blobStore;
     private final BlobStoreSerializationUtils _serialization;
     private final boolean _needSerialization;
-    private final OffHeapMemoryPool _offHeapCache;
+    private final AbstractMemoryPool _offHeapCache;
     private final boolean _isOffHeap;
     private final AbstractMemoryPool _offHeapStore;
 
@@ -78,10 +91,10 @@ public class BlobStoreOperationsWrapper extends BlobStoreExtendedStorageHandler
         _isOffHeap = blobStore instanceof OffHeapStorageContainer;
         _offHeapStore = _isOffHeap ? ((OffHeapStorageContainer)blobStore).getMemoryPool() : null;
 
-        //TODO: some properties are only set after initialize , here we ONLY use 'off-heap-cache-memory-threshold' property
+        //TODO: some properties are only set after initialize , here we ONLY use 'off-heap-cache-memory-*' properties
         Properties p = _blobStore.getProperties();
-        String offHeapThreshold = p != null ? p.getProperty("off-heap-cache-memory-threshold") : null;
-        _offHeapCache = offHeapThreshold == null ? null :new OffHeapMemoryPool(StringUtils.parseStringAsBytes(offHeapThreshold));
+        String offHeapThreshold = p != null ? p.getProperty(OFF_HEAP_CACHE_MEMORY_THRESHOLD_PROP) : null;
+        _offHeapCache = offHeapThreshold == null ? null : createOffHeapCache(p, StringUtils.parseStringAsBytes(offHeapThreshold));
         //Validate _offHeapStore and _offHeapCache are mutually exclusive
         if(_offHeapCache != null && _offHeapStore != null){
             throw new RuntimeException("Configuration exception: can not enable off heap optimization when running with off-heap-blob-store configuration");
@@ -91,8 +104,23 @@ public class BlobStoreOperationsWrapper extends BlobStoreExtendedStorageHandler
         }
     }
 
+    private static AbstractMemoryPool createOffHeapCache(Properties p, long threshold) {
+        String poolType = p.getProperty(OFF_HEAP_CACHE_MEMORY_POOL_PROP, OFF_HEAP_CACHE_MEMORY_POOL_MALLOC);
+        if (OFF_HEAP_CACHE_MEMORY_POOL_MALLOC.equalsIgnoreCase(poolType))
+            return new OffHeapMemoryPool(threshold);
+        if (OFF_HEAP_CACHE_MEMORY_POOL_SLAB.equalsIgnoreCase(poolType)) {
+            String arenaSize = p.getProperty(OFF_HEAP_CACHE_SLAB_ARENA_SIZE_PROP);
+            String maxSlotSize = p.getProperty(OFF_HEAP_CACHE_SLAB_MAX_SLOT_SIZE_PROP);
+            return new SlabMemoryPool(threshold,
+                    arenaSize != null ? StringUtils.parseStringAsBytes(arenaSize).intValue() : SlabMemoryPool.DEFAULT_ARENA_SIZE,
+                    maxSlotSize != null ? StringUtils.parseStringAsBytes(maxSlotSize).intValue() : SlabMemoryPool.DEFAULT_MAX_SLOT_SIZE);
+        }
+        throw new RuntimeException("Configuration exception: unsupported " + OFF_HEAP_CACHE_MEMORY_POOL_PROP + " [" + poolType + "], expected "
+                + OFF_HEAP_CACHE_MEMORY_POOL_MALLOC + " or " + OFF_HEAP_CACHE_MEMORY_POOL_SLAB);
+    }
+
     @Override
-    public OffHeapMemoryPool getOffHeapCache() {
+    public AbstractMemoryPool getOffHeapCache() {
         return _offHeapCache;
     }
 
@@ -120,7 +148,8 @@ public class BlobStoreOperationsWrapper extends BlobStoreExtendedStorageHandler
             if( props == null ){
                 props = new Properties();
             }
-            props.setProperty("off-heap-cache-memory-threshold", String.valueOf(_offHeapCache.getThreshold()));
+            props.setProperty(OFF_HEAP_CACHE_MEMORY_THRESHOLD_PROP, String.valueOf(_offHeapCache.getThreshold()));
+            props.setProperty(OFF_HEAP_CACHE_MEMORY_POOL_PROP, _offHeapCache instanceof SlabMemoryPool ? OFF_HEAP_CACHE_MEMORY_POOL_SLAB : OFF_HEAP_CACHE_MEMORY_POOL_MALLOC);
         }
         return props;
     }
@@ -13,6 +13,7 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public abstract class AbstractMemoryPool {
     protected final long threshold;
+    protected int minimalDiffToAllocate;
     private MetricRegistrator metricRegistrator;
 
     protected AbstractMemoryPool(long threshold) {
@@ -31,6 +32,10 @@ public abstract class AbstractMemoryPool {
         return threshold;
     }
 
+    public void setMinimalDiffToAllocate(int minimalDiffToAllocate) {
+        this.minimalDiffToAllocate = minimalDiffToAllocate;
+    }
+
     public MetricRegistrator getMetricRegistrator() {
         return metricRegistrator;
     }
@@ -37,7 +37,6 @@ import java.util.logging.Logger;
 public class OffHeapMemoryPool extends AbstractMemoryPool {
 
     private Logger logger = Logger.getLogger(com.gigaspaces.logger.Constants.LOGGER_CACHE);
-    private int minimalDiffToAllocate;
     private final LongCounter totalCounter = new LongCounter();
     private final Map<Short, LongCounter> typesCounters = new ConcurrentHashMap<Short, LongCounter>();
 
@@ -48,10 +47,6 @@ public class OffHeapMemoryPool extends AbstractMemoryPool {
         }
     }
 
-    public void setMinimalDiffToAllocate(int minimalDiffToAllocate) {
-        this.minimalDiffToAllocate = minimalDiffToAllocate;
-    }
-
     @Override
     public void initMetrics(MetricRegistrator metricRegistrator) {
         setMetricRegistrator(metricRegistrator);
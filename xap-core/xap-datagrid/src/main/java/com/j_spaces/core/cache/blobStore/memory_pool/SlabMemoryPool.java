@@ -0,0 +1,575 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.j_spaces.core.cache.blobStore.memory_pool;
+
+import com.gigaspaces.internal.utils.concurrent.UnsafeHolder;
+import com.gigaspaces.metrics.Gauge;
+import com.gigaspaces.metrics.LongCounter;
+import com.gigaspaces.metrics.MetricRegistrator;
+import com.j_spaces.core.cache.blobStore.BlobStoreRefEntryCacheInfo;
+import com.j_spaces.core.cache.blobStore.IBlobStoreOffHeapInfo;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Off heap memory pool which carves fixed size slots out of large native arenas instead of calling
+ * malloc per entry. Slots are grouped into size classes, freed slots are kept on a per-thread free
+ * list and spilled in batches to a per-class global free list, so the native allocator is only hit
+ * when a new arena is needed. Buffers larger than the biggest size class are allocated directly.
+ *
+ * <p>Each slot starts with a 4 byte header holding the size class (high byte) and the buffer
+ * length (low 3 bytes). Directly allocated buffers use an 8 byte header marked with {@link
+ * #LARGE_CLASS}.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class SlabMemoryPool extends AbstractMemoryPool {
+
+    public static final int DEFAULT_ARENA_SIZE = 1024 * 1024;
+    public static final int DEFAULT_MAX_SLOT_SIZE = 32 * 1024;
+
+    private static final int MIN_SLOT_SIZE = 32;
+    private static final int SLOT_ALIGNMENT = 8;
+    private static final double SIZE_CLASS_GROWTH_FACTOR = 1.25;
+    private static final int SLOT_HEADER_SIZE = 4;
+    private static final int LARGE_HEADER_SIZE = 8;
+    private static final int LARGE_CLASS = 0xFF;
+    private static final int MAX_SLOT_LENGTH = (1 << 24) - 1;
+    private static final int THREAD_CACHE_BYTES = 256 * 1024;
+    private static final int MAX_THREAD_CACHE_SLOTS = 64;
+
+    private final Logger logger = Logger.getLogger(com.gigaspaces.logger.Constants.LOGGER_CACHE);
+    private final int arenaSize;
+    private final SizeClass[] sizeClasses;
+    private final byte[] sizeClassLookup;
+    private final ThreadLocal<ThreadCache> threadCache = new ThreadLocal<ThreadCache>() {
+        @Override
+        protected ThreadCache initialValue() {
+            ThreadCache cache = new ThreadCache(sizeClasses, generation);
+            synchronized (threadCaches) {
+                threadCaches.add(cache);
+            }
+            return cache;
+        }
+    };
+    // all the thread caches, so slots cached by threads which died can be returned to the global free lists
+    private final List<ThreadCache> threadCaches = new ArrayList<ThreadCache>();
+
+    private final LongCounter totalCounter = new LongCounter();
+    private final Map<Short, LongCounter> typesCounters = new ConcurrentHashMap<Short, LongCounter>();
+    private final LongAdder payloadBytes = new LongAdder();
+    private final LongAdder usedSlots = new LongAdder();
+    private final LongAdder largeBytes = new LongAdder();
+    private final LongAdder carvedSlots = new LongAdder();
+    private final LongAdder arenaBytes = new LongAdder();
+    private final List<Long> arenas = new ArrayList<Long>();
+    private volatile int generation;
+
+    public SlabMemoryPool(long threshold) {
+        this(threshold, DEFAULT_ARENA_SIZE, DEFAULT_MAX_SLOT_SIZE);
+    }
+
+    public SlabMemoryPool(long threshold, int arenaSize, int maxSlotSize) {
+        super(threshold);
+        if (!UnsafeHolder.isAvailable()) {
+            throw new RuntimeException(" unsafe instance could not be obtained");
+        }
+        if (maxSlotSize < MIN_SLOT_SIZE || maxSlotSize > MAX_SLOT_LENGTH)
+            throw new IllegalArgumentException("Illegal max slot size = " + maxSlotSize);
+        if (arenaSize < align(maxSlotSize))
+            throw new IllegalArgumentException("Arena size (" + arenaSize + ") must not be smaller than max slot size (" + maxSlotSize + ")");
+        this.arenaSize = arenaSize;
+        this.sizeClasses = createSizeClasses(maxSlotSize);
+        this.sizeClassLookup = createSizeClassLookup(sizeClasses);
+    }
+
+    private static SizeClass[] createSizeClasses(int maxSlotSize) {
+        List<SizeClass> result = new ArrayList<SizeClass>();
+        int slotSize = MIN_SLOT_SIZE;
+        while (true) {
+            result.add(new SizeClass(result.size(), slotSize));
+            if (slotSize >= maxSlotSize)
+                break;
+            int next = align((int) (slotSize * SIZE_CLASS_GROWTH_FACTOR));
+            slotSize = Math.min(Math.max(next, slotSize + SLOT_ALIGNMENT), align(maxSlotSize));
+        }
+        return result.toArray(new SizeClass[result.size()]);
+    }
+
+    private static byte[] createSizeClassLookup(SizeClass[] sizeClasses) {
+        int maxSlotSize = sizeClasses[sizeClasses.length - 1].slotSize;
+        byte[] lookup = new byte[maxSlotSize / SLOT_ALIGNMENT + 1];
+        int sizeClass = 0;
+        for (int i = 0; i < lookup.length; i++) {
+            while (sizeClasses[sizeClass].slotSize < i * SLOT_ALIGNMENT)
+                sizeClass++;
+            lookup[i] = (byte) sizeClass;
+        }
+        return lookup;
+    }
+
+    private static int align(int size) {
+        return (size + SLOT_ALIGNMENT - 1) & ~(SLOT_ALIGNMENT - 1);
+    }
+
+    @Override
+    public void initMetrics(MetricRegistrator metricRegistrator) {
+        setMetricRegistrator(metricRegistrator);
+        getMetricRegistrator().register(metricsPath("total"), totalCounter);
+        getMetricRegistrator().register(percent(), new Gauge<Double>() {
+            @Override
+            public Double getValue() {
+                return threshold != 0 ? (double) totalCounter.getCount() / threshold : 0;
+            }
+        });
+        getMetricRegistrator().register(getMetricRegistrator().toPath("reserved-bytes"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return getReservedBytes();
+            }
+        });
+        getMetricRegistrator().register(getMetricRegistrator().toPath("fragmentation-percent"), new Gauge<Double>() {
+            @Override
+            public Double getValue() {
+                return getFragmentation();
+            }
+        });
+        getMetricRegistrator().register(getMetricRegistrator().toPath("slot-utilization-percent"), new Gauge<Double>() {
+            @Override
+            public Double getValue() {
+                return getSlotUtilization();
+            }
+        });
+    }
+
+    @Override
+    public void register(String typeName, short typeCode) {
+        LongCounter counter = new LongCounter();
+        typesCounters.put(typeCode, counter);
+        getMetricRegistrator().register(metricsPath(typeName), counter);
+    }
+
+    @Override
+    public void unregister(String typeName, short typeCode) {
+        typesCounters.remove(typeCode);
+        getMetricRegistrator().unregisterByPrefix(metricsPath(typeName));
+    }
+
+    /**
+     * @return bytes held by live buffers, including the unused tail of their slots.
+     */
+    @Override
+    public long getUsedBytes() {
+        return totalCounter.getCount();
+    }
+
+    /**
+     * @return native bytes obtained from the operating system - all arenas plus directly allocated
+     * buffers.
+     */
+    public long getReservedBytes() {
+        return arenaBytes.sum() + largeBytes.sum();
+    }
+
+    /**
+     * @return fraction of the reserved native memory which does not hold buffer data (slot tails,
+     * free slots and headers).
+     */
+    public double getFragmentation() {
+        long reserved = getReservedBytes();
+        return reserved != 0 ? 1 - (double) payloadBytes.sum() / reserved : 0;
+    }
+
+    /**
+     * @return fraction of the slots carved out of arenas which are currently in use.
+     */
+    public double getSlotUtilization() {
+        long carved = carvedSlots.sum();
+        return carved != 0 ? (double) usedSlots.sum() / carved : 0;
+    }
+
+
+    @Override
+    public void write(IBlobStoreOffHeapInfo info, byte[] buf) {
+        if (info.getOffHeapAddress() != BlobStoreRefEntryCacheInfo.UNALLOCATED_OFFHEAP_MEMORY) {
+            throw new IllegalStateException("trying to allocateAndWrite when already allocated in off heap");
+        }
+        allocateAndWrite(info, buf);
+    }
+
+    @Override
+    public byte[] get(IBlobStoreOffHeapInfo info) {
+        long address = info.getOffHeapAddress();
+        if (address == BlobStoreRefEntryCacheInfo.UNALLOCATED_OFFHEAP_MEMORY) {
+            throw new IllegalStateException("trying to read from off heap but no address found");
+        }
+        int header = UnsafeHolder.getInt(address);
+        if (sizeClassOf(header) == LARGE_CLASS) {
+            return readBytes(address + LARGE_HEADER_SIZE, UnsafeHolder.getInt(address + SLOT_HEADER_SIZE));
+        }
+        return readBytes(address + SLOT_HEADER_SIZE, lengthOf(header));
+    }
+
+    @Override
+    public void update(IBlobStoreOffHeapInfo info, byte[] buf) {
+        long address = info.getOffHeapAddress();
+        if (address == BlobStoreRefEntryCacheInfo.UNALLOCATED_OFFHEAP_MEMORY) {
+            throw new IllegalStateException("trying to update when no off heap memory is allocated");
+        }
+        int header = UnsafeHolder.getInt(address);
+        int sizeClass = sizeClassOf(header);
+        if (sizeClass != LARGE_CLASS && buf.length != 0 && buf.length + SLOT_HEADER_SIZE <= sizeClasses[sizeClass].slotSize) {
+            int newSizeClass = sizeClassFor(buf.length);
+            if (newSizeClass == sizeClass || sizeClasses[sizeClass].slotSize - sizeClasses[newSizeClass].slotSize < minimalDiffToAllocate) {
+                int oldLength = lengthOf(header);
+                UnsafeHolder.putInt(address, toHeader(sizeClass, buf.length));
+                writeBytes(address + SLOT_HEADER_SIZE, buf);
+                payloadBytes.add(buf.length - oldLength);
+                return;
+            }
+        }
+        free(info, address, header);
+        allocateAndWrite(info, buf);
+    }
+
+    @Override
+    public void delete(IBlobStoreOffHeapInfo info) {
+        long address = info.getOffHeapAddress();
+        if (address != BlobStoreRefEntryCacheInfo.UNALLOCATED_OFFHEAP_MEMORY) {
+            free(info, address, UnsafeHolder.getInt(address));
+            info.setOffHeapAddress(BlobStoreRefEntryCacheInfo.UNALLOCATED_OFFHEAP_MEMORY);
+        }
+    }
+
+    @Override
+    public boolean isPmem() {
+        return false;
+    }
+
+    @Override
+    public boolean isOffHeap() {
+        return true;
+    }
+
+    /**
+     * Releases all arenas. Must be called only after all the entries released their off heap
+     * memory, since addresses handed out by this pool are no longer valid afterwards.
+     */
+    @Override
+    public void close() {
+        synchronized (threadCaches) {
+            // live threads drop their cached slots on their next access, due to the new generation
+            threadCaches.clear();
+        }
+        synchronized (arenas) {
+            for (Long arena : arenas)
+                UnsafeHolder.freeFromMemory(arena);
+            arenas.clear();
+        }
+        arenaBytes.reset();
+        carvedSlots.reset();
+        for (SizeClass sizeClass : sizeClasses)
+            sizeClass.reset();
+        generation++;
+    }
+
+    private void allocateAndWrite(IBlobStoreOffHeapInfo info, byte[] buf) {
+        if (buf.length == 0)
+            throw new RuntimeException("Illegal buffer length =" + buf.length);
+        long address;
+        long allocatedBytes;
+        if (buf.length + SLOT_HEADER_SIZE <= sizeClasses[sizeClasses.length - 1].slotSize) {
+            SizeClass sizeClass = sizeClasses[sizeClassFor(buf.length)];
+            address = threadCache.get().allocate(sizeClass, this);
+            UnsafeHolder.putInt(address, toHeader(sizeClass.index, buf.length));
+            writeBytes(address + SLOT_HEADER_SIZE, buf);
+            usedSlots.increment();
+            allocatedBytes = sizeClass.slotSize;
+        } else {
+            allocatedBytes = LARGE_HEADER_SIZE + buf.length;
+            address = allocateNative(allocatedBytes);
+            UnsafeHolder.putInt(address, toHeader(LARGE_CLASS, 0));
+            UnsafeHolder.putInt(address + SLOT_HEADER_SIZE, buf.length);
+            writeBytes(address + LARGE_HEADER_SIZE, buf);
+            largeBytes.add(allocatedBytes);
+        }
+        info.setOffHeapAddress(address);
+        payloadBytes.add(buf.length);
+        incrementMetrics(allocatedBytes, info.getServerTypeDescCode());
+    }
+
+    private void free(IBlobStoreOffHeapInfo info, long address, int header) {
+        int sizeClass = sizeClassOf(header);
+        long freedBytes;
+        if (sizeClass == LARGE_CLASS) {
+            int length = UnsafeHolder.getInt(address + SLOT_HEADER_SIZE);
+            freedBytes = LARGE_HEADER_SIZE + length;
+            UnsafeHolder.freeFromMemory(address);
+            largeBytes.add(-freedBytes);
+            payloadBytes.add(-length);
+        } else {
+            SizeClass slotClass = sizeClasses[sizeClass];
+            freedBytes = slotClass.slotSize;
+            payloadBytes.add(-lengthOf(header));
+            usedSlots.decrement();
+            threadCache.get().free(slotClass, address, this);
+        }
+        decrementMetrics(freedBytes, info.getServerTypeDescCode());
+    }
+
+    private int sizeClassFor(int length) {
+        return sizeClassLookup[(length + SLOT_HEADER_SIZE + SLOT_ALIGNMENT - 1) / SLOT_ALIGNMENT];
+    }
+
+    private static int toHeader(int sizeClass, int length) {
+        return (sizeClass << 24) | length;
+    }
+
+    private static int sizeClassOf(int header) {
+        return header >>> 24;
+    }
+
+    private static int lengthOf(int header) {
+        return header & MAX_SLOT_LENGTH;
+    }
+
+    /**
+     * Moves up to {@code count} free slots of the given class into {@code target}, carving new
+     * slots (and arenas) when the global free list is exhausted.
+     */
+    private int refill(SizeClass sizeClass, long[] target, int count) {
+        boolean exhausted;
+        synchronized (sizeClass) {
+            exhausted = sizeClass.numOfFreeSlots < count && sizeClass.arenaPosition + sizeClass.slotSize > sizeClass.arenaEnd;
+        }
+        // before carving a new arena, reclaim the slots cached by threads which died
+        // (outside the size class lock, since draining locks the other size classes)
+        if (exhausted)
+            drainDeadThreadCaches();
+        synchronized (sizeClass) {
+            int moved = sizeClass.popFree(target, count);
+            while (moved < count) {
+                if (sizeClass.arenaPosition + sizeClass.slotSize > sizeClass.arenaEnd) {
+                    long arena = allocateNative(arenaSize);
+                    synchronized (arenas) {
+                        arenas.add(arena);
+                    }
+                    arenaBytes.add(arenaSize);
+                    sizeClass.arenaPosition = arena;
+                    sizeClass.arenaEnd = arena + arenaSize;
+                }
+                target[moved++] = sizeClass.arenaPosition;
+                sizeClass.arenaPosition += sizeClass.slotSize;
+                carvedSlots.increment();
+            }
+            return moved;
+        }
+    }
+
+    /**
+     * Returns the slots cached by threads which are no longer alive to the global free lists.
+     *
+     * @return number of drained slots
+     */
+    private int drainDeadThreadCaches() {
+        List<ThreadCache> deadCaches = null;
+        synchronized (threadCaches) {
+            for (Iterator<ThreadCache> iterator = threadCaches.iterator(); iterator.hasNext(); ) {
+                ThreadCache cache = iterator.next();
+                Thread owner = cache.owner.get();
+                if (owner == null || !owner.isAlive()) {
+                    iterator.remove();
+                    if (deadCaches == null)
+                        deadCaches = new ArrayList<ThreadCache>();
+                    deadCaches.add(cache);
+                }
+            }
+        }
+        if (deadCaches == null)
+            return 0;
+        int drained = 0;
+        // the owner thread terminated, so its cache is no longer modified
+        for (ThreadCache cache : deadCaches) {
+            if (cache.generation != generation)
+                continue;
+            for (int i = 0; i < sizeClasses.length; i++) {
+                if (cache.counts[i] != 0) {
+                    spill(sizeClasses[i], cache.slots[i], 0, cache.counts[i]);
+                    drained += cache.counts[i];
+                    cache.counts[i] = 0;
+                }
+            }
+        }
+        return drained;
+    }
+
+    private void spill(SizeClass sizeClass, long[] source, int from, int count) {
+        synchronized (sizeClass) {
+            sizeClass.pushFree(source, from, count);
+        }
+    }
+
+    private long allocateNative(long size) {
+        long address;
+        try {
+            address = UnsafeHolder.allocateMemory(size);
+        } catch (Error e) {
+            logger.log(Level.SEVERE, "failed to allocateAndWrite offheap space", e);
+            throw e;
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "failed to allocateAndWrite offheap space");
+            throw new RuntimeException("failed to allocateAndWrite offheap space", e);
+        }
+        if (address == 0) {
+            logger.log(Level.SEVERE, "failed to allocateAndWrite offheap space");
+            throw new RuntimeException("failed to allocateAndWrite offheap space");
+        }
+        return address;
+    }
+
+    private void incrementMetrics(long n, short typeCode) {
+        totalCounter.inc(n);
+        LongCounter typeCounter = typesCounters.get(typeCode);
+        if (typeCounter != null)
+            typeCounter.inc(n);
+    }
+
+    private void decrementMetrics(long n, short typeCode) {
+        totalCounter.dec(n);
+        LongCounter typeCounter = typesCounters.get(typeCode);
+        if (typeCounter != null)
+            typeCounter.dec(n);
+    }
+
+    private static void writeBytes(long address, byte[] bytes) {
+        UnsafeHolder.copyByteArrayToMemory(bytes, address, bytes.length);
+    }
+
+    private static byte[] readBytes(long address, int numOfBytes) {
+        byte[] res = new byte[numOfBytes];
+        UnsafeHolder.copyByteArrayFromMemory(res, address, numOfBytes);
+        return res;
+    }
+
+    /**
+     * Slots of a single size, with the global free list and the arena currently being carved.
+     * Guarded by its own monitor.
+     */
+    private static final class SizeClass {
+        private final int index;
+        private final int slotSize;
+        private final int threadCacheCapacity;
+        private long[] freeSlots = new long[16];
+        private int numOfFreeSlots;
+        private long arenaPosition;
+        private long arenaEnd;
+
+        private SizeClass(int index, int slotSize) {
+            this.index = index;
+            this.slotSize = slotSize;
+            this.threadCacheCapacity = Math.max(2, Math.min(MAX_THREAD_CACHE_SLOTS, THREAD_CACHE_BYTES / slotSize));
+        }
+
+        private int popFree(long[] target, int count) {
+            int moved = Math.min(count, numOfFreeSlots);
+            numOfFreeSlots -= moved;
+            System.arraycopy(freeSlots, numOfFreeSlots, target, 0, moved);
+            return moved;
+        }
+
+        private void pushFree(long[] source, int from, int count) {
+            if (numOfFreeSlots + count > freeSlots.length) {
+                long[] newFreeSlots = new long[Math.max(freeSlots.length * 2, numOfFreeSlots + count)];
+                System.arraycopy(freeSlots, 0, newFreeSlots, 0, numOfFreeSlots);
+                freeSlots = newFreeSlots;
+            }
+            System.arraycopy(source, from, freeSlots, numOfFreeSlots, count);
+            numOfFreeSlots += count;
+        }
+
+        private synchronized void reset() {
+            freeSlots = new long[16];
+            numOfFreeSlots = 0;
+            arenaPosition = 0;
+            arenaEnd = 0;
+        }
+    }
+
+    /**
+     * Per thread free lists, one bounded stack per size class. Allocation and release are served
+     * from here without synchronization, half of a stack is exchanged with the global free list
+     * when it runs empty or full.
+     */
+    private static final class ThreadCache {
+        private final WeakReference<Thread> owner = new WeakReference<Thread>(Thread.currentThread());
+        private final long[][] slots;
+        private final int[] counts;
+        private int generation;
+
+        private ThreadCache(SizeClass[] sizeClasses, int generation) {
+            this.generation = generation;
+            this.slots = new long[sizeClasses.length][];
+            this.counts = new int[sizeClasses.length];
+            for (int i = 0; i < sizeClasses.length; i++)
+                slots[i] = new long[sizeClasses[i].threadCacheCapacity];
+        }
+
+        private long allocate(SizeClass sizeClass, SlabMemoryPool pool) {
+            validateGeneration(pool);
+            int i = sizeClass.index;
+            if (counts[i] == 0)
+                counts[i] = pool.refill(sizeClass, slots[i], Math.max(1, slots[i].length / 2));
+            return slots[i][--counts[i]];
+        }
+
+        private void free(SizeClass sizeClass, long address, SlabMemoryPool pool) {
+            validateGeneration(pool);
+            int i = sizeClass.index;
+            if (counts[i] == slots[i].length) {
+                int half = slots[i].length / 2;
+                pool.spill(sizeClass, slots[i], counts[i] - half, half);
+                counts[i] -= half;
+            }
+            slots[i][counts[i]++] = address;
+        }
+
+        /**
+         * Drops cached slots which belong to arenas released by {@link SlabMemoryPool#close()}.
+         */
+        private void validateGeneration(SlabMemoryPool pool) {
+            int current = pool.generation;
+            if (generation != current) {
+                Arrays.fill(counts, 0);
+                generation = current;
+                synchronized (pool.threadCaches) {
+                    if (!pool.threadCaches.contains(this))
+                        pool.threadCaches.add(this);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.j_spaces.core.cache.columnar;
+
+import com.gigaspaces.internal.utils.math.MutableNumber;
+import com.gigaspaces.query.aggregators.AbstractPathAggregator;
+import com.gigaspaces.query.aggregators.AggregationInternalUtils;
+import com.gigaspaces.query.aggregators.CountAggregator;
+import com.gigaspaces.query.aggregators.GroupByAggregator;
+import com.gigaspaces.query.aggregators.GroupByKey;
+import com.gigaspaces.query.aggregators.GroupByResult;
+import com.gigaspaces.query.aggregators.GroupByValue;
+import com.gigaspaces.query.aggregators.MaxValueAggregator;
+import com.gigaspaces.query.aggregators.MinValueAggregator;
+import com.gigaspaces.query.aggregators.SpaceEntriesAggregator;
+import com.gigaspaces.query.aggregators.SumAggregator;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs count, sum, min value, max value and group by (of those) aggregators directly over the
+ * columns of a {@link ColumnarTypeStore}. Results are handed to the aggregators through {@link
+ * SpaceEntriesAggregator#aggregateIntermediateResult}, so the outcome is the same as scanning the
+ * entries one by one.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class ColumnarAggregation {
+
+    private static final int COUNT = 0;
+    private static final int SUM = 1;
+    private static final int MIN = 2;
+    private static final int MAX = 3;
+
+    /**
+     * Returns true if all the specified aggregators can be computed from the store columns.
+     */
+    public static boolean isSupported(ColumnarTypeStore store, List<SpaceEntriesAggregator> aggregators) {
+        for (SpaceEntriesAggregator aggregator : aggregators) {
+            if (aggregator.getClass() == GroupByAggregator.class) {
+                GroupByAggregator groupBy = (GroupByAggregator) aggregator;
+                String[] paths = AggregationInternalUtils.getGroupByPaths(groupBy);
+                List<SpaceEntriesAggregator> selectors = AggregationInternalUtils.getSelectors(groupBy);
+                if (paths == null || paths.length == 0 || selectors == null)
+                    return false;
+                for (String path : paths)
+                    if (store.getColumn(path) == -1)
+                        return false;
+                for (SpaceEntriesAggregator selector : selectors)
+                    if (!isSupportedPathAggregator(store, selector))
+                        return false;
+            } else if (!isSupportedPathAggregator(store, aggregator)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSupportedPathAggregator(ColumnarTypeStore store, SpaceEntriesAggregator aggregator) {
+        final int kind = getKind(aggregator);
+        if (kind == -1)
+            return false;
+        final String path = ((AbstractPathAggregator) aggregator).getPath();
+        if (kind == COUNT && path == null)
+            return true;
+        final int col = store.getColumn(path);
+        if (col == -1)
+            return false;
+        return kind != SUM || store.getColumnKind(col) != ColumnarTypeStore.OBJECT_COLUMN;
+    }
+
+    private static int getKind(SpaceEntriesAggregator aggregator) {
+        final Class<?> type = aggregator.getClass();
+        if (type == CountAggregator.class)
+            return COUNT;
+        if (type == SumAggregator.class)
+            return SUM;
+        if (type == MinValueAggregator.class)
+            return MIN;
+        if (type == MaxValueAggregator.class)
+            return MAX;
+        return -1;
+    }
+
+    /**
+     * Aggregates the entries of the store which did not expire before the specified time (0 to
+     * skip expiration checks). The aggregators must be {@link #isSupported supported}, and the
+     * caller must hold the {@link ColumnarTypeStore#lockForScan scan lock} of the store.
+     */
+    public static void aggregate(ColumnarTypeStore store, List<SpaceEntriesAggregator> aggregators, long expirationLimit) {
+        final long[] live = store.getLiveSlots(expirationLimit);
+        for (SpaceEntriesAggregator aggregator : aggregators) {
+            if (aggregator.getClass() == GroupByAggregator.class)
+                aggregateGroupBy(store, (GroupByAggregator) aggregator, live);
+            else {
+                Object result = aggregateColumn(store, aggregator, live);
+                if (result != null)
+                    aggregator.aggregateIntermediateResult((Serializable) result);
+            }
+        }
+    }
+
+    private static Object aggregateColumn(ColumnarTypeStore store, SpaceEntriesAggregator aggregator, long[] live) {
+        final int kind = getKind(aggregator);
+        final int col = store.getColumn(((AbstractPathAggregator) aggregator).getPath());
+        final int words = store.getNumOfWords();
+        if (kind == COUNT) {
+            long count = 0;
+            if (col == -1) {
+                for (int word = 0; word < words; word++)
+                    count += Long.bitCount(live[word]);
+            } else {
+                final long[] nonNulls = store.getNonNulls(col);
+                for (int word = 0; word < words; word++)
+                    count += Long.bitCount(live[word] & nonNulls[word]);
+            }
+            return count;
+        }
+
+        switch (store.getColumnKind(col)) {
+            case ColumnarTypeStore.LONG_COLUMN:
+                return aggregateLongColumn(store, col, kind, live, words);
+            case ColumnarTypeStore.DOUBLE_COLUMN:
+                return aggregateDoubleColumn(store, col, kind, live, words);
+            default:
+                return aggregateObjectColumn(store, col, kind, live, words);
+        }
+    }
+
+    private static Object aggregateLongColumn(ColumnarTypeStore store, int col, int kind, long[] live, int words) {
+        final long[] values = store.getLongValues(col);
+        final long[] nonNulls = store.getNonNulls(col);
+        boolean found = false;
+        long result = kind == MIN ? Long.MAX_VALUE : kind == MAX ? Long.MIN_VALUE : 0;
+        for (int word = 0; word < words; word++) {
+            long bits = live[word] & nonNulls[word];
+            if (bits == 0)
+                continue;
+            found = true;
+            final int base = word << 6;
+            if (bits == -1L) {
+                // Dense word - no per slot branching:
+                for (int slot = base; slot < base + 64; slot++)
+                    result = kind == SUM ? result + values[slot] : kind == MIN ? Math.min(result, values[slot]) : Math.max(result, values[slot]);
+            } else {
+                while (bits != 0) {
+                    final int slot = base + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    result = kind == SUM ? result + values[slot] : kind == MIN ? Math.min(result, values[slot]) : Math.max(result, values[slot]);
+                }
+            }
+        }
+        if (!found)
+            return null;
+        if (kind == SUM)
+            return toSum(store.getColumnType(col), result);
+        return toLongColumnValue(store.getColumnType(col), result);
+    }
+
+    private static Object aggregateDoubleColumn(ColumnarTypeStore store, int col, int kind, long[] live, int words) {
+        final double[] values = store.getDoubleValues(col);
+        final long[] nonNulls = store.getNonNulls(col);
+        boolean found = false;
+        double result = kind == MIN ? Double.POSITIVE_INFINITY : kind == MAX ? Double.NEGATIVE_INFINITY : 0;
+        for (int word = 0; word < words; word++) {
+            long bits = live[word] & nonNulls[word];
+            if (bits == 0)
+                continue;
+            found = true;
+            final int base = word << 6;
+            while (bits != 0) {
+                final int slot = base + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                result = kind == SUM ? result + values[slot] : kind == MIN ? min(result, values[slot]) : max(result, values[slot]);
+            }
+        }
+        if (!found)
+            return null;
+        if (kind == SUM)
+            return toSum(store.getColumnType(col), result);
+        return toDoubleColumnValue(store.getColumnType(col), result);
+    }
+
+    private static Object aggregateObjectColumn(ColumnarTypeStore store, int col, int kind, long[] live, int words) {
+        final Object[] values = store.getObjectValues(col);
+        final long[] nonNulls = store.getNonNulls(col);
+        Comparable result = null;
+        for (int word = 0; word < words; word++) {
+            long bits = live[word] & nonNulls[word];
+            final int base = word << 6;
+            while (bits != 0) {
+                final int slot = base + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                result = extreme(kind, result, (Comparable) values[slot]);
+            }
+        }
+        return result;
+    }
+
+    private static void aggregateGroupBy(ColumnarTypeStore store, GroupByAggregator groupBy, long[] live) {
+        final String[] paths = AggregationInternalUtils.getGroupByPaths(groupBy);
+        final List<SpaceEntriesAggregator> selectors = AggregationInternalUtils.getSelectors(groupBy);
+        final int[] keyColumns = new int[paths.length];
+        for (int i = 0; i < paths.length; i++)
+            keyColumns[i] = store.getColumn(paths[i]);
+        final int[] kinds = new int[selectors.size()];
+        final int[] columns = new int[selectors.size()];
+        for (int i = 0; i < kinds.length; i++) {
+            kinds[i] = getKind(selectors.get(i));
+            columns[i] = store.getColumn(((AbstractPathAggregator) selectors.get(i)).getPath());
+        }
+
+        // Only slots with non null values for all group by paths take part, as in GroupByKey:
+        final int words = store.getNumOfWords();
+        final long[] candidates = new long[words];
+        for (int word = 0; word < words; word++) {
+            long bits = live[word];
+            for (int keyColumn : keyColumns)
+                bits &= store.getNonNulls(keyColumn)[word];
+            candidates[word] = bits;
+        }
+
+        final Map<GroupByKey, GroupState> groups = new HashMap<GroupByKey, GroupState>();
+        for (int word = 0; word < words; word++) {
+            long bits = candidates[word];
+            final int base = word << 6;
+            while (bits != 0) {
+                final int slot = base + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                Object[] keyValues = new Object[keyColumns.length];
+                for (int i = 0; i < keyColumns.length; i++)
+                    keyValues[i] = getValue(store, keyColumns[i], slot);
+                GroupByKey key = new GroupByKey(keyValues);
+                GroupState state = groups.get(key);
+                if (state == null) {
+                    state = new GroupState(kinds.length);
+                    groups.put(key, state);
+                }
+                state.aggregate(store, kinds, columns, slot);
+            }
+        }
+
+        if (groups.isEmpty())
+            return;
+        final Map<GroupByKey, GroupByValue> result = new HashMap<GroupByKey, GroupByValue>();
+        for (Map.Entry<GroupByKey, GroupState> group : groups.entrySet())
+            result.put(group.getKey(), new GroupByValue(group.getValue().toIntermediateResults(store, kinds, columns)));
+        groupBy.aggregateIntermediateResult(new GroupByResult(result));
+    }
+
+    private static Object getValue(ColumnarTypeStore store, int col, int slot) {
+        switch (store.getColumnKind(col)) {
+            case ColumnarTypeStore.LONG_COLUMN:
+                return toLongColumnValue(store.getColumnType(col), store.getLongValues(col)[slot]);
+            case ColumnarTypeStore.DOUBLE_COLUMN:
+                return toDoubleColumnValue(store.getColumnType(col), store.getDoubleValues(col)[slot]);
+            default:
+                return store.getObjectValues(col)[slot];
+        }
+    }
+
+    private static class GroupState {
+        private final long[] counts;
+        private final long[] longs;
+        private final double[] doubles;
+        private final Comparable[] objects;
+
+        private GroupState(int numOfSelectors) {
+            counts = new long[numOfSelectors];
+            longs = new long[numOfSelectors];
+            doubles = new double[numOfSelectors];
+            objects = new Comparable[numOfSelectors];
+        }
+
+        private void aggregate(ColumnarTypeStore store, int[] kinds, int[] columns, int slot) {
+            for (int i = 0; i < kinds.length; i++) {
+                final int col = columns[i];
+                if (col == -1) {
+                    counts[i]++; // count(*)
+                    continue;
+                }
+                if ((store.getNonNulls(col)[slot >> 6] & (1L << slot)) == 0)
+                    continue;
+                final boolean first = counts[i]++ == 0;
+                if (kinds[i] == COUNT)
+                    continue;
+                switch (store.getColumnKind(col)) {
+                    case ColumnarTypeStore.LONG_COLUMN:
+                        long longValue = store.getLongValues(col)[slot];
+                        longs[i] = first ? longValue : kinds[i] == SUM ? longs[i] + longValue :
+                                kinds[i] == MIN ? Math.min(longs[i], longValue) : Math.max(longs[i], longValue);
+                        break;
+                    case ColumnarTypeStore.DOUBLE_COLUMN:
+                        double doubleValue = store.getDoubleValues(col)[slot];
+                        doubles[i] = first ? doubleValue : kinds[i] == SUM ? doubles[i] + doubleValue :
+                                kinds[i] == MIN ? min(doubles[i], doubleValue) : max(doubles[i], doubleValue);
+                        break;
+                    default:
+                        objects[i] = extreme(kinds[i], objects[i], (Comparable) store.getObjectValues(col)[slot]);
+                }
+            }
+        }
+
+        private Object[] toIntermediateResults(ColumnarTypeStore store, int[] kinds, int[] columns) {
+            Object[] results = new Object[kinds.length];
+            for (int i = 0; i < kinds.length; i++) {
+                if (kinds[i] == COUNT)
+                    results[i] = counts[i];
+                else if (counts[i] != 0) {
+                    final int col = columns[i];
+                    final Class<?> type = store.getColumnType(col);
+                    switch (store.getColumnKind(col)) {
+                        case ColumnarTypeStore.LONG_COLUMN:
+                            results[i] = kinds[i] == SUM ? toSum(type, longs[i]) : toLongColumnValue(type, longs[i]);
+                            break;
+                        case ColumnarTypeStore.DOUBLE_COLUMN:
+                            results[i] = kinds[i] == SUM ? toSum(type, doubles[i]) : toDoubleColumnValue(type, doubles[i]);
+                            break;
+                        default:
+                            results[i] = objects[i];
+                    }
+                }
+            }
+            return results;
+        }
+    }
+
+    private static Comparable extreme(int kind, Comparable current, Comparable value) {
+        if (current == null)
+            return value;
+        int compare = current.compareTo(value);
+        return (kind == MIN ? compare > 0 : compare < 0) ? value : current;
+    }
+
+    // Same semantics as comparing the boxed values, as done by the min/max aggregators (NaN is largest):
+    private static double min(double x, double y) {
+        return Double.compare(x, y) > 0 ? y : x;
+    }
+
+    private static double max(double x, double y) {
+        return Double.compare(x, y) < 0 ? y : x;
+    }
+
+    private static MutableNumber toSum(Class<?> type, Number sum) {
+        MutableNumber result = MutableNumber.fromClass(type, true);
+        result.add(sum);
+        return result;
+    }
+
+    private static Object toLongColumnValue(Class<?> type, long value) {
+        if (type == Integer.class)
+            return (int) value;
+        if (type == Short.class)
+            return (short) value;
+        if (type == Byte.class)
+            return (byte) value;
+        return value;
+    }
+
+    private static Object toDoubleColumnValue(Class<?> type, double value) {
+        if (type == Float.class)
+            return (float) value;
+        return value;
+    }
+}
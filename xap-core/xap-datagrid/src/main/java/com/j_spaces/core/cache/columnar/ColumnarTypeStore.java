@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.j_spaces.core.cache.columnar;
+
+import com.gigaspaces.internal.metadata.ITypeDesc;
+import com.gigaspaces.internal.metadata.PropertyInfo;
+import com.gigaspaces.internal.server.storage.IEntryData;
+import com.gigaspaces.internal.server.storage.IEntryHolder;
+import com.gigaspaces.metadata.index.SpaceIndex;
+import com.j_spaces.kernel.SystemProperties;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Columnar copy of the numeric and indexed fixed properties of the entries of a single type.
+ * Numeric properties are kept in primitive arrays, other indexed properties in object arrays, so
+ * aggregations can scan a property without visiting the entries themselves.
+ *
+ * Each entry occupies a slot, which is reused once the entry is removed. A bit set per column
+ * marks the slots holding a non null value. Writers and scans are serialized by a read-write lock,
+ * so a scan sees a consistent snapshot of the type.
+ *
+ * Lease expiration is checked per slot only once an entry with a finite lease was stored. An entry
+ * whose lease is renewed from forever to a finite time is dropped when the lease reaper removes it.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class ColumnarTypeStore {
+
+    static final byte LONG_COLUMN = 0;
+    static final byte DOUBLE_COLUMN = 1;
+    static final byte OBJECT_COLUMN = 2;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final long FOREVER = Long.MAX_VALUE;
+
+    private final String _typeName;
+    private final Map<String, Integer> _columnsByName;
+    private final int[] _propertyPositions;
+    private final Class<?>[] _columnTypes;
+    private final byte[] _columnKinds;
+    private final long[][] _longValues;
+    private final double[][] _doubleValues;
+    private final Object[][] _objectValues;
+    private final long[][] _nonNulls;
+    private long[] _occupied;
+    private IEntryHolder[] _entries;
+    private final Map<String, Integer> _slotsByUid;
+    private int[] _freeSlots;
+    private int _numOfFreeSlots;
+    private int _highWaterMark;
+    private boolean _anyLeasedEntries;
+    private final ReentrantReadWriteLock _lock;
+
+    ColumnarTypeStore(String typeName, List<PropertyInfo> properties, int[] propertyPositions) {
+        _typeName = typeName;
+        _columnsByName = new HashMap<String, Integer>();
+        _propertyPositions = propertyPositions;
+        _columnTypes = new Class<?>[properties.size()];
+        _columnKinds = new byte[properties.size()];
+        _longValues = new long[properties.size()][];
+        _doubleValues = new double[properties.size()][];
+        _objectValues = new Object[properties.size()][];
+        _nonNulls = new long[properties.size()][];
+        for (int col = 0; col < properties.size(); col++) {
+            PropertyInfo property = properties.get(col);
+            _columnsByName.put(property.getName(), col);
+            _columnTypes[col] = toBoxedType(property.getType());
+            _columnKinds[col] = getColumnKind(_columnTypes[col]);
+            _nonNulls[col] = new long[INITIAL_CAPACITY >> 6];
+            if (_columnKinds[col] == LONG_COLUMN)
+                _longValues[col] = new long[INITIAL_CAPACITY];
+            else if (_columnKinds[col] == DOUBLE_COLUMN)
+                _doubleValues[col] = new double[INITIAL_CAPACITY];
+            else
+                _objectValues[col] = new Object[INITIAL_CAPACITY];
+        }
+        _occupied = new long[INITIAL_CAPACITY >> 6];
+        _entries = new IEntryHolder[INITIAL_CAPACITY];
+        _slotsByUid = new HashMap<String, Integer>();
+        _freeSlots = new int[64];
+        _lock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Creates a store for the specified type if it was listed in {@link
+     * SystemProperties#ENGINE_COLUMNAR_TYPES} and has at least one numeric or indexed property,
+     * otherwise returns null.
+     */
+    public static ColumnarTypeStore createIfEnabled(ITypeDesc typeDesc) {
+        if (!getEnabledTypes().contains(typeDesc.getTypeName()))
+            return null;
+
+        List<PropertyInfo> properties = new ArrayList<PropertyInfo>();
+        int[] positions = new int[typeDesc.getNumOfFixedProperties()];
+        Map<String, SpaceIndex> indexes = typeDesc.getIndexes();
+        for (int i = 0; i < typeDesc.getNumOfFixedProperties(); i++) {
+            PropertyInfo property = typeDesc.getFixedProperty(i);
+            if (property.getStorageAdapter() != null)
+                continue;
+            SpaceIndex index = indexes.get(property.getName());
+            boolean indexed = index != null && index.getIndexType().isIndexed();
+            if (getColumnKind(toBoxedType(property.getType())) == OBJECT_COLUMN && !indexed)
+                continue;
+            positions[properties.size()] = i;
+            properties.add(property);
+        }
+        if (properties.isEmpty())
+            return null;
+        return new ColumnarTypeStore(typeDesc.getTypeName(), properties, Arrays.copyOf(positions, properties.size()));
+    }
+
+    private static Set<String> getEnabledTypes() {
+        Set<String> result = new HashSet<String>();
+        String types = System.getProperty(SystemProperties.ENGINE_COLUMNAR_TYPES, "");
+        for (String type : types.split(",")) {
+            if (type.trim().length() != 0)
+                result.add(type.trim());
+        }
+        return result;
+    }
+
+    public String getTypeName() {
+        return _typeName;
+    }
+
+    public int size() {
+        _lock.readLock().lock();
+        try {
+            return _slotsByUid.size();
+        } finally {
+            _lock.readLock().unlock();
+        }
+    }
+
+    public void insert(IEntryHolder entry) {
+        _lock.writeLock().lock();
+        try {
+            Integer slot = _slotsByUid.get(entry.getUID());
+            if (slot == null) {
+                slot = allocateSlot();
+                _slotsByUid.put(entry.getUID(), slot);
+            }
+            store(slot, entry);
+        } finally {
+            _lock.writeLock().unlock();
+        }
+    }
+
+    public void update(IEntryHolder entry) {
+        _lock.writeLock().lock();
+        try {
+            Integer slot = _slotsByUid.get(entry.getUID());
+            if (slot != null)
+                store(slot, entry);
+        } finally {
+            _lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String uid) {
+        _lock.writeLock().lock();
+        try {
+            Integer slot = _slotsByUid.remove(uid);
+            if (slot == null)
+                return;
+            final int word = slot >> 6;
+            final long mask = ~(1L << slot);
+            _occupied[word] &= mask;
+            for (int col = 0; col < _nonNulls.length; col++) {
+                _nonNulls[col][word] &= mask;
+                if (_objectValues[col] != null)
+                    _objectValues[col][slot] = null;
+            }
+            _entries[slot] = null;
+            if (_numOfFreeSlots == _freeSlots.length)
+                _freeSlots = Arrays.copyOf(_freeSlots, _freeSlots.length * 2);
+            _freeSlots[_numOfFreeSlots++] = slot;
+        } finally {
+            _lock.writeLock().unlock();
+        }
+    }
+
+    private void store(int slot, IEntryHolder entry) {
+        final IEntryData entryData = entry.getEntryData();
+        final int word = slot >> 6;
+        final long bit = 1L << slot;
+        for (int col = 0; col < _propertyPositions.length; col++) {
+            Object value = entryData.getFixedPropertyValue(_propertyPositions[col]);
+            boolean nonNull = value != null;
+            switch (_columnKinds[col]) {
+                case LONG_COLUMN:
+                    nonNull = value instanceof Number;
+                    if (nonNull)
+                        _longValues[col][slot] = ((Number) value).longValue();
+                    break;
+                case DOUBLE_COLUMN:
+                    nonNull = value instanceof Number;
+                    if (nonNull)
+                        _doubleValues[col][slot] = ((Number) value).doubleValue();
+                    break;
+                default:
+                    _objectValues[col][slot] = value;
+            }
+            if (nonNull)
+                _nonNulls[col][word] |= bit;
+            else
+                _nonNulls[col][word] &= ~bit;
+        }
+        _occupied[word] |= bit;
+        _entries[slot] = entry;
+        if (entryData.getExpirationTime() != FOREVER)
+            _anyLeasedEntries = true;
+    }
+
+    private int allocateSlot() {
+        if (_numOfFreeSlots != 0)
+            return _freeSlots[--_numOfFreeSlots];
+        if (_highWaterMark == _entries.length)
+            grow(_entries.length * 2);
+        return _highWaterMark++;
+    }
+
+    private void grow(int capacity) {
+        _occupied = Arrays.copyOf(_occupied, capacity >> 6);
+        _entries = Arrays.copyOf(_entries, capacity);
+        for (int col = 0; col < _columnKinds.length; col++) {
+            _nonNulls[col] = Arrays.copyOf(_nonNulls[col], capacity >> 6);
+            if (_longValues[col] != null)
+                _longValues[col] = Arrays.copyOf(_longValues[col], capacity);
+            if (_doubleValues[col] != null)
+                _doubleValues[col] = Arrays.copyOf(_doubleValues[col], capacity);
+            if (_objectValues[col] != null)
+                _objectValues[col] = Arrays.copyOf(_objectValues[col], capacity);
+        }
+    }
+
+    /**
+     * Blocks modifications of the store until {@link #unlockForScan()} is called.
+     */
+    public void lockForScan() {
+        _lock.readLock().lock();
+    }
+
+    public void unlockForScan() {
+        _lock.readLock().unlock();
+    }
+
+    /**
+     * Returns the bit set of the slots holding an entry which did not expire before the specified
+     * time (0 to skip the check). Must be called while locked for scan.
+     */
+    long[] getLiveSlots(long expirationLimit) {
+        final int words = getNumOfWords();
+        if (expirationLimit == 0 || !_anyLeasedEntries)
+            return _occupied;
+        long[] live = Arrays.copyOf(_occupied, words);
+        for (int word = 0; word < words; word++) {
+            long bits = live[word];
+            while (bits != 0) {
+                int slot = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (_entries[slot].isExpired(expirationLimit))
+                    live[word] &= ~(1L << slot);
+            }
+        }
+        return live;
+    }
+
+    int getNumOfWords() {
+        return (_highWaterMark + 63) >> 6;
+    }
+
+    int getColumn(String path) {
+        Integer col = path != null ? _columnsByName.get(path) : null;
+        return col != null ? col : -1;
+    }
+
+    Class<?> getColumnType(int col) {
+        return _columnTypes[col];
+    }
+
+    byte getColumnKind(int col) {
+        return _columnKinds[col];
+    }
+
+    long[] getLongValues(int col) {
+        return _longValues[col];
+    }
+
+    double[] getDoubleValues(int col) {
+        return _doubleValues[col];
+    }
+
+    Object[] getObjectValues(int col) {
+        return _objectValues[col];
+    }
+
+    long[] getNonNulls(int col) {
+        return _nonNulls[col];
+    }
+
+    private static byte getColumnKind(Class<?> type) {
+        if (type == Long.class || type == Integer.class || type == Short.class || type == Byte.class)
+            return LONG_COLUMN;
+        if (type == Double.class || type == Float.class)
+            return DOUBLE_COLUMN;
+        return OBJECT_COLUMN;
+    }
+
+    private static Class<?> toBoxedType(Class<?> type) {
+        if (!type.isPrimitive())
+            return type;
+        if (type == long.class) return Long.class;
+        if (type == int.class) return Integer.class;
+        if (type == short.class) return Short.class;
+        if (type == byte.class) return Byte.class;
+        if (type == double.class) return Double.class;
+        if (type == float.class) return Float.class;
+        if (type == boolean.class) return Boolean.class;
+        if (type == char.class) return Character.class;
+        return type;
+    }
+}
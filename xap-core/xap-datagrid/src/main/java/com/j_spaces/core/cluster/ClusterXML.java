@@ -361,6 +361,8 @@ public class ClusterXML {
     final static public String SWAP_REDOLOG_MAX_SCAN_LENGTH = "max-scan-length";
     final static public String SWAP_REDOLOG_MAX_OPEN_CURSORS = "max-open-cursors";
     final static public String SWAP_REDOLOG_WRITER_BUFFER_SIZE = "writer-buffer-size";
+    final static public String SWAP_REDOLOG_STORAGE_TYPE = "storage-type";
+    final static public String SWAP_REDOLOG_MAPPED_WINDOW_SIZE = "mapped-window-size";
 
     final static public String IP_GROUP_TAG = "ip-group";
     final static public String PORT_TAG = "port";
@@ -1691,6 +1693,14 @@ public class ClusterXML {
             value = getNodeValueIfExists(swapRedologNode, SWAP_REDOLOG_WRITER_BUFFER_SIZE);
             if (value != null)
                 replPolicy.getSwapRedologPolicy().setWriterBufferSize(Integer.parseInt(value));
+
+            value = getNodeValueIfExists(swapRedologNode, SWAP_REDOLOG_STORAGE_TYPE);
+            if (value != null)
+                replPolicy.getSwapRedologPolicy().setStorageType(SwapRedoLogStorageType.parse(value));
+
+            value = getNodeValueIfExists(swapRedologNode, SWAP_REDOLOG_MAPPED_WINDOW_SIZE);
+            if (value != null)
+                replPolicy.getSwapRedologPolicy().setMappedWindowSize(Integer.parseInt(value));
         }//SWAP REDO LOG
 
 
@@ -17,6 +17,9 @@
 package com.j_spaces.core.cluster;
 
 import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.ByteBufferRedoLogFileConfig;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.mapped.MappedByteBufferStorageFactory;
+import com.gigaspaces.internal.version.PlatformLogicalVersion;
+import com.gigaspaces.lrmi.LRMIInvocationContext;
 
 import java.io.Externalizable;
 import java.io.IOException;
@@ -40,6 +43,8 @@ public class SwapBacklogConfig
     final static public int MAX_SCAN_LENGTH_DEFAULT = ByteBufferRedoLogFileConfig.DEFAULT_MAX_SCAN;
     final static public int MAX_OPEN_CURSORS_DEFAULT = ByteBufferRedoLogFileConfig.DEFAULT_MAX_STORAGE_CURSORS;
     final static public int WRITE_BUFFER_SIZE_DEFAULT = ByteBufferRedoLogFileConfig.DEFAULT_MAX_BUFFER_SIZE;
+    final static public SwapRedoLogStorageType STORAGE_TYPE_DEFAULT = SwapRedoLogStorageType.RAF;
+    final static public int MAPPED_WINDOW_SIZE_DEFAULT = MappedByteBufferStorageFactory.DEFAULT_WINDOW_SIZE;
 
     private int _flushBufferPacketsCount = FLUSH_BUFFER_PACKETS_COUNT_DEFAULT;
     private int _fetchBufferPacketsCount = FETCH_BUFFER_PACKETS_COUNT_DEFAULT;
@@ -47,6 +52,8 @@ public class SwapBacklogConfig
     private int _maxScanLength = MAX_SCAN_LENGTH_DEFAULT;
     private int _maxOpenCursors = MAX_OPEN_CURSORS_DEFAULT;
     private int _writerBufferSize = WRITE_BUFFER_SIZE_DEFAULT;
+    private SwapRedoLogStorageType _storageType = STORAGE_TYPE_DEFAULT;
+    private int _mappedWindowSize = MAPPED_WINDOW_SIZE_DEFAULT;
 
     private interface BitMap {
         int FLUSH_BUFFER_PACKETS_COUNT = 1 << 0;
@@ -55,6 +62,8 @@ public class SwapBacklogConfig
         int MAX_SCAN_LENGTH = 1 << 3;
         int MAX_OPEN_CURSORS = 1 << 4;
         int WRITE_BUFFER_SIZE = 1 << 5;
+        int STORAGE_TYPE = 1 << 6;
+        int MAPPED_WINDOW_SIZE = 1 << 7;
     }
 
     public int getFlushBufferPacketsCount() {
@@ -105,7 +114,26 @@ public class SwapBacklogConfig
         _writerBufferSize = writerBufferSize;
     }
 
+    public SwapRedoLogStorageType getStorageType() {
+        return _storageType;
+    }
+
+    public void setStorageType(SwapRedoLogStorageType storageType) {
+        _storageType = storageType;
+    }
+
+    public int getMappedWindowSize() {
+        return _mappedWindowSize;
+    }
+
+    public void setMappedWindowSize(int mappedWindowSize) {
+        _mappedWindowSize = mappedWindowSize;
+    }
+
     public void writeExternal(ObjectOutput out) throws IOException {
+        // peers older than 15.5 do not know the storage type and mapped window size, and do not
+        // read the writer buffer size although it was always written
+        final boolean v15_5 = LRMIInvocationContext.getEndpointLogicalVersion().greaterOrEquals(PlatformLogicalVersion.v15_5_0);
         int flags = 0;
 
         if (_flushBufferPacketsCount != FLUSH_BUFFER_PACKETS_COUNT_DEFAULT)
@@ -123,9 +151,15 @@ public class SwapBacklogConfig
         if (_maxOpenCursors != MAX_OPEN_CURSORS_DEFAULT)
             flags |= BitMap.MAX_OPEN_CURSORS;
 
-        if (_writerBufferSize != WRITE_BUFFER_SIZE_DEFAULT)
+        if (v15_5 && _writerBufferSize != WRITE_BUFFER_SIZE_DEFAULT)
             flags |= BitMap.WRITE_BUFFER_SIZE;
 
+        if (v15_5 && _storageType != STORAGE_TYPE_DEFAULT)
+            flags |= BitMap.STORAGE_TYPE;
+
+        if (v15_5 && _mappedWindowSize != MAPPED_WINDOW_SIZE_DEFAULT)
+            flags |= BitMap.MAPPED_WINDOW_SIZE;
+
         out.writeInt(flags);
 
         if (_flushBufferPacketsCount != FLUSH_BUFFER_PACKETS_COUNT_DEFAULT)
@@ -138,8 +172,12 @@ public class SwapBacklogConfig
             out.writeInt(_maxScanLength);
         if (_maxOpenCursors != MAX_OPEN_CURSORS_DEFAULT)
             out.writeInt(_maxOpenCursors);
-        if (_writerBufferSize != WRITE_BUFFER_SIZE_DEFAULT)
+        if ((flags & BitMap.WRITE_BUFFER_SIZE) != 0)
             out.writeInt(_writerBufferSize);
+        if ((flags & BitMap.STORAGE_TYPE) != 0)
+            out.writeByte(_storageType.ordinal());
+        if ((flags & BitMap.MAPPED_WINDOW_SIZE) != 0)
+            out.writeInt(_mappedWindowSize);
     }
 
     public void readExternal(ObjectInput in) throws IOException,
@@ -171,6 +209,22 @@ public class SwapBacklogConfig
         } else {
             _maxOpenCursors = MAX_OPEN_CURSORS_DEFAULT;
         }
+        if ((flags & BitMap.WRITE_BUFFER_SIZE) != 0) {
+            _writerBufferSize = in.readInt();
+        } else {
+            _writerBufferSize = WRITE_BUFFER_SIZE_DEFAULT;
+        }
+        final boolean v15_5 = LRMIInvocationContext.getEndpointLogicalVersion().greaterOrEquals(PlatformLogicalVersion.v15_5_0);
+        if (v15_5 && (flags & BitMap.STORAGE_TYPE) != 0) {
+            _storageType = SwapRedoLogStorageType.values()[in.readByte()];
+        } else {
+            _storageType = STORAGE_TYPE_DEFAULT;
+        }
+        if (v15_5 && (flags & BitMap.MAPPED_WINDOW_SIZE) != 0) {
+            _mappedWindowSize = in.readInt();
+        } else {
+            _mappedWindowSize = MAPPED_WINDOW_SIZE_DEFAULT;
+        }
     }
 
     @Override
@@ -180,6 +234,8 @@ public class SwapBacklogConfig
                 + _fetchBufferPacketsCount + ", _segmentSize=" + _segmentSize
                 + ", _maxScanLength=" + _maxScanLength + ", _maxOpenCursors="
                 + _maxOpenCursors + ", _writerBufferSize=" + _writerBufferSize
+                + ", _storageType=" + _storageType
+                + ", _mappedWindowSize=" + _mappedWindowSize
                 + "]";
     }
 
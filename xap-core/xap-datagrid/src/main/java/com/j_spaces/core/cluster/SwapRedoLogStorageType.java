@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.j_spaces.core.cluster;
+
+import java.util.Arrays;
+
+/**
+ * The file storage used by the swap redo log segments.
+ *
+ * @since 15.5
+ */
+public enum SwapRedoLogStorageType {
+    /**
+     * Segments are read and written through a {@link java.io.RandomAccessFile}.
+     */
+    RAF("raf"),
+    /**
+     * Segments are read and written through memory mapped windows of the segment file.
+     */
+    MAPPED("mapped");
+
+    private final String name;
+
+    SwapRedoLogStorageType(String name) {
+        this.name = name;
+    }
+
+    public static SwapRedoLogStorageType parse(String val) {
+        if (val.equalsIgnoreCase(RAF.name)) return RAF;
+        if (val.equalsIgnoreCase(MAPPED.name)) return MAPPED;
+        throw new IllegalArgumentException("illegal swap redo log storage type, must be one of: " + Arrays.toString(SwapRedoLogStorageType.values()));
+    }
+}
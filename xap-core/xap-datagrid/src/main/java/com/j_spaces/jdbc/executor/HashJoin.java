@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.j_spaces.jdbc.executor;
+
+import com.gigaspaces.internal.query.explainplan.JoinInfo;
+import com.gigaspaces.internal.transport.IEntryPacket;
+import com.j_spaces.jdbc.Stack;
+import com.j_spaces.jdbc.parser.AndNode;
+import com.j_spaces.jdbc.parser.ColumnNode;
+import com.j_spaces.jdbc.parser.EqualNode;
+import com.j_spaces.jdbc.parser.ExpNode;
+import com.j_spaces.jdbc.query.IQueryResultSet;
+import com.j_spaces.jdbc.query.QueryTableData;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hash join plan of a join query whose tables are all connected by equi-join conditions.
+ *
+ * The tables are ordered by the number of entries fetched for each of them: the largest table is
+ * scanned, and each of the other tables is hashed by its join column and probed with the value of
+ * the joined column of a table which precedes it. The next table is always the smallest one which
+ * is connected to the tables already in the plan, to keep the intermediate results small.
+ *
+ * The plan only produces candidate combinations, the caller is expected to match the whole
+ * expression tree on each of them.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class HashJoin {
+
+    private final Step[] _steps;
+
+    private HashJoin(Step[] steps) {
+        _steps = steps;
+    }
+
+    /**
+     * @return a hash join plan, or null if the tables are not all connected by equi-join
+     * conditions which must be satisfied by every result
+     */
+    public static HashJoin create(List<QueryTableData> tables, ExpNode expTree,
+                                  List<IQueryResultSet<IEntryPacket>> tablesEntries) {
+        if (tables.size() < 2)
+            return null;
+
+        List<EqualNode> conditions = getEquiJoinConditions(expTree);
+        if (conditions.isEmpty())
+            return null;
+
+        int[] sizes = new int[tables.size()];
+        for (int i = 0; i < sizes.length; i++)
+            sizes[i] = tablesEntries.get(i).size();
+
+        int[][] joins = new int[conditions.size()][];
+        for (int i = 0; i < joins.length; i++)
+            joins[i] = new int[]{tables.indexOf(getTable(conditions.get(i).getLeftChild())),
+                    tables.indexOf(getTable(conditions.get(i).getRightChild()))};
+
+        List<int[]> order = order(sizes, joins);
+        if (order == null)
+            return null;
+
+        Step[] steps = new Step[order.size()];
+        for (int i = 0; i < steps.length; i++) {
+            int table = order.get(i)[0];
+            QueryTableData tableData = tables.get(table);
+            IQueryResultSet<IEntryPacket> entries = tablesEntries.get(table);
+            if (i == 0) {
+                steps[i] = new Step(tableData, entries.size(), entries);
+                continue;
+            }
+            EqualNode condition = conditions.get(order.get(i)[1]);
+            ColumnNode left = (ColumnNode) condition.getLeftChild();
+            ColumnNode right = (ColumnNode) condition.getRightChild();
+            boolean buildOnLeft = joins[order.get(i)[1]][0] == table;
+            steps[i] = new Step(tableData, entries.size(), buildOnLeft ? left : right,
+                    buildOnLeft ? right : left, entries);
+        }
+        return new HashJoin(steps);
+    }
+
+    /**
+     * Orders the tables of a join.
+     *
+     * @param sizes the number of entries of each table
+     * @param joins the pair of tables of each equi-join condition
+     * @return for each step the table to join and the index of the condition it is joined by (-1
+     * for the first table), or null if not all the tables are connected
+     */
+    static List<int[]> order(int[] sizes, int[][] joins) {
+        boolean[] joined = new boolean[sizes.length];
+        List<int[]> order = new ArrayList<int[]>(sizes.length);
+
+        int first = 0;
+        for (int i = 1; i < sizes.length; i++) {
+            if (sizes[i] > sizes[first])
+                first = i;
+        }
+        joined[first] = true;
+        order.add(new int[]{first, -1});
+
+        while (order.size() < sizes.length) {
+            int next = -1;
+            int nextJoin = -1;
+            for (int i = 0; i < joins.length; i++) {
+                int candidate;
+                if (joined[joins[i][0]] && !joined[joins[i][1]])
+                    candidate = joins[i][1];
+                else if (joined[joins[i][1]] && !joined[joins[i][0]])
+                    candidate = joins[i][0];
+                else
+                    continue;
+
+                if (next == -1 || sizes[candidate] < sizes[next]) {
+                    next = candidate;
+                    nextJoin = i;
+                }
+            }
+            if (next == -1)
+                return null;
+            joined[next] = true;
+            order.add(new int[]{next, nextJoin});
+        }
+        return order;
+    }
+
+    /**
+     * Collects the equi-join conditions which the whole tree depends on, i.e. the ones which are
+     * not under an OR
+     */
+    private static List<EqualNode> getEquiJoinConditions(ExpNode root) {
+        List<EqualNode> result = new ArrayList<EqualNode>();
+        if (root == null)
+            return result;
+
+        Stack<ExpNode> stack = new Stack<ExpNode>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            ExpNode curr = stack.pop();
+            if (curr instanceof AndNode) {
+                if (curr.getLeftChild() != null)
+                    stack.push(curr.getLeftChild());
+                if (curr.getRightChild() != null)
+                    stack.push(curr.getRightChild());
+            } else if (curr.getClass() == EqualNode.class && curr.isJoined()
+                    && !getTable(curr.getLeftChild()).equals(getTable(curr.getRightChild()))) {
+                result.add((EqualNode) curr);
+            }
+        }
+        return result;
+    }
+
+    private static QueryTableData getTable(ExpNode column) {
+        return ((ColumnNode) column).getColumnData().getColumnTableData();
+    }
+
+    public int getNumOfSteps() {
+        return _steps.length;
+    }
+
+    /**
+     * @return the index in the joined entry of the table joined at the given step
+     */
+    public int getTableIndex(int step) {
+        return _steps[step]._table.getTableIndex();
+    }
+
+    /**
+     * @return the entries of the table joined at the given step which match the entries of the
+     * previous steps, or null if there are none
+     */
+    public Collection<IEntryPacket> getMatches(int step, IEntryPacket[] joinedEntries) {
+        Step s = _steps[step];
+        if (s._probeColumn == null)
+            return s._entries;
+
+        IEntryPacket probeEntry = joinedEntries[s._probeColumn.getColumnData().getColumnTableData().getTableIndex()];
+        Object value = s._probeColumn.getFieldValue(probeEntry);
+        return value == null ? null : s._hash.get(value);
+    }
+
+    public JoinInfo getJoinInfo() {
+        JoinInfo info = new JoinInfo(JoinInfo.JoinStrategy.HASH);
+        for (Step step : _steps) {
+            if (step._probeColumn == null)
+                info.addStep("Scan " + step._table.getTableName() + " (" + step._size + " entries)");
+            else
+                info.addStep("Hash " + step._table.getTableName() + " (" + step._size + " entries) on "
+                        + step._buildColumn.getColumnPath() + ", probe with " + step._probeColumn.getColumnPath());
+        }
+        return info;
+    }
+
+    private static class Step {
+        private final QueryTableData _table;
+        private final int _size;
+        private final ColumnNode _buildColumn;
+        private final ColumnNode _probeColumn;
+        private final Collection<IEntryPacket> _entries;
+        private final Map<Object, List<IEntryPacket>> _hash;
+
+        private Step(QueryTableData table, int size, Collection<IEntryPacket> entries) {
+            _table = table;
+            _size = size;
+            _buildColumn = null;
+            _probeColumn = null;
+            _entries = entries;
+            _hash = null;
+        }
+
+        private Step(QueryTableData table, int size, ColumnNode buildColumn, ColumnNode probeColumn,
+                     Collection<IEntryPacket> entries) {
+            _table = table;
+            _size = size;
+            _buildColumn = buildColumn;
+            _probeColumn = probeColumn;
+            _entries = null;
+            _hash = new HashMap<Object, List<IEntryPacket>>();
+            for (IEntryPacket entry : entries) {
+                Object value = buildColumn.getFieldValue(entry);
+                // null never satisfies an equality condition
+                if (value == null)
+                    continue;
+                List<IEntryPacket> entriesOnSameValue = _hash.get(value);
+                if (entriesOnSameValue == null) {
+                    entriesOnSameValue = new ArrayList<IEntryPacket>(1);
+                    _hash.put(value, entriesOnSameValue);
+                }
+                entriesOnSameValue.add(entry);
+            }
+        }
+    }
+}
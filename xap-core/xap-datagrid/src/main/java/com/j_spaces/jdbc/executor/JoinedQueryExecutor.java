@@ -20,6 +20,8 @@
 package com.j_spaces.jdbc.executor;
 
 import com.gigaspaces.internal.client.spaceproxy.ISpaceProxy;
+import com.gigaspaces.internal.query.explainplan.ExplainPlanImpl;
+import com.gigaspaces.internal.query.explainplan.JoinInfo;
 import com.gigaspaces.internal.transport.IEntryPacket;
 import com.j_spaces.jdbc.AbstractDMLQuery;
 import com.j_spaces.jdbc.JoinedEntry;
@@ -43,6 +45,8 @@ import com.j_spaces.jdbc.query.QueryTableData;
 import net.jini.core.transaction.Transaction;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
@@ -52,7 +56,8 @@ import java.util.logging.Level;
 
 /**
  * Executes a join query. Create a cartesian product of all the tables , keep only the products that
- * satisfy the where condition
+ * satisfy the where condition. If all the tables are connected by equi-join conditions, only the
+ * products matched by a {@link HashJoin} are checked.
  *
  * @author anna
  * @since 7.0
@@ -86,7 +91,18 @@ public class JoinedQueryExecutor
 
         JoinedQueryResult result = new JoinedQueryResult();
 
-        JoinedIterator iter = new JoinedIterator(query.getTablesData(), space, txn);
+        List<IQueryResultSet<IEntryPacket>> tablesEntries = readTables(space, txn);
+
+        // equi-joins are executed by hashing the smaller tables and probing them with the largest
+        HashJoin hashJoin = HashJoin.create(query.getTablesData(), query.getExpTree(), tablesEntries);
+        if (hashJoin != null) {
+            setJoinInfo(hashJoin.getJoinInfo());
+            hashJoin(hashJoin, 0, new IEntryPacket[query.getTablesData().size()], result, space, txn, readModifier, max);
+            return result;
+        }
+
+        JoinedIterator iter = new JoinedIterator(query.getTablesData(), tablesEntries);
+        setJoinInfo(iter.getJoinInfo());
 
 
         while (iter.next()) {
@@ -121,6 +137,59 @@ public class JoinedQueryExecutor
 
     }
 
+    /**
+     * Fetch the entries of each table in the query that match the table condition
+     */
+    private List<IQueryResultSet<IEntryPacket>> readTables(ISpaceProxy space, Transaction txn) throws SQLException {
+        List<IQueryResultSet<IEntryPacket>> tablesEntries = new ArrayList<IQueryResultSet<IEntryPacket>>(query.getTablesData().size());
+        try {
+            for (QueryTableData tableData : query.getTablesData()) {
+                tablesEntries.add(tableData.readEntries(space, txn, query));
+            }
+        } catch (Exception e) {
+            if (_logger.isLoggable(Level.SEVERE)) {
+                _logger.log(Level.SEVERE, e.getMessage(), e);
+            }
+            throw new SQLException("Failed to read objects: " + e.getMessage(),
+                    "GSP",
+                    -111);
+        }
+        return tablesEntries;
+    }
+
+    /**
+     * Join the entries of the given step with the entries joined by the previous steps, and match
+     * each complete combination with the whole query tree
+     *
+     * @return false if there are enough results
+     */
+    private boolean hashJoin(HashJoin hashJoin, int step, IEntryPacket[] joinedEntries, JoinedQueryResult result,
+                             ISpaceProxy space, Transaction txn, int readModifier, int max) throws SQLException {
+        if (step == hashJoin.getNumOfSteps()) {
+            _currentEntry = new JoinedEntry(joinedEntries.clone());
+            if (matchesExpressionTree(query.getExpTree(), space, txn, readModifier, max))
+                result.add(_currentEntry);
+            return result.size() < max;
+        }
+
+        Collection<IEntryPacket> matches = hashJoin.getMatches(step, joinedEntries);
+        if (matches == null)
+            return true;
+
+        int tableIndex = hashJoin.getTableIndex(step);
+        for (IEntryPacket entry : matches) {
+            joinedEntries[tableIndex] = entry;
+            if (!hashJoin(hashJoin, step + 1, joinedEntries, result, space, txn, readModifier, max))
+                return false;
+        }
+        return true;
+    }
+
+    private void setJoinInfo(JoinInfo joinInfo) {
+        if (query.getExplainPlan() instanceof ExplainPlanImpl)
+            ((ExplainPlanImpl) query.getExplainPlan()).setJoinInfo(joinInfo);
+    }
+
 
     /* (non-Javadoc)
      * @see com.j_spaces.jdbc.executor.IQueryExecutor#execute(com.j_spaces.jdbc.parser.ExpNode, com.j_spaces.core.IJSpace, net.jini.core.transaction.Transaction, int, int)
@@ -445,21 +514,12 @@ public class JoinedQueryExecutor
         private QueryTableData _tableData;
         private List<QueryTableData> _tablesData;
 
-        public JoinedIterator(List<QueryTableData> tablesData, ISpaceProxy space, Transaction txn) throws SQLException {
+        public JoinedIterator(List<QueryTableData> tablesData, List<IQueryResultSet<IEntryPacket>> tablesEntries) {
             _tablesData = tablesData;
 
-            try {
-                for (QueryTableData tableData : query.getTablesData()) {
-                    // first all entries for each table in the query
-                    tableData.init(space, txn, query);
-                }
-            } catch (Exception e) {
-                if (_logger.isLoggable(Level.SEVERE)) {
-                    _logger.log(Level.SEVERE, e.getMessage(), e);
-                }
-                throw new SQLException("Failed to read objects: " + e.getMessage(),
-                        "GSP",
-                        -111);
+            for (int i = 0; i < _tablesData.size(); i++) {
+                // create the cursor of each table in the query
+                _tablesData.get(i).init(tablesEntries.get(i));
             }
 
 
@@ -499,6 +559,20 @@ public class JoinedQueryExecutor
             return currentEntry;
         }
 
+        /**
+         * @return the nested loop order, starting at the sequence beginning
+         */
+        public JoinInfo getJoinInfo() {
+            JoinInfo info = new JoinInfo(JoinInfo.JoinStrategy.NESTED_LOOP);
+            for (QueryTableData tableData = _tableData; tableData != null; tableData = tableData.getJoinTable()) {
+                if (tableData.getJoinCondition() != null)
+                    info.addStep("Join " + tableData.getTableName() + " on " + tableData.getJoinCondition());
+                else
+                    info.addStep("Scan " + tableData.getTableName());
+            }
+            return info;
+        }
+
         public void close() {
             for (QueryTableData t : _tablesData) {
                 t.clear();
@@ -300,9 +300,22 @@ public class QueryTableData {
     public void init(ISpaceProxy space, Transaction txn, AbstractDMLQuery query)
             throws Exception {
 
-        IQueryResultSet<IEntryPacket> tableEntries = getTemplate(query.getQueryResultType()).readMultiple(
+        init(readEntries(space, txn, query));
+    }
+
+    /**
+     * Fetch the entries from space that match this table condition, without creating a cursor
+     */
+    public IQueryResultSet<IEntryPacket> readEntries(ISpaceProxy space, Transaction txn, AbstractDMLQuery query)
+            throws Exception {
+        return getTemplate(query.getQueryResultType()).readMultiple(
                 space, txn, Integer.MAX_VALUE, query.getReadModifier());
+    }
 
+    /**
+     * Create the cursor of this table over entries that were already fetched
+     */
+    public void init(IQueryResultSet<IEntryPacket> tableEntries) {
         if (_joinCondition != null)
             setEntriesCursor(_joinCondition.createIndex(this, tableEntries));
         else
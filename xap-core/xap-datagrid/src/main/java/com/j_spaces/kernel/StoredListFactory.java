@@ -83,6 +83,15 @@ public final class StoredListFactory {
         return new ConcurrentStoredList<T>(false /* segmented*/, supportsFifo);
     }
 
+    /**
+     * Creates a lock free stored list - used for highly contended lists, scans are in fifo order.
+     *
+     * @return LockFreeStoredList
+     */
+    public static <T> IStoredList<T> createLockFreeList() {
+        return new LockFreeStoredList<T>();
+    }
+
     /**
      * Creates a concurrent segmented stored list - used for highly concurrent lists.
      *
@@ -256,6 +256,90 @@ public class SystemProperties extends CommonSystemProperties {
      */
     public final static int LRMI_CACHED_BUFFER_EXPUNGE_TIMES_THRESHOLD_DEFAULT = 20;
 
+    /**
+     * Execute incoming LRMI invocations on virtual threads instead of the LRMI connection thread
+     * pool, when the JVM supports virtual threads. Falls back to the thread pool otherwise.
+     */
+    public final static String LRMI_VIRTUAL_THREADS_ENABLED = "com.gs.transport_protocol.lrmi.virtual-threads.enabled";
+
+    /**
+     * Default value for {@link #LRMI_VIRTUAL_THREADS_ENABLED}
+     */
+    public final static boolean LRMI_VIRTUAL_THREADS_ENABLED_DEFAULT = false;
+
+    /**
+     * Maximum number of LRMI invocations which execute concurrently on virtual threads. Once
+     * reached, dispatching further invocations blocks until a running invocation completes, which
+     * stops reading new requests from the connections.
+     */
+    public final static String LRMI_VIRTUAL_THREADS_MAX_CONCURRENT = "com.gs.transport_protocol.lrmi.virtual-threads.max-concurrent";
+
+    /**
+     * Default value for {@link #LRMI_VIRTUAL_THREADS_MAX_CONCURRENT}
+     */
+    public final static int LRMI_VIRTUAL_THREADS_MAX_CONCURRENT_DEFAULT = 10000;
+
+    /**
+     * Marshal LRMI packets directly into pooled direct buffers instead of heap byte arrays.
+     */
+    public final static String LRMI_DIRECT_BUFFERS_ENABLED = "com.gs.transport_protocol.lrmi.direct-buffers.enabled";
+
+    /**
+     * Default value for {@link #LRMI_DIRECT_BUFFERS_ENABLED}
+     */
+    public final static boolean LRMI_DIRECT_BUFFERS_ENABLED_DEFAULT = false;
+
+    /**
+     * The size in bytes of each pooled direct buffer.
+     */
+    public final static String LRMI_DIRECT_BUFFER_SIZE = "com.gs.transport_protocol.lrmi.direct-buffers.buffer-size";
+
+    /**
+     * Default value for {@link #LRMI_DIRECT_BUFFER_SIZE}
+     */
+    public final static int LRMI_DIRECT_BUFFER_SIZE_DEFAULT = 64 * 1024;
+
+    /**
+     * The maximum number of direct buffers kept in the pool of each connection.
+     */
+    public final static String LRMI_DIRECT_BUFFER_POOL_SIZE = "com.gs.transport_protocol.lrmi.direct-buffers.pool-size";
+
+    /**
+     * Default value for {@link #LRMI_DIRECT_BUFFER_POOL_SIZE}
+     */
+    public final static int LRMI_DIRECT_BUFFER_POOL_SIZE_DEFAULT = 16;
+
+    /**
+     * The block compression codec used by {@link com.gigaspaces.lrmi.nio.filters.IOStreamBlockCompressionFilterFactory},
+     * either lz4 or zstd (requires zstd-jni in the classpath).
+     */
+    public final static String LRMI_COMPRESSION_CODEC = "com.gs.transport_protocol.lrmi.compression.codec";
+
+    /**
+     * Default value for {@link #LRMI_COMPRESSION_CODEC}
+     */
+    public final static String LRMI_COMPRESSION_CODEC_DEFAULT = "lz4";
+
+    /**
+     * LRMI packets smaller than this size in bytes are sent uncompressed.
+     */
+    public final static String LRMI_COMPRESSION_THRESHOLD = "com.gs.transport_protocol.lrmi.compression.threshold";
+
+    /**
+     * Default value for {@link #LRMI_COMPRESSION_THRESHOLD}
+     */
+    public final static int LRMI_COMPRESSION_THRESHOLD_DEFAULT = 1024;
+
+    /**
+     * The zstd compression level (1-22), higher levels compress better and slower.
+     */
+    public final static String COMPRESSION_ZSTD_LEVEL = "com.gs.compression.zstd.level";
+
+    /**
+     * Default value for {@link #COMPRESSION_ZSTD_LEVEL}
+     */
+    public final static int COMPRESSION_ZSTD_LEVEL_DEFAULT = 3;
+
     /**
      * The default size to maximum queue length for incoming connection indications.
      */
@@ -303,6 +387,13 @@ public class SystemProperties extends CommonSystemProperties {
     public final static String SPACE_ITERATOR_TYPE = "com.gs.iterator.type";
     public final static String SPACE_ITERATOR_TYPE_DEFAULT = SpaceIteratorType.CURSOR.toString();
 
+    /**
+     * Number of batches each partition fetches ahead of the consumer of a CURSOR space iterator.
+     * Defaults to 0, a partition's next batch is fetched only when its current batch is consumed.
+     */
+    public final static String SPACE_ITERATOR_PREFETCH_BATCHES = "com.gs.iterator.prefetch-batches";
+    public final static int SPACE_ITERATOR_PREFETCH_BATCHES_DEFAULT = 0;
+
     /**
      * Set to true in order to enable lrmi class loading for all purposes, set to false to disable
      * it. Defaults to true
@@ -406,6 +497,23 @@ public class SystemProperties extends CommonSystemProperties {
 
     public final static String STORAGE_TYPE_SERIALIZATION_ZIP_IDEMPOTENT = "com.gs.client.storage-type-serialization.zip.idempotent";
 
+    /**
+     * The block compression codec used to compress values serialized for storage types, either lz4
+     * or zstd (requires zstd-jni in the classpath).
+     */
+    public final static String STORAGE_TYPE_SERIALIZATION_BLOCK_COMPRESSION_CODEC = "com.gs.client.storage-type-serialization.block-compression.codec";
+
+    /**
+     * Serialized values smaller than this size in bytes are stored uncompressed by the block
+     * compression codec.
+     */
+    public final static String STORAGE_TYPE_SERIALIZATION_BLOCK_COMPRESSION_THRESHOLD = "com.gs.client.storage-type-serialization.block-compression.threshold";
+
+    /**
+     * Default value for {@link #STORAGE_TYPE_SERIALIZATION_BLOCK_COMPRESSION_THRESHOLD}
+     */
+    public final static int STORAGE_TYPE_SERIALIZATION_BLOCK_COMPRESSION_THRESHOLD_DEFAULT = 256;
+
     public static final String AES_PASSPHRASE = "com.gs.property-storage.aes.passphrase";
     public static final String AES_PASSPHRASE_PATH = "com.gs.property-storage.aes.passphrase-path";
     public static final String AES_KEY_LENGTH = "com.gs.property-storage.aes.key-length";
@@ -492,6 +600,16 @@ public class SystemProperties extends CommonSystemProperties {
     public final static String
         RECORDING_OF_ALL_METRICS_TO_HSQLDB_ENABLED = "com.gs.hsqldb.all-metrics-recording.enabled";
 
+    /**
+     * Enables the latency histogram metrics of space operations, per operation and per space type.
+     * Disabled by default, since recording adds a clock read and a histogram update to every
+     * operation.
+     *
+     * @since 15.5
+     */
+    public final static String SPACE_OPERATIONS_LATENCY_METRICS_ENABLED = "com.gs.space.operations.latency-metrics.enabled";
+    public final static boolean SPACE_OPERATIONS_LATENCY_METRICS_ENABLED_DEFAULT = false;
+
     /**
      * System variable for look&feel class definition
      */
@@ -655,6 +773,37 @@ public class SystemProperties extends CommonSystemProperties {
      */
     public final static int ENGINE_LRU_SEGMENTS_DEFAULT = 5 * Runtime.getRuntime().availableProcessors() + 1;
 
+    /**
+     * Number of worker threads shared by all parallel aggregations of a space, also used as the
+     * parallelism of an aggregation which requests the server default.
+     *
+     * @since 15.5
+     */
+    public final static String ENGINE_AGGREGATION_THREADS = "com.gs.engine.aggregation.threads";
+
+    /**
+     * Default number of parallel aggregation threads is Runtime.getRuntime().availableProcessors().
+     */
+    public final static int ENGINE_AGGREGATION_THREADS_DEFAULT = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Number of matched entries handed to a parallel aggregation worker at once.
+     *
+     * @since 15.5
+     */
+    public final static String ENGINE_AGGREGATION_BATCH_SIZE = "com.gs.engine.aggregation.batchSize";
+
+    public final static int ENGINE_AGGREGATION_BATCH_SIZE_DEFAULT = 512;
+
+    /**
+     * Comma separated list of type names which keep a columnar copy of their numeric and indexed
+     * properties, used to run count/sum/min/max/group by aggregations without visiting entries.
+     * Applies to in-memory (all in cache) spaces only. Empty by default.
+     *
+     * @since 15.5
+     */
+    public final static String ENGINE_COLUMNAR_TYPES = "com.gs.engine.columnar.types";
+
     /**
      * are the before/after remove filters general and not only for lease cancel/expiration
      */
@@ -697,6 +846,31 @@ public class SystemProperties extends CommonSystemProperties {
      */
     public final static int CACHE_MANAGER_HASHMAP_SEGMENTS_DEFAULT = 64;
 
+    /**
+     * Use primitive keyed hash maps for equality indexes of long/int properties.
+     */
+    public final static String CACHE_MANAGER_PRIMITIVE_KEY_INDEX = "com.gs.cacheManager.primitiveKeyIndex";
+
+    public final static String CACHE_MANAGER_PRIMITIVE_KEY_INDEX_DEFAULT = "false";
+
+    /**
+     * Comma separated names of the non-unique indexes which keep the entries sharing an index value
+     * in a lock free stored list, "*" for all of them. Useful for low cardinality indexes which are
+     * heavily written and taken.
+     */
+    public final static String CACHE_MANAGER_LOCK_FREE_INDEX_LISTS = "com.gs.cacheManager.lockFreeIndexLists";
+
+    public final static String CACHE_MANAGER_LOCK_FREE_INDEX_LISTS_DEFAULT = "";
+
+    /**
+     * Index notify templates by every property they match by a fixed value, not only by the space
+     * indexes of their type. Useful when many notify templates are registered on properties which
+     * are not indexed.
+     */
+    public final static String CACHE_MANAGER_NOTIFY_TEMPLATES_INDEX = "com.gs.cacheManager.notifyTemplatesIndex";
+
+    public final static String CACHE_MANAGER_NOTIFY_TEMPLATES_INDEX_DEFAULT = "false";
+
     /**
      * The timeout that a caller to the lease manager reaper force cycle is ready to wait for the
      * cycle to be completed
@@ -770,6 +944,23 @@ public class SystemProperties extends CommonSystemProperties {
     public static final String REPLICATION_USE_BACKUP_BLOBSTORE_BULKS = "com.gs.replication.blobstore.use_backup_bulks";
     public static final String REPLICATION_USE_BACKUP_BLOBSTORE_BULKS_DEFAULT = "true";
 
+    /**
+     * Splits the entries stage of a space copy/recovery into streams (one per top level type) which
+     * are produced concurrently for the concurrent consumers of the target, source side.
+     */
+    public static final String REPLICATION_REPLICA_MULTI_STREAM = "com.gs.replication.replica.multi_stream";
+    public static final String REPLICATION_REPLICA_MULTI_STREAM_DEFAULT = "false";
+
+    /**
+     * Adapts the size of the batches fetched during space copy/recovery to the measured throughput,
+     * starting at the recovery chunk size and up to the max batch size, target side.
+     */
+    public static final String REPLICATION_REPLICA_ADAPTIVE_BATCH_SIZE = "com.gs.replication.replica.adaptive_batch_size";
+    public static final String REPLICATION_REPLICA_ADAPTIVE_BATCH_SIZE_DEFAULT = "false";
+
+    public static final String REPLICATION_REPLICA_MAX_BATCH_SIZE = "com.gs.replication.replica.max_batch_size";
+    public static final int REPLICATION_REPLICA_MAX_BATCH_SIZE_DEFAULT = 5000;
+
     public static final String DIRECT_PERSISTENCY_RECOVER_RETRIES = "com.gs.direct_persistency.recover_retries";
     public static final int DIRECT_PERSISTENCY_RECOVER_RETRIES_DEFAULT = 10;
 
@@ -0,0 +1,449 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.j_spaces.kernel.list;
+
+import com.gigaspaces.internal.utils.concurrent.UncheckedAtomicIntegerFieldUpdater;
+import com.gigaspaces.internal.utils.concurrent.UncheckedAtomicReferenceFieldUpdater;
+import com.gigaspaces.internal.utils.threadlocal.AbstractResource;
+import com.gigaspaces.internal.utils.threadlocal.PoolFactory;
+import com.gigaspaces.internal.utils.threadlocal.ThreadLocalPool;
+import com.j_spaces.kernel.IObjectInfo;
+import com.j_spaces.kernel.IStoredList;
+import com.j_spaces.kernel.IStoredListIterator;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A lock free stored list, used for the entries sharing a value of a non-unique index.
+ *
+ * Nodes are kept in a singly linked list from the oldest to the newest, new nodes are appended by
+ * CAS on the next reference of the last node. A removal only marks the node as removed (logical
+ * deletion), removed nodes are unlinked later by CAS on the next reference of their predecessor,
+ * either by scans passing over them or by a purge once they outnumber the live nodes. The last
+ * node is never unlinked, so an append can never be lost.
+ *
+ * Unlike {@link ConcurrentStoredList}, neither adds nor removes take a lock. Non random scans are
+ * in insertion (fifo) order. A random scan starts after the node returned first by the previous
+ * random scan and wraps around to the head, so concurrent scanners do not all compete for the
+ * oldest nodes. Each node carries its insertion sequence, which tells a wrapped scan where to stop
+ * even if its start node was unlinked meanwhile.
+ *
+ * @since 15.5
+ */
+@com.gigaspaces.api.InternalApi
+public class LockFreeStoredList<T> implements IStoredList<T> {
+    // removed nodes are purged once there are more of them than both this and the live nodes
+    private static final int MIN_REMOVED_TO_PURGE = 64;
+
+    private static final ThreadLocalPool<LockFreeListIterator> _SLHolderPool =
+            new ThreadLocalPool<LockFreeListIterator>(new LockFreeListIteratorFactory());
+
+    private static final AtomicIntegerFieldUpdater<LockFreeStoredList> sizeUpdater = UncheckedAtomicIntegerFieldUpdater.newUpdater(LockFreeStoredList.class, "_size");
+    private static final AtomicIntegerFieldUpdater<LockFreeStoredList> removedUpdater = UncheckedAtomicIntegerFieldUpdater.newUpdater(LockFreeStoredList.class, "_removed");
+    private static final AtomicReferenceFieldUpdater<LockFreeStoredList, Node> tailUpdater = UncheckedAtomicReferenceFieldUpdater.newUpdater(LockFreeStoredList.class, Node.class, "_tail");
+
+    // dummy node, never removed
+    private final Node<T> _head;
+    // a hint to the last node - the actual last node is reachable from it
+    private volatile Node<T> _tail;
+    // the next random scan starts after this node
+    private volatile Node<T> _randomScanStart;
+    private volatile int _size;
+    // number of removed nodes which may still be linked
+    private volatile int _removed;
+    private final byte _healthCheck;
+
+    public LockFreeStoredList() {
+        _head = new Node<T>(null, (byte) 0);
+        _tail = _head;
+        _randomScanStart = _head;
+        _healthCheck = (byte) System.identityHashCode(this);
+    }
+
+    static class Node<T> implements IObjectInfo<T> {
+        private static final int INSERTED = 0;
+        private static final int REMOVED = 1;
+
+        private static final AtomicReferenceFieldUpdater<Node, Node> nextUpdater = UncheckedAtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "_next");
+        private static final AtomicIntegerFieldUpdater<Node> statusUpdater = UncheckedAtomicIntegerFieldUpdater.newUpdater(Node.class, "_status");
+
+        private volatile T _subject;
+        private volatile Node<T> _next;
+        private volatile int _status;
+        // insertion sequence, increasing from the head to the last node
+        private long _seq;
+        private final byte _healthCheck;
+
+        Node(T subject, byte healthCheck) {
+            _subject = subject;
+            _healthCheck = healthCheck;
+        }
+
+        @Override
+        public void setSubject(T subject) {
+            _subject = subject;
+        }
+
+        @Override
+        public T getSubject() {
+            return _subject;
+        }
+
+        boolean isRemoved() {
+            return _status == REMOVED;
+        }
+
+        boolean markRemoved() {
+            return statusUpdater.compareAndSet(this, INSERTED, REMOVED);
+        }
+
+        Node<T> getNext() {
+            return _next;
+        }
+
+        boolean casNext(Node<T> expect, Node<T> update) {
+            return nextUpdater.compareAndSet(this, expect, update);
+        }
+    }
+
+    @Override
+    public int size() {
+        return Math.max(_size, 0);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public IObjectInfo<T> add(T subject) {
+        if (sizeUpdater.incrementAndGet(this) < 0) {
+            // list was invalidated
+            _size = Integer.MIN_VALUE;
+            return null;
+        }
+        Node<T> node = new Node<T>(subject, _healthCheck);
+        Node<T> tail = _tail;
+        Node<T> last = tail;
+        while (true) {
+            Node<T> next = last.getNext();
+            if (next != null) {
+                last = next;
+                continue;
+            }
+            // published by the cas below
+            node._seq = last._seq + 1;
+            if (last.casNext(null, node))
+                break;
+        }
+        // the tail is only a hint, a failure means another add already moved it further
+        tailUpdater.compareAndSet(this, tail, node);
+        return node;
+    }
+
+    @Override
+    public IObjectInfo<T> addUnlocked(T subject) {
+        return add(subject);
+    }
+
+    @Override
+    public void remove(IObjectInfo<T> oi) {
+        removeImpl(oi);
+        oi.setSubject(null);
+    }
+
+    @Override
+    public void removeUnlocked(IObjectInfo<T> oi) {
+        removeImpl(oi);
+    }
+
+    private void removeImpl(IObjectInfo<T> oi) {
+        Node<T> node = (Node<T>) oi;
+        if (node._healthCheck != _healthCheck)
+            throw new IllegalStateException(
+                    "Object was changed without explicitly calling the space api. " +
+                            "XAP doesn't clone the objects for performance reasons, so if you want to change an object in the code that runs on the space, " +
+                            "please make sure you clone the object before the change.");
+        if (!node.markRemoved())
+            throw new RuntimeException("LockFreeStoredList:remove node already removed");
+        onNodeRemoved();
+    }
+
+    private void onNodeRemoved() {
+        sizeUpdater.decrementAndGet(this);
+        int removed = removedUpdater.incrementAndGet(this);
+        if (removed > MIN_REMOVED_TO_PURGE && removed > _size && removedUpdater.compareAndSet(this, removed, 0))
+            purge();
+    }
+
+    /**
+     * Unlinks the removed nodes reachable from the head.
+     */
+    private void purge() {
+        Node<T> prev = _head;
+        for (Node<T> node = prev.getNext(); node != null; node = prev.getNext())
+            prev = unlinkIfRemoved(prev, node);
+    }
+
+    /**
+     * Tries to unlink the node if it is removed, and returns the predecessor of the nodes following
+     * it: prev if the node was unlinked, the node itself otherwise.
+     */
+    private Node<T> unlinkIfRemoved(Node<T> prev, Node<T> node) {
+        if (node.isRemoved()) {
+            Node<T> next = node.getNext();
+            // never unlink the last node - a concurrent add may be linking a node to it
+            if (next != null && prev.casNext(node, next))
+                return prev;
+        }
+        return node;
+    }
+
+    @Override
+    public boolean contains(T obj) {
+        for (Node<T> node = _head.getNext(); node != null; node = node.getNext()) {
+            if (node.isRemoved())
+                continue;
+            T other = node.getSubject();
+            if (other != null && other.equals(obj))
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean removeByObject(T obj) {
+        for (Node<T> node = _head.getNext(); node != null; node = node.getNext()) {
+            if (node.isRemoved())
+                continue;
+            T other = node.getSubject();
+            if (other != null && other.equals(obj) && node.markRemoved()) {
+                onNodeRemoved();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets an indication that this StoredList is invalid.
+     *
+     * if {@linkplain #isEmpty() isEmpty()} returns true, the indication is set; otherwise the
+     * indication remains false.
+     *
+     * @return <code>true</code> if StoredList was set to invalid; <code>false</code> otherwise.
+     */
+    @Override
+    public boolean invalidate() {
+        return sizeUpdater.compareAndSet(this, 0, Integer.MIN_VALUE);
+    }
+
+    @Override
+    public IObjectInfo<T> getHead() {
+        Node<T> prev = _head;
+        for (Node<T> node = prev.getNext(); node != null; node = prev.getNext()) {
+            if (!node.isRemoved())
+                return node;
+            prev = unlinkIfRemoved(prev, node);
+        }
+        return null;
+    }
+
+    @Override
+    public T getObjectFromHead() {
+        IObjectInfo<T> head = getHead();
+        return head != null ? head.getSubject() : null;
+    }
+
+    @Override
+    public boolean optimizeScanForSingleObject() {
+        return size() <= 1;
+    }
+
+    @Override
+    public IStoredListIterator<T> establishListScan(boolean randomScan) {
+        return establishListScan(randomScan, false);
+    }
+
+    @Override
+    public IStoredListIterator<T> establishListScan(boolean randomScan, boolean alternatingThread) {
+        LockFreeListIterator<T> slh = alternatingThread ? new LockFreeListIterator<T>(true) : _SLHolderPool.get();
+        slh._prev = _head;
+        if (randomScan) {
+            Node<T> start = _randomScanStart;
+            if (start != _head && !start.isRemoved()) {
+                slh._prev = start;
+                slh._wrapSeq = start._seq;
+            }
+        }
+        // avoid endless scans while entries are added concurrently
+        slh._scanLimit = alternatingThread ? Integer.MAX_VALUE : (size() * 5 + 1);
+        if (nextPos(slh)) {
+            if (randomScan)
+                _randomScanStart = slh._cur;
+            return slh;
+        }
+        slh.release();
+        return null;
+    }
+
+    @Override
+    public IStoredListIterator<T> next(IStoredListIterator<T> slh) {
+        LockFreeListIterator<T> iter = (LockFreeListIterator<T>) slh;
+        if (nextPos(iter))
+            return iter;
+        slh.release();
+        return null;
+    }
+
+    private boolean nextPos(LockFreeListIterator<T> iter) {
+        // move past the last returned node, unless it was unlinked meanwhile
+        Node<T> prev = iter._cur != null ? iter._cur : iter._prev;
+        iter._cur = null;
+        iter._subject = null;
+        while (true) {
+            Node<T> node = prev.getNext();
+            if (node == null) {
+                // a random scan which did not start at the head continues from it up to its start
+                if (iter._wrapSeq < 0 || iter._wrapped)
+                    return false;
+                iter._wrapped = true;
+                prev = _head;
+                continue;
+            }
+            if (iter._wrapped && node._seq > iter._wrapSeq)
+                return false;
+            if (node.isRemoved()) {
+                prev = unlinkIfRemoved(prev, node);
+                continue;
+            }
+            T subject = node.getSubject();
+            if (subject != null) {
+                if (--iter._scanLimit < 0)
+                    return false;
+                iter._prev = prev;
+                iter._cur = node;
+                iter._subject = subject;
+                return true;
+            }
+            prev = node;
+        }
+    }
+
+    @Override
+    public void freeSLHolder(IStoredListIterator<T> slh) {
+        if (slh != null)
+            slh.release();
+    }
+
+    @Override
+    public boolean isMultiObjectCollection() {
+        return true;
+    }
+
+    @Override
+    public boolean isIterator() {
+        return false;
+    }
+
+    public void dump(Logger logger, String msg) {
+        if (logger.isLoggable(Level.INFO)) {
+            logger.info(msg);
+
+            IStoredListIterator<T> slh = null;
+            try {
+                for (slh = establishListScan(false); slh != null; slh = next(slh)) {
+                    T subject = slh.getSubject();
+                    if (subject != null)
+                        logger.info(subject.getClass().getName());
+                }
+            } finally {
+                if (slh != null)
+                    slh.release();
+            }
+        }
+    }
+
+    private static class LockFreeListIteratorFactory implements PoolFactory<LockFreeListIterator> {
+        public LockFreeListIterator create() {
+            return new LockFreeListIterator(false);
+        }
+    }
+
+    static class LockFreeListIterator<T>
+            extends AbstractResource
+            implements IStoredListIterator<T> {
+        private final boolean _alternatingThread;
+        private Node<T> _prev;
+        private Node<T> _cur;
+        private T _subject;
+        private int _scanLimit;
+        // sequence of the node a random scan started after, -1 if the scan started at the head
+        private long _wrapSeq = -1;
+        private boolean _wrapped;
+
+        LockFreeListIterator(boolean alternatingThread) {
+            _alternatingThread = alternatingThread;
+        }
+
+        @Override
+        protected void clean() {
+            _prev = null;
+            _cur = null;
+            _subject = null;
+            _scanLimit = 0;
+            _wrapSeq = -1;
+            _wrapped = false;
+        }
+
+        public void setSubject(T subject) {
+            throw new RuntimeException("invalid usage");
+        }
+
+        public T getSubject() {
+            return _subject;
+        }
+
+        @Override
+        public void release() {
+            if (_alternatingThread)
+                return;
+            super.release();
+        }
+    }
+
+    //+++++++ HASH ENTRY METHODS- unsupported for basic SL
+    public int getHashCode(int id) {
+        throw new RuntimeException(" unsupported");
+    }
+
+    public Object getKey(int id) {
+        throw new RuntimeException(" unsupported");
+    }
+
+    public IStoredList<T> getValue(int id) {
+        throw new RuntimeException(" unsupported");
+    }
+
+    public boolean isNativeHashEntry() {
+        return false;
+    }
+}
@@ -23,6 +23,7 @@ import com.j_spaces.kernel.threadpool.policy.TimedBlockingPolicy;
 import com.j_spaces.kernel.threadpool.queue.DynamicQueue;
 
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -229,6 +230,30 @@ public class DynamicExecutors {
         return new DynamicThreadFactory(namePrefix, priority);
     }
 
+    /**
+     * Creates an executor which runs each task on a new virtual thread, on JVMs which support
+     * virtual threads (Java 21 and later). Virtual threads are cheap to block, so the number of
+     * tasks which wait concurrently is not bound by a number of threads.
+     *
+     * @param namePrefix a name prefix for the threads, followed by a running number
+     * @return a virtual thread per task executor, or null if virtual threads are not supported by
+     * this JVM
+     * @since 15.5
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor(String namePrefix) {
+        try {
+            // accessed reflectively since the code is compiled for older JVMs
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix + "-", 1L);
+            ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, threadFactory);
+        } catch (Exception e) {
+            // older JVM, or a JVM on which virtual threads are a preview feature which is not enabled
+            return null;
+        }
+    }
+
     /**
      * Cannot instantiate.
      */
@@ -55,6 +55,8 @@
 							<max-scan-length>51200</max-scan-length>
 							<max-open-cursors>10</max-open-cursors>
 							<writer-buffer-size>262144</writer-buffer-size>
+							<storage-type>raf</storage-type>
+							<mapped-window-size>4194304</mapped-window-size>
 						</swap-redo-log>
 						<on-redo-log-capacity-exceeded>block-operations</on-redo-log-capacity-exceeded>
 						<on-missing-packets>ignore</on-missing-packets>
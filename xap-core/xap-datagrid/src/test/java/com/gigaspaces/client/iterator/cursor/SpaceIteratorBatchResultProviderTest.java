@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.client.iterator.cursor;
+
+import com.gigaspaces.async.AsyncFutureListener;
+import com.gigaspaces.async.internal.DefaultAsyncResult;
+import com.gigaspaces.internal.client.SpaceIteratorBatchResult;
+import com.gigaspaces.internal.client.spaceproxy.IDirectSpaceProxy;
+import com.gigaspaces.internal.client.spaceproxy.ISpaceProxy;
+import com.gigaspaces.internal.cluster.SpaceClusterInfo;
+import com.gigaspaces.internal.remoting.routing.partitioned.PartitionedClusterUtils;
+import com.gigaspaces.internal.transport.ITemplatePacket;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+
+public class SpaceIteratorBatchResultProviderTest {
+
+    private static final int BATCH_SIZE = 2;
+    private static final int NO_PARTITION = PartitionedClusterUtils.NO_PARTITION;
+
+    @Test
+    public void prefetchedBatchReplyDoesNotOvertakeItsPredecessor() throws Exception {
+        final UUID uuid = UUID.randomUUID();
+        final AtomicInteger requests = new AtomicInteger();
+        // replies to the request of batch 1 before the execute call returns, i.e. before the reply
+        // of batch 0 is done being handled
+        ISpaceProxy spaceProxy = spaceProxy(new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                int batchNumber = requests.getAndIncrement();
+                if (batchNumber == 1)
+                    ((AsyncFutureListener<SpaceIteratorBatchResult>) args[3]).onResult(
+                            new DefaultAsyncResult<SpaceIteratorBatchResult>(fullBatch(1, uuid), null));
+                return null;
+            }
+        });
+
+        SpaceIteratorBatchResultProvider provider = new SpaceIteratorBatchResultProvider(spaceProxy, BATCH_SIZE, 1, 0,
+                mock(ITemplatePacket.class), uuid, 60000);
+        Assert.assertEquals("Batch 0 should be requested on creation", 1, requests.get());
+
+        provider.addAsyncBatchResult(new DefaultAsyncResult<SpaceIteratorBatchResult>(fullBatch(0, uuid), null));
+        Assert.assertEquals("Batch 1 should be prefetched", 2, requests.get());
+
+        Assert.assertEquals(0, provider.consumeBatch(1000).getBatchNumber());
+        Assert.assertEquals(1, provider.consumeBatch(1000).getBatchNumber());
+    }
+
+    @Test
+    public void prefetchWaitsForConsumer() throws Exception {
+        final UUID uuid = UUID.randomUUID();
+        final AtomicInteger requests = new AtomicInteger();
+        ISpaceProxy spaceProxy = spaceProxy(new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                requests.incrementAndGet();
+                return null;
+            }
+        });
+
+        SpaceIteratorBatchResultProvider provider = new SpaceIteratorBatchResultProvider(spaceProxy, BATCH_SIZE, 1, 0,
+                mock(ITemplatePacket.class), uuid, 60000);
+        provider.addAsyncBatchResult(new DefaultAsyncResult<SpaceIteratorBatchResult>(fullBatch(0, uuid), null));
+        provider.addAsyncBatchResult(new DefaultAsyncResult<SpaceIteratorBatchResult>(fullBatch(1, uuid), null));
+        Assert.assertEquals("Batch 2 waits until a batch is consumed", 2, requests.get());
+
+        SpaceIteratorBatchResult batch = provider.consumeBatch(1000);
+        provider.onBatchConsumed(batch);
+        Assert.assertEquals(3, requests.get());
+    }
+
+    private static SpaceIteratorBatchResult fullBatch(int batchNumber, UUID uuid) {
+        return new SpaceIteratorBatchResult(new Object[BATCH_SIZE], NO_PARTITION, batchNumber, uuid);
+    }
+
+    /**
+     * Creates an embedded space proxy whose execute calls are handled by the specified handler.
+     */
+    private static ISpaceProxy spaceProxy(final InvocationHandler executeHandler) {
+        final SpaceClusterInfo clusterInfo = new SpaceClusterInfo();
+        return (ISpaceProxy) Proxy.newProxyInstance(ISpaceProxy.class.getClassLoader(), new Class[]{ISpaceProxy.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("getDirectProxy"))
+                    return Proxy.newProxyInstance(IDirectSpaceProxy.class.getClassLoader(), new Class[]{IDirectSpaceProxy.class}, new InvocationHandler() {
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) {
+                            return method.getName().equals("getSpaceClusterInfo") ? clusterInfo : null;
+                        }
+                    });
+                if (method.getName().equals("execute"))
+                    return executeHandler.invoke(proxy, method, args);
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.client.storage_adapters;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BlockCompressionAdapterTest {
+
+    @Test
+    public void roundTrip() throws Exception {
+        List<String> value = new ArrayList<String>();
+        for (int i = 0; i < 1000; i++)
+            value.add("item-" + (i % 10));
+        PropertyStorageAdapter adapter = new BlockCompressionAdapter();
+        Object stored = adapter.toSpace(value);
+        Assert.assertTrue(stored instanceof BinaryWrapper);
+        Assert.assertEquals(value, adapter.fromSpace(stored));
+    }
+
+    @Test
+    public void base64RoundTrip() throws Exception {
+        PropertyStorageAdapter adapter = new BlockCompressionAdapter() {
+            @Override
+            public boolean useBase64Wrapper() {
+                return true;
+            }
+        };
+        Object stored = adapter.toSpace("small value");
+        Assert.assertTrue(stored instanceof String);
+        Assert.assertEquals("small value", adapter.fromSpace(stored));
+    }
+}
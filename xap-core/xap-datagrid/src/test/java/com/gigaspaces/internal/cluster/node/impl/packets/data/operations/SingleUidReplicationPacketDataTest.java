@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.cluster.node.impl.packets.data.operations;
+
+import com.gigaspaces.internal.version.PlatformLogicalVersion;
+import com.gigaspaces.lrmi.LRMIInvocationContext;
+import com.gigaspaces.lrmi.LRMIInvocationContext.InvocationStage;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+public class SingleUidReplicationPacketDataTest {
+
+    private static final String UID = "A2^1792261779773^1234567";
+
+    @After
+    public void resetContext() {
+        LRMIInvocationContext.resetContext();
+    }
+
+    @Test
+    public void swapFormatDoesNotDependOnTheInvocationEndpoint() throws Exception {
+        EvictReplicationPacketData packet = new EvictReplicationPacketData("MyType", UID, false, null, null);
+        // swapped while serving an older endpoint, read back outside of any invocation
+        setEndpointLogicalVersion(PlatformLogicalVersion.v15_0_0);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        packet.writeToSwap(out);
+        out.flush();
+        LRMIInvocationContext.resetContext();
+
+        EvictReplicationPacketData result = new EvictReplicationPacketData();
+        result.readFromSwap(new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        Assert.assertEquals(UID, result.getUid());
+        Assert.assertEquals("MyType", result.getTypeName());
+    }
+
+    @Test
+    public void wireFormatFollowsTheInvocationEndpoint() throws Exception {
+        EvictReplicationPacketData packet = new EvictReplicationPacketData("MyType", UID, false, null, null);
+        byte[] current = writeExternal(packet);
+        setEndpointLogicalVersion(PlatformLogicalVersion.v15_0_0);
+        byte[] old = writeExternal(packet);
+        Assert.assertTrue("older endpoints receive the uid as a string", old.length > current.length);
+
+        EvictReplicationPacketData result = new EvictReplicationPacketData();
+        result.readExternal(new ObjectInputStream(new ByteArrayInputStream(old)));
+        Assert.assertEquals(UID, result.getUid());
+    }
+
+    private static void setEndpointLogicalVersion(PlatformLogicalVersion version) {
+        LRMIInvocationContext.updateContext(null, null, InvocationStage.INVOCATION_HANDLING, version, null, false, null, null);
+    }
+
+    private static byte[] writeExternal(EvictReplicationPacketData packet) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        packet.writeExternal(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.internal.cluster.node.impl.replica;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AdaptiveReplicaBatchSizeTest {
+
+    @Test
+    public void growsWhileThroughputHoldsUpToMax() {
+        AdaptiveReplicaBatchSize batchSize = new AdaptiveReplicaBatchSize(100, 300);
+        Assert.assertEquals(150, batchSize.onBatchCompleted(100, 100, 1000));
+        Assert.assertEquals(225, batchSize.onBatchCompleted(150, 150, 1500));
+        Assert.assertEquals(300, batchSize.onBatchCompleted(225, 225, 2000));
+        Assert.assertEquals(300, batchSize.onBatchCompleted(300, 300, 2500));
+    }
+
+    @Test
+    public void backsOffWhenThroughputDegrades() {
+        AdaptiveReplicaBatchSize batchSize = new AdaptiveReplicaBatchSize(100, 1000);
+        Assert.assertEquals(150, batchSize.onBatchCompleted(100, 100, 1000));
+        // 150 items took 3 times longer per item
+        Assert.assertEquals(112, batchSize.onBatchCompleted(150, 150, 4500));
+        // never below the initial size
+        Assert.assertEquals(100, batchSize.onBatchCompleted(112, 112, 100000));
+    }
+
+    @Test
+    public void ignoresPartialBatches() {
+        AdaptiveReplicaBatchSize batchSize = new AdaptiveReplicaBatchSize(100, 1000);
+        Assert.assertEquals(100, batchSize.onBatchCompleted(100, 10, 1));
+        Assert.assertEquals(100, batchSize.getBatchSize());
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.internal.cluster.node.impl.replica;
+
+import com.gigaspaces.internal.cluster.node.impl.replica.data.AbstractEntryReplicaData;
+import com.j_spaces.core.cluster.IReplicationFilterEntry;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.Mockito.mock;
+
+public class MultiStreamEntryReplicaProducerTest {
+
+    // the stream and position of each produced entry
+    private final Map<AbstractEntryReplicaData, Position> _positions = Collections.synchronizedMap(new IdentityHashMap<AbstractEntryReplicaData, Position>());
+
+    @Test
+    public void streamIsHeldUntilReleased() throws Exception {
+        final MultiStreamEntryReplicaProducer producer = producer(2, 10);
+        Position first = produce(producer);
+        Assert.assertEquals(first._stream, produce(producer)._stream);
+
+        // another thread is served from the other stream while this thread holds its stream
+        Position other = produceInOtherThread(producer);
+        Assert.assertNotEquals(first._stream, other._stream);
+
+        producer.releaseStream();
+        // the released stream is not lost, its entries continue where they stopped
+        Position next = produce(producer);
+        producer.releaseStream();
+        Assert.assertEquals(next._stream.equals(first._stream) ? 2 : 1, next._index);
+    }
+
+    @Test
+    public void exhaustedStreamContinuesFromAnotherStream() {
+        MultiStreamEntryReplicaProducer producer = producer(3, 2);
+        List<Position> positions = new ArrayList<Position>();
+        AbstractEntryReplicaData data;
+        while ((data = producer.produceNextData(null)) != null)
+            positions.add(_positions.get(data));
+        producer.releaseStream();
+        Assert.assertEquals(6, positions.size());
+        // each stream is produced whole before moving to the next one
+        for (int i = 0; i < positions.size(); i++) {
+            Assert.assertEquals(positions.get(i - i % 2)._stream, positions.get(i)._stream);
+            Assert.assertEquals(i % 2, positions.get(i)._index);
+        }
+        Assert.assertEquals(Integer.valueOf(2), producer.getStreamsProgress().get("type0"));
+        Assert.assertNull(producer.produceNextData(null));
+    }
+
+    @Test(timeout = 10000)
+    public void waitsForHeldStreamInsteadOfEndingTheStage() throws Exception {
+        final MultiStreamEntryReplicaProducer producer = producer(1, 3);
+        produce(producer);
+
+        final CountDownLatch produced = new CountDownLatch(1);
+        final AtomicReference<Position> other = new AtomicReference<Position>();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                other.set(_positions.get(producer.produceNextData(null)));
+                producer.releaseStream();
+                produced.countDown();
+            }
+        });
+        thread.start();
+        Assert.assertFalse(produced.await(100, TimeUnit.MILLISECONDS));
+
+        producer.releaseStream();
+        Assert.assertTrue(produced.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(1, other.get()._index);
+    }
+
+    @Test
+    public void fifoBatchesOfAStreamAreNumberedInProductionOrder() throws Exception {
+        final MultiStreamEntryReplicaProducer producer = producer(3, 500);
+        final AtomicInteger fifoIdGenerator = new AtomicInteger();
+        final Map<Integer, List<Position>> batches = Collections.synchronizedMap(new LinkedHashMap<Integer, List<Position>>());
+        Thread[] consumers = new Thread[4];
+        for (int i = 0; i < consumers.length; i++) {
+            consumers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    while (true) {
+                        // the way the replica handler produces a fifo batch
+                        List<Position> batch = new ArrayList<Position>();
+                        AbstractEntryReplicaData data;
+                        while (batch.size() < 7 && (data = producer.produceNextData(null)) != null)
+                            batch.add(_positions.get(data));
+                        if (!batch.isEmpty())
+                            batches.put(fifoIdGenerator.incrementAndGet(), batch);
+                        producer.releaseStream();
+                        if (batch.isEmpty())
+                            return;
+                    }
+                }
+            });
+            consumers[i].start();
+        }
+        for (Thread consumer : consumers)
+            consumer.join(10000);
+
+        Map<String, Integer> nextIndex = new LinkedHashMap<String, Integer>();
+        for (int fifoId = 1; fifoId <= fifoIdGenerator.get(); fifoId++) {
+            for (Position position : batches.get(fifoId)) {
+                Integer expected = nextIndex.get(position._stream);
+                Assert.assertEquals(position._stream, expected == null ? 0 : expected.intValue(), position._index);
+                nextIndex.put(position._stream, position._index + 1);
+            }
+        }
+        Assert.assertEquals(3, nextIndex.size());
+        for (Integer count : nextIndex.values())
+            Assert.assertEquals(500, count.intValue());
+    }
+
+    private Position produce(MultiStreamEntryReplicaProducer producer) {
+        return _positions.get(producer.produceNextData(null));
+    }
+
+    private Position produceInOtherThread(final MultiStreamEntryReplicaProducer producer) throws InterruptedException {
+        final AtomicReference<Position> result = new AtomicReference<Position>();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                result.set(produce(producer));
+                producer.releaseStream();
+            }
+        });
+        thread.start();
+        thread.join(10000);
+        return result.get();
+    }
+
+    private MultiStreamEntryReplicaProducer producer(int streams, int entriesPerStream) {
+        Map<String, StreamProducer> streamProducers = new LinkedHashMap<String, StreamProducer>();
+        for (int i = 0; i < streams; i++)
+            streamProducers.put("type" + i, new StreamProducer("type" + i, entriesPerStream));
+        return new MultiStreamEntryReplicaProducer(null, streamProducers);
+    }
+
+    private static class Position {
+        private final String _stream;
+        private final int _index;
+
+        private Position(String stream, int index) {
+            this._stream = stream;
+            this._index = index;
+        }
+    }
+
+    private class StreamProducer implements ISingleStageReplicaDataProducer<AbstractEntryReplicaData> {
+        private final String _name;
+        private final int _size;
+        private int _next;
+
+        private StreamProducer(String name, int size) {
+            this._name = name;
+            this._size = size;
+        }
+
+        @Override
+        public AbstractEntryReplicaData produceNextData(ISynchronizationCallback synchCallback) {
+            if (_next == _size)
+                return null;
+            AbstractEntryReplicaData data = mock(AbstractEntryReplicaData.class);
+            _positions.put(data, new Position(_name, _next++));
+            return data;
+        }
+
+        @Override
+        public CloseStatus close(boolean forced) {
+            return CloseStatus.CLOSED;
+        }
+
+        @Override
+        public IReplicationFilterEntry toFilterEntry(AbstractEntryReplicaData data) {
+            return null;
+        }
+
+        @Override
+        public String dumpState() {
+            return _name;
+        }
+
+        @Override
+        public String getName() {
+            return _name;
+        }
+    }
+}
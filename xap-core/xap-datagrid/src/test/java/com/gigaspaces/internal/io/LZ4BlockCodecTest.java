@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.internal.io;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+public class LZ4BlockCodecTest {
+
+    private final BlockCompressionCodec codec = LZ4BlockCodec.INSTANCE;
+
+    @Test
+    public void compressibleBlock() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++)
+            sb.append("entry-").append(i % 17).append(";routing=").append(i % 3).append('\n');
+        byte[] data = sb.toString().getBytes("UTF-8");
+        byte[] encoded = codec.encode(data, 0);
+        Assert.assertTrue(encoded.length < data.length / 2);
+        Assert.assertArrayEquals(data, codec.decode(encoded));
+    }
+
+    @Test
+    public void longRuns() throws IOException {
+        byte[] data = new byte[100000];
+        Arrays.fill(data, 0, 70000, (byte) 7);
+        for (int i = 70000; i < data.length; i++)
+            data[i] = (byte) (i % 3);
+        assertRoundTrip(data, 0);
+    }
+
+    @Test
+    public void incompressibleBlockIsRaw() throws IOException {
+        byte[] data = new byte[4096];
+        new Random(42).nextBytes(data);
+        byte[] encoded = codec.encode(data, 0);
+        Assert.assertEquals(data.length + 1, encoded.length);
+        Assert.assertArrayEquals(data, codec.decode(encoded));
+    }
+
+    @Test
+    public void belowThresholdIsRaw() throws IOException {
+        byte[] data = new byte[100];
+        byte[] encoded = codec.encode(data, 101);
+        Assert.assertEquals(data.length + 1, encoded.length);
+        Assert.assertArrayEquals(data, codec.decode(encoded));
+    }
+
+    @Test
+    public void smallAndEmptyBlocks() throws IOException {
+        Random random = new Random(7);
+        for (int length = 0; length < 64; length++) {
+            byte[] data = new byte[length];
+            for (int i = 0; i < length; i++)
+                data[i] = (byte) random.nextInt(3);
+            assertRoundTrip(data, 0);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void corruptedBlock() throws IOException {
+        byte[] data = new byte[1000];
+        Arrays.fill(data, (byte) 1);
+        byte[] encoded = codec.encode(data, 0);
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length - 3);
+        codec.decode(truncated);
+    }
+
+    @Test(expected = IOException.class)
+    public void oversizedLengthIsRejected() throws IOException {
+        byte[] data = new byte[1000];
+        Arrays.fill(data, (byte) 1);
+        byte[] encoded = codec.encode(data, 0);
+        // claim a length no block of this size can decompress to
+        encoded[1] = (byte) 0x7F;
+        codec.decode(encoded);
+    }
+
+    private void assertRoundTrip(byte[] data, int threshold) throws IOException {
+        Assert.assertArrayEquals(data, codec.decode(codec.encode(data, threshold)));
+    }
+}
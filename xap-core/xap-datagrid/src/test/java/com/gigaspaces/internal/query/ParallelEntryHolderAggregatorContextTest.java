@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.internal.query;
+
+import com.gigaspaces.internal.metadata.EntryType;
+import com.gigaspaces.internal.metadata.EntryTypeDesc;
+import com.gigaspaces.internal.metadata.ITypeDesc;
+import com.gigaspaces.internal.server.storage.IEntryData;
+import com.gigaspaces.query.aggregators.CountAggregator;
+import com.gigaspaces.query.aggregators.GroupByAggregator;
+import com.gigaspaces.query.aggregators.GroupByResult;
+import com.gigaspaces.query.aggregators.SpaceEntriesAggregator;
+import com.gigaspaces.query.aggregators.SumAggregator;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+public class ParallelEntryHolderAggregatorContextTest {
+
+    private static final int ENTRIES = 10000;
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private final EntryTypeDesc entryTypeDesc = new EntryTypeDesc(EntryType.DOCUMENT_JAVA, proxy(ITypeDesc.class, null));
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void mergesWorkerResults() throws Exception {
+        List<SpaceEntriesAggregator> aggregators = createAggregators();
+        ParallelEntryHolderAggregatorContext context = new ParallelEntryHolderAggregatorContext(aggregators, null, 0, pool, 4, 16);
+        for (int i = 0; i < ENTRIES; i++)
+            context.scan(createEntry(i), "uid" + i, false);
+        context.finish();
+
+        List<SpaceEntriesAggregator> expected = createAggregators();
+        EntryHolderAggregatorContext sequentialContext = new EntryHolderAggregatorContext(expected, null, 0);
+        for (int i = 0; i < ENTRIES; i++)
+            sequentialContext.scan(createEntry(i), "uid" + i, false);
+
+        Assert.assertEquals(expected.get(0).getFinalResult(), aggregators.get(0).getFinalResult());
+        Assert.assertEquals(expected.get(1).getFinalResult(), aggregators.get(1).getFinalResult());
+        GroupByResult expectedGroups = (GroupByResult) expected.get(2).getFinalResult();
+        GroupByResult groups = (GroupByResult) aggregators.get(2).getFinalResult();
+        Assert.assertEquals(7, groups.size());
+        for (int group = 0; group < 7; group++)
+            Assert.assertEquals(expectedGroups.get(group).getLong("count(*)"), groups.get(group).getLong("count(*)"));
+    }
+
+    @Test
+    public void emptyScanLeavesAggregatorsUntouched() throws Exception {
+        List<SpaceEntriesAggregator> aggregators = createAggregators();
+        ParallelEntryHolderAggregatorContext context = new ParallelEntryHolderAggregatorContext(aggregators, null, 0, pool, 4, 16);
+        context.finish();
+        Assert.assertEquals(0L, aggregators.get(0).getFinalResult());
+        Assert.assertNull(aggregators.get(1).getFinalResult());
+    }
+
+    @Test
+    public void workerFailureIsReportedByFinish() throws Exception {
+        Executor failingExecutor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                throw new RejectedExecutionException("shutdown");
+            }
+        };
+        ParallelEntryHolderAggregatorContext context = new ParallelEntryHolderAggregatorContext(createAggregators(), null, 0, failingExecutor, 2, 4);
+        for (int i = 0; i < 100; i++)
+            context.scan(createEntry(i), "uid" + i, false);
+        try {
+            context.finish();
+            Assert.fail("Expected RejectedExecutionException");
+        } catch (RejectedExecutionException e) {
+            Assert.assertEquals("shutdown", e.getMessage());
+        }
+    }
+
+    private static List<SpaceEntriesAggregator> createAggregators() {
+        List<SpaceEntriesAggregator> aggregators = new ArrayList<SpaceEntriesAggregator>();
+        aggregators.add(new CountAggregator());
+        aggregators.add(new SumAggregator().setPath("value"));
+        aggregators.add(new GroupByAggregator().groupBy("group").selectCount());
+        return aggregators;
+    }
+
+    private IEntryData createEntry(int i) {
+        Map<String, Object> properties = new HashMap<String, Object>();
+        properties.put("value", (long) i);
+        properties.put("group", i % 7);
+        return proxy(IEntryData.class, properties);
+    }
+
+    private <T> T proxy(Class<T> type, final Map<String, Object> properties) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class[]{type}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("getPathValue"))
+                    return properties.get(args[0]);
+                if (method.getName().equals("getEntryTypeDesc"))
+                    return entryTypeDesc;
+                return method.getReturnType() == boolean.class ? Boolean.FALSE : null;
+            }
+        }));
+    }
+}
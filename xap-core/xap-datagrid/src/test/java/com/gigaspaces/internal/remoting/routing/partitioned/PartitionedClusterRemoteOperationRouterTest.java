@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.internal.remoting.routing.partitioned;
+
+import com.gigaspaces.internal.remoting.RemoteOperationFutureListener;
+import com.gigaspaces.internal.remoting.RemoteOperationRequest;
+import com.gigaspaces.internal.remoting.RemoteOperationResult;
+import com.gigaspaces.internal.remoting.routing.RemoteOperationRouter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+public class PartitionedClusterRemoteOperationRouterTest {
+    private static final int NUM_OF_PARTITIONS = 3;
+
+    @Test
+    public void scatterWithoutChunks() throws Exception {
+        FakeRequest request = execute(0, 100);
+        Assert.assertEquals(NUM_OF_PARTITIONS, request.numOfPartitionResults);
+        request.assertAllIndexesProcessed();
+    }
+
+    @Test
+    public void scatterInBoundedChunks() throws Exception {
+        FakeRequest request = execute(7, 100);
+        // 34 values for partition 0 (5 chunks), 33 for partitions 1 and 2 (5 chunks each)
+        Assert.assertEquals(15, request.numOfPartitionResults);
+        Assert.assertTrue(request.maxChunkSize <= 7);
+        request.assertAllIndexesProcessed();
+    }
+
+    @Test
+    public void chunksNotSupportedByRequest() throws Exception {
+        FakeRequest request = new FakeRequest(100, false);
+        execute(7, request);
+        Assert.assertEquals(NUM_OF_PARTITIONS, request.numOfPartitionResults);
+        request.assertAllIndexesProcessed();
+    }
+
+    private static FakeRequest execute(int chunkSize, int numOfValues) throws Exception {
+        FakeRequest request = new FakeRequest(numOfValues, true);
+        execute(chunkSize, request);
+        return request;
+    }
+
+    private static void execute(final int chunkSize, FakeRequest request) throws Exception {
+        final Deque<Object[]> pending = new ArrayDeque<Object[]>();
+        final int[] inFlight = new int[NUM_OF_PARTITIONS];
+        final int maxChunksInFlight = 2;
+        RemoteOperationRouter[] partitions = new RemoteOperationRouter[NUM_OF_PARTITIONS];
+        for (int i = 0; i < partitions.length; i++) {
+            final int partitionId = i;
+            partitions[i] = (RemoteOperationRouter) Proxy.newProxyInstance(RemoteOperationRouter.class.getClassLoader(),
+                    new Class[]{RemoteOperationRouter.class}, new InvocationHandler() {
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) {
+                            if (!method.getName().equals("executeAsync"))
+                                throw new UnsupportedOperationException(method.getName());
+                            Assert.assertTrue("Too many chunks in flight", ++inFlight[partitionId] <= maxChunksInFlight);
+                            pending.add(args);
+                            return null;
+                        }
+                    });
+        }
+        PartitionedClusterRemoteOperationRouter router = new PartitionedClusterRemoteOperationRouter("test", partitions,
+                new CoordinatorFactory(), false, 1, null) {
+            @Override
+            public int getBatchChunkSize() {
+                return chunkSize;
+            }
+
+            @Override
+            public int getBatchMaxChunksInFlight() {
+                return maxChunksInFlight;
+            }
+        };
+
+        RemoteOperationFutureListener<FakeResult> listener = router.createFutureListener(request, null);
+        router.executeAsync(request, listener);
+        // Complete requests in arrival order, as a remote partition would:
+        while (!pending.isEmpty()) {
+            Object[] args = pending.poll();
+            FakeRequest partitionRequest = (FakeRequest) args[0];
+            inFlight[partitionRequest.getPartitionInfo().getPartitionId()]--;
+            partitionRequest.setRemoteOperationResult(new FakeResult());
+            ((RemoteOperationFutureListener<FakeResult>) args[1]).onOperationCompletion(partitionRequest, null);
+        }
+        Assert.assertTrue(listener.isDone());
+        Assert.assertEquals(Boolean.TRUE, listener.get());
+    }
+
+    private static class FakeResult implements RemoteOperationResult {
+        private Exception _exception;
+
+        @Override
+        public Exception getExecutionException() {
+            return _exception;
+        }
+
+        @Override
+        public void setExecutionException(Exception exception) {
+            _exception = exception;
+        }
+    }
+
+    private static class FakeRequest implements ScatterGatherRemoteOperationRequest<FakeResult> {
+        private final int _numOfValues;
+        private final boolean _supportsChunks;
+        private final boolean[] _processed;
+        private ScatterGatherPartitionInfo _partitionInfo;
+        private FakeResult _result;
+        private int numOfPartitionResults;
+        private int maxChunkSize;
+
+        private FakeRequest(int numOfValues, boolean supportsChunks) {
+            this._numOfValues = numOfValues;
+            this._supportsChunks = supportsChunks;
+            this._processed = new boolean[numOfValues];
+        }
+
+        private void assertAllIndexesProcessed() {
+            for (int i = 0; i < _processed.length; i++)
+                Assert.assertTrue("index " + i + " was not processed", _processed[i]);
+        }
+
+        @Override
+        public void scatterIndexesToPartitions(ScatterGatherOperationFutureListener<FakeResult> listener) {
+            for (int i = 0; i < _numOfValues; i++)
+                listener.mapIndexToPartition(i, i % NUM_OF_PARTITIONS, this);
+        }
+
+        @Override
+        public void loadPartitionData(ScatterGatherRemoteOperationRequest<FakeResult> mainRequest) {
+        }
+
+        @Override
+        public ScatterGatherPartitionInfo getPartitionInfo() {
+            return _partitionInfo;
+        }
+
+        @Override
+        public boolean processPartitionResult(ScatterGatherRemoteOperationRequest<FakeResult> partitionRequest,
+                                              List<ScatterGatherRemoteOperationRequest<FakeResult>> previousRequests) {
+            ScatterGatherPartitionInfo partitionInfo = partitionRequest.getPartitionInfo();
+            for (int i = 0; i < partitionInfo.size(); i++) {
+                int index = partitionInfo.getQuick(i);
+                Assert.assertEquals(partitionInfo.getPartitionId(), index % NUM_OF_PARTITIONS);
+                Assert.assertFalse("index " + index + " was processed twice", _processed[index]);
+                _processed[index] = true;
+            }
+            numOfPartitionResults++;
+            maxChunkSize = Math.max(maxChunkSize, partitionInfo.size());
+            return true;
+        }
+
+        @Override
+        public boolean supportsPartitionChunks() {
+            return _supportsChunks;
+        }
+
+        @Override
+        public RemoteOperationRequest<FakeResult> createCopy(int targetPartitionId) {
+            FakeRequest copy = new FakeRequest(0, _supportsChunks);
+            copy._partitionInfo = new ScatterGatherPartitionInfo(targetPartitionId);
+            return copy;
+        }
+
+        @Override
+        public Object getAsyncFinalResult() {
+            return Boolean.TRUE;
+        }
+
+        @Override
+        public PartitionedClusterExecutionType getPartitionedClusterExecutionType() {
+            return PartitionedClusterExecutionType.SCATTER_CONCURRENT;
+        }
+
+        @Override
+        public FakeResult getRemoteOperationResult() {
+            return _result;
+        }
+
+        @Override
+        public void setRemoteOperationResult(FakeResult remoteOperationResult) {
+            _result = remoteOperationResult;
+        }
+
+        @Override
+        public int getOperationCode() {
+            return 0;
+        }
+
+        @Override
+        public FakeResult createRemoteOperationResult() {
+            return new FakeResult();
+        }
+
+        @Override
+        public void setRemoteOperationExecutionError(Exception error) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isBlockingOperation() {
+            return false;
+        }
+
+        @Override
+        public boolean processUnknownTypeException(List<Integer> positions) {
+            return false;
+        }
+
+        @Override
+        public Object getPartitionedClusterRoutingValue(PartitionedClusterRemoteOperationRouter router) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean requiresPartitionedPreciseDistribution() {
+            return false;
+        }
+
+        @Override
+        public int getPreciseDistributionGroupingCode() {
+            return 0;
+        }
+
+        @Override
+        public boolean processPartitionResult(FakeResult remoteOperationResult, List<FakeResult> previousResults, int numOfPartitions) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isDedicatedPoolRequired() {
+            return false;
+        }
+
+        @Override
+        public String getLRMIMethodTrackingId() {
+            return "fake";
+        }
+    }
+}
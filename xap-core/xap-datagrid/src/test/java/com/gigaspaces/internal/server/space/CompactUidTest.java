@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.internal.server.space;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+public class CompactUidTest {
+
+    @Test
+    public void generatedUids() throws Exception {
+        for (String memberId : new String[]{null, "1", "2_1", "65535_30"}) {
+            SpaceUidFactory factory = new SpaceUidFactory(memberId);
+            for (int i = 0; i < 20; i++) {
+                String uid = factory.generateUid();
+                Assert.assertEquals(uid, SpaceUidFactory.PREFIX_AUTO + (memberId == null ? "0" : memberId)
+                        + SpaceUidFactory.SEPARATOR + factory.getTimeStamp() + SpaceUidFactory.SEPARATOR + (i + 1), uid);
+                assertRoundTrip(uid, true);
+            }
+        }
+    }
+
+    @Test
+    public void otherUids() throws Exception {
+        assertRoundTrip(null, false);
+        assertRoundTrip("", false);
+        assertRoundTrip(SpaceUidFactory.generateUid(SpaceUidFactory.generateTypePrefix("com.example.Person"), "17"), false);
+        // not in canonical form, or out of the compact form range
+        assertRoundTrip("A01^1500000000000^1", false);
+        assertRoundTrip("A1^1500000000000^0", false);
+        assertRoundTrip("A1^1500000000000^007", false);
+        assertRoundTrip("A65536^1500000000000^1", false);
+        assertRoundTrip("A1_31^1500000000000^1", false);
+        assertRoundTrip("A1_2_3^1500000000000^1", false);
+        assertRoundTrip("A1^-1500000000000^1", false);
+        assertRoundTrip("A^1500000000000^1", false);
+        assertRoundTrip("A1^1500000000000^1234567890123456789", false);
+        assertRoundTrip("B1^1500000000000^1", false);
+    }
+
+    @Test
+    public void largestCompactUids() throws Exception {
+        assertRoundTrip("A65535_30^4398046511103^999999999999999999", true);
+        assertRoundTrip("A0^0^1", true);
+    }
+
+    @Test
+    public void generatedUidLongerThanBuffer() {
+        StringBuilder memberId = new StringBuilder();
+        for (int i = 0; i < 100; i++)
+            memberId.append('7');
+        SpaceUidFactory factory = new SpaceUidFactory(memberId.toString());
+        Assert.assertEquals(SpaceUidFactory.PREFIX_AUTO + memberId + SpaceUidFactory.SEPARATOR
+                + factory.getTimeStamp() + SpaceUidFactory.SEPARATOR + 1, factory.generateUid());
+        // a shorter uid generated afterwards must not contain leftovers of the longer one
+        SpaceUidFactory shortFactory = new SpaceUidFactory("3");
+        Assert.assertEquals(SpaceUidFactory.PREFIX_AUTO + "3" + SpaceUidFactory.SEPARATOR
+                + shortFactory.getTimeStamp() + SpaceUidFactory.SEPARATOR + 1, shortFactory.generateUid());
+    }
+
+    private static void assertRoundTrip(String uid, boolean compact) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.flush();
+        int headerLength = bytes.size();
+        CompactUid.writeUid(out, uid);
+        out.flush();
+        // the data is written in a single block, with a 2 bytes block header
+        int length = bytes.size() - headerLength - 2;
+        // code byte and two longs
+        Assert.assertEquals(uid, compact, length == 17);
+
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        Assert.assertEquals(uid, CompactUid.readUid(in));
+    }
+}
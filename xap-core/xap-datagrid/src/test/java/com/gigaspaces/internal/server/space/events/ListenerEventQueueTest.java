@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.internal.server.space.events;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ListenerEventQueueTest {
+
+    @Test
+    public void offerFailsWhenFull() {
+        AtomicLong totalSize = new AtomicLong();
+        ListenerEventQueue queue = new ListenerEventQueue(null, 2, 10, totalSize);
+        Assert.assertTrue(queue.offer(packet()));
+        Assert.assertTrue(queue.offer(packet()));
+        Assert.assertFalse("Queue is full", queue.offer(packet()));
+        Assert.assertEquals(2, queue.size());
+        Assert.assertEquals(2, totalSize.get());
+    }
+
+    @Test
+    public void scheduledOnceUntilDrained() throws Exception {
+        AtomicLong totalSize = new AtomicLong();
+        ListenerEventQueue queue = new ListenerEventQueue(null, 10, 10, totalSize);
+        RemoteEventBusPacket first = packet();
+        RemoteEventBusPacket second = packet();
+        queue.offer(first);
+        RemoteEventBusPacket drainPacket = queue.schedule();
+        Assert.assertNotNull(drainPacket);
+        queue.offer(second);
+        Assert.assertNull("Already scheduled", queue.schedule());
+
+        RecordingDispatcher dispatcher = new RecordingDispatcher();
+        drainPacket.execute(dispatcher);
+        Assert.assertEquals(2, dispatcher.dispatched.size());
+        Assert.assertSame(first, dispatcher.dispatched.get(0));
+        Assert.assertSame(second, dispatcher.dispatched.get(1));
+        Assert.assertTrue(dispatcher.redispatched.isEmpty());
+        Assert.assertEquals(0, totalSize.get());
+
+        queue.offer(packet());
+        Assert.assertSame("Drained queue should be scheduled again", drainPacket, queue.schedule());
+    }
+
+    @Test
+    public void drainPassIsLimited() throws Exception {
+        AtomicLong totalSize = new AtomicLong();
+        ListenerEventQueue queue = new ListenerEventQueue(null, 10, 3, totalSize);
+        for (int i = 0; i < 7; i++)
+            queue.offer(packet());
+        RemoteEventBusPacket drainPacket = queue.schedule();
+        RecordingDispatcher dispatcher = new RecordingDispatcher();
+
+        drainPacket.execute(dispatcher);
+        Assert.assertEquals(3, dispatcher.dispatched.size());
+        Assert.assertEquals(1, dispatcher.redispatched.size());
+        Assert.assertSame(drainPacket, dispatcher.redispatched.get(0));
+        Assert.assertEquals(4, totalSize.get());
+        Assert.assertNull("Still scheduled while redispatched", queue.schedule());
+
+        drainPacket.execute(dispatcher);
+        drainPacket.execute(dispatcher);
+        Assert.assertEquals(7, dispatcher.dispatched.size());
+        Assert.assertEquals(2, dispatcher.redispatched.size());
+        Assert.assertEquals(0, queue.size());
+        Assert.assertEquals(0, totalSize.get());
+        queue.offer(packet());
+        Assert.assertSame(drainPacket, queue.schedule());
+    }
+
+    private static RemoteEventBusPacket packet() {
+        return new RemoteEventBusPacket(null, null, 0, null, false);
+    }
+
+    private static class RecordingDispatcher extends SpaceDataEventDispatcher {
+        private final List<RemoteEventBusPacket> dispatched = new ArrayList<RemoteEventBusPacket>();
+        private final List<RemoteEventBusPacket> redispatched = new ArrayList<RemoteEventBusPacket>();
+
+        private RecordingDispatcher() {
+            super(null);
+        }
+
+        @Override
+        public void dispatch(RemoteEventBusPacket packet) {
+            dispatched.add(packet);
+        }
+
+        @Override
+        void redispatch(RemoteEventBusPacket packet) {
+            redispatched.add(packet);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.internal.server.space.eviction;
+
+import com.gigaspaces.server.eviction.EvictableServerEntry;
+import com.gigaspaces.server.eviction.SpaceEvictionManager;
+import com.gigaspaces.server.eviction.SpaceEvictionStrategyConfig;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class ClockLruSpaceEvictionStrategyTest {
+
+    @Test
+    public void referencedEntriesGetSecondChance() {
+        final ClockLruSpaceEvictionStrategy strategy = new ClockLruSpaceEvictionStrategy(1);
+        final Set<String> evicted = new HashSet<String>();
+        initialize(strategy, evicted);
+        List<EvictableServerEntry> entries = new ArrayList<EvictableServerEntry>();
+        for (int i = 0; i < 10; i++) {
+            EvictableServerEntry entry = createEntry("uid" + i);
+            entries.add(entry);
+            strategy.onInsert(entry);
+        }
+        for (int i = 0; i < 5; i++)
+            strategy.onRead(entries.get(i));
+
+        Assert.assertEquals(5, strategy.evict(5));
+        Assert.assertEquals(5, strategy.size());
+        for (int i = 5; i < 10; i++)
+            Assert.assertTrue(evicted.contains("uid" + i));
+    }
+
+    @Test
+    public void evictsAcrossSegments() {
+        final ClockLruSpaceEvictionStrategy strategy = new ClockLruSpaceEvictionStrategy(4);
+        final Set<String> evicted = new HashSet<String>();
+        initialize(strategy, evicted);
+        for (int i = 0; i < 1000; i++) {
+            EvictableServerEntry entry = createEntry("uid" + i);
+            strategy.onLoad(entry);
+            strategy.onRead(entry);
+        }
+        Assert.assertEquals(600, strategy.evict(600));
+        Assert.assertEquals(600, evicted.size());
+        Assert.assertEquals(400, strategy.size());
+        Assert.assertEquals(400, strategy.evict(1000));
+        Assert.assertEquals(0, strategy.size());
+        Assert.assertEquals(0, strategy.evict(1));
+    }
+
+    private static void initialize(final ClockLruSpaceEvictionStrategy strategy, final Set<String> evicted) {
+        strategy.initialize(new SpaceEvictionManager() {
+            @Override
+            public boolean tryEvict(EvictableServerEntry entry) {
+                strategy.onRemove(entry);
+                evicted.add(entry.getUID());
+                return true;
+            }
+        }, new SpaceEvictionStrategyConfig(100));
+    }
+
+    private static EvictableServerEntry createEntry(final String uid) {
+        return (EvictableServerEntry) Proxy.newProxyInstance(EvictableServerEntry.class.getClassLoader(),
+                new Class[]{EvictableServerEntry.class}, new InvocationHandler() {
+                    private Object payload;
+
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("getUID"))
+                            return uid;
+                        if (method.getName().equals("getEvictionPayLoad"))
+                            return payload;
+                        if (method.getName().equals("setEvictionPayLoad"))
+                            payload = args[0];
+                        return null;
+                    }
+                });
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.server.space.recovery;
+
+import com.gigaspaces.internal.cluster.node.replica.ISpaceCopyResult;
+import com.gigaspaces.internal.cluster.node.replica.ISpaceSynchronizeReplicaState;
+import com.gigaspaces.internal.server.space.SpaceEngine;
+import com.gigaspaces.internal.server.space.SpaceImpl;
+import com.gigaspaces.internal.server.space.snapshot.SpaceSnapshotManager;
+import com.j_spaces.core.cache.CacheManager;
+import com.j_spaces.core.client.FinderException;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.rmi.RemoteException;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RecoveryManagerSnapshotTest {
+
+    private SpaceSnapshotManager snapshotManager;
+    private CacheManager cacheManager;
+    private RecoveryManager recoveryManager;
+
+    @Before
+    public void setUp() throws Exception {
+        snapshotManager = mock(SpaceSnapshotManager.class);
+        when(snapshotManager.isEnabled()).thenReturn(true);
+        when(snapshotManager.restore()).thenReturn(10L);
+        cacheManager = mock(CacheManager.class);
+        SpaceEngine engine = mock(SpaceEngine.class);
+        when(engine.getSnapshotManager()).thenReturn(snapshotManager);
+        when(engine.getCacheManager()).thenReturn(cacheManager);
+        SpaceImpl space = mock(SpaceImpl.class);
+        when(space.getEngine()).thenReturn(engine);
+        recoveryManager = new RecoveryManager(space);
+    }
+
+    @Test
+    public void restoresWhenNoSpaceWasFound() throws Exception {
+        Assert.assertTrue(recoveryManager.recoverFromSnapshot(null));
+        verify(snapshotManager).restore();
+    }
+
+    @Test
+    public void restoresWhenNoSpaceWasReachable() throws Exception {
+        Assert.assertTrue(recoveryManager.recoverFromSnapshot(failedRecovery(new FinderException("not found"))));
+        Assert.assertTrue(recoveryManager.recoverFromSnapshot(failedRecovery(new RemoteException("unreachable"))));
+    }
+
+    @Test
+    public void doesNotRestoreWhenCopyFromReachableSpaceFailed() throws Exception {
+        Assert.assertFalse(recoveryManager.recoverFromSnapshot(failedRecovery(new IllegalStateException("copy failed"))));
+        verify(snapshotManager, never()).restore();
+    }
+
+    @Test
+    public void doesNotRestoreAfterSuccessfulRecovery() throws Exception {
+        ISpaceCopyResult copyResult = mock(ISpaceCopyResult.class);
+        when(copyResult.isSuccessful()).thenReturn(true);
+        Assert.assertFalse(recoveryManager.recoverFromSnapshot(recoveryState(copyResult)));
+        verify(snapshotManager, never()).restore();
+    }
+
+    @Test
+    public void doesNotRestoreOverLoadedEntries() throws Exception {
+        when(cacheManager.getNumberOfEntries()).thenReturn(1);
+        Assert.assertFalse(recoveryManager.recoverFromSnapshot(null));
+        verify(snapshotManager, never()).restore();
+    }
+
+    private static ISpaceSynchronizeReplicaState failedRecovery(Exception failureReason) {
+        ISpaceCopyResult copyResult = mock(ISpaceCopyResult.class);
+        when(copyResult.isFailed()).thenReturn(true);
+        when(copyResult.getFailureReason()).thenReturn(failureReason);
+        return recoveryState(copyResult);
+    }
+
+    private static ISpaceSynchronizeReplicaState recoveryState(ISpaceCopyResult copyResult) {
+        ISpaceSynchronizeReplicaState recoveryState = mock(ISpaceSynchronizeReplicaState.class);
+        when(recoveryState.getCopyResult()).thenReturn(copyResult);
+        return recoveryState;
+    }
+}
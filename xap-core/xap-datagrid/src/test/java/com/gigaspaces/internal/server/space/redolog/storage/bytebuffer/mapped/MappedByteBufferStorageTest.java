@@ -0,0 +1,118 @@
+package com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.mapped;
+
+import com.gigaspaces.internal.cluster.node.impl.backlog.BacklogWeightPolicyFactory;
+import com.gigaspaces.internal.cluster.node.impl.backlog.globalorder.GlobalOrderDeletedBacklogPacket;
+import com.gigaspaces.internal.server.space.redolog.storage.StorageReadOnlyIterator;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.ByteBufferRedoLogFileConfig;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.ByteBufferRedoLogFileStorage;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.IByteBufferStorageCursor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class MappedByteBufferStorageTest {
+
+    private static final int WINDOW_SIZE = 4096;
+
+    @Test
+    public void writeAndReadAcrossWindows() throws Exception {
+        MappedByteBufferStorage storage = new MappedByteBufferStorage("mapped_test", WINDOW_SIZE);
+        try {
+            IByteBufferStorageCursor cursor = storage.getCursor();
+            byte[] large = new byte[3 * WINDOW_SIZE];
+            Arrays.fill(large, (byte) 5);
+            for (int i = 0; i < 1000; i++) {
+                cursor.writeInt(i);
+                cursor.writeLong(i * 31L);
+                cursor.writeByte((byte) i);
+            }
+            long largePosition = cursor.getPosition();
+            cursor.writeBytes(large, 0, large.length);
+            long end = cursor.getPosition();
+            Assert.assertEquals(1000 * 13 + large.length, end);
+
+            cursor.setPosition(0);
+            for (int i = 0; i < 1000; i++) {
+                Assert.assertEquals(i, cursor.readInt());
+                Assert.assertEquals(i * 31L, cursor.readLong());
+                Assert.assertEquals((byte) i, cursor.readByte());
+            }
+            byte[] result = new byte[large.length];
+            Assert.assertEquals(largePosition, cursor.getPosition());
+            cursor.readBytes(result, 0, result.length);
+            Assert.assertArrayEquals(large, result);
+
+            cursor.setPosition(13);
+            cursor.movePosition(13);
+            Assert.assertEquals(2, cursor.readInt());
+        } finally {
+            storage.close();
+        }
+    }
+
+    @Test
+    public void clearTruncatesAndCloseDeletes() throws Exception {
+        MappedByteBufferStorage storage = new MappedByteBufferStorage("mapped_test", WINDOW_SIZE);
+        File file = storage.getFile();
+        IByteBufferStorageCursor cursor = storage.getCursor();
+        cursor.writeLong(7);
+        cursor.close();
+        Assert.assertTrue(file.length() >= WINDOW_SIZE);
+
+        storage.clear();
+        Assert.assertEquals(0, file.length());
+        cursor = storage.getCursor();
+        Assert.assertEquals(0, cursor.getPosition());
+        cursor.writeLong(8);
+        cursor.setPosition(0);
+        Assert.assertEquals(8, cursor.readLong());
+
+        storage.close();
+        Assert.assertFalse(file.exists());
+    }
+
+    @Test
+    public void redoLogStorageOverMappedSegments() throws Exception {
+        ByteBufferRedoLogFileConfig<GlobalOrderDeletedBacklogPacket> config = new ByteBufferRedoLogFileConfig<GlobalOrderDeletedBacklogPacket>();
+        config.setMaxSizePerSegment(16 * 1024);
+        ByteBufferRedoLogFileStorage<GlobalOrderDeletedBacklogPacket> redoLog = new ByteBufferRedoLogFileStorage<GlobalOrderDeletedBacklogPacket>(
+                new MappedByteBufferStorageFactory("redolog_mapped_test", WINDOW_SIZE), config, BacklogWeightPolicyFactory.create("fixed"));
+        try {
+            for (long key = 0; key < 10000; key += 100) {
+                List<GlobalOrderDeletedBacklogPacket> batch = new ArrayList<GlobalOrderDeletedBacklogPacket>();
+                for (long i = key; i < key + 100; i++)
+                    batch.add(new GlobalOrderDeletedBacklogPacket(i, i));
+                redoLog.appendBatch(batch);
+            }
+            Assert.assertEquals(10000, redoLog.size());
+            long spaceUsed = redoLog.getSpaceUsed();
+            Assert.assertTrue(spaceUsed > config.getMaxSizePerSegment());
+
+            assertKeys(redoLog, 0, 10000);
+
+            redoLog.deleteOldestPackets(6000);
+            Assert.assertEquals(4000, redoLog.size());
+            Assert.assertTrue("confirmed segments should have been deleted", redoLog.getSpaceUsed() < spaceUsed);
+            assertKeys(redoLog, 6000, 10000);
+        } finally {
+            redoLog.close();
+        }
+    }
+
+    private static void assertKeys(ByteBufferRedoLogFileStorage<GlobalOrderDeletedBacklogPacket> redoLog, long from, long to) throws Exception {
+        StorageReadOnlyIterator<GlobalOrderDeletedBacklogPacket> iterator = redoLog.readOnlyIterator();
+        try {
+            for (long key = from; key < to; key++) {
+                Assert.assertTrue(iterator.hasNext());
+                Assert.assertEquals(key, iterator.next().getKey());
+            }
+            Assert.assertFalse(iterator.hasNext());
+        } finally {
+            iterator.close();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.server.space.snapshot;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+public class SpaceSnapshotFileTest {
+
+    private File _directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        _directory = File.createTempFile("snapshot", "test");
+        Assert.assertTrue(_directory.delete());
+        Assert.assertTrue(_directory.mkdirs());
+    }
+
+    @After
+    public void deleteDirectory() {
+        File[] files = _directory.listFiles();
+        if (files != null) {
+            for (File file : files)
+                file.delete();
+        }
+        _directory.delete();
+    }
+
+    @Test
+    public void readsWrittenRecords() throws IOException {
+        SpaceSnapshotWriter writer = new SpaceSnapshotWriter(_directory, 1000);
+        Assert.assertEquals(0, writer.writeType("type-a"));
+        Assert.assertEquals(1, writer.writeType("type-b"));
+        writer.writeEntry(1, Long.MAX_VALUE, "entry-1");
+        writer.writeEntry(0, 5000, "entry-2");
+        Assert.assertFalse("snapshot is visible before commit", writer.getFile().exists());
+        writer.commit();
+        Assert.assertTrue(writer.getFile().exists());
+
+        SpaceSnapshotReader reader = new SpaceSnapshotReader(writer.getFile());
+        try {
+            Assert.assertEquals(1000, reader.getCreationTime());
+            Assert.assertTrue(reader.next());
+            Assert.assertTrue(reader.isTypeRecord());
+            Assert.assertEquals("type-a", reader.deserialize(reader.getPayload()));
+            Assert.assertTrue(reader.next());
+            Assert.assertEquals("type-b", reader.deserialize(reader.getPayload()));
+
+            Assert.assertTrue(reader.next());
+            Assert.assertFalse(reader.isTypeRecord());
+            Assert.assertEquals(1, reader.getTypeIndex());
+            Assert.assertEquals(Long.MAX_VALUE, reader.getExpirationTime());
+            byte[] first = reader.getPayload();
+            Assert.assertTrue(reader.next());
+            Assert.assertEquals(0, reader.getTypeIndex());
+            Assert.assertEquals(5000, reader.getExpirationTime());
+            // payloads are independent of each other
+            Assert.assertEquals("entry-2", reader.deserialize(reader.getPayload()));
+            Assert.assertEquals("entry-1", reader.deserialize(first));
+
+            Assert.assertFalse(reader.next());
+            Assert.assertEquals(2, reader.getEntriesCount());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void abortedSnapshotLeavesNoFile() throws IOException {
+        SpaceSnapshotWriter writer = new SpaceSnapshotWriter(_directory, 1000);
+        writer.writeType("type-a");
+        writer.abort();
+        Assert.assertEquals(0, _directory.listFiles().length);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTruncatedSnapshot() throws IOException {
+        SpaceSnapshotWriter writer = new SpaceSnapshotWriter(_directory, 1000);
+        writer.writeType("type-a");
+        writer.writeEntry(0, Long.MAX_VALUE, "entry-1");
+        writer.commit();
+        RandomAccessFile file = new RandomAccessFile(writer.getFile(), "rw");
+        try {
+            file.setLength(file.length() - 4);
+        } finally {
+            file.close();
+        }
+
+        SpaceSnapshotReader reader = new SpaceSnapshotReader(writer.getFile());
+        try {
+            while (reader.next()) {
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsCorruptedSnapshot() throws IOException {
+        SpaceSnapshotWriter writer = new SpaceSnapshotWriter(_directory, 1000);
+        writer.writeType("type-a");
+        writer.writeEntry(0, Long.MAX_VALUE, "entry-1");
+        writer.commit();
+        RandomAccessFile file = new RandomAccessFile(writer.getFile(), "rw");
+        try {
+            // flip a byte of the entry payload, the record structure stays valid
+            file.seek(file.length() - 30);
+            int value = file.read();
+            file.seek(file.length() - 30);
+            file.write(value ^ 0xFF);
+        } finally {
+            file.close();
+        }
+
+        SpaceSnapshotReader.validate(writer.getFile());
+    }
+
+    @Test
+    public void listsCompletedSnapshotsNewestFirst() throws IOException {
+        new SpaceSnapshotWriter(_directory, 1000).commit();
+        new SpaceSnapshotWriter(_directory, 3000).commit();
+        new SpaceSnapshotWriter(_directory, 2000).commit();
+        SpaceSnapshotWriter inProgress = new SpaceSnapshotWriter(_directory, 4000);
+
+        List<File> snapshots = SpaceSnapshotReader.listSnapshots(_directory);
+        inProgress.abort();
+        Assert.assertEquals(3, snapshots.size());
+        Assert.assertEquals("snapshot-3000.gsnap", snapshots.get(0).getName());
+        Assert.assertEquals("snapshot-2000.gsnap", snapshots.get(1).getName());
+        Assert.assertEquals("snapshot-1000.gsnap", snapshots.get(2).getName());
+    }
+}
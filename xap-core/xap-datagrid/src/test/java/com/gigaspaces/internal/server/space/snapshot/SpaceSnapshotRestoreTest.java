@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.server.space.snapshot;
+
+import com.gigaspaces.internal.metadata.EntryType;
+import com.gigaspaces.internal.metadata.ITypeDesc;
+import com.gigaspaces.internal.server.space.SpaceConfigReader;
+import com.gigaspaces.internal.server.space.SpaceEngine;
+import com.gigaspaces.internal.server.space.metadata.SpaceTypeManager;
+import com.gigaspaces.internal.transport.EntryPacket;
+import com.gigaspaces.internal.transport.IEntryPacket;
+import com.gigaspaces.metadata.SpaceTypeDescriptorBuilder;
+import com.j_spaces.core.SpaceContext;
+import com.j_spaces.core.cache.CacheManager;
+
+import net.jini.core.transaction.Transaction;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.j_spaces.core.Constants.CacheManager.CACHE_MANAGER_SNAPSHOT_DIR_PROP;
+import static com.j_spaces.core.Constants.CacheManager.CACHE_MANAGER_SNAPSHOT_RESTORE_THREADS_PROP;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SpaceSnapshotRestoreTest {
+
+    private File _root;
+    private File _directory;
+    private SpaceEngine _engine;
+    private SpaceTypeManager _typeManager;
+    private final List<String> _written = Collections.synchronizedList(new ArrayList<String>());
+
+    @Before
+    public void setUp() throws Exception {
+        _root = File.createTempFile("snapshot", "test");
+        Assert.assertTrue(_root.delete());
+        _directory = new File(_root, "container_space");
+        Assert.assertTrue(_directory.mkdirs());
+
+        SpaceConfigReader configReader = mock(SpaceConfigReader.class);
+        when(configReader.getSpaceProperty(eq(CACHE_MANAGER_SNAPSHOT_DIR_PROP), anyString())).thenReturn(_root.getPath());
+        when(configReader.getIntSpaceProperty(eq(CACHE_MANAGER_SNAPSHOT_RESTORE_THREADS_PROP), anyString())).thenReturn(2);
+        when(configReader.getIntSpaceProperty(anyString(), anyString())).thenReturn(2);
+        CacheManager cacheManager = mock(CacheManager.class);
+        when(cacheManager.isMemorySpace()).thenReturn(true);
+        when(cacheManager.isAllInCachePolicy()).thenReturn(true);
+        _typeManager = mock(SpaceTypeManager.class);
+
+        _engine = mock(SpaceEngine.class);
+        when(_engine.getConfigReader()).thenReturn(configReader);
+        when(_engine.getCacheManager()).thenReturn(cacheManager);
+        when(_engine.getTypeManager()).thenReturn(_typeManager);
+        when(_engine.getFullSpaceName()).thenReturn("container:space");
+        when(_engine.write(any(IEntryPacket.class), any(Transaction.class), anyLong(), anyInt(), anyBoolean(), anyBoolean(), any(SpaceContext.class)))
+                .thenAnswer(new Answer<Object>() {
+                    @Override
+                    public Object answer(InvocationOnMock invocation) {
+                        _written.add(((IEntryPacket) invocation.getArguments()[0]).getUID());
+                        return null;
+                    }
+                });
+    }
+
+    @After
+    public void deleteDirectory() {
+        File[] files = _directory.listFiles();
+        if (files != null) {
+            for (File file : files)
+                file.delete();
+        }
+        _directory.delete();
+        _root.delete();
+    }
+
+    @Test
+    public void restoresLatestSnapshot() throws Exception {
+        ITypeDesc typeDesc = createTypeDesc("Person");
+        writeSnapshot(1000, typeDesc, "old-", 10);
+        writeSnapshot(2000, typeDesc, "new-", 2500);
+
+        Assert.assertEquals(2500, new SpaceSnapshotManager(_engine).restore());
+        verify(_typeManager).addTypeDesc(any(ITypeDesc.class));
+        Assert.assertEquals(2500, _written.size());
+        for (String uid : _written)
+            Assert.assertTrue(uid, uid.startsWith("new-"));
+    }
+
+    @Test
+    public void corruptedSnapshotFallsBackWithoutWritingItsEntries() throws Exception {
+        ITypeDesc typeDesc = createTypeDesc("Person");
+        writeSnapshot(1000, typeDesc, "old-", 10);
+        File corrupted = writeSnapshot(2000, typeDesc, "new-", 2500);
+        // corrupt an entry near the end of the file, after most of the entries were read
+        RandomAccessFile file = new RandomAccessFile(corrupted, "rw");
+        try {
+            long position = file.length() - 100;
+            file.seek(position);
+            int value = file.read();
+            file.seek(position);
+            file.write(value ^ 0xFF);
+        } finally {
+            file.close();
+        }
+
+        Assert.assertEquals(10, new SpaceSnapshotManager(_engine).restore());
+        Assert.assertEquals(10, _written.size());
+        for (String uid : _written)
+            Assert.assertTrue(uid, uid.startsWith("old-"));
+    }
+
+    @Test
+    public void noValidSnapshot() throws Exception {
+        File truncated = writeSnapshot(1000, createTypeDesc("Person"), "old-", 10);
+        RandomAccessFile file = new RandomAccessFile(truncated, "rw");
+        try {
+            file.setLength(file.length() - 8);
+        } finally {
+            file.close();
+        }
+
+        Assert.assertEquals(-1, new SpaceSnapshotManager(_engine).restore());
+        verify(_typeManager, never()).addTypeDesc(any(ITypeDesc.class));
+        Assert.assertTrue(_written.isEmpty());
+    }
+
+    private static ITypeDesc createTypeDesc(String typeName) {
+        return (ITypeDesc) new SpaceTypeDescriptorBuilder(typeName)
+                .idProperty("id")
+                .addFixedProperty("name", String.class)
+                .create();
+    }
+
+    private File writeSnapshot(long creationTime, ITypeDesc typeDesc, String uidPrefix, int entries) throws IOException {
+        SpaceSnapshotWriter writer = new SpaceSnapshotWriter(_directory, creationTime);
+        int typeIndex = writer.writeType(typeDesc);
+        for (int i = 0; i < entries; i++) {
+            Object[] values = new Object[typeDesc.getNumOfFixedProperties()];
+            values[typeDesc.getFixedPropertyPosition("id")] = uidPrefix + i;
+            values[typeDesc.getFixedPropertyPosition("name")] = "name-" + i;
+            writer.writeEntry(typeIndex, Long.MAX_VALUE,
+                    new EntryPacket(typeDesc, EntryType.DOCUMENT_JAVA, values, null, uidPrefix + i, 1, Long.MAX_VALUE, false));
+        }
+        writer.commit();
+        return writer.getFile();
+    }
+}
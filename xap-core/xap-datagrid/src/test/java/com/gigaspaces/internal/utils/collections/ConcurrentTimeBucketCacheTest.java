@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.utils.collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrentTimeBucketCacheTest {
+
+    @Test
+    public void slotsAreRoundedUpToPowerOfTwo() {
+        Assert.assertEquals(80, new ConcurrentTimeBucketCache<String>(10, 5).getHorizon());
+        Assert.assertEquals(40, new ConcurrentTimeBucketCache<String>(10, 4).getHorizon());
+    }
+
+    @Test
+    public void bucketsWithinHorizon() {
+        ConcurrentTimeBucketCache<String> cache = new ConcurrentTimeBucketCache<String>(10, 4);
+        long now = 1000;
+        Assert.assertTrue(cache.put(1010, "a", now));
+        Assert.assertTrue(cache.put(1020, "b", now));
+        Assert.assertFalse("Beyond the horizon", cache.put(1040, "c", now));
+        Assert.assertEquals("a", cache.get(1010));
+        Assert.assertEquals("b", cache.get(1020));
+        Assert.assertNull(cache.get(1040));
+        Assert.assertNull(cache.get(1030));
+
+        Assert.assertFalse("Mapped to another value", cache.remove(1010, "b"));
+        Assert.assertTrue(cache.remove(1010, "a"));
+        Assert.assertNull(cache.get(1010));
+    }
+
+    @Test
+    public void passedBucketsAreReplaced() {
+        ConcurrentTimeBucketCache<String> cache = new ConcurrentTimeBucketCache<String>(10, 4);
+        Assert.assertTrue(cache.put(1010, "a", 1000));
+        // one revolution later 1050 maps to the slot of 1010
+        Assert.assertTrue(cache.put(1050, "b", 1030));
+        Assert.assertNull(cache.get(1010));
+        Assert.assertEquals("b", cache.get(1050));
+        Assert.assertFalse("An older bucket should not replace a newer one", cache.put(1010, "a", 1000));
+        Assert.assertEquals("b", cache.get(1050));
+        Assert.assertFalse(cache.remove(1010, "a"));
+
+        Assert.assertTrue(cache.put(1050, "c", 1030));
+        Assert.assertEquals("c", cache.get(1050));
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.utils.collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class PrimitiveKeyConcurrentHashMapTest {
+
+    @Test
+    public void keyTypes() {
+        Assert.assertEquals(Long.class, PrimitiveKeyConcurrentHashMap.getPrimitiveKeyType(long.class));
+        Assert.assertEquals(Long.class, PrimitiveKeyConcurrentHashMap.getPrimitiveKeyType(Long.class));
+        Assert.assertEquals(Integer.class, PrimitiveKeyConcurrentHashMap.getPrimitiveKeyType(int.class));
+        Assert.assertEquals(Integer.class, PrimitiveKeyConcurrentHashMap.getPrimitiveKeyType(Integer.class));
+        Assert.assertNull(PrimitiveKeyConcurrentHashMap.getPrimitiveKeyType(String.class));
+        Assert.assertNull(PrimitiveKeyConcurrentHashMap.getPrimitiveKeyType(Object.class));
+    }
+
+    @Test
+    public void basicOperations() {
+        PrimitiveKeyConcurrentHashMap<String> map = new PrimitiveKeyConcurrentHashMap<String>(Long.class, 4);
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertNull(map.putIfAbsent(1L, "a"));
+        Assert.assertEquals("a", map.putIfAbsent(1L, "b"));
+        Assert.assertEquals("a", map.get(1L));
+        Assert.assertFalse(map.replace(1L, "b", "c"));
+        Assert.assertTrue(map.replace(1L, "a", "c"));
+        Assert.assertEquals("c", map.replace(1L, "d"));
+        Assert.assertNull(map.replace(2L, "d"));
+        Assert.assertFalse(map.remove(1L, "c"));
+        Assert.assertTrue(map.remove(1L, "d"));
+        Assert.assertNull(map.get(1L));
+        Assert.assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void keysOfOtherTypesAreNotMixed() {
+        PrimitiveKeyConcurrentHashMap<String> map = new PrimitiveKeyConcurrentHashMap<String>(Long.class, 4);
+        map.put(5L, "long");
+        Assert.assertNull("Integer key should not match a Long key, as in ConcurrentHashMap", map.get(5));
+        map.put(5, "int");
+        Assert.assertEquals("long", map.get(5L));
+        Assert.assertEquals("int", map.get(5));
+        Assert.assertEquals(2, map.size());
+        Assert.assertEquals("int", map.remove(5));
+        Assert.assertEquals(1, map.size());
+    }
+
+    @Test
+    public void matchesHashMapUnderRandomOperations() {
+        PrimitiveKeyConcurrentHashMap<Long> map = new PrimitiveKeyConcurrentHashMap<Long>(Long.class, 8);
+        Map<Long, Long> expected = new HashMap<Long, Long>();
+        Random random = new Random(17);
+        for (int i = 0; i < 200000; i++) {
+            // a small key range forces long probe chains and removals in the middle of them
+            long key = random.nextInt(5000) - 2500;
+            switch (random.nextInt(4)) {
+                case 0:
+                    Assert.assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+                    break;
+                case 1:
+                    Assert.assertEquals(expected.remove(key), map.remove(key));
+                    break;
+                case 2:
+                    Long current = expected.get(key);
+                    if (current == null)
+                        Assert.assertNull(map.putIfAbsent(key, (long) i));
+                    else
+                        Assert.assertEquals(current, map.putIfAbsent(key, (long) i));
+                    if (current == null)
+                        expected.put(key, (long) i);
+                    break;
+                default:
+                    Assert.assertEquals(expected.get(key), map.get(key));
+            }
+        }
+        Assert.assertEquals(expected.size(), map.size());
+        Assert.assertEquals(expected, new HashMap<Object, Long>(map));
+    }
+
+    @Test
+    public void intKeysAndIteration() {
+        PrimitiveKeyConcurrentHashMap<String> map = new PrimitiveKeyConcurrentHashMap<String>(Integer.class, 16);
+        for (int i = 0; i < 1000; i++)
+            map.put(i, "v" + i);
+        int count = 0;
+        for (Iterator<Map.Entry<Object, String>> iterator = map.entrySet().iterator(); iterator.hasNext(); ) {
+            Map.Entry<Object, String> entry = iterator.next();
+            Assert.assertTrue(entry.getKey() instanceof Integer);
+            Assert.assertEquals("v" + entry.getKey(), entry.getValue());
+            if ((Integer) entry.getKey() % 2 == 0)
+                iterator.remove();
+            count++;
+        }
+        Assert.assertEquals(1000, count);
+        Assert.assertEquals(500, map.size());
+        Assert.assertEquals(500, map.keySet().size());
+        Assert.assertNull(map.get(2));
+        Assert.assertEquals("v3", map.get(3));
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void concurrentReadersSeeConsistentValues() throws Exception {
+        final PrimitiveKeyConcurrentHashMap<Long> map = new PrimitiveKeyConcurrentHashMap<Long>(Long.class, 2);
+        final int keys = 10000;
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        final CountDownLatch done = new CountDownLatch(1);
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Random random = new Random();
+                    while (done.getCount() > 0) {
+                        long key = random.nextInt(keys);
+                        Long value = map.get(key);
+                        if (value != null && value != key)
+                            throw new AssertionError("key " + key + " mapped to " + value);
+                    }
+                } catch (Throwable t) {
+                    error.set(t);
+                }
+            }
+        });
+        reader.start();
+        for (int round = 0; round < 20; round++) {
+            for (long key = 0; key < keys; key++)
+                map.put(key, key);
+            for (long key = 0; key < keys; key += 2)
+                map.remove(key);
+        }
+        done.countDown();
+        reader.join();
+        Assert.assertNull(error.get());
+        Assert.assertEquals(keys / 2, map.size());
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.lrmi.nio;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+public class DirectBufferStreamsTest {
+
+    private static final int HEADER = 4;
+
+    @Test
+    public void writeAndReadAcrossBuffers() throws IOException {
+        DirectBufferPool pool = new DirectBufferPool(16, 8);
+        byte[] data = new byte[100];
+        new Random(7).nextBytes(data);
+
+        DirectBufferOutputStream out = new DirectBufferOutputStream(pool);
+        out.begin(HEADER);
+        out.write(data[0]);
+        out.write(data, 1, data.length - 1);
+        Assert.assertEquals(HEADER + data.length, out.size());
+        ByteBuffer[] buffers = out.finish(HEADER);
+        Assert.assertEquals(7, buffers.length);
+        Assert.assertEquals(data.length, buffers[0].getInt(0));
+        int total = 0;
+        for (ByteBuffer buffer : buffers)
+            total += buffer.remaining();
+        Assert.assertEquals(HEADER + data.length, total);
+
+        // copy the body the way a scattering read would fill the input stream buffers
+        DirectBufferInputStream in = new DirectBufferInputStream(pool);
+        ByteBuffer[] targets = in.prepare(data.length);
+        Assert.assertEquals(7, in.getBufferCount());
+        buffers[0].position(HEADER);
+        int target = 0;
+        for (ByteBuffer buffer : buffers) {
+            while (buffer.hasRemaining()) {
+                if (!targets[target].hasRemaining())
+                    target++;
+                targets[target].put(buffer.get());
+            }
+        }
+        pool.release(buffers, buffers.length);
+        in.flip();
+
+        Assert.assertEquals(data.length, in.available());
+        byte[] read = new byte[data.length];
+        Assert.assertEquals(data[0], (byte) in.read());
+        Assert.assertEquals(data.length - 1, in.read(read, 1, data.length - 1));
+        read[0] = data[0];
+        Assert.assertArrayEquals(data, read);
+        Assert.assertEquals(-1, in.read());
+        Assert.assertEquals(-1, in.read(read, 0, 1));
+        in.release();
+        Assert.assertEquals(8, pool.size());
+    }
+
+    @Test
+    public void poolReusesReleasedBuffersUpToItsSize() {
+        DirectBufferPool pool = new DirectBufferPool(16, 2);
+        Assert.assertEquals(32, pool.getCapacity());
+        ByteBuffer first = pool.acquire();
+        ByteBuffer second = pool.acquire();
+        ByteBuffer third = pool.acquire();
+        Assert.assertTrue(first.isDirect());
+        first.put((byte) 1);
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+        Assert.assertEquals(2, pool.size());
+        ByteBuffer reused = pool.acquire();
+        Assert.assertSame(first, reused);
+        Assert.assertEquals(0, reused.position());
+    }
+
+    @Test
+    public void discardReturnsBuffersOfFailedPacket() {
+        DirectBufferPool pool = new DirectBufferPool(16, 4);
+        DirectBufferOutputStream out = new DirectBufferOutputStream(pool);
+        out.begin(HEADER);
+        out.write(new byte[40], 0, 40);
+        out.discard();
+        Assert.assertEquals(3, pool.size());
+        Assert.assertEquals(0, out.size());
+    }
+
+    @Test
+    public void readsFromUnpooledBuffer() {
+        DirectBufferPool pool = new DirectBufferPool(16, 4);
+        DirectBufferInputStream in = new DirectBufferInputStream(pool);
+        in.setBuffer(ByteBuffer.wrap(new byte[]{5, 6}));
+        Assert.assertEquals(5, in.read());
+        Assert.assertEquals(6, in.read());
+        Assert.assertEquals(-1, in.read());
+        in.release();
+        Assert.assertEquals(0, pool.size());
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.lrmi.nio.async;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LRMIVirtualThreadExecutorTest {
+
+    @Test
+    public void createFallsBackWhenVirtualThreadsAreNotSupported() {
+        LRMIVirtualThreadExecutor executor = LRMIVirtualThreadExecutor.create("test-virtual", 10);
+        String version = System.getProperty("java.specification.version");
+        boolean supported = !version.startsWith("1.") && Integer.parseInt(version) >= 21;
+        if (!supported) {
+            // LRMIRuntime then dispatches the invocations to the LRMI connection thread pool
+            Assert.assertNull(executor);
+            return;
+        }
+        Assert.assertNotNull(executor);
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void executeBlocksWhenMaxConcurrentIsReached() throws Exception {
+        ExecutorService threads = Executors.newCachedThreadPool();
+        final LRMIVirtualThreadExecutor executor = new LRMIVirtualThreadExecutor(threads, 2, false);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(2);
+        final AtomicInteger completed = new AtomicInteger();
+        Runnable blocking = new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                completed.incrementAndGet();
+            }
+        };
+        try {
+            executor.execute(blocking);
+            executor.execute(blocking);
+            Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+            Assert.assertEquals(0, executor.getAvailablePermits());
+
+            final CountDownLatch dispatched = new CountDownLatch(1);
+            Thread dispatcher = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            completed.incrementAndGet();
+                        }
+                    });
+                    dispatched.countDown();
+                }
+            });
+            dispatcher.start();
+            Assert.assertFalse("dispatch should block while the limit is reached", dispatched.await(200, TimeUnit.MILLISECONDS));
+
+            release.countDown();
+            Assert.assertTrue(dispatched.await(10, TimeUnit.SECONDS));
+            dispatcher.join(10000);
+            threads.shutdown();
+            Assert.assertTrue(threads.awaitTermination(10, TimeUnit.SECONDS));
+            Assert.assertEquals(3, completed.get());
+            Assert.assertEquals(2, executor.getAvailablePermits());
+        } finally {
+            release.countDown();
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    public void permitIsReleasedWhenTaskFailsOrIsRejected() throws Exception {
+        ExecutorService threads = Executors.newSingleThreadExecutor();
+        LRMIVirtualThreadExecutor executor = new LRMIVirtualThreadExecutor(threads, 1, false);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                throw new IllegalStateException("expected");
+            }
+        });
+        threads.shutdown();
+        Assert.assertTrue(threads.awaitTermination(10, TimeUnit.SECONDS));
+        Assert.assertEquals(1, executor.getAvailablePermits());
+
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+            Assert.fail("expected the shut down executor to reject the task");
+        } catch (RejectedExecutionException e) {
+            Assert.assertEquals(1, executor.getAvailablePermits());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsCoverValues() {
+        for (long value : new long[]{0, 1, 63, 64, 65, 127, 128, 1000, 123456789L, 1L << 39}) {
+            int bucket = LatencyHistogram.toBucket(value);
+            Assert.assertTrue("value " + value, LatencyHistogram.highestValueOf(bucket) >= value);
+            if (bucket > 0)
+                Assert.assertTrue("value " + value, LatencyHistogram.highestValueOf(bucket - 1) < value);
+            Assert.assertTrue("value " + value, LatencyHistogram.highestValueOf(bucket) <= value + value / 32);
+        }
+        Assert.assertEquals(LatencyHistogram.NUM_OF_BUCKETS - 1, LatencyHistogram.toBucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10000; i++)
+            histogram.update(i * 1000L);
+        LatencyHistogramSnapshot snapshot = histogram.sample();
+        Assert.assertEquals(10000, snapshot.getCount());
+        Assert.assertEquals(5000.5, snapshot.getMean(), 0.001);
+        Assert.assertEquals(10000, snapshot.getMax(), 0);
+        assertApproximately(5000, snapshot.getPercentile(50));
+        assertApproximately(9900, snapshot.getPercentile(99));
+        assertApproximately(9990, snapshot.getPercentile(99.9));
+        Assert.assertEquals(10000, snapshot.getPercentile(100), 0);
+    }
+
+    @Test
+    public void sampleReturnsInterval() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.update(1000000);
+        histogram.sample();
+        histogram.update(2000);
+        LatencyHistogramSnapshot snapshot = histogram.sample();
+        Assert.assertEquals(1, snapshot.getCount());
+        Assert.assertEquals(2, snapshot.getMax(), 0);
+        Assert.assertEquals(2, snapshot.getPercentile(99), 0);
+        Assert.assertEquals(2, histogram.getTotalCount());
+
+        snapshot = histogram.sample();
+        Assert.assertEquals(0, snapshot.getCount());
+        Assert.assertEquals(0, snapshot.getPercentile(99), 0);
+    }
+
+    @Test
+    public void concurrentUpdates() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final int threads = 4;
+        final int updates = 100000;
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Random random = new Random();
+                    for (int i = 0; i < updates; i++)
+                        histogram.update(random.nextInt(1000000));
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+        Assert.assertEquals(threads * updates, histogram.sample().getCount());
+    }
+
+    @Test
+    public void reportedAsPercentileValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.update(5000);
+        MetricRegistry registry = new MetricRegistry("foo");
+        Map<String, Object> tags = new HashMap<String, Object>();
+        tags.put("foo", "bar");
+        registry.register("space_operations_write-latency", new MetricTags(tags), histogram);
+
+        Map<String, Object> values = registry.snapshot(1).getGroups().get(new MetricTags(tags).snapshot()).getMetricsValues();
+        Assert.assertEquals(1L, values.get("space_operations_write-latency_count"));
+        Assert.assertEquals(5.0, values.get("space_operations_write-latency_p99"));
+        Assert.assertEquals(5.0, values.get("space_operations_write-latency_max"));
+        Assert.assertTrue(values.containsKey("space_operations_write-latency_p999"));
+    }
+
+    private static void assertApproximately(double expected, double actual) {
+        Assert.assertEquals(expected, actual, expected * 0.04);
+    }
+}
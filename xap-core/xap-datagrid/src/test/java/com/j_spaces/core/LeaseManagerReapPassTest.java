@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.j_spaces.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class LeaseManagerReapPassTest {
+
+    @Test
+    public void cellsAreReapedInOrderBySingleReaper() {
+        LeaseManager.ReapPass<Integer> pass = new LeaseManager.ReapPass<Integer>(cells(3));
+        Assert.assertEquals(1, pass.getNumOfReapers(1));
+        Assert.assertEquals("No more reapers than cells", 3, pass.getNumOfReapers(8));
+        Assert.assertEquals(Integer.valueOf(0), pass.nextCell());
+        Assert.assertEquals(Integer.valueOf(1), pass.nextCell());
+        Assert.assertEquals(Integer.valueOf(2), pass.nextCell());
+        Assert.assertNull(pass.nextCell());
+        Assert.assertNull(pass.nextCell());
+        Assert.assertEquals(0, new LeaseManager.ReapPass<Integer>(cells(0)).getNumOfReapers(4));
+    }
+
+    @Test
+    public void parallelReapersReapEachCellOnce() throws Exception {
+        final int numOfCells = 10000;
+        final int numOfReapers = 4;
+        final LeaseManager.ReapPass<Integer> pass = new LeaseManager.ReapPass<Integer>(cells(numOfCells));
+        final ConcurrentHashMap<Integer, String> reapedBy = new ConcurrentHashMap<Integer, String>();
+        final AtomicInteger duplicates = new AtomicInteger();
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        final CountDownLatch start = new CountDownLatch(1);
+
+        Thread[] reapers = new Thread[pass.getNumOfReapers(numOfReapers)];
+        for (int i = 0; i < reapers.length; i++) {
+            reapers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (Integer cell = pass.nextCell(); cell != null; cell = pass.nextCell()) {
+                            if (reapedBy.putIfAbsent(cell, Thread.currentThread().getName()) != null)
+                                duplicates.incrementAndGet();
+                        }
+                    } catch (Throwable e) {
+                        error.set(e);
+                    }
+                }
+            }, "reaper-" + i);
+            reapers[i].start();
+        }
+        start.countDown();
+        for (Thread reaper : reapers)
+            reaper.join();
+
+        Assert.assertNull(error.get());
+        Assert.assertEquals(numOfReapers, reapers.length);
+        Assert.assertEquals(0, duplicates.get());
+        Assert.assertEquals(numOfCells, reapedBy.size());
+    }
+
+    private static List<Integer> cells(int numOfCells) {
+        List<Integer> cells = new ArrayList<Integer>(numOfCells);
+        for (int i = 0; i < numOfCells; i++)
+            cells.add(i);
+        return cells;
+    }
+}
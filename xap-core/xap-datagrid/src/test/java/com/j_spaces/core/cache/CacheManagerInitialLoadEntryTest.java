@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.j_spaces.core.cache;
+
+import com.gigaspaces.internal.server.space.SpaceEngine;
+import com.gigaspaces.internal.server.storage.IEntryHolder;
+import com.j_spaces.core.cache.context.Context;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.logging.Logger;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CacheManagerInitialLoadEntryTest {
+
+    private final InitialLoadInfo _initialLoadInfo = new InitialLoadInfo(Logger.getLogger(CacheManagerInitialLoadEntryTest.class.getName()), false, 0);
+    private final Context _context = new Context();
+    private CacheManager _cacheManager;
+    private SpaceEngine _engine;
+    private IEntryHolder _entryHolder;
+
+    @Before
+    public void setUp() {
+        _engine = mock(SpaceEngine.class);
+        _cacheManager = mock(CacheManager.class);
+        when(_cacheManager.getEngine()).thenReturn(_engine);
+        doCallRealMethod().when(_cacheManager).insertInitialLoadEntry(any(Context.class), any(IEntryHolder.class), any(InitialLoadInfo.class));
+        _entryHolder = mock(IEntryHolder.class);
+        when(_entryHolder.getClassName()).thenReturn("Person");
+        when(_entryHolder.getUID()).thenReturn("uid1");
+    }
+
+    @Test
+    public void entryIsInserted() {
+        _cacheManager.insertInitialLoadEntry(_context, _entryHolder, _initialLoadInfo);
+        verify(_cacheManager).safeInsertEntryToCache(_context, _entryHolder, false, null, false, CacheManager.InitialLoadOrigin.FROM_NON_BLOBSTORE);
+        Assert.assertEquals(1, _initialLoadInfo.getInsertedToCache());
+        Assert.assertTrue(_initialLoadInfo.getInitialLoadErrors().isEmpty());
+    }
+
+    @Test
+    public void entryWithoutRoutingIsRejectedInPartitionedSpace() {
+        when(_engine.isPartitionedSpace()).thenReturn(true);
+        _cacheManager.insertInitialLoadEntry(_context, _entryHolder, _initialLoadInfo);
+        assertNotInserted();
+        Assert.assertEquals(1, _initialLoadInfo.getInitialLoadErrors().size());
+        Assert.assertTrue(_initialLoadInfo.getInitialLoadErrors().getFirst().startsWith("Object without routing"));
+    }
+
+    @Test
+    public void entryOfOtherPartitionIsSkipped() {
+        when(_engine.isPartitionedSpace()).thenReturn(true);
+        when(_entryHolder.getRoutingValue()).thenReturn(7);
+        when(_engine.isEntryFromPartition(_entryHolder)).thenReturn(false);
+        _cacheManager.insertInitialLoadEntry(_context, _entryHolder, _initialLoadInfo);
+        assertNotInserted();
+        Assert.assertTrue(_initialLoadInfo.getInitialLoadErrors().isEmpty());
+
+        when(_engine.isEntryFromPartition(_entryHolder)).thenReturn(true);
+        _cacheManager.insertInitialLoadEntry(_context, _entryHolder, _initialLoadInfo);
+        Assert.assertEquals(1, _initialLoadInfo.getInsertedToCache());
+    }
+
+    @Test
+    public void duplicateUidIsRejected() {
+        when(_cacheManager.isEntryInPureCache("uid1")).thenReturn(true);
+        _cacheManager.insertInitialLoadEntry(_context, _entryHolder, _initialLoadInfo);
+        assertNotInserted();
+        Assert.assertEquals(1, _initialLoadInfo.getInitialLoadErrors().size());
+        Assert.assertTrue(_initialLoadInfo.getInitialLoadErrors().getFirst().startsWith("Object with duplicate uid"));
+    }
+
+    private void assertNotInserted() {
+        verify(_cacheManager, never()).safeInsertEntryToCache(any(Context.class), any(IEntryHolder.class), anyBoolean(),
+                any(TypeData.class), anyBoolean(), any(CacheManager.InitialLoadOrigin.class));
+        Assert.assertEquals(0, _initialLoadInfo.getInsertedToCache());
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.j_spaces.core.cache;
+
+import com.gigaspaces.internal.server.storage.IEntryData;
+import com.gigaspaces.internal.server.storage.ITemplateHolder;
+import com.j_spaces.core.client.TemplateMatchCodes;
+import com.j_spaces.kernel.IStoredList;
+import com.j_spaces.kernel.IStoredListIterator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class NotifyTemplatesIndexTest {
+
+    @Test
+    public void emptyIndexHasNoCandidates() {
+        NotifyTemplatesIndex index = new NotifyTemplatesIndex(2);
+        Assert.assertNull(index.getCandidates(entry("a", 1)));
+    }
+
+    @Test
+    public void candidatesAreValueTemplatesAndUnconstrainedTemplates() {
+        NotifyTemplatesIndex index = new NotifyTemplatesIndex(2);
+        TemplateCacheInfo byA = template(null, "a", null);
+        TemplateCacheInfo byB = template(null, "b", null);
+        TemplateCacheInfo any = template(null, null, null);
+        // the extended match on the second property leaves it unconstrained
+        TemplateCacheInfo byAAndGreater = template(new short[]{TemplateMatchCodes.EQ, TemplateMatchCodes.GT}, "a", 5);
+        index.add(byA);
+        index.add(byB);
+        index.add(any);
+        index.add(byAAndGreater);
+        Assert.assertEquals(4, index.size());
+
+        Assert.assertEquals(asSet(byA, byAAndGreater, any), candidates(index, entry("a", 7)));
+        Assert.assertEquals(asSet(byB, any), candidates(index, entry("b", 7)));
+        Assert.assertEquals(asSet(any), candidates(index, entry("c", 7)));
+        Assert.assertEquals("A null value matches only the unconstrained templates", asSet(any), candidates(index, entry(null, 7)));
+
+        index.remove(byA);
+        index.remove(byAAndGreater);
+        Assert.assertEquals(2, index.size());
+        Assert.assertEquals(asSet(any), candidates(index, entry("a", 7)));
+        // removing twice is ignored
+        index.remove(byA);
+        Assert.assertEquals(2, index.size());
+    }
+
+    @Test
+    public void allTemplatesWhenNoPropertyIsConstrained() {
+        NotifyTemplatesIndex index = new NotifyTemplatesIndex(2);
+        TemplateCacheInfo any = template(null, null, null);
+        TemplateCacheInfo greater = template(new short[]{TemplateMatchCodes.GT, TemplateMatchCodes.EQ}, 1, null);
+        index.add(any);
+        index.add(greater);
+        Assert.assertEquals(asSet(any, greater), candidates(index, entry(2, 3)));
+    }
+
+    @Test
+    public void smallestPropertyIsChosen() {
+        NotifyTemplatesIndex index = new NotifyTemplatesIndex(2);
+        TemplateCacheInfo first = template(null, "a", 1);
+        TemplateCacheInfo second = template(null, "a", 2);
+        TemplateCacheInfo third = template(null, "a", 3);
+        index.add(first);
+        index.add(second);
+        index.add(third);
+        Object candidates = index.getCandidates(entry("a", 2));
+        Assert.assertTrue(candidates instanceof IStoredList);
+        Assert.assertEquals(asSet(second), candidates(index, entry("a", 2)));
+    }
+
+    private static TemplateCacheInfo template(short[] matchCodes, Object value0, Object value1) {
+        IEntryData entryData = entryData(value0, value1);
+        ITemplateHolder template = mock(ITemplateHolder.class);
+        when(template.getEntryData()).thenReturn(entryData);
+        when(template.getExtendedMatchCodes()).thenReturn(matchCodes);
+        return new TemplateCacheInfo(template);
+    }
+
+    private static IEntryData entry(Object value0, Object value1) {
+        return entryData(value0, value1);
+    }
+
+    private static IEntryData entryData(Object value0, Object value1) {
+        IEntryData entryData = mock(IEntryData.class);
+        when(entryData.getNumOfFixedProperties()).thenReturn(2);
+        when(entryData.getFixedPropertyValue(0)).thenReturn(value0);
+        when(entryData.getFixedPropertyValue(1)).thenReturn(value1);
+        return entryData;
+    }
+
+    private static Set<TemplateCacheInfo> candidates(NotifyTemplatesIndex index, IEntryData entry) {
+        Object candidates = index.getCandidates(entry);
+        Set<TemplateCacheInfo> result = new HashSet<TemplateCacheInfo>();
+        if (candidates instanceof IStoredList[]) {
+            for (IStoredList<TemplateCacheInfo> list : (IStoredList<TemplateCacheInfo>[]) candidates)
+                addAll(list, result);
+        } else if (candidates != null) {
+            addAll((IStoredList<TemplateCacheInfo>) candidates, result);
+        }
+        return result;
+    }
+
+    private static void addAll(IStoredList<TemplateCacheInfo> list, Set<TemplateCacheInfo> result) {
+        for (IStoredListIterator<TemplateCacheInfo> slh = list.establishListScan(false); slh != null; slh = list.next(slh))
+            Assert.assertTrue("Template returned twice", result.add(slh.getSubject()));
+    }
+
+    private static Set<TemplateCacheInfo> asSet(TemplateCacheInfo... templates) {
+        return new HashSet<TemplateCacheInfo>(Arrays.asList(templates));
+    }
+}
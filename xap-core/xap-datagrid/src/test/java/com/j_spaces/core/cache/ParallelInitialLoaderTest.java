@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.j_spaces.core.cache;
+
+import com.gigaspaces.internal.metadata.ITypeDesc;
+import com.gigaspaces.internal.server.metadata.IServerTypeDesc;
+import com.gigaspaces.internal.server.storage.IEntryHolder;
+import com.j_spaces.core.cache.context.Context;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ParallelInitialLoaderTest {
+
+    private final InitialLoadInfo _initialLoadInfo = new InitialLoadInfo(Logger.getLogger(ParallelInitialLoaderTest.class.getName()), false, 0);
+    private final List<Insertion> _insertions = Collections.synchronizedList(new ArrayList<Insertion>());
+
+    @Test
+    public void entriesAreDispatchedInFullBatches() throws Exception {
+        CacheManager cacheManager = cacheManager(record());
+        ParallelInitialLoader loader = new ParallelInitialLoader(cacheManager, _initialLoadInfo, 2, 3, "test");
+        loader.start();
+        loader.add(entry("F", "1", true, false));
+        loader.add(entry("F", "2", true, false));
+        Thread.sleep(100);
+        Assert.assertEquals("a partial batch should not be dispatched", 0, _insertions.size());
+
+        loader.add(entry("F", "3", true, false));
+        waitForInsertions(3);
+
+        for (int i = 0; i < 5; i++)
+            loader.add(entry("R", "r" + i, false, false));
+        // the partial batches are flushed
+        loader.finish();
+        Assert.assertEquals(8, _insertions.size());
+        Set<String> uids = new HashSet<String>();
+        for (Insertion insertion : _insertions)
+            Assert.assertTrue(insertion._uid, uids.add(insertion._uid));
+        verify(cacheManager, times(2)).freeCacheContext(any(Context.class));
+    }
+
+    @Test
+    public void fifoAndFifoGroupingTypesKeepLoadOrder() throws Exception {
+        ParallelInitialLoader loader = new ParallelInitialLoader(cacheManager(record()), _initialLoadInfo, 4, 2, "test");
+        loader.start();
+        for (int i = 0; i < 50; i++) {
+            loader.add(entry("F", "f" + i, true, false));
+            loader.add(entry("G", "g" + i, false, true));
+            loader.add(entry("R", "r" + i, false, false));
+        }
+        loader.finish();
+        Assert.assertEquals(150, _insertions.size());
+        assertInsertedInOrderByOneThread("F", "f");
+        assertInsertedInOrderByOneThread("G", "g");
+
+        // entries of other types are spread by uid
+        Set<Integer> routes = new HashSet<Integer>();
+        for (int i = 0; i < 50; i++)
+            routes.add(loader.route(entry("R", "r" + i, false, false)));
+        Assert.assertTrue(routes.size() > 1);
+    }
+
+    @Test
+    public void insertionFailureIsRethrown() throws Exception {
+        final IllegalStateException failure = new IllegalStateException("expected");
+        final Answer<Void> record = record();
+        CacheManager cacheManager = cacheManager(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                if (((IEntryHolder) invocation.getArguments()[1]).getUID().equals("r5"))
+                    throw failure;
+                return record.answer(invocation);
+            }
+        });
+        ParallelInitialLoader loader = new ParallelInitialLoader(cacheManager, _initialLoadInfo, 2, 1, "test");
+        loader.start();
+        try {
+            // more batches than the queues can hold, so adding must not block after the failure
+            for (int i = 0; i < 100; i++)
+                loader.add(entry("R", "r" + i, false, false));
+            loader.finish();
+            Assert.fail("expected the insertion failure to be rethrown");
+        } catch (IllegalStateException e) {
+            Assert.assertSame(failure, e);
+        } finally {
+            loader.abort();
+        }
+        verify(cacheManager, times(2)).freeCacheContext(any(Context.class));
+    }
+
+    @Test(timeout = 10000)
+    public void abortStopsInsertionThreads() throws Exception {
+        final CountDownLatch inserting = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        CacheManager cacheManager = cacheManager(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                inserting.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }
+        });
+        ParallelInitialLoader loader = new ParallelInitialLoader(cacheManager, _initialLoadInfo, 2, 1, "test");
+        loader.start();
+        for (int i = 0; i < 4; i++)
+            loader.add(entry("R", "r" + i, false, false));
+        Assert.assertTrue(inserting.await(10, TimeUnit.SECONDS));
+
+        loader.abort();
+        verify(cacheManager, times(2)).freeCacheContext(any(Context.class));
+    }
+
+    private void assertInsertedInOrderByOneThread(String className, String uidPrefix) {
+        Thread thread = null;
+        int next = 0;
+        synchronized (_insertions) {
+            for (Insertion insertion : _insertions) {
+                if (!insertion._className.equals(className))
+                    continue;
+                if (thread == null)
+                    thread = insertion._thread;
+                Assert.assertSame(className, thread, insertion._thread);
+                Assert.assertEquals(className, uidPrefix + next++, insertion._uid);
+            }
+        }
+        Assert.assertEquals(className, 50, next);
+    }
+
+    private void waitForInsertions(int count) throws InterruptedException {
+        for (int i = 0; i < 1000 && _insertions.size() < count; i++)
+            Thread.sleep(10);
+        Assert.assertEquals(count, _insertions.size());
+    }
+
+    private Answer<Void> record() {
+        return new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                IEntryHolder entryHolder = (IEntryHolder) invocation.getArguments()[1];
+                _insertions.add(new Insertion(entryHolder.getClassName(), entryHolder.getUID(), Thread.currentThread()));
+                return null;
+            }
+        };
+    }
+
+    private static CacheManager cacheManager(Answer<Void> insert) {
+        CacheManager cacheManager = mock(CacheManager.class);
+        when(cacheManager.getCacheContext()).thenAnswer(new Answer<Context>() {
+            @Override
+            public Context answer(InvocationOnMock invocation) {
+                return new Context();
+            }
+        });
+        doAnswer(insert).when(cacheManager).insertInitialLoadEntry(any(Context.class), any(IEntryHolder.class), any(InitialLoadInfo.class));
+        return cacheManager;
+    }
+
+    private static IEntryHolder entry(String className, String uid, boolean fifo, boolean fifoGrouping) {
+        ITypeDesc typeDesc = mock(ITypeDesc.class);
+        when(typeDesc.getFifoGroupingPropertyPath()).thenReturn(fifoGrouping ? "group" : null);
+        IServerTypeDesc serverTypeDesc = mock(IServerTypeDesc.class);
+        when(serverTypeDesc.isFifoSupported()).thenReturn(fifo);
+        when(serverTypeDesc.getTypeDesc()).thenReturn(typeDesc);
+        IEntryHolder entryHolder = mock(IEntryHolder.class);
+        when(entryHolder.getServerTypeDesc()).thenReturn(serverTypeDesc);
+        when(entryHolder.getClassName()).thenReturn(className);
+        when(entryHolder.getUID()).thenReturn(uid);
+        return entryHolder;
+    }
+
+    private static class Insertion {
+        private final String _className;
+        private final String _uid;
+        private final Thread _thread;
+
+        private Insertion(String className, String uid, Thread thread) {
+            this._className = className;
+            this._uid = uid;
+            this._thread = thread;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.j_spaces.core.cache.blobStore.offheap;
+
+import com.j_spaces.core.cache.blobStore.BlobStoreRefEntryCacheInfo;
+import com.j_spaces.core.cache.blobStore.memory_pool.SlabMemoryPool;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class SlabMemoryPoolTest {
+
+    private final SlabMemoryPool slabMemoryPool = new SlabMemoryPool(1000000, 64 * 1024, 1024);
+
+    @After
+    public void tearDown() {
+        slabMemoryPool.close();
+    }
+
+    @Test
+    public void writeAndReadTest() {
+        BlobStoreOffHeapInfoMock infoMock = new BlobStoreOffHeapInfoMock();
+        byte[] buffer = "Test Buffer".getBytes();
+
+        slabMemoryPool.write(infoMock, buffer);
+        assertBufferWritten(infoMock, buffer);
+    }
+
+    @Test
+    public void writeEmptyBufferThrowsException() {
+        try {
+            slabMemoryPool.write(new BlobStoreOffHeapInfoMock(), new byte[0]);
+            Assert.fail("allocateAndWrite should have thrown exception but didn't");
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getMessage().contains("Illegal buffer length"));
+        }
+    }
+
+    @Test
+    public void writeToAlreadyAllocatedAddressThrowsException() {
+        BlobStoreOffHeapInfoMock infoMock = new BlobStoreOffHeapInfoMock();
+        infoMock.setOffHeapAddress(123456); // arbitrary address
+        try {
+            slabMemoryPool.write(infoMock, "Test Buffer".getBytes());
+            Assert.fail("allocateAndWrite should have thrown exception but didn't");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("trying to allocateAndWrite when already allocated in off heap", e.getMessage());
+        }
+    }
+
+    @Test
+    public void updateTest() {
+        BlobStoreOffHeapInfoMock infoMock = new BlobStoreOffHeapInfoMock();
+        slabMemoryPool.write(infoMock, "Test Buffer".getBytes());
+
+        byte[] sameSize = "another txt".getBytes();
+        long address = infoMock.getOffHeapAddress();
+        slabMemoryPool.update(infoMock, sameSize);
+        assertBufferWritten(infoMock, sameSize);
+        Assert.assertEquals("update within the same slot should not move the buffer", address, infoMock.getOffHeapAddress());
+
+        byte[] larger = new byte[500];
+        Arrays.fill(larger, (byte) 7);
+        slabMemoryPool.update(infoMock, larger);
+        assertBufferWritten(infoMock, larger);
+
+        byte[] shorter = "short".getBytes();
+        slabMemoryPool.update(infoMock, shorter);
+        assertBufferWritten(infoMock, shorter);
+    }
+
+    @Test
+    public void updateOnUnallocatedThrowsException() {
+        try {
+            slabMemoryPool.update(new BlobStoreOffHeapInfoMock(), "another text".getBytes());
+            Assert.fail("update should have thrown exception but didn't");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("trying to update when no off heap memory is allocated", e.getMessage());
+        }
+    }
+
+    @Test
+    public void deleteReusesSlotTest() {
+        BlobStoreOffHeapInfoMock infoMock = new BlobStoreOffHeapInfoMock();
+        byte[] buffer = "Test Buffer".getBytes();
+        slabMemoryPool.write(infoMock, buffer);
+        long address = infoMock.getOffHeapAddress();
+
+        slabMemoryPool.delete(infoMock);
+        Assert.assertEquals(BlobStoreRefEntryCacheInfo.UNALLOCATED_OFFHEAP_MEMORY, infoMock.getOffHeapAddress());
+        Assert.assertEquals(0, slabMemoryPool.getUsedBytes());
+
+        slabMemoryPool.write(infoMock, buffer);
+        Assert.assertEquals("freed slot should be reused by the same thread", address, infoMock.getOffHeapAddress());
+    }
+
+    @Test
+    public void largeBufferTest() {
+        BlobStoreOffHeapInfoMock infoMock = new BlobStoreOffHeapInfoMock();
+        byte[] buffer = new byte[10000];
+        Arrays.fill(buffer, (byte) 3);
+
+        slabMemoryPool.write(infoMock, buffer);
+        assertBufferWritten(infoMock, buffer);
+        Assert.assertTrue(slabMemoryPool.getUsedBytes() >= buffer.length);
+
+        slabMemoryPool.update(infoMock, "small".getBytes());
+        assertBufferWritten(infoMock, "small".getBytes());
+
+        slabMemoryPool.delete(infoMock);
+        Assert.assertEquals(0, slabMemoryPool.getUsedBytes());
+    }
+
+    @Test
+    public void metricsTest() {
+        BlobStoreOffHeapInfoMock[] infos = new BlobStoreOffHeapInfoMock[100];
+        for (int i = 0; i < infos.length; i++) {
+            infos[i] = new BlobStoreOffHeapInfoMock();
+            slabMemoryPool.write(infos[i], new byte[100]);
+        }
+        Assert.assertEquals(64 * 1024, slabMemoryPool.getReservedBytes());
+        Assert.assertTrue(slabMemoryPool.getFragmentation() > 0 && slabMemoryPool.getFragmentation() < 1);
+        double utilization = slabMemoryPool.getSlotUtilization();
+        Assert.assertTrue(utilization > 0 && utilization <= 1);
+
+        for (BlobStoreOffHeapInfoMock info : infos)
+            slabMemoryPool.delete(info);
+        Assert.assertEquals(0, slabMemoryPool.getUsedBytes());
+        Assert.assertEquals(0, slabMemoryPool.getSlotUtilization(), 0);
+    }
+
+    @Test
+    public void deadThreadCachedSlotsAreReusedTest() throws Exception {
+        // max size slots, so a single arena holds exactly one thread cache worth of slots
+        final byte[] buffer = new byte[1020];
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                BlobStoreOffHeapInfoMock[] infos = new BlobStoreOffHeapInfoMock[64];
+                for (int i = 0; i < infos.length; i++) {
+                    infos[i] = new BlobStoreOffHeapInfoMock();
+                    slabMemoryPool.write(infos[i], buffer);
+                }
+                for (BlobStoreOffHeapInfoMock info : infos)
+                    slabMemoryPool.delete(info);
+            }
+        });
+        thread.start();
+        thread.join();
+        Assert.assertEquals(64 * 1024, slabMemoryPool.getReservedBytes());
+
+        for (int i = 0; i < 64; i++)
+            slabMemoryPool.write(new BlobStoreOffHeapInfoMock(), buffer);
+        Assert.assertEquals("slots cached by the dead thread should be reused instead of carving a new arena",
+                64 * 1024, slabMemoryPool.getReservedBytes());
+    }
+
+    @Test
+    public void closeReleasesArenasTest() {
+        BlobStoreOffHeapInfoMock infoMock = new BlobStoreOffHeapInfoMock();
+        slabMemoryPool.write(infoMock, "Test Buffer".getBytes());
+        slabMemoryPool.delete(infoMock);
+        Assert.assertEquals(0, slabMemoryPool.getUsedBytes());
+        Assert.assertEquals(64 * 1024, slabMemoryPool.getReservedBytes());
+
+        slabMemoryPool.close();
+        Assert.assertEquals(0, slabMemoryPool.getReservedBytes());
+        slabMemoryPool.write(infoMock, "Test Buffer".getBytes());
+        assertBufferWritten(infoMock, "Test Buffer".getBytes());
+    }
+
+    private void assertBufferWritten(BlobStoreOffHeapInfoMock infoMock, byte[] buffer) {
+        Assert.assertArrayEquals("object read from offheap different then the written one", buffer, slabMemoryPool.get(infoMock));
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.j_spaces.core.cache.columnar;
+
+import com.gigaspaces.internal.metadata.PropertyInfo;
+import com.gigaspaces.internal.server.storage.IEntryData;
+import com.gigaspaces.internal.server.storage.IEntryHolder;
+import com.gigaspaces.query.aggregators.CountAggregator;
+import com.gigaspaces.query.aggregators.GroupByAggregator;
+import com.gigaspaces.query.aggregators.GroupByResult;
+import com.gigaspaces.query.aggregators.MaxValueAggregator;
+import com.gigaspaces.query.aggregators.MinValueAggregator;
+import com.gigaspaces.query.aggregators.SpaceEntriesAggregator;
+import com.gigaspaces.query.aggregators.SumAggregator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ColumnarTypeStoreTest {
+
+    private static final int QUANTITY = 0;
+    private static final int PRICE = 1;
+    private static final int CATEGORY = 2;
+
+    @Test
+    public void aggregatesLiveEntries() {
+        ColumnarTypeStore store = createStore();
+        for (int i = 0; i < 1000; i++)
+            store.insert(entry("uid" + i, Long.MAX_VALUE, i, i * 0.5, "c" + (i % 3)));
+        store.insert(entry("nulls", Long.MAX_VALUE, null, null, null));
+        for (int i = 0; i < 1000; i += 2)
+            store.remove("uid" + i);
+        // updates and reuses slots of removed entries
+        store.update(entry("uid1", Long.MAX_VALUE, 2001, 0.5, "c1"));
+        store.insert(entry("uid2000", Long.MAX_VALUE, 2000, 1000.0, "c2"));
+        Assert.assertEquals(502, store.size());
+
+        CountAggregator count = new CountAggregator();
+        CountAggregator countPrice = (CountAggregator) new CountAggregator().setPath("price");
+        SumAggregator sum = (SumAggregator) new SumAggregator().setPath("quantity");
+        MinValueAggregator min = (MinValueAggregator) new MinValueAggregator().setPath("quantity");
+        MaxValueAggregator max = (MaxValueAggregator) new MaxValueAggregator().setPath("price");
+        List<SpaceEntriesAggregator> aggregators = Arrays.<SpaceEntriesAggregator>asList(count, countPrice, sum, min, max);
+        Assert.assertTrue(ColumnarAggregation.isSupported(store, aggregators));
+        aggregate(store, aggregators, 0);
+
+        long expectedSum = 2001 + 2000;
+        for (int i = 3; i < 1000; i += 2)
+            expectedSum += i;
+        Assert.assertEquals(502L, count.getFinalResult());
+        Assert.assertEquals(501L, countPrice.getFinalResult());
+        Assert.assertEquals(expectedSum, ((Number) sum.getFinalResult()).longValue());
+        Assert.assertEquals(3, min.getFinalResult());
+        Assert.assertEquals(1000.0, max.getFinalResult());
+    }
+
+    @Test
+    public void groupBy() {
+        ColumnarTypeStore store = createStore();
+        for (int i = 0; i < 100; i++)
+            store.insert(entry("uid" + i, Long.MAX_VALUE, i, 1.0, "c" + (i % 2)));
+        GroupByAggregator groupBy = new GroupByAggregator().groupBy("category").selectCount().selectSum("quantity").selectMaxValue("quantity");
+        List<SpaceEntriesAggregator> aggregators = Arrays.<SpaceEntriesAggregator>asList(groupBy);
+        Assert.assertTrue(ColumnarAggregation.isSupported(store, aggregators));
+        aggregate(store, aggregators, 0);
+
+        GroupByResult result = (GroupByResult) groupBy.getFinalResult();
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals(50L, result.get("c0").get(0));
+        Assert.assertEquals(2450, ((Number) result.get("c0").get(1)).intValue());
+        Assert.assertEquals(98, result.get("c0").get(2));
+        Assert.assertEquals(2500, ((Number) result.get("c1").get(1)).intValue());
+        Assert.assertEquals(99, result.get("c1").get(2));
+    }
+
+    @Test
+    public void expiredEntriesAreSkipped() {
+        ColumnarTypeStore store = createStore();
+        store.insert(entry("a", Long.MAX_VALUE, 1, 1.0, "c"));
+        store.insert(entry("b", 100, 2, 1.0, "c"));
+        store.insert(entry("c", 300, 4, 1.0, "c"));
+        SumAggregator sum = (SumAggregator) new SumAggregator().setPath("quantity");
+        aggregate(store, Arrays.<SpaceEntriesAggregator>asList(sum), 200);
+        Assert.assertEquals(5, ((Number) sum.getFinalResult()).intValue());
+    }
+
+    @Test
+    public void unsupportedAggregators() {
+        ColumnarTypeStore store = createStore();
+        Assert.assertFalse(ColumnarAggregation.isSupported(store, Arrays.<SpaceEntriesAggregator>asList(new SumAggregator().setPath("missing"))));
+        Assert.assertFalse(ColumnarAggregation.isSupported(store, Arrays.<SpaceEntriesAggregator>asList(new SumAggregator().setPath("category"))));
+        Assert.assertFalse(ColumnarAggregation.isSupported(store, Arrays.<SpaceEntriesAggregator>asList(
+                new GroupByAggregator().groupBy("category").selectAverage("quantity"))));
+    }
+
+    private static void aggregate(ColumnarTypeStore store, List<SpaceEntriesAggregator> aggregators, long expirationLimit) {
+        store.lockForScan();
+        try {
+            ColumnarAggregation.aggregate(store, aggregators, expirationLimit);
+        } finally {
+            store.unlockForScan();
+        }
+    }
+
+    private static ColumnarTypeStore createStore() {
+        List<PropertyInfo> properties = new ArrayList<PropertyInfo>();
+        properties.add(PropertyInfo.builder("quantity").type(Integer.class).build());
+        properties.add(PropertyInfo.builder("price").type(Double.class).build());
+        properties.add(PropertyInfo.builder("category").type(String.class).build());
+        return new ColumnarTypeStore("Product", properties, new int[]{QUANTITY, PRICE, CATEGORY});
+    }
+
+    private static IEntryHolder entry(final String uid, final long expirationTime, Object... values) {
+        final Object[] fixedValues = values;
+        final IEntryData entryData = (IEntryData) Proxy.newProxyInstance(IEntryData.class.getClassLoader(), new Class[]{IEntryData.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("getFixedPropertyValue"))
+                    return fixedValues[(Integer) args[0]];
+                if (method.getName().equals("getExpirationTime"))
+                    return expirationTime;
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        return (IEntryHolder) Proxy.newProxyInstance(IEntryHolder.class.getClassLoader(), new Class[]{IEntryHolder.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("getUID"))
+                    return uid;
+                if (method.getName().equals("getEntryData"))
+                    return entryData;
+                if (method.getName().equals("isExpired") && args != null)
+                    return expirationTime < (Long) args[0];
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}
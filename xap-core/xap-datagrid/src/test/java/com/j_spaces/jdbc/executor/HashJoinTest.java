@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.j_spaces.jdbc.executor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class HashJoinTest {
+
+    @Test
+    public void largestTableIsProbing() {
+        // 100k rows joined with 1M rows
+        List<int[]> order = HashJoin.order(new int[]{100000, 1000000}, new int[][]{{0, 1}});
+        assertOrder(order, new int[]{1, -1}, new int[]{0, 0});
+    }
+
+    @Test
+    public void smallestConnectedTableIsJoinedFirst() {
+        // 0 - 1 - 2, 0 - 3: table 2 is the smallest but is only reachable through table 1
+        int[] sizes = {1000, 500, 10, 100};
+        int[][] joins = {{0, 1}, {1, 2}, {3, 0}};
+        assertOrder(HashJoin.order(sizes, joins), new int[]{0, -1}, new int[]{3, 2}, new int[]{1, 0}, new int[]{2, 1});
+    }
+
+    @Test
+    public void disconnectedTables() {
+        Assert.assertNull(HashJoin.order(new int[]{10, 20, 30}, new int[][]{{0, 1}}));
+    }
+
+    private static void assertOrder(List<int[]> actual, int[]... expected) {
+        Assert.assertEquals(expected.length, actual.size());
+        for (int i = 0; i < expected.length; i++)
+            Assert.assertArrayEquals("step " + i, expected[i], actual.get(i));
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.j_spaces.kernel.list;
+
+import com.j_spaces.kernel.IObjectInfo;
+import com.j_spaces.kernel.IStoredListIterator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class LockFreeStoredListTest {
+
+    @Test
+    public void scansInInsertionOrder() {
+        LockFreeStoredList<Integer> list = new LockFreeStoredList<Integer>();
+        List<IObjectInfo<Integer>> nodes = new ArrayList<IObjectInfo<Integer>>();
+        for (int i = 0; i < 10; i++)
+            nodes.add(list.add(i));
+        Assert.assertEquals(10, list.size());
+        Assert.assertEquals(Integer.valueOf(0), list.getObjectFromHead());
+
+        list.remove(nodes.get(0));
+        list.remove(nodes.get(5));
+        list.remove(nodes.get(9));
+        Assert.assertNull(nodes.get(0).getSubject());
+        Assert.assertEquals(7, list.size());
+        Assert.assertEquals(Integer.valueOf(1), list.getObjectFromHead());
+        Assert.assertEquals(asList(1, 2, 3, 4, 6, 7, 8), scan(list));
+
+        // removing the last node keeps it linked, adds after it must not be lost
+        list.add(10);
+        Assert.assertEquals(asList(1, 2, 3, 4, 6, 7, 8, 10), scan(list));
+        Assert.assertTrue(list.contains(4));
+        Assert.assertTrue(list.removeByObject(4));
+        Assert.assertFalse(list.contains(4));
+        Assert.assertFalse(list.removeByObject(4));
+        Assert.assertEquals(7, list.size());
+    }
+
+    @Test
+    public void randomScansRotateAndVisitEachNodeOnce() {
+        LockFreeStoredList<Integer> list = new LockFreeStoredList<Integer>();
+        List<IObjectInfo<Integer>> nodes = new ArrayList<IObjectInfo<Integer>>();
+        for (int i = 0; i < 5; i++)
+            nodes.add(list.add(i));
+
+        Assert.assertEquals(asList(0, 1, 2, 3, 4), scan(list, true));
+        Assert.assertEquals(asList(1, 2, 3, 4, 0), scan(list, true));
+        Assert.assertEquals(asList(2, 3, 4, 0, 1), scan(list, true));
+        // non random scans are not affected
+        Assert.assertEquals(asList(0, 1, 2, 3, 4), scan(list));
+
+        // the next random scan starts after 2, once it is removed the scan starts at the head
+        list.remove(nodes.get(2));
+        Assert.assertEquals(asList(0, 1, 3, 4), scan(list, true));
+        for (int i = 0; i < 10; i++)
+            list.add(100 + i);
+        for (int round = 0; round < 20; round++) {
+            List<Integer> values = scan(list, true);
+            Assert.assertEquals(14, values.size());
+            Assert.assertEquals(14, new HashSet<Integer>(values).size());
+            Assert.assertFalse(values.contains(2));
+        }
+    }
+
+    @Test
+    public void invalidateOnlyWhenEmpty() {
+        LockFreeStoredList<Integer> list = new LockFreeStoredList<Integer>();
+        IObjectInfo<Integer> oi = list.add(1);
+        Assert.assertFalse(list.invalidate());
+        list.remove(oi);
+        Assert.assertTrue(list.isEmpty());
+        Assert.assertNull(list.establishListScan(false));
+        Assert.assertTrue(list.invalidate());
+        Assert.assertNull("No adds after the list was invalidated", list.add(2));
+        Assert.assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void removedNodesArePurged() {
+        LockFreeStoredList<Integer> list = new LockFreeStoredList<Integer>();
+        IObjectInfo<Integer> first = list.add(-1);
+        for (int round = 0; round < 100; round++) {
+            List<IObjectInfo<Integer>> nodes = new ArrayList<IObjectInfo<Integer>>();
+            for (int i = 0; i < 100; i++)
+                nodes.add(list.add(i));
+            for (IObjectInfo<Integer> oi : nodes)
+                list.remove(oi);
+        }
+        Assert.assertEquals(1, list.size());
+        Assert.assertEquals(asList(-1), scan(list));
+        int linked = 0;
+        for (LockFreeStoredList.Node node = ((LockFreeStoredList.Node) first); node != null; node = node.getNext())
+            linked++;
+        Assert.assertTrue("Too many removed nodes still linked: " + linked, linked < 200);
+    }
+
+    @Test
+    public void concurrentAddsAndRemoves() throws Exception {
+        final LockFreeStoredList<Integer> list = new LockFreeStoredList<Integer>();
+        final int threads = 4;
+        final int perThread = 20000;
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int base = t * perThread;
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < perThread; i++) {
+                            IObjectInfo<Integer> oi = list.add(base + i);
+                            // keep the even values
+                            if (i % 2 != 0)
+                                list.remove(oi);
+                            if (i % 1000 == 0)
+                                scan(list, i % 2000 == 0);
+                        }
+                    } catch (Throwable e) {
+                        error.set(e);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers)
+            worker.join();
+        Assert.assertNull(error.get());
+
+        Assert.assertEquals(threads * perThread / 2, list.size());
+        Set<Integer> values = new HashSet<Integer>(scan(list));
+        Assert.assertEquals(threads * perThread / 2, values.size());
+        for (Integer value : values)
+            Assert.assertEquals(0, value % 2);
+    }
+
+    private static List<Integer> scan(LockFreeStoredList<Integer> list) {
+        return scan(list, false);
+    }
+
+    private static List<Integer> scan(LockFreeStoredList<Integer> list, boolean randomScan) {
+        List<Integer> result = new ArrayList<Integer>();
+        for (IStoredListIterator<Integer> slh = list.establishListScan(randomScan); slh != null; slh = list.next(slh))
+            result.add(slh.getSubject());
+        return result;
+    }
+
+    private static List<Integer> asList(Integer... values) {
+        List<Integer> result = new ArrayList<Integer>();
+        for (Integer value : values)
+            result.add(value);
+        return result;
+    }
+}
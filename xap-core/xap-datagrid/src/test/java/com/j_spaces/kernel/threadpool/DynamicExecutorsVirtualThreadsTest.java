@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.j_spaces.kernel.threadpool;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class DynamicExecutorsVirtualThreadsTest {
+
+    static boolean isVirtualThreadsSupported() {
+        String version = System.getProperty("java.specification.version");
+        return !version.startsWith("1.") && Integer.parseInt(version) >= 21;
+    }
+
+    @Test
+    public void newVirtualThreadPerTaskExecutor() throws Exception {
+        ExecutorService executor = DynamicExecutors.newVirtualThreadPerTaskExecutor("test-virtual");
+        if (!isVirtualThreadsSupported()) {
+            Assert.assertNull("virtual threads are not supported by this JVM", executor);
+            return;
+        }
+        Assert.assertNotNull(executor);
+        try {
+            Future<Thread> future = executor.submit(new java.util.concurrent.Callable<Thread>() {
+                @Override
+                public Thread call() {
+                    return Thread.currentThread();
+                }
+            });
+            Thread thread = future.get(10, TimeUnit.SECONDS);
+            Assert.assertTrue(thread.getName(), thread.getName().startsWith("test-virtual-"));
+            Assert.assertEquals(Boolean.TRUE, Thread.class.getMethod("isVirtual").invoke(thread));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openspaces.memcached;
+
+import com.gigaspaces.client.CustomChangeOperation;
+import com.gigaspaces.server.MutableServerEntry;
+
+/**
+ * Appends or prepends data to the value of a {@link MemcachedEntry} within the space, so only the
+ * added data is sent instead of reading and rewriting the whole value.
+ *
+ * @since 15.5
+ */
+public class ConcatValueOperation extends CustomChangeOperation {
+    private static final long serialVersionUID = 1L;
+
+    private final byte[] data;
+    private final boolean prepend;
+
+    public ConcatValueOperation(byte[] data, boolean prepend) {
+        this.data = data;
+        this.prepend = prepend;
+    }
+
+    @Override
+    public String getName() {
+        return prepend ? "memcachedPrepend" : "memcachedAppend";
+    }
+
+    @Override
+    public Object change(MutableServerEntry entry) {
+        // the current value is the instance kept in space, so a new array is set instead of modifying it
+        byte[] value = (byte[]) entry.getPathValue("value");
+        byte[] newValue = new byte[value.length + data.length];
+        if (prepend) {
+            System.arraycopy(data, 0, newValue, 0, data.length);
+            System.arraycopy(value, 0, newValue, data.length, value.length);
+        } else {
+            System.arraycopy(value, 0, newValue, 0, value.length);
+            System.arraycopy(data, 0, newValue, value.length, data.length);
+        }
+        entry.setPathValue("value", newValue);
+        return null;
+    }
+}
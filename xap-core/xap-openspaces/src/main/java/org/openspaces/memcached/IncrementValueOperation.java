@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openspaces.memcached;
+
+import com.gigaspaces.client.CustomChangeOperation;
+import com.gigaspaces.server.MutableServerEntry;
+
+import org.openspaces.memcached.util.BufferUtils;
+
+/**
+ * Adds a delta to the numeric value of a {@link MemcachedEntry} within the space, so incr and decr
+ * do not need a read-modify-write round trip. The value does not go below zero, and the new value
+ * is the result of the operation.
+ *
+ * @since 15.5
+ */
+public class IncrementValueOperation extends CustomChangeOperation {
+    private static final long serialVersionUID = 1L;
+
+    private final int delta;
+
+    public IncrementValueOperation(int delta) {
+        this.delta = delta;
+    }
+
+    @Override
+    public String getName() {
+        return "memcachedIncrement";
+    }
+
+    @Override
+    public Object change(MutableServerEntry entry) {
+        int value = BufferUtils.atoi((byte[]) entry.getPathValue("value")) + delta;
+        if (value < 0) {
+            value = 0;
+        } // check for underflow
+        entry.setPathValue("value", BufferUtils.itoa(value));
+        return value;
+    }
+}
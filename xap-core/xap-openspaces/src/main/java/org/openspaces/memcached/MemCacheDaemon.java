@@ -16,6 +16,8 @@
 
 package org.openspaces.memcached;
 
+import com.j_spaces.kernel.threadpool.DynamicExecutors;
+
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.jboss.netty.bootstrap.ServerBootstrap;
@@ -27,6 +29,8 @@ import org.jboss.netty.channel.group.ChannelGroupFuture;
 import org.jboss.netty.channel.group.DefaultChannelGroup;
 import org.jboss.netty.channel.socket.ServerSocketChannelFactory;
 import org.jboss.netty.channel.socket.nio.NioServerSocketChannelFactory;
+import org.jboss.netty.handler.execution.ExecutionHandler;
+import org.jboss.netty.handler.execution.OrderedMemoryAwareThreadPoolExecutor;
 import org.openspaces.core.GigaSpace;
 import org.openspaces.memcached.protocol.UnifiedProtocolDecoder;
 import org.openspaces.memcached.protocol.binary.MemcachedBinaryPipelineFactory;
@@ -43,6 +47,7 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author kimchy (shay.banon)
@@ -67,11 +72,20 @@ public class MemCacheDaemon implements InitializingBean, DisposableBean, BeanNam
 
     private boolean threaded = true;
 
+    private int workerCount = Runtime.getRuntime().availableProcessors() * 2;
+
+    private int threadPoolSize = Math.max(16, Runtime.getRuntime().availableProcessors() * 4);
+
+    private long getBatchWindowMicros = 50;
+
+    private int getBatchMaxSize = 256;
+
     private int frameSize = 32768 * 1024;
     private int idleTime;
 
     private int boundedPort;
     private ServerSocketChannelFactory channelFactory;
+    private ExecutionHandler executionHandler;
     private DefaultChannelGroup allChannels;
     private SpaceCache cache;
 
@@ -103,9 +117,47 @@ public class MemCacheDaemon implements InitializingBean, DisposableBean, BeanNam
         this.threaded = threaded;
     }
 
+    /**
+     * Sets the number of I/O threads serving all the connections. Defaults to twice the number of
+     * cores.
+     */
+    public void setWorkerCount(int workerCount) {
+        this.workerCount = workerCount;
+    }
+
+    /**
+     * Sets the number of threads executing commands when running threaded, shared by all the
+     * connections while keeping the order of commands of each connection. Defaults to four times
+     * the number of cores, and at least 16.
+     */
+    public void setThreadPoolSize(int threadPoolSize) {
+        this.threadPoolSize = threadPoolSize;
+    }
+
+    /**
+     * Sets how long (in microseconds) concurrent single key gets are collected into one batch
+     * read. Defaults to 50, 0 reads each key separately.
+     */
+    public void setGetBatchWindowMicros(long getBatchWindowMicros) {
+        this.getBatchWindowMicros = getBatchWindowMicros;
+    }
+
+    /**
+     * Sets the maximal number of keys read in one batch. Defaults to 256.
+     */
+    public void setGetBatchMaxSize(int getBatchMaxSize) {
+        this.getBatchMaxSize = getBatchMaxSize;
+    }
+
     public void afterPropertiesSet() throws Exception {
-        cache = new SpaceCache(space);
-        channelFactory = new NioServerSocketChannelFactory(Executors.newCachedThreadPool(), Executors.newCachedThreadPool());
+        cache = new SpaceCache(space, getBatchWindowMicros, getBatchMaxSize);
+        // the executors only supply threads, their number is bounded by the boss and worker counts
+        channelFactory = new NioServerSocketChannelFactory(Executors.newCachedThreadPool(DynamicExecutors.daemonThreadFactory("memcached-boss")),
+                Executors.newCachedThreadPool(DynamicExecutors.daemonThreadFactory("memcached-worker")), workerCount);
+        if (threaded) {
+            executionHandler = new ExecutionHandler(new OrderedMemoryAwareThreadPoolExecutor(threadPoolSize, 0, 0, 60, TimeUnit.SECONDS,
+                    DynamicExecutors.daemonThreadFactory("memcached")));
+        }
 
         allChannels = new DefaultChannelGroup("memcachedChannelGroup");
 
@@ -113,7 +165,7 @@ public class MemCacheDaemon implements InitializingBean, DisposableBean, BeanNam
 
         ChannelPipelineFactory pipelineFactory = new ChannelPipelineFactory() {
             public ChannelPipeline getPipeline() throws Exception {
-                return Channels.pipeline(new UnifiedProtocolDecoder(cache, allChannels, memcachedVersion, idleTime, false, threaded));
+                return Channels.pipeline(new UnifiedProtocolDecoder(cache, allChannels, memcachedVersion, idleTime, false, executionHandler));
             }
         };
         if ("binary".equalsIgnoreCase(protocol)) {
@@ -153,12 +205,12 @@ public class MemCacheDaemon implements InitializingBean, DisposableBean, BeanNam
 
     protected ChannelPipelineFactory createMemcachedBinaryPipelineFactory(
             SpaceCache cache, String memcachedVersion, boolean verbose, int idleTime, DefaultChannelGroup allChannels) {
-        return new MemcachedBinaryPipelineFactory(cache, memcachedVersion, verbose, idleTime, allChannels);
+        return new MemcachedBinaryPipelineFactory(cache, memcachedVersion, verbose, idleTime, allChannels, executionHandler);
     }
 
     protected ChannelPipelineFactory createMemcachedPipelineFactory(
             SpaceCache cache, String memcachedVersion, boolean verbose, int idleTime, int receiveBufferSize, DefaultChannelGroup allChannels) {
-        return new MemcachedPipelineFactory(cache, memcachedVersion, verbose, idleTime, receiveBufferSize, allChannels);
+        return new MemcachedPipelineFactory(cache, memcachedVersion, verbose, idleTime, receiveBufferSize, allChannels, executionHandler);
     }
 
     public void destroy() throws Exception {
@@ -173,6 +225,9 @@ public class MemCacheDaemon implements InitializingBean, DisposableBean, BeanNam
             throw new RuntimeException("exception while closing storage", e);
         }
         channelFactory.releaseExternalResources();
+        if (executionHandler != null) {
+            executionHandler.releaseExternalResources();
+        }
         logger.info("memcached destroyed");
     }
 
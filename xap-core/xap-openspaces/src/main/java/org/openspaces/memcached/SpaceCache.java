@@ -16,15 +16,18 @@
 
 package org.openspaces.memcached;
 
+import com.gigaspaces.client.ChangeModifiers;
+import com.gigaspaces.client.ChangeResult;
+import com.gigaspaces.client.ChangeSet;
+import com.gigaspaces.client.ChangedEntryDetails;
 import com.gigaspaces.client.ReadByIdsResult;
 import com.gigaspaces.client.WriteModifiers;
-import com.j_spaces.core.client.UpdateModifiers;
+import com.gigaspaces.query.IdQuery;
 
 import org.openspaces.core.EntryAlreadyInSpaceException;
 import org.openspaces.core.EntryNotInSpaceException;
 import org.openspaces.core.GigaSpace;
 import org.openspaces.core.SpaceOptimisticLockingFailureException;
-import org.openspaces.memcached.util.BufferUtils;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
@@ -60,6 +63,8 @@ public class SpaceCache {
 
     private final GigaSpace space;
 
+    private final SpaceGetBatcher getBatcher;
+
     protected final AtomicLong started = new AtomicLong();
     protected final AtomicLong getCmds = new AtomicLong();
     protected final AtomicLong setCmds = new AtomicLong();
@@ -67,7 +72,21 @@ public class SpaceCache {
     protected final AtomicLong getMisses = new AtomicLong();
 
     public SpaceCache(GigaSpace space) {
+        this(space, 0, 1);
+    }
+
+    /**
+     * @param getBatchWindowMicros how long concurrent single key gets are collected into one
+     *                             batch read, 0 to read each key separately
+     * @param getBatchMaxSize      the maximal number of keys in a batch read
+     */
+    public SpaceCache(GigaSpace space, long getBatchWindowMicros, int getBatchMaxSize) {
         this.space = space;
+        this.getBatcher = getBatchWindowMicros > 0 ? new SpaceGetBatcher(new SpaceGetBatcher.BatchReader() {
+            public MemcachedEntry[] read(Key[] keys) {
+                return readEntries(keys);
+            }
+        }, getBatchWindowMicros, getBatchMaxSize) : null;
         started.set(System.currentTimeMillis());
     }
 
@@ -109,44 +128,22 @@ public class SpaceCache {
 
     public StoreResponse append(LocalCacheElement cacheElement) {
         // binary protocol allows to pass cas value, take it into account?
-        while (true) {
-            MemcachedEntry entry = space.readById(MemcachedEntry.class, cacheElement.getKey());
-            if (entry == null) {
-                getMisses.incrementAndGet();
-                return StoreResponse.NOT_FOUND;
-            }
-            byte[] newData = new byte[entry.getValue().length + cacheElement.getData().length];
-            System.arraycopy(entry.getValue(), 0, newData, 0, entry.getValue().length);
-            System.arraycopy(cacheElement.getData(), 0, newData, entry.getValue().length, cacheElement.getData().length);
-            entry.setValue(newData);
-            try {
-                space.write(entry);
-            } catch (SpaceOptimisticLockingFailureException e) {
-                continue;
-            }
-            return StoreResponse.STORED;
-        }
+        return concat(cacheElement, false);
     }
 
     public StoreResponse prepend(LocalCacheElement cacheElement) {
         // binary protocol allows to pass cas value, take it into account?
-        while (true) {
-            MemcachedEntry entry = space.readById(MemcachedEntry.class, cacheElement.getKey());
-            if (entry == null) {
-                getMisses.incrementAndGet();
-                return StoreResponse.NOT_FOUND;
-            }
-            byte[] newData = new byte[entry.getValue().length + cacheElement.getData().length];
-            System.arraycopy(cacheElement.getData(), 0, newData, 0, cacheElement.getData().length);
-            System.arraycopy(entry.getValue(), 0, newData, cacheElement.getData().length, entry.getValue().length);
-            entry.setValue(newData);
-            try {
-                space.write(entry);
-            } catch (SpaceOptimisticLockingFailureException e) {
-                continue;
-            }
-            return StoreResponse.STORED;
+        return concat(cacheElement, true);
+    }
+
+    private StoreResponse concat(LocalCacheElement cacheElement, boolean prepend) {
+        ChangeSet changeSet = new ChangeSet().custom(new ConcatValueOperation(cacheElement.getData(), prepend));
+        ChangeResult<MemcachedEntry> result = space.change(idQuery(cacheElement.getKey()), changeSet);
+        if (result.getNumberOfChangedEntries() == 0) {
+            getMisses.incrementAndGet();
+            return StoreResponse.NOT_FOUND;
         }
+        return StoreResponse.STORED;
     }
 
     public StoreResponse set(LocalCacheElement e) {
@@ -173,34 +170,21 @@ public class SpaceCache {
     }
 
     public Integer get_add(Key key, int mod) {
-        while (true) {
-            MemcachedEntry entry = space.readById(MemcachedEntry.class, key);
-            if (entry == null) {
-                getMisses.incrementAndGet();
-                return null;
-            }
-            int val = BufferUtils.atoi(entry.getValue()) + mod; // change value
-            if (val < 0) {
-                val = 0;
-
-            } // check for underflow
-
-            entry.setValue(BufferUtils.itoa(val));
-
-            try {
-                space.write(entry);
-            } catch (SpaceOptimisticLockingFailureException e) {
-                continue;
-            }
-            return val;
+        ChangeSet changeSet = new ChangeSet().custom(new IncrementValueOperation(mod));
+        ChangeResult<MemcachedEntry> result = space.change(idQuery(key), changeSet, ChangeModifiers.RETURN_DETAILED_RESULTS);
+        if (result.getResults().isEmpty()) {
+            getMisses.incrementAndGet();
+            return null;
         }
+        ChangedEntryDetails<MemcachedEntry> details = result.getResults().iterator().next();
+        return (Integer) details.getChangeOperationsResults().get(0).getResult();
     }
 
     public LocalCacheElement[] get(Key... keys) {
         getCmds.incrementAndGet();//updates stats
         try {
             if (keys.length == 1) {
-                MemcachedEntry entry = space.readById(MemcachedEntry.class, keys[0]);
+                MemcachedEntry entry = getBatcher != null ? getBatcher.get(keys[0]) : space.readById(MemcachedEntry.class, keys[0]);
                 if (entry == null) {
                     getMisses.incrementAndGet();
                     return new LocalCacheElement[]{null};
@@ -313,6 +297,17 @@ public class SpaceCache {
         // nothing to do here
     }
 
+    private MemcachedEntry[] readEntries(Key[] keys) {
+        if (keys.length == 1) {
+            return new MemcachedEntry[]{space.readById(MemcachedEntry.class, keys[0])};
+        }
+        return space.readByIds(MemcachedEntry.class, keys).getResultsArray();
+    }
+
+    private static IdQuery<MemcachedEntry> idQuery(Key key) {
+        return new IdQuery<MemcachedEntry>(MemcachedEntry.class, key, key);
+    }
+
     private LocalCacheElement convert(MemcachedEntry entry) throws UnsupportedEncodingException {
         LocalCacheElement element = new LocalCacheElement(entry.getKey(), entry.getFlags(), -1 /* not relevant, not sent back */, entry.getVersion());
         element.setData(entry.getValue());
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openspaces.memcached;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Coalesces concurrent single key gets into batch reads. The first thread to arrive opens a batch
+ * and waits for the batch window (or until the batch is full) while other threads join it, then
+ * reads all the keys of the batch with a single space call and hands each waiting thread its
+ * entry.
+ *
+ * @since 15.5
+ */
+public class SpaceGetBatcher {
+
+    /**
+     * Reads the entries of the specified keys, returned in the order of the keys (null for a
+     * missing entry).
+     */
+    public interface BatchReader {
+        MemcachedEntry[] read(Key[] keys);
+    }
+
+    private final BatchReader reader;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Object lock = new Object();
+    private Batch openBatch;
+
+    public SpaceGetBatcher(BatchReader reader, long windowMicros, int maxBatchSize) {
+        if (maxBatchSize < 1)
+            throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+        this.reader = reader;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public MemcachedEntry get(Key key) {
+        final Batch batch;
+        final int index;
+        boolean leader = false;
+        synchronized (lock) {
+            if (openBatch == null) {
+                openBatch = new Batch(Thread.currentThread());
+                leader = true;
+            }
+            batch = openBatch;
+            index = batch.add(key);
+            if (batch.size() >= maxBatchSize) {
+                openBatch = null;
+                batch.sealed = true;
+                if (!leader)
+                    LockSupport.unpark(batch.leader);
+            }
+        }
+        if (leader) {
+            batch.awaitWindow(windowNanos);
+            synchronized (lock) {
+                if (openBatch == batch)
+                    openBatch = null;
+            }
+            batch.execute(reader);
+        }
+        return batch.get(index);
+    }
+
+    private static class Batch {
+        private final Thread leader;
+        private final List<Key> keys = new ArrayList<Key>();
+        private final Map<Key, Integer> indexes = new HashMap<Key, Integer>();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile boolean sealed;
+        private MemcachedEntry[] results;
+        private RuntimeException failure;
+
+        private Batch(Thread leader) {
+            this.leader = leader;
+        }
+
+        private int add(Key key) {
+            Integer index = indexes.get(key);
+            if (index == null) {
+                index = keys.size();
+                keys.add(key);
+                indexes.put(key, index);
+            }
+            return index;
+        }
+
+        private int size() {
+            return keys.size();
+        }
+
+        private void awaitWindow(long windowNanos) {
+            final long deadline = System.nanoTime() + windowNanos;
+            long remaining = windowNanos;
+            while (!sealed && remaining > 0) {
+                LockSupport.parkNanos(this, remaining);
+                remaining = deadline - System.nanoTime();
+            }
+        }
+
+        private void execute(BatchReader reader) {
+            // the batch is no longer open, so its keys can be read without holding the lock
+            try {
+                results = reader.read(keys.toArray(new Key[keys.size()]));
+            } catch (RuntimeException e) {
+                failure = e;
+            } catch (Error e) {
+                failure = new IllegalStateException("Failed to read batch", e);
+                throw e;
+            } finally {
+                done.countDown();
+            }
+        }
+
+        private MemcachedEntry get(int index) {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    done.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted)
+                Thread.currentThread().interrupt();
+            if (failure != null)
+                throw failure;
+            return results[index];
+        }
+    }
+}
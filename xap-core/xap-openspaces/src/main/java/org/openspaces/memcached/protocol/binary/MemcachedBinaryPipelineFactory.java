@@ -20,6 +20,7 @@ import org.jboss.netty.channel.ChannelPipeline;
 import org.jboss.netty.channel.ChannelPipelineFactory;
 import org.jboss.netty.channel.Channels;
 import org.jboss.netty.channel.group.DefaultChannelGroup;
+import org.jboss.netty.handler.execution.ExecutionHandler;
 import org.openspaces.memcached.SpaceCache;
 import org.openspaces.memcached.protocol.MemcachedCommandHandler;
 
@@ -29,16 +30,25 @@ public class MemcachedBinaryPipelineFactory implements ChannelPipelineFactory {
     private final MemcachedBinaryCommandDecoder decoder = new MemcachedBinaryCommandDecoder();
     private final MemcachedCommandHandler memcachedCommandHandler;
     private final MemcachedBinaryResponseEncoder memcachedBinaryResponseEncoder = new MemcachedBinaryResponseEncoder();
+    private final ExecutionHandler executionHandler;
 
     public MemcachedBinaryPipelineFactory(SpaceCache cache, String version, boolean verbose, int idleTime, DefaultChannelGroup channelGroup) {
+        this(cache, version, verbose, idleTime, channelGroup, null);
+    }
+
+    public MemcachedBinaryPipelineFactory(SpaceCache cache, String version, boolean verbose, int idleTime, DefaultChannelGroup channelGroup,
+                                          ExecutionHandler executionHandler) {
+        this.executionHandler = executionHandler;
         memcachedCommandHandler = new MemcachedCommandHandler(cache, version, verbose, idleTime, channelGroup);
     }
 
     public ChannelPipeline getPipeline() throws Exception {
-        return Channels.pipeline(
-                decoder,
-                memcachedCommandHandler,
-                memcachedBinaryResponseEncoder
-        );
+        ChannelPipeline pipeline = Channels.pipeline(decoder);
+        if (executionHandler != null) {
+            pipeline.addLast("executor", executionHandler);
+        }
+        pipeline.addLast("handler", memcachedCommandHandler);
+        pipeline.addLast("encoder", memcachedBinaryResponseEncoder);
+        return pipeline;
     }
 }
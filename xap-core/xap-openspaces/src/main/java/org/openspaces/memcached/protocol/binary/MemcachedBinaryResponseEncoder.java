@@ -23,6 +23,7 @@ import org.jboss.netty.buffer.ChannelBuffers;
 import org.jboss.netty.channel.Channel;
 import org.jboss.netty.channel.ChannelHandler;
 import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelStateEvent;
 import org.jboss.netty.channel.ExceptionEvent;
 import org.jboss.netty.channel.MessageEvent;
 import org.jboss.netty.channel.SimpleChannelUpstreamHandler;
@@ -32,6 +33,8 @@ import org.openspaces.memcached.protocol.ResponseMessage;
 import org.openspaces.memcached.protocol.exceptions.UnknownCommandException;
 
 import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -43,7 +46,8 @@ import java.util.concurrent.ConcurrentHashMap;
 @ChannelHandler.Sharable
 public class MemcachedBinaryResponseEncoder extends SimpleChannelUpstreamHandler {
 
-    private ConcurrentHashMap<Integer, ChannelBuffer> corkedBuffers = new ConcurrentHashMap<Integer, ChannelBuffer>();
+    // responses of quiet commands, kept per connection until the next response which is not quiet
+    private final ConcurrentHashMap<Channel, List<ChannelBuffer>> corkedBuffers = new ConcurrentHashMap<Channel, List<ChannelBuffer>>();
 
     protected final static Log logger = LogFactory.getLog(MemcachedBinaryResponseEncoder.class);
 
@@ -156,6 +160,12 @@ public class MemcachedBinaryResponseEncoder extends SimpleChannelUpstreamHandler
         }
     }
 
+    @Override
+    public void channelClosed(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+        corkedBuffers.remove(ctx.getChannel());
+        super.channelClosed(ctx, e);
+    }
+
     @Override
     public void messageReceived(ChannelHandlerContext channelHandlerContext, MessageEvent messageEvent) throws Exception {
         ResponseMessage command = (ResponseMessage) messageEvent.getMessage();
@@ -203,8 +213,7 @@ public class MemcachedBinaryResponseEncoder extends SimpleChannelUpstreamHandler
         // stats is special -- with it, we write N times, one for each stat, then an empty payload
         if (command.cmd.op == Op.STATS) {
             // first uncork any corked buffers
-            if (corkedBuffers.containsKey(command.cmd.opaque))
-                uncork(command.cmd.opaque, messageEvent.getChannel());
+            List<ChannelBuffer> payload = uncork(messageEvent.getChannel());
 
             for (Map.Entry<String, Set<String>> statsEntries : command.stats.entrySet()) {
                 for (String stat : statsEntries.getValue()) {
@@ -218,7 +227,7 @@ public class MemcachedBinaryResponseEncoder extends SimpleChannelUpstreamHandler
 
                     ChannelBuffer headerBuffer = constructHeader(bcmd, extrasBuffer, keyBuffer, valueBuffer, getStatusCode(command).getCode(), command.cmd.opaque, casUnique);
 
-                    writePayload(messageEvent, extrasBuffer, keyBuffer, valueBuffer, headerBuffer);
+                    addPayload(payload, extrasBuffer, keyBuffer, valueBuffer, headerBuffer);
                 }
             }
 
@@ -227,7 +236,8 @@ public class MemcachedBinaryResponseEncoder extends SimpleChannelUpstreamHandler
 
             ChannelBuffer headerBuffer = constructHeader(bcmd, extrasBuffer, keyBuffer, valueBuffer, getStatusCode(command).getCode(), command.cmd.opaque, casUnique);
 
-            writePayload(messageEvent, extrasBuffer, keyBuffer, valueBuffer, headerBuffer);
+            addPayload(payload, extrasBuffer, keyBuffer, valueBuffer, headerBuffer);
+            writePayload(messageEvent.getChannel(), payload);
 
         } else {
             ChannelBuffer headerBuffer = constructHeader(bcmd, extrasBuffer, keyBuffer, valueBuffer, getStatusCode(command).getCode(), command.cmd.opaque, casUnique);
@@ -235,63 +245,42 @@ public class MemcachedBinaryResponseEncoder extends SimpleChannelUpstreamHandler
             // write everything
             // is the command 'quiet?' if so, then we append to our 'corked' buffer until a non-corked command comes along
             if (bcmd.isNoreply()) {
-                int totalCapacity = headerBuffer.capacity() + (extrasBuffer != null ? extrasBuffer.capacity() : 0)
-                        + (keyBuffer != null ? keyBuffer.capacity() : 0) + (valueBuffer != null ? valueBuffer.capacity() : 0);
-
-                ChannelBuffer corkedResponse = cork(command.cmd.opaque, totalCapacity);
-
-
-                corkedResponse.writeBytes(headerBuffer);
-                if (extrasBuffer != null)
-                    corkedResponse.writeBytes(extrasBuffer);
-                if (keyBuffer != null)
-                    corkedResponse.writeBytes(keyBuffer);
-                if (valueBuffer != null)
-                    corkedResponse.writeBytes(valueBuffer);
+                // a quiet get only responds on a hit
+                if (command.cmd.op == Op.GET && getStatusCode(command) == ResponseCode.KEYNF)
+                    return;
+                List<ChannelBuffer> corked = corkedBuffers.get(messageEvent.getChannel());
+                if (corked == null) {
+                    corked = new ArrayList<ChannelBuffer>();
+                    corkedBuffers.put(messageEvent.getChannel(), corked);
+                }
+                addPayload(corked, extrasBuffer, keyBuffer, valueBuffer, headerBuffer);
             } else {
-                // first write out any corked responses
-                if (corkedBuffers.containsKey(command.cmd.opaque))
-                    uncork(command.cmd.opaque, messageEvent.getChannel());
-
-
-                writePayload(messageEvent, extrasBuffer, keyBuffer, valueBuffer, headerBuffer);
+                // first write out any corked responses, together with this response
+                List<ChannelBuffer> payload = uncork(messageEvent.getChannel());
+                addPayload(payload, extrasBuffer, keyBuffer, valueBuffer, headerBuffer);
+                writePayload(messageEvent.getChannel(), payload);
             }
         }
     }
 
-    private ChannelBuffer cork(int opaque, int totalCapacity) {
-        if (corkedBuffers.containsKey(opaque)) {
-            ChannelBuffer corkedResponse = corkedBuffers.get(opaque);
-            ChannelBuffer oldBuffer = corkedResponse;
-            corkedResponse = ChannelBuffers.buffer(ByteOrder.BIG_ENDIAN, totalCapacity + corkedResponse.capacity());
-            corkedResponse.writeBytes(oldBuffer);
-            oldBuffer.clear();
-
-            corkedBuffers.remove(opaque);
-            corkedBuffers.put(opaque, corkedResponse);
-            return corkedResponse;
-        }
-        ChannelBuffer buffer = ChannelBuffers.buffer(ByteOrder.BIG_ENDIAN, totalCapacity);
-        corkedBuffers.put(opaque, buffer);
-        return buffer;
+    private List<ChannelBuffer> uncork(Channel channel) {
+        List<ChannelBuffer> corked = corkedBuffers.remove(channel);
+        return corked != null ? corked : new ArrayList<ChannelBuffer>(4);
     }
 
-    private void uncork(int opaque, Channel channel) {
-        ChannelBuffer corkedBuffer = corkedBuffers.get(opaque);
-        assert corkedBuffer != null;
-        channel.write(corkedBuffer);
-        corkedBuffers.remove(opaque);
+    private static void addPayload(List<ChannelBuffer> payload, ChannelBuffer extrasBuffer, ChannelBuffer keyBuffer, ChannelBuffer valueBuffer, ChannelBuffer headerBuffer) {
+        payload.add(headerBuffer);
+        if (extrasBuffer != null)
+            payload.add(extrasBuffer.duplicate());
+        if (keyBuffer != null)
+            payload.add(keyBuffer);
+        if (valueBuffer != null)
+            payload.add(valueBuffer);
     }
 
-    private void writePayload(MessageEvent messageEvent, ChannelBuffer extrasBuffer, ChannelBuffer keyBuffer, ChannelBuffer valueBuffer, ChannelBuffer headerBuffer) {
-        if (messageEvent.getChannel().isOpen()) {
-            messageEvent.getChannel().write(headerBuffer);
-            if (extrasBuffer != null)
-                messageEvent.getChannel().write(extrasBuffer);
-            if (keyBuffer != null)
-                messageEvent.getChannel().write(keyBuffer);
-            if (valueBuffer != null)
-                messageEvent.getChannel().write(valueBuffer);
-        }
+    private void writePayload(Channel channel, List<ChannelBuffer> payload) {
+        // a single write of the whole payload, without copying the values
+        if (channel.isOpen())
+            channel.write(ChannelBuffers.wrappedBuffer(payload.toArray(new ChannelBuffer[payload.size()])));
     }
 }
@@ -20,6 +20,7 @@ import org.jboss.netty.channel.ChannelPipeline;
 import org.jboss.netty.channel.ChannelPipelineFactory;
 import org.jboss.netty.channel.Channels;
 import org.jboss.netty.channel.group.DefaultChannelGroup;
+import org.jboss.netty.handler.execution.ExecutionHandler;
 import org.openspaces.memcached.SpaceCache;
 import org.openspaces.memcached.protocol.MemcachedCommandHandler;
 import org.openspaces.memcached.protocol.SessionStatus;
@@ -42,8 +43,16 @@ public final class MemcachedPipelineFactory implements ChannelPipelineFactory {
 
     private final MemcachedCommandHandler memcachedCommandHandler;
 
+    private final ExecutionHandler executionHandler;
+
 
     public MemcachedPipelineFactory(SpaceCache cache, String version, boolean verbose, int idleTime, int frameSize, DefaultChannelGroup channelGroup) {
+        this(cache, version, verbose, idleTime, frameSize, channelGroup, null);
+    }
+
+    public MemcachedPipelineFactory(SpaceCache cache, String version, boolean verbose, int idleTime, int frameSize, DefaultChannelGroup channelGroup,
+                                    ExecutionHandler executionHandler) {
+        this.executionHandler = executionHandler;
         this.cache = cache;
         this.version = version;
         this.verbose = verbose;
@@ -56,11 +65,15 @@ public final class MemcachedPipelineFactory implements ChannelPipelineFactory {
     public final ChannelPipeline getPipeline() throws Exception {
         SessionStatus status = new SessionStatus().ready();
 
-        return Channels.pipeline(
+        ChannelPipeline pipeline = Channels.pipeline(
                 new MemcachedFrameDecoder(status, frameSize),
-                new MemcachedCommandDecoder(status),
-                memcachedCommandHandler,
-                memcachedResponseEncoder);
+                new MemcachedCommandDecoder(status));
+        if (executionHandler != null) {
+            pipeline.addLast("executor", executionHandler);
+        }
+        pipeline.addLast("handler", memcachedCommandHandler);
+        pipeline.addLast("encoder", memcachedResponseEncoder);
+        return pipeline;
     }
 
 
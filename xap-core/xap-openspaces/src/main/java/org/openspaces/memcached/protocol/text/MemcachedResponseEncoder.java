@@ -33,6 +33,8 @@ import org.openspaces.memcached.protocol.ResponseMessage;
 import org.openspaces.memcached.protocol.exceptions.ClientException;
 import org.openspaces.memcached.util.BufferUtils;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -49,6 +51,7 @@ public final class MemcachedResponseEncoder extends SimpleChannelUpstreamHandler
 
 
     public static final ChannelBuffer CRLF = ChannelBuffers.copiedBuffer("\r\n", USASCII);
+    private static final byte[] CRLF_BYTES = {'\r', '\n'};
     private static final ChannelBuffer VALUE = ChannelBuffers.copiedBuffer("VALUE ", USASCII);
     private static final ChannelBuffer EXISTS = ChannelBuffers.copiedBuffer("EXISTS\r\n", USASCII);
     private static final ChannelBuffer NOT_FOUND = ChannelBuffers.copiedBuffer("NOT_FOUND\r\n", USASCII);
@@ -88,37 +91,31 @@ public final class MemcachedResponseEncoder extends SimpleChannelUpstreamHandler
         switch (cmd) {
             case GET:
             case GETS:
+                // the values are wrapped rather than copied, and the whole response is written at once
                 LocalCacheElement[] results = command.elements;
-                int totalBytes = 0;
+                List<ChannelBuffer> response = new ArrayList<ChannelBuffer>(results.length * 2 + 1);
                 for (LocalCacheElement result : results) {
                     if (result != null) {
-                        totalBytes += result.size() + 512;
-                    }
-                }
-                ChannelBuffer writeBuffer = ChannelBuffers.dynamicBuffer(totalBytes);
-
-                for (LocalCacheElement result : results) {
-                    if (result != null) {
-                        writeBuffer.writeBytes(VALUE.duplicate());
-                        writeBuffer.writeBytes(result.getKey().bytes);
-                        writeBuffer.writeByte((byte) ' ');
-                        writeBuffer.writeBytes(BufferUtils.itoa(result.getFlags()));
-                        writeBuffer.writeByte((byte) ' ');
-                        writeBuffer.writeBytes(BufferUtils.itoa(result.getData().length));
+                        ChannelBuffer header = ChannelBuffers.buffer(result.getKey().bytes.length + 64);
+                        header.writeBytes(VALUE.duplicate());
+                        header.writeBytes(result.getKey().bytes);
+                        header.writeByte((byte) ' ');
+                        header.writeBytes(BufferUtils.itoa(result.getFlags()));
+                        header.writeByte((byte) ' ');
+                        header.writeBytes(BufferUtils.itoa(result.getData().length));
                         if (cmd == Op.GETS) {
-                            writeBuffer.writeByte((byte) ' ');
-                            writeBuffer.writeBytes(BufferUtils.ltoa(result.getCasUnique()));
+                            header.writeByte((byte) ' ');
+                            header.writeBytes(BufferUtils.ltoa(result.getCasUnique()));
                         }
-                        writeBuffer.writeByte((byte) '\r');
-                        writeBuffer.writeByte((byte) '\n');
-                        writeBuffer.writeBytes(result.getData());
-                        writeBuffer.writeByte((byte) '\r');
-                        writeBuffer.writeByte((byte) '\n');
+                        header.writeByte((byte) '\r');
+                        header.writeByte((byte) '\n');
+                        response.add(header);
+                        response.add(ChannelBuffers.wrappedBuffer(result.getData(), CRLF_BYTES));
                     }
                 }
-                writeBuffer.writeBytes(END.duplicate());
+                response.add(END.duplicate());
 
-                Channels.write(channel, writeBuffer);
+                Channels.write(channel, ChannelBuffers.wrappedBuffer(response.toArray(new ChannelBuffer[response.size()])));
                 break;
             case SET:
             case CAS:
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openspaces.test.memcached;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openspaces.memcached.Key;
+import org.openspaces.memcached.MemcachedEntry;
+import org.openspaces.memcached.SpaceGetBatcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @since 15.5
+ */
+public class SpaceGetBatcherTest {
+
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+
+    private final SpaceGetBatcher.BatchReader reader = new SpaceGetBatcher.BatchReader() {
+        public MemcachedEntry[] read(Key[] keys) {
+            batchSizes.add(keys.length);
+            MemcachedEntry[] result = new MemcachedEntry[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                // odd keys are missing
+                if (keys[i].bytes[0] % 2 == 0)
+                    result[i] = new MemcachedEntry(keys[i], keys[i].bytes);
+            }
+            return result;
+        }
+    };
+
+    @Test
+    public void testConcurrentGetsAreReadInOneBatch() throws Exception {
+        SpaceGetBatcher batcher = new SpaceGetBatcher(reader, TimeUnit.MILLISECONDS.toMicros(500), 256);
+        List<Future<MemcachedEntry>> results = getConcurrently(batcher, 0, 1, 2, 3, 4, 5, 6, 7);
+
+        Assert.assertEquals(Collections.singletonList(8), batchSizes);
+        for (int i = 0; i < results.size(); i++) {
+            MemcachedEntry entry = results.get(i).get();
+            if (i % 2 == 0)
+                Assert.assertEquals(i, entry.getKey().bytes[0]);
+            else
+                Assert.assertNull(entry);
+        }
+    }
+
+    @Test
+    public void testDuplicateKeysAreReadOnce() throws Exception {
+        SpaceGetBatcher batcher = new SpaceGetBatcher(reader, TimeUnit.MILLISECONDS.toMicros(500), 256);
+        List<Future<MemcachedEntry>> results = getConcurrently(batcher, 2, 2, 2);
+
+        Assert.assertEquals(Collections.singletonList(1), batchSizes);
+        for (Future<MemcachedEntry> result : results)
+            Assert.assertEquals(2, result.get().getKey().bytes[0]);
+    }
+
+    @Test(timeout = 5000)
+    public void testFullBatchIsReadWithoutWaitingForTheWindow() throws Exception {
+        SpaceGetBatcher batcher = new SpaceGetBatcher(reader, TimeUnit.SECONDS.toMicros(60), 2);
+        List<Future<MemcachedEntry>> results = getConcurrently(batcher, 0, 2);
+
+        Assert.assertEquals(Collections.singletonList(2), batchSizes);
+        Assert.assertNotNull(results.get(0).get());
+        Assert.assertNotNull(results.get(1).get());
+    }
+
+    @Test
+    public void testReadFailureIsThrownToAllWaiters() throws Exception {
+        final IllegalStateException failure = new IllegalStateException("read failed");
+        SpaceGetBatcher batcher = new SpaceGetBatcher(new SpaceGetBatcher.BatchReader() {
+            public MemcachedEntry[] read(Key[] keys) {
+                throw failure;
+            }
+        }, TimeUnit.MILLISECONDS.toMicros(200), 256);
+        for (Future<MemcachedEntry> result : getConcurrently(batcher, 0, 1, 2)) {
+            try {
+                result.get();
+                Assert.fail("Expected the read failure");
+            } catch (ExecutionException e) {
+                Assert.assertSame(failure, e.getCause());
+            }
+        }
+    }
+
+    private static List<Future<MemcachedEntry>> getConcurrently(final SpaceGetBatcher batcher, int... keys) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(keys.length);
+        try {
+            final CyclicBarrier barrier = new CyclicBarrier(keys.length);
+            List<Future<MemcachedEntry>> results = new ArrayList<Future<MemcachedEntry>>();
+            for (final int key : keys) {
+                results.add(executor.submit(new Callable<MemcachedEntry>() {
+                    public MemcachedEntry call() throws Exception {
+                        barrier.await();
+                        return batcher.get(new Key(new byte[]{(byte) key}));
+                    }
+                }));
+            }
+            for (Future<MemcachedEntry> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    // inspected by the caller
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -65,6 +65,18 @@ public class JettyWebApplicationContextListener implements ServletContextListene
      */
     public static final String JETTY_SESSIONS_LEASE = "jetty.sessions.lease";
 
+    /**
+     * Controls if stored sessions are updated with only their modified attributes instead of being
+     * rewritten as a whole. Defaults to <code>false</code>.
+     */
+    public static final String JETTY_SESSIONS_DELTA_UPDATES = "jetty.sessions.deltaUpdates";
+
+    /**
+     * Controls if sessions are cached locally and read from the Space only when modified by
+     * another node. Defaults to <code>false</code>.
+     */
+    public static final String JETTY_SESSIONS_NEAR_CACHE = "jetty.sessions.nearCache";
+
     public void contextInitialized(ServletContextEvent servletContextEvent) {
         final ServletContext servletContext = servletContextEvent.getServletContext();
         // a hack to get the jetty context
@@ -118,6 +130,22 @@ public class JettyWebApplicationContextListener implements ServletContextListene
             }
         }
 
+        String deltaUpdates = beanLevelProperties.getContextProperties().getProperty(JETTY_SESSIONS_DELTA_UPDATES);
+        if (deltaUpdates != null) {
+            spaceSessionDataStore.setDeltaUpdates(Boolean.parseBoolean(deltaUpdates));
+            if (logger.isDebugEnabled()) {
+                logger.debug("Setting delta updates to [" + deltaUpdates + "]");
+            }
+        }
+
+        String nearCache = beanLevelProperties.getContextProperties().getProperty(JETTY_SESSIONS_NEAR_CACHE);
+        if (nearCache != null) {
+            spaceSessionDataStore.setNearCache(Boolean.parseBoolean(nearCache));
+            if (logger.isDebugEnabled()) {
+                logger.debug("Setting near cache to [" + nearCache + "]");
+            }
+        }
+
         restart(sessionHandler.getSessionCache(), sc -> sc.setSessionDataStore(spaceSessionDataStore), "Replacing default session data store");
     }
 
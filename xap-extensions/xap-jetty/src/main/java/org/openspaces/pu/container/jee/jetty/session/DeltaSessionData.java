@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2008-2019, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openspaces.pu.container.jee.jetty.session;
+
+import org.eclipse.jetty.server.session.SessionData;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Session data which tracks the attributes modified since it was last loaded from or stored to the
+ * space, so only those attributes need to be sent when it is stored.
+ *
+ * @since 15.5
+ */
+public class DeltaSessionData extends SessionData {
+    private final Set<String> _dirtyAttributes = ConcurrentHashMap.newKeySet();
+    private Set<String> _storedKeys = Collections.emptySet();
+    private int _spaceVersion;
+
+    public DeltaSessionData(String id, String cpath, String vhost, long created, long accessed, long lastAccessed, long maxInactiveMs) {
+        super(id, cpath, vhost, created, accessed, lastAccessed, maxInactiveMs);
+    }
+
+    DeltaSessionData(VersionedSpaceSessionData spaceSessionData) {
+        super(spaceSessionData.getId(), spaceSessionData.getContextPath(), spaceSessionData.getVhost(), spaceSessionData.getCreated(),
+                spaceSessionData.getAccessed(), spaceSessionData.getLastAccessed(), spaceSessionData.getMaxInactiveMs(), spaceSessionData.getAttributes());
+        markStored(spaceSessionData.getVersion());
+    }
+
+    @Override
+    public Object setAttribute(String name, Object value) {
+        // setting the same instance again is how applications flag an in-place modification
+        _dirtyAttributes.add(name);
+        return super.setAttribute(name, value);
+    }
+
+    /**
+     * @return the space version of the stored session, 0 if it was never stored
+     */
+    public int getSpaceVersion() {
+        return _spaceVersion;
+    }
+
+    /**
+     * @return the names of attributes which were set, added or removed since the session was last
+     * stored
+     */
+    public Set<String> getChangedAttributes() {
+        Set<String> result = new HashSet<>(_dirtyAttributes);
+        Set<String> keys = getKeys();
+        for (String key : keys) {
+            if (!_storedKeys.contains(key))
+                result.add(key);
+        }
+        for (String key : _storedKeys) {
+            if (!keys.contains(key))
+                result.add(key);
+        }
+        return result;
+    }
+
+    /**
+     * Marks the current attributes as the stored state of the specified space version.
+     */
+    void markStored(int spaceVersion) {
+        _spaceVersion = spaceVersion;
+        _storedKeys = new HashSet<>(getKeys());
+        _dirtyAttributes.clear();
+    }
+}
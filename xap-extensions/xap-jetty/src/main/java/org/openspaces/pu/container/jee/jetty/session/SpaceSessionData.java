@@ -79,7 +79,11 @@ public class SpaceSessionData {
     }
 
     public long calcExpiry (long time) {
-        return (getMaxInactiveMs() <= 0 ? 0 : (time + getMaxInactiveMs()));
+        return calcExpiry(time, getMaxInactiveMs());
+    }
+
+    static long calcExpiry(long time, long maxInactiveMs) {
+        return (maxInactiveMs <= 0 ? 0 : (time + maxInactiveMs));
     }
 
     public boolean isExpiredAt(long time) {
@@ -16,6 +16,10 @@
 package org.openspaces.pu.container.jee.jetty.session;
 
 import com.gigaspaces.async.AsyncFuture;
+import com.gigaspaces.client.ChangeModifiers;
+import com.gigaspaces.client.ChangeResult;
+import com.gigaspaces.client.ChangeSet;
+import com.gigaspaces.client.ChangedEntryDetails;
 import com.gigaspaces.query.IdQuery;
 import com.j_spaces.core.client.SQLQuery;
 import net.jini.core.lease.Lease;
@@ -26,8 +30,10 @@ import org.openspaces.core.GigaSpace;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Serializable;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
@@ -40,6 +46,8 @@ public class SpaceSessionDataStore extends AbstractSessionDataStore {
     private final Logger logger = LoggerFactory.getLogger(SpaceSessionDataStore.class);
 
     private long lease = Lease.FOREVER;
+    private boolean deltaUpdates;
+    private SpaceSessionNearCache nearCache;
     private String cacheKeyPrefix;
 
     public SpaceSessionDataStore(GigaSpace gigaSpace) {
@@ -52,6 +60,16 @@ public class SpaceSessionDataStore extends AbstractSessionDataStore {
         logger.debug("initialize({})", context);
         super.initialize(context);
         this.cacheKeyPrefix = context.getCanonicalContextPath() + "_" + context.getVhost() + "_";
+        if (nearCache != null)
+            nearCache.start(gigaSpace, context.getCanonicalContextPath(), context.getVhost());
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        logger.debug("doStop()");
+        if (nearCache != null)
+            nearCache.stop();
+        super.doStop();
     }
 
     @Override
@@ -62,14 +80,85 @@ public class SpaceSessionDataStore extends AbstractSessionDataStore {
     @Override
     public void doStore(String id, SessionData data, long lastSaveTime) throws Exception {
         logger.debug("doStore(id={})", id);
-        gigaSpace.write(new SpaceSessionData(toCacheKey(id), data), lease);
+        String key = toCacheKey(id);
+        if (!isVersioned()) {
+            gigaSpace.write(new SpaceSessionData(key, data), lease);
+            return;
+        }
+        if (deltaUpdates && data instanceof DeltaSessionData && ((DeltaSessionData) data).getSpaceVersion() > 0) {
+            if (changeSession(key, (DeltaSessionData) data))
+                return;
+            logger.debug("Session {} could not be changed - writing it", id);
+        }
+        VersionedSpaceSessionData spaceSessionData = new VersionedSpaceSessionData(key, data);
+        gigaSpace.write(spaceSessionData, lease);
+        // the version of the written entry is set by the write
+        onStored(key, data, spaceSessionData);
+    }
+
+    /**
+     * Sends only the attributes modified since the session was last loaded or stored.
+     *
+     * @return false if the session could not be changed and should be written as a whole
+     */
+    private boolean changeSession(String key, DeltaSessionData data) {
+        ChangeSet changeSet = new ChangeSet()
+                .set("accessed", data.getAccessed())
+                .set("lastAccessed", data.getLastAccessed())
+                .set("maxInactiveMs", data.getMaxInactiveMs())
+                .set("expiry", SpaceSessionData.calcExpiry(System.currentTimeMillis(), data.getMaxInactiveMs()))
+                .lease(lease);
+        for (String name : data.getChangedAttributes()) {
+            Object value = data.getAttribute(name);
+            if (value == null)
+                changeSet.removeFromMap("attributes", name);
+            else if (value instanceof Serializable)
+                changeSet.putInMap("attributes", name, (Serializable) value);
+            else
+                return false;
+        }
+
+        ChangeResult<VersionedSpaceSessionData> result = gigaSpace.change(versionedQuery(key), changeSet,
+                ChangeModifiers.RETURN_DETAILED_RESULTS);
+        // the session was removed from the space (e.g. expired), write it again
+        Iterator<ChangedEntryDetails<VersionedSpaceSessionData>> iterator = result.getResults().iterator();
+        if (!iterator.hasNext())
+            return false;
+
+        VersionedSpaceSessionData spaceSessionData = new VersionedSpaceSessionData(key, data);
+        spaceSessionData.setVersion(iterator.next().getVersion());
+        onStored(key, data, spaceSessionData);
+        return true;
+    }
+
+    private void onStored(String key, SessionData data, VersionedSpaceSessionData spaceSessionData) {
+        if (data instanceof DeltaSessionData)
+            ((DeltaSessionData) data).markStored(spaceSessionData.getVersion());
+        if (nearCache != null)
+            nearCache.put(key, spaceSessionData);
     }
 
     @Override
     public SessionData doLoad(String id) throws Exception {
         logger.debug("doLoad(id={})", id);
-        SpaceSessionData spaceSessionData = gigaSpace.readById(query(id));
-        return spaceSessionData == null ? null : spaceSessionData.toSessionData();
+        if (!isVersioned()) {
+            SpaceSessionData spaceSessionData = gigaSpace.readById(query(id));
+            return spaceSessionData == null ? null : spaceSessionData.toSessionData();
+        }
+        String key = toCacheKey(id);
+        VersionedSpaceSessionData spaceSessionData = nearCache != null ? nearCache.get(key) : null;
+        if (spaceSessionData != null) {
+            logger.debug("Session {} found in near cache", id);
+        } else {
+            if (nearCache != null)
+                nearCache.beginLoad(key);
+            spaceSessionData = gigaSpace.readById(versionedQuery(key));
+            if (nearCache != null)
+                nearCache.endLoad(key, spaceSessionData);
+        }
+        if (spaceSessionData == null)
+            return null;
+        return deltaUpdates ? new DeltaSessionData(spaceSessionData) : spaceSessionData.toSessionData();
     }
 
     @Override
@@ -119,13 +208,20 @@ public class SpaceSessionDataStore extends AbstractSessionDataStore {
     @Override
     public boolean delete(String id) throws Exception {
         logger.debug("delete(id={})", id);
-        int result = gigaSpace.clear(query(id), gigaSpace.getDefaultClearModifiers());
+        String key = toCacheKey(id);
+        if (nearCache != null)
+            nearCache.remove(key);
+        int result = isVersioned()
+                ? gigaSpace.clear(versionedQuery(key), gigaSpace.getDefaultClearModifiers())
+                : gigaSpace.clear(query(id), gigaSpace.getDefaultClearModifiers());
         return result != 0;
     }
 
     @Override
     public SessionData newSessionData(String id, long created, long accessed, long lastAccessed, long maxInactiveMs) {
         logger.debug("newSessionData(id={})", id);
+        if (deltaUpdates)
+            return new DeltaSessionData(id, _context.getCanonicalContextPath(), _context.getVhost(), created, accessed, lastAccessed, maxInactiveMs);
         return new SessionData(id, _context.getCanonicalContextPath(), _context.getVhost(), created, accessed, lastAccessed, maxInactiveMs);
     }
 
@@ -133,10 +229,40 @@ public class SpaceSessionDataStore extends AbstractSessionDataStore {
         this.lease = lease;
     }
 
+    /**
+     * When enabled, stored sessions are updated using change operations containing only the
+     * attributes modified since the session was loaded, instead of writing the whole session.
+     * Sessions are then stored as {@link VersionedSpaceSessionData}.
+     */
+    public void setDeltaUpdates(boolean deltaUpdates) {
+        this.deltaUpdates = deltaUpdates;
+    }
+
+    /**
+     * When enabled, sessions are cached locally and read from the space only if they were modified
+     * by another node since they were cached. Sessions are then stored as {@link
+     * VersionedSpaceSessionData}.
+     */
+    public void setNearCache(boolean nearCache) {
+        this.nearCache = nearCache ? new SpaceSessionNearCache() : null;
+    }
+
     protected IdQuery<SpaceSessionData> query(String id) {
         return new IdQuery<>(SpaceSessionData.class, toCacheKey(id));
     }
 
+    private IdQuery<VersionedSpaceSessionData> versionedQuery(String key) {
+        return new IdQuery<>(VersionedSpaceSessionData.class, key);
+    }
+
+    /**
+     * @return true if sessions are stored with their space version, which only delta updates and
+     * the near cache require
+     */
+    private boolean isVersioned() {
+        return deltaUpdates || nearCache != null;
+    }
+
     private String toCacheKey(String id) {
         return cacheKeyPrefix + id;
     }
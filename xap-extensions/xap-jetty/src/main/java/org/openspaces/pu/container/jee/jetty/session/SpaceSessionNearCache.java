@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2008-2019, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openspaces.pu.container.jee.jetty.session;
+
+import com.gigaspaces.events.AbstractDataEventSession;
+import com.gigaspaces.events.DataEventSession;
+import com.gigaspaces.events.NotifyActionType;
+import com.gigaspaces.events.NotifyInfo;
+import com.gigaspaces.internal.transport.IEntryPacket;
+import com.j_spaces.core.client.ClientUIDHandler;
+import com.j_spaces.core.client.EntryArrivedRemoteEvent;
+import com.j_spaces.core.client.SQLQuery;
+import net.jini.core.event.EventRegistration;
+import net.jini.core.event.RemoteEvent;
+import net.jini.core.event.RemoteEventListener;
+import net.jini.core.lease.Lease;
+import org.eclipse.jetty.util.ClassLoadingObjectInputStream;
+import org.openspaces.core.GigaSpace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.rmi.RemoteException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local cache of the sessions of a context, kept coherent using space notifications which carry
+ * only the uid and version of the modified session.
+ *
+ * Each cached session holds the space version it was read or stored with, and is dropped when a
+ * notification reports a newer version, so sessions modified by this node stay cached while
+ * sessions modified elsewhere are read again from the space.
+ *
+ * Attribute values are mutable and owned by the requests using the session, so the attributes are
+ * cached serialized and each hit returns a session holding its own deserialized copy. Sessions with
+ * attributes which cannot be serialized are not cached.
+ *
+ * @since 15.5
+ */
+public class SpaceSessionNearCache implements RemoteEventListener {
+    private static final VersionedSpaceSessionData LOADING = new VersionedSpaceSessionData();
+
+    private final Logger logger = LoggerFactory.getLogger(SpaceSessionNearCache.class);
+    private final String typeName = VersionedSpaceSessionData.class.getName();
+    // keyed by uid, which is what notifications carry
+    private final Map<String, CachedSession> sessions = new ConcurrentHashMap<>();
+    private DataEventSession eventSession;
+    private EventRegistration registration;
+
+    /**
+     * Registers for notifications on the sessions of the specified context.
+     */
+    public synchronized void start(GigaSpace gigaSpace, String contextPath, String vhost) throws RemoteException {
+        logger.debug("start(contextPath={}, vhost={})", contextPath, vhost);
+        AbstractDataEventSession session = (AbstractDataEventSession) gigaSpace.newDataEventSession();
+        NotifyInfo notifyInfo = session.createNotifyInfo(this, NotifyActionType.NOTIFY_WRITE
+                .or(NotifyActionType.NOTIFY_UPDATE)
+                .or(NotifyActionType.NOTIFY_TAKE)
+                .or(NotifyActionType.NOTIFY_LEASE_EXPIRATION));
+        notifyInfo.setReturnOnlyUids(true);
+        this.registration = session.addListener(new SQLQuery<>(VersionedSpaceSessionData.class, "contextPath = ? AND vhost = ?", contextPath, vhost),
+                Lease.FOREVER, notifyInfo);
+        this.eventSession = session;
+    }
+
+    public synchronized void stop() {
+        logger.debug("stop()");
+        sessions.clear();
+        if (eventSession == null)
+            return;
+        try {
+            eventSession.removeListener(registration);
+        } catch (Exception e) {
+            logger.warn("Failed to unregister sessions near cache listener", e);
+        }
+        try {
+            eventSession.close();
+        } catch (Exception e) {
+            logger.warn("Failed to close sessions near cache event session", e);
+        }
+        eventSession = null;
+        registration = null;
+    }
+
+    /**
+     * @return a copy of the cached session, or null if it is not cached
+     */
+    public VersionedSpaceSessionData get(String key) {
+        String uid = toUid(key);
+        CachedSession cached = sessions.get(uid);
+        if (cached == null || cached.data == LOADING)
+            return null;
+        try {
+            return cached.data.copy(deserialize(cached.attributes));
+        } catch (IOException | ClassNotFoundException e) {
+            logger.warn("Failed to deserialize cached session attributes, the session will be read from the space", e);
+            sessions.remove(uid, cached);
+            return null;
+        }
+    }
+
+    /**
+     * Called before reading a session from the space, so notifications received while it is being
+     * read are not lost.
+     */
+    public void beginLoad(String key) {
+        sessions.putIfAbsent(toUid(key), new CachedSession(LOADING, null, 0));
+    }
+
+    /**
+     * Caches a session read from the space, unless a newer version was notified since {@link
+     * #beginLoad(String)} was called.
+     */
+    public void endLoad(String key, VersionedSpaceSessionData data) {
+        CachedSession loaded = data != null ? toCachedSession(data) : null;
+        sessions.computeIfPresent(toUid(key), (uid, cached) -> {
+            if (cached.data != LOADING)
+                return cached;
+            if (loaded == null || loaded.version < cached.version)
+                return null;
+            return loaded;
+        });
+    }
+
+    /**
+     * Caches a session stored by this node.
+     */
+    public void put(String key, VersionedSpaceSessionData data) {
+        String uid = toUid(key);
+        CachedSession stored = toCachedSession(data);
+        if (stored == null) {
+            sessions.remove(uid);
+            return;
+        }
+        sessions.merge(uid, stored, (cached, newer) -> cached.version > newer.version ? null : newer);
+    }
+
+    public void remove(String key) {
+        sessions.remove(toUid(key));
+    }
+
+    int size() {
+        return sessions.size();
+    }
+
+    @Override
+    public void notify(RemoteEvent remoteEvent) {
+        EntryArrivedRemoteEvent event = (EntryArrivedRemoteEvent) remoteEvent;
+        IEntryPacket entryPacket = event.getEntryPacket();
+        String uid = entryPacket.getUID();
+        boolean removed = event.getNotifyActionType().isTake() || event.getNotifyActionType().isLeaseExpiration();
+        onChange(uid, removed ? Integer.MAX_VALUE : entryPacket.getVersion());
+    }
+
+    /**
+     * Drops the cached session with the specified uid if it is older than the specified version.
+     */
+    void onChange(String uid, int version) {
+        logger.trace("onChange(uid={}, version={})", uid, version);
+        sessions.computeIfPresent(uid, (k, cached) -> {
+            if (cached.data == LOADING)
+                return new CachedSession(LOADING, null, Math.max(cached.version, version));
+            return cached.version < version ? null : cached;
+        });
+    }
+
+    private String toUid(String key) {
+        return ClientUIDHandler.createUIDFromName(key, typeName);
+    }
+
+    /**
+     * @return the session to cache, or null if its attributes cannot be serialized
+     */
+    private CachedSession toCachedSession(VersionedSpaceSessionData data) {
+        try {
+            return new CachedSession(data.copy(null), serialize(data.getAttributes()), data.getVersion());
+        } catch (IOException e) {
+            logger.debug("Session {} is not cached - failed to serialize its attributes: {}", data.getId(), e.toString());
+            return null;
+        }
+    }
+
+    private static byte[] serialize(Map<String, Object> attributes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(attributes);
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> deserialize(byte[] attributes) throws IOException, ClassNotFoundException {
+        // resolves the attribute classes using the web application class loader
+        try (ObjectInputStream in = new ClassLoadingObjectInputStream(new ByteArrayInputStream(attributes))) {
+            return (Map<String, Object>) in.readObject();
+        }
+    }
+
+    private static class CachedSession {
+        private final VersionedSpaceSessionData data;
+        private final byte[] attributes;
+        private final int version;
+
+        private CachedSession(VersionedSpaceSessionData data, byte[] attributes, int version) {
+            this.data = data;
+            this.attributes = attributes;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2008-2019, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openspaces.pu.container.jee.jetty.session;
+
+import com.gigaspaces.annotation.pojo.SpaceVersion;
+import org.eclipse.jetty.server.session.SessionData;
+
+import java.util.Map;
+
+/**
+ * Space session which also holds the space version of the entry, used only when delta updates or
+ * the near cache are enabled so the default session type keeps its schema.
+ *
+ * Sessions are stored as either this type or {@link SpaceSessionData} depending on these modes, so
+ * all the nodes of a web application should use the same modes, and sessions stored before the
+ * modes of a web application are changed are not found after the change.
+ *
+ * @since 15.5
+ */
+public class VersionedSpaceSessionData extends SpaceSessionData {
+    private int _version;
+
+    public VersionedSpaceSessionData() {
+    }
+
+    VersionedSpaceSessionData(String spaceId, SessionData sd) {
+        super(spaceId, sd);
+    }
+
+    public VersionedSpaceSessionData(String spaceId, String id, String cpath, String vhost, long created, long accessed, long lastAccessed, long maxInactiveMs, Map<String,Object> attributes) {
+        super(spaceId, id, cpath, vhost, created, accessed, lastAccessed, maxInactiveMs, attributes);
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() + ", version=" + _version;
+    }
+
+    @SpaceVersion
+    public int getVersion() {
+        return _version;
+    }
+    public void setVersion(int version) {
+        _version = version;
+    }
+
+    /**
+     * @return a copy of this session holding the specified attributes
+     */
+    VersionedSpaceSessionData copy(Map<String,Object> attributes) {
+        VersionedSpaceSessionData result = new VersionedSpaceSessionData();
+        result.setSpaceId(getSpaceId());
+        result.setId(getId());
+        result.setContextPath(getContextPath());
+        result.setVhost(getVhost());
+        result.setLastNode(getLastNode());
+        result.setExpiry(getExpiry());
+        result.setCreated(getCreated());
+        result.setCookieSet(getCookieSet());
+        result.setAccessed(getAccessed());
+        result.setLastAccessed(getLastAccessed());
+        result.setMaxInactiveMs(getMaxInactiveMs());
+        result.setAttributes(attributes);
+        result._version = _version;
+        return result;
+    }
+}
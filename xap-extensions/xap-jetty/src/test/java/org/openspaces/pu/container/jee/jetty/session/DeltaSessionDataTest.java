@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2008-2019, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openspaces.pu.container.jee.jetty.session;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+public class DeltaSessionDataTest {
+
+    @Test
+    public void newSessionReportsAllAttributes() {
+        DeltaSessionData data = newSession();
+        data.setAttribute("a", "1");
+        data.setAttribute("b", "2");
+        Assert.assertEquals(0, data.getSpaceVersion());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("a", "b")), data.getChangedAttributes());
+    }
+
+    @Test
+    public void storedSessionReportsOnlyChangesSinceStore() {
+        DeltaSessionData data = newSession();
+        data.setAttribute("a", "1");
+        data.setAttribute("b", "2");
+        data.setAttribute("c", "3");
+        data.markStored(1);
+        Assert.assertEquals(1, data.getSpaceVersion());
+        Assert.assertEquals(Collections.emptySet(), data.getChangedAttributes());
+
+        data.setAttribute("a", "10");
+        data.setAttribute("b", null);
+        data.setAttribute("d", "4");
+        Assert.assertEquals(new HashSet<>(Arrays.asList("a", "b", "d")), data.getChangedAttributes());
+    }
+
+    @Test
+    public void settingTheSameValueMarksInPlaceModification() {
+        DeltaSessionData data = newSession();
+        StringBuilder value = new StringBuilder("1");
+        data.setAttribute("a", value);
+        data.markStored(1);
+
+        value.append("2");
+        Assert.assertEquals(Collections.emptySet(), data.getChangedAttributes());
+        data.setAttribute("a", value);
+        Assert.assertEquals(Collections.singleton("a"), data.getChangedAttributes());
+    }
+
+    @Test
+    public void loadedSessionReportsNoChanges() {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("a", "1");
+        attributes.put("b", "2");
+        VersionedSpaceSessionData spaceSessionData = new VersionedSpaceSessionData("ctx_host_id", "id", "ctx", "host", 1, 2, 1, 60000, attributes);
+        spaceSessionData.setVersion(7);
+
+        DeltaSessionData data = new DeltaSessionData(spaceSessionData);
+        Assert.assertEquals(7, data.getSpaceVersion());
+        Assert.assertEquals("1", data.getAttribute("a"));
+        Assert.assertEquals(Collections.emptySet(), data.getChangedAttributes());
+
+        data.setAttribute("a", null);
+        Assert.assertEquals(Collections.singleton("a"), data.getChangedAttributes());
+    }
+
+    private static DeltaSessionData newSession() {
+        return new DeltaSessionData("id", "ctx", "host", 1, 1, 1, 60000);
+    }
+}
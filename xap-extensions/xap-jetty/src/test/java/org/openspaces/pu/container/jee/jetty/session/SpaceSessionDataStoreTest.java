@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2008-2019, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openspaces.pu.container.jee.jetty.session;
+
+import com.gigaspaces.client.ChangeModifiers;
+import com.gigaspaces.client.ChangeResult;
+import com.gigaspaces.client.ChangeSet;
+import com.gigaspaces.client.ChangedEntryDetails;
+import com.gigaspaces.query.IdQuery;
+import org.eclipse.jetty.server.session.SessionContext;
+import org.eclipse.jetty.server.session.SessionData;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.openspaces.core.GigaSpace;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SpaceSessionDataStoreTest {
+
+    private GigaSpace gigaSpace;
+    private SpaceSessionDataStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        gigaSpace = mock(GigaSpace.class);
+        when(gigaSpace.getSpaceName()).thenReturn("space");
+        // the space sets the version of written entries
+        when(gigaSpace.write(any(SpaceSessionData.class), anyLong())).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                Object data = invocation.getArguments()[0];
+                if (data instanceof VersionedSpaceSessionData)
+                    ((VersionedSpaceSessionData) data).setVersion(((VersionedSpaceSessionData) data).getVersion() + 1);
+                return null;
+            }
+        });
+        store = createStore(true);
+    }
+
+    @Test
+    public void defaultModeUsesUnversionedSessions() throws Exception {
+        store = createStore(false);
+        SessionData data = store.newSessionData("id", 1, 1, 1, 60000);
+        Assert.assertFalse(data instanceof DeltaSessionData);
+        data.setAttribute("a", "1");
+        store.doStore("id", data, 0);
+
+        ArgumentCaptor<SpaceSessionData> written = ArgumentCaptor.forClass(SpaceSessionData.class);
+        verify(gigaSpace).write(written.capture(), anyLong());
+        Assert.assertEquals(SpaceSessionData.class, written.getValue().getClass());
+
+        when(gigaSpace.readById(any(IdQuery.class))).thenReturn(written.getValue());
+        Assert.assertEquals("1", store.doLoad("id").getAttribute("a"));
+        ArgumentCaptor<IdQuery> query = ArgumentCaptor.forClass(IdQuery.class);
+        verify(gigaSpace).readById(query.capture());
+        Assert.assertEquals(SpaceSessionData.class.getName(), query.getValue().getTypeName());
+    }
+
+    @Test
+    public void newSessionIsWritten() throws Exception {
+        SessionData data = store.newSessionData("id", 1, 1, 1, 60000);
+        data.setAttribute("a", "1");
+        store.doStore("id", data, 0);
+
+        ArgumentCaptor<VersionedSpaceSessionData> written = ArgumentCaptor.forClass(VersionedSpaceSessionData.class);
+        verify(gigaSpace).write(written.capture(), anyLong());
+        Assert.assertEquals(VersionedSpaceSessionData.class, written.getValue().getClass());
+        Assert.assertEquals("ctx_host_id", written.getValue().getSpaceId());
+        Assert.assertEquals("1", written.getValue().getAttribute("a"));
+        verify(gigaSpace, never()).change(any(IdQuery.class), any(ChangeSet.class), any(ChangeModifiers.class));
+        Assert.assertEquals(1, ((DeltaSessionData) data).getSpaceVersion());
+        Assert.assertTrue(((DeltaSessionData) data).getChangedAttributes().isEmpty());
+    }
+
+    @Test
+    public void storedSessionIsChanged() throws Exception {
+        DeltaSessionData data = loadSession(3);
+        data.setAttribute("a", "10");
+        data.setAttribute("b", null);
+        mockChangeResult(Collections.singletonList(changedEntry(4)));
+        store.doStore("id", data, 0);
+
+        ArgumentCaptor<ChangeSet> changeSet = ArgumentCaptor.forClass(ChangeSet.class);
+        verify(gigaSpace).change(any(IdQuery.class), changeSet.capture(), eq(ChangeModifiers.RETURN_DETAILED_RESULTS));
+        String changes = changeSet.getValue().toString();
+        Assert.assertTrue(changes, changes.contains("PutInMapSpaceEntryMutator[path=attributes,key=a,value=10]"));
+        Assert.assertTrue(changes, changes.contains("RemoveFromMapSpaceEntryMutator[path=attributes,key=b]"));
+        Assert.assertFalse("unchanged attributes are not sent", changes.contains("key=c"));
+        verify(gigaSpace, never()).write(any(VersionedSpaceSessionData.class), anyLong());
+        Assert.assertEquals(4, data.getSpaceVersion());
+        Assert.assertTrue(data.getChangedAttributes().isEmpty());
+    }
+
+    @Test
+    public void sessionMissingFromSpaceIsWritten() throws Exception {
+        DeltaSessionData data = loadSession(3);
+        data.setAttribute("a", "10");
+        mockChangeResult(Collections.<ChangedEntryDetails<VersionedSpaceSessionData>>emptyList());
+        store.doStore("id", data, 0);
+
+        verify(gigaSpace).change(any(IdQuery.class), any(ChangeSet.class), any(ChangeModifiers.class));
+        ArgumentCaptor<VersionedSpaceSessionData> written = ArgumentCaptor.forClass(VersionedSpaceSessionData.class);
+        verify(gigaSpace).write(written.capture(), anyLong());
+        Assert.assertEquals("10", written.getValue().getAttribute("a"));
+        Assert.assertEquals("c", written.getValue().getAttribute("c"));
+        Assert.assertEquals(1, data.getSpaceVersion());
+    }
+
+    @Test
+    public void nonSerializableAttributeIsWritten() throws Exception {
+        DeltaSessionData data = loadSession(3);
+        data.setAttribute("a", new Object());
+        store.doStore("id", data, 0);
+
+        verify(gigaSpace, never()).change(any(IdQuery.class), any(ChangeSet.class), any(ChangeModifiers.class));
+        verify(gigaSpace).write(any(VersionedSpaceSessionData.class), anyLong());
+    }
+
+    @Test
+    public void nearCacheHitsDoNotShareAttributes() throws Exception {
+        store.setNearCache(true);
+        List<String> items = new ArrayList<>();
+        items.add("x");
+        VersionedSpaceSessionData spaceSessionData = newSpaceSessionData(3);
+        spaceSessionData.setAttribute("items", items);
+        when(gigaSpace.readById(any(IdQuery.class))).thenReturn(spaceSessionData);
+
+        SessionData first = store.doLoad("id");
+        getItems(first).add("y");
+        SessionData second = store.doLoad("id");
+
+        verify(gigaSpace, times(1)).readById(any(IdQuery.class));
+        Assert.assertEquals(Collections.singletonList("x"), getItems(second));
+        Assert.assertEquals(3, ((DeltaSessionData) second).getSpaceVersion());
+    }
+
+    private SpaceSessionDataStore createStore(boolean deltaUpdates) throws Exception {
+        SessionContext context = mock(SessionContext.class);
+        when(context.getCanonicalContextPath()).thenReturn("ctx");
+        when(context.getVhost()).thenReturn("host");
+        SpaceSessionDataStore result = new SpaceSessionDataStore(gigaSpace);
+        result.setDeltaUpdates(deltaUpdates);
+        result.initialize(context);
+        return result;
+    }
+
+    private DeltaSessionData loadSession(int version) throws Exception {
+        when(gigaSpace.readById(any(IdQuery.class))).thenReturn(newSpaceSessionData(version));
+        return (DeltaSessionData) store.doLoad("id");
+    }
+
+    private static VersionedSpaceSessionData newSpaceSessionData(int version) {
+        Map<String, Object> attributes = new ConcurrentHashMap<>();
+        attributes.put("a", "1");
+        attributes.put("b", "2");
+        attributes.put("c", "c");
+        VersionedSpaceSessionData data = new VersionedSpaceSessionData("ctx_host_id", "id", "ctx", "host", 1, 2, 1, 60000, attributes);
+        data.setVersion(version);
+        return data;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void mockChangeResult(Collection<ChangedEntryDetails<VersionedSpaceSessionData>> results) {
+        ChangeResult<VersionedSpaceSessionData> result = mock(ChangeResult.class);
+        when(result.getResults()).thenReturn(results);
+        when(gigaSpace.change(any(IdQuery.class), any(ChangeSet.class), any(ChangeModifiers.class))).thenReturn((ChangeResult) result);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ChangedEntryDetails<VersionedSpaceSessionData> changedEntry(int version) {
+        ChangedEntryDetails<VersionedSpaceSessionData> details = mock(ChangedEntryDetails.class);
+        when(details.getVersion()).thenReturn(version);
+        return details;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> getItems(SessionData data) {
+        return (List<String>) data.getAttribute("items");
+    }
+}
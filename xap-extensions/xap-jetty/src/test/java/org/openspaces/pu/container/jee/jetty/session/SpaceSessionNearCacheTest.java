@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2008-2019, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openspaces.pu.container.jee.jetty.session;
+
+import com.j_spaces.core.client.ClientUIDHandler;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class SpaceSessionNearCacheTest {
+
+    private static final String KEY = "ctx_host_id";
+    private static final String UID = ClientUIDHandler.createUIDFromName(KEY, VersionedSpaceSessionData.class.getName());
+
+    private final SpaceSessionNearCache nearCache = new SpaceSessionNearCache();
+
+    @Test
+    public void hitReturnsACopyOfTheCachedSession() {
+        List<String> items = new ArrayList<>();
+        items.add("a");
+        VersionedSpaceSessionData stored = newSession(3, items);
+        nearCache.put(KEY, stored);
+        // modifications made after the session was stored do not reach the cache
+        items.add("b");
+
+        VersionedSpaceSessionData first = nearCache.get(KEY);
+        Assert.assertNotSame(stored, first);
+        Assert.assertEquals(3, first.getVersion());
+        Assert.assertEquals(KEY, first.getSpaceId());
+        Assert.assertEquals(60000, first.getMaxInactiveMs());
+        List<String> cachedItems = getItems(first);
+        Assert.assertEquals(1, cachedItems.size());
+        cachedItems.add("c");
+
+        VersionedSpaceSessionData second = nearCache.get(KEY);
+        Assert.assertNotSame(first.getAttributes(), second.getAttributes());
+        Assert.assertEquals(1, getItems(second).size());
+    }
+
+    @Test
+    public void sessionWithNonSerializableAttributeIsNotCached() {
+        nearCache.put(KEY, newSession(1, new ArrayList<String>()));
+        VersionedSpaceSessionData data = newSession(2, new ArrayList<String>());
+        data.setAttribute("other", new Object());
+        nearCache.put(KEY, data);
+        Assert.assertNull(nearCache.get(KEY));
+        Assert.assertEquals(0, nearCache.size());
+    }
+
+    @Test
+    public void newerNotificationDropsCachedSession() {
+        nearCache.put(KEY, newSession(3, null));
+        nearCache.onChange(UID, 3);
+        nearCache.onChange(UID, 2);
+        Assert.assertNotNull("own or older changes keep the session", nearCache.get(KEY));
+
+        nearCache.onChange(UID, 4);
+        Assert.assertNull(nearCache.get(KEY));
+        Assert.assertEquals(0, nearCache.size());
+    }
+
+    @Test
+    public void removalNotificationDropsCachedSession() {
+        nearCache.put(KEY, newSession(3, null));
+        nearCache.onChange(UID, Integer.MAX_VALUE);
+        Assert.assertNull(nearCache.get(KEY));
+    }
+
+    @Test
+    public void staleStoreDropsCachedSession() {
+        nearCache.put(KEY, newSession(3, null));
+        nearCache.put(KEY, newSession(2, null));
+        Assert.assertNull(nearCache.get(KEY));
+    }
+
+    @Test
+    public void loadIsCached() {
+        nearCache.beginLoad(KEY);
+        Assert.assertNull("a loading session is not a hit", nearCache.get(KEY));
+        nearCache.endLoad(KEY, newSession(2, null));
+        Assert.assertEquals(2, nearCache.get(KEY).getVersion());
+    }
+
+    @Test
+    public void loadOlderThanConcurrentNotificationIsNotCached() {
+        nearCache.beginLoad(KEY);
+        nearCache.onChange(UID, 3);
+        nearCache.endLoad(KEY, newSession(2, null));
+        Assert.assertNull(nearCache.get(KEY));
+        Assert.assertEquals(0, nearCache.size());
+    }
+
+    @Test
+    public void loadOfNotifiedVersionIsCached() {
+        nearCache.beginLoad(KEY);
+        nearCache.onChange(UID, 2);
+        nearCache.onChange(UID, 3);
+        nearCache.endLoad(KEY, newSession(3, null));
+        Assert.assertEquals(3, nearCache.get(KEY).getVersion());
+    }
+
+    @Test
+    public void missingSessionIsNotCached() {
+        nearCache.beginLoad(KEY);
+        nearCache.endLoad(KEY, null);
+        Assert.assertEquals(0, nearCache.size());
+    }
+
+    @Test
+    public void loadDoesNotReplaceSessionStoredWhileLoading() {
+        nearCache.beginLoad(KEY);
+        nearCache.put(KEY, newSession(4, null));
+        nearCache.endLoad(KEY, newSession(3, null));
+        Assert.assertEquals(4, nearCache.get(KEY).getVersion());
+    }
+
+    @Test
+    public void loadOfRemovedSessionIsNotCached() {
+        nearCache.beginLoad(KEY);
+        nearCache.remove(KEY);
+        nearCache.endLoad(KEY, newSession(3, null));
+        Assert.assertEquals(0, nearCache.size());
+    }
+
+    private static VersionedSpaceSessionData newSession(int version, List<String> items) {
+        Map<String, Object> attributes = new ConcurrentHashMap<>();
+        if (items != null)
+            attributes.put("items", items);
+        VersionedSpaceSessionData data = new VersionedSpaceSessionData(KEY, "id", "ctx", "host", 1, 2, 1, 60000, attributes);
+        data.setVersion(version);
+        return data;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> getItems(VersionedSpaceSessionData data) {
+        return (List<String>) data.getAttribute("items");
+    }
+}
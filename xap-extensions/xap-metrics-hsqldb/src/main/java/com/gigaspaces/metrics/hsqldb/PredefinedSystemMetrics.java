@@ -23,7 +23,12 @@ public enum PredefinedSystemMetrics {
     SPACE_OPERATIONS_READ_TOTAL("space_operations_read-total"),
     SPACE_OPERATIONS_READ_MULTIPLE_TOTAL("space_operations_read-multiple-total"),
     SPACE_BLOBSTORE_CACHE_HIT_PERCENT("space_blobstore_cache-hit-percent"),
-    SPACE_DATA_READ_COUNT( "space_data_read-count" );
+    SPACE_DATA_READ_COUNT( "space_data_read-count" ),
+    SPACE_LATENCY_WRITE_P99("space_operations_write-latency_p99"),
+    SPACE_LATENCY_READ_TAKE_P99("space_operations_read-take-latency_p99"),
+    SPACE_LATENCY_READ_TAKE_MULTIPLE_P99("space_operations_read-take-multiple-latency_p99"),
+    SPACE_LATENCY_CHANGE_P99("space_operations_change-latency_p99"),
+    SPACE_LATENCY_EXECUTE_P99("space_operations_execute-latency_p99");
 
     private final String metricName;
     private final String tableName;
@@ -78,11 +78,20 @@ public class LuceneSpatialConfiguration {
     //context.world-bounds, default is set by lucene
     public static final String SPATIAL_CONTEXT_WORLD_BOUNDS = "context.world-bounds";
 
+    //lucene.search.near-real-time, queries share a searcher opened from the index writer instead of committing and opening a reader
+    public static final String SEARCH_NEAR_REAL_TIME = "lucene.search.near-real-time";
+    public static final String SEARCH_NEAR_REAL_TIME_DEFAULT = "false";
+    //lucene.search.max-staleness, in milliseconds - 0 means a query always sees all previous changes (read-your-writes)
+    public static final String SEARCH_MAX_STALENESS = "lucene.search.max-staleness";
+    public static final String SEARCH_MAX_STALENESS_DEFAULT = "0";
+
     private final SpatialContext _spatialContext;
     private final StrategyFactory _strategyFactory;
     private final DirectoryFactory _directoryFactory;
     private final int _maxUncommittedChanges;
     private final String _location;
+    private final boolean _nearRealTime;
+    private final long _maxStaleness;
 
     private enum SupportedSpatialStrategy {
         RecursivePrefixTree, BBox, Composite;
@@ -140,6 +149,10 @@ public class LuceneSpatialConfiguration {
         this._location = initLocation(provider, info);
         //TODO: read from config
         this._maxUncommittedChanges = 1000;
+        this._nearRealTime = Boolean.parseBoolean(provider.getCustomProperty(SEARCH_NEAR_REAL_TIME, SEARCH_NEAR_REAL_TIME_DEFAULT));
+        this._maxStaleness = Long.parseLong(provider.getCustomProperty(SEARCH_MAX_STALENESS, SEARCH_MAX_STALENESS_DEFAULT));
+        if (_maxStaleness < 0)
+            throw new IllegalArgumentException("Illegal " + SEARCH_MAX_STALENESS + ": " + _maxStaleness + " - must not be negative");
     }
 
     private static RectangleImpl createSpatialContextWorldBounds(LuceneSpatialQueryExtensionProvider provider) {
@@ -320,6 +333,14 @@ public class LuceneSpatialConfiguration {
         return _location;
     }
 
+    public boolean isNearRealTime() {
+        return _nearRealTime;
+    }
+
+    public long getMaxStaleness() {
+        return _maxStaleness;
+    }
+
     public abstract class StrategyFactory {
         private SupportedSpatialStrategy _strategyName;
 
@@ -34,17 +34,33 @@ public class LuceneSpatialQueryExtensionEntryIterator extends QueryExtensionEntr
     private final ScoreDoc[] scores;
     private final IndexSearcher indexSearcher;
     private final DirectoryReader directoryReader;
+    private final LuceneSpatialTypeIndex typeIndex;
     private int position;
 
     public LuceneSpatialQueryExtensionEntryIterator(ScoreDoc[] scores, IndexSearcher indexSearcher, DirectoryReader directoryReader) {
         this.scores = scores;
         this.indexSearcher = indexSearcher;
         this.directoryReader = directoryReader;
+        this.typeIndex = null;
+    }
+
+    /**
+     * Creates an iterator over a shared near real time searcher, which is released back to the
+     * type index when the iterator is closed.
+     */
+    public LuceneSpatialQueryExtensionEntryIterator(ScoreDoc[] scores, IndexSearcher indexSearcher, LuceneSpatialTypeIndex typeIndex) {
+        this.scores = scores;
+        this.indexSearcher = indexSearcher;
+        this.directoryReader = null;
+        this.typeIndex = typeIndex;
     }
 
     @Override
     public void close() throws IOException {
-        directoryReader.close();
+        if (typeIndex != null)
+            typeIndex.releaseSearcher(indexSearcher);
+        else
+            directoryReader.close();
         super.close();
     }
 
@@ -19,6 +19,9 @@ package org.openspaces.spatial.spi;
 import com.gigaspaces.SpaceRuntimeException;
 import com.gigaspaces.internal.io.FileUtils;
 import com.gigaspaces.metadata.SpaceTypeDescriptor;
+import com.gigaspaces.metrics.Gauge;
+import com.gigaspaces.metrics.LatencyHistogram;
+import com.gigaspaces.metrics.MetricRegistrator;
 import com.gigaspaces.query.extension.QueryExtensionEntryIterator;
 import com.gigaspaces.query.extension.QueryExtensionManager;
 import com.gigaspaces.query.extension.QueryExtensionRuntimeInfo;
@@ -65,6 +68,8 @@ public class LuceneSpatialQueryExtensionManager extends QueryExtensionManager {
     private final Map<String, LuceneSpatialTypeIndex> _luceneHolderMap = new ConcurrentHashMap<String, LuceneSpatialTypeIndex>();
     private final String _namespace;
     private final LuceneSpatialConfiguration _luceneConfiguration;
+    private final LatencyHistogram _refreshLatency;
+    private final MetricRegistrator _metricRegistrator;
 
     public LuceneSpatialQueryExtensionManager(LuceneSpatialQueryExtensionProvider provider, QueryExtensionRuntimeInfo info) {
         super(info);
@@ -72,10 +77,25 @@ public class LuceneSpatialQueryExtensionManager extends QueryExtensionManager {
         _luceneConfiguration = new LuceneSpatialConfiguration(provider, info);
         File location = new File(_luceneConfiguration.getLocation());
         FileUtils.deleteFileOrDirectoryIfExists(location);
+        _refreshLatency = _luceneConfiguration.isNearRealTime() ? new LatencyHistogram() : null;
+        _metricRegistrator = _refreshLatency != null && info.getMetricRegistrator() != null
+                ? info.getMetricRegistrator().extend(_namespace)
+                : null;
+        if (_metricRegistrator != null) {
+            _metricRegistrator.register("refresh-latency", _refreshLatency);
+            _metricRegistrator.register("searcher-age", new Gauge<Long>() {
+                @Override
+                public Long getValue() {
+                    return getMaxSearcherAge();
+                }
+            });
+        }
     }
 
     @Override
     public void close() throws IOException {
+        if (_metricRegistrator != null)
+            _metricRegistrator.clear();
         for (LuceneSpatialTypeIndex luceneHolder : _luceneHolderMap.values())
             luceneHolder.close();
 
@@ -90,7 +110,7 @@ public class LuceneSpatialQueryExtensionManager extends QueryExtensionManager {
         final String typeName = typeDescriptor.getTypeName();
         if (!_luceneHolderMap.containsKey(typeName)) {
             try {
-                _luceneHolderMap.put(typeName, new LuceneSpatialTypeIndex(_luceneConfiguration, _namespace, typeDescriptor));
+                _luceneHolderMap.put(typeName, new LuceneSpatialTypeIndex(_luceneConfiguration, _namespace, typeDescriptor, _refreshLatency));
             } catch (IOException e) {
                 throw new SpaceRuntimeException("Failed to register type " + typeName, e);
             }
@@ -113,8 +133,10 @@ public class LuceneSpatialQueryExtensionManager extends QueryExtensionManager {
                 luceneHolder.getIndexWriter().deleteDocuments(new TermQuery(new Term(XAP_ID_VERSION,
                         concat(entry.getUid(), entry.getVersion() - 1))));
             // Flush
-            if (doc != null || hasPrevious)
+            if (doc != null || hasPrevious) {
+                luceneHolder.onChange();
                 luceneHolder.commit(false);
+            }
             return doc != null;
         } catch (Exception e) {
             String operation = hasPrevious ? "update" : "insert";
@@ -128,6 +150,7 @@ public class LuceneSpatialQueryExtensionManager extends QueryExtensionManager {
         final LuceneSpatialTypeIndex luceneHolder = _luceneHolderMap.get(typeName);
         try {
             luceneHolder.getIndexWriter().deleteDocuments(new TermQuery(new Term(XAP_ID_VERSION, concat(uid, version))));
+            luceneHolder.onChange();
             luceneHolder.commit(false);
         } catch (IOException e) {
             throw new SpaceRuntimeException("Failed to remove entry of type " + typeName, e);
@@ -143,6 +166,16 @@ public class LuceneSpatialQueryExtensionManager extends QueryExtensionManager {
         final Query query = spatialStrategy.makeQuery(new SpatialArgs(toOperation(operationName), toShape(operand)));
         final LuceneSpatialTypeIndex luceneHolder = _luceneHolderMap.get(typeName);
         try {
+            if (luceneHolder.isNearRealTime()) {
+                IndexSearcher is = luceneHolder.acquireSearcher();
+                try {
+                    ScoreDoc[] scores = is.search(query, MAX_RESULTS).scoreDocs;
+                    return new LuceneSpatialQueryExtensionEntryIterator(scores, is, luceneHolder);
+                } catch (IOException e) {
+                    luceneHolder.releaseSearcher(is);
+                    throw e;
+                }
+            }
             // Flush
             luceneHolder.commit(true);
 
@@ -163,6 +196,13 @@ public class LuceneSpatialQueryExtensionManager extends QueryExtensionManager {
         return toOperation(operation).evaluate(toShape(leftOperand), toShape(rightOperand));
     }
 
+    private long getMaxSearcherAge() {
+        long result = 0;
+        for (LuceneSpatialTypeIndex luceneHolder : _luceneHolderMap.values())
+            result = Math.max(result, luceneHolder.getSearcherAge());
+        return result;
+    }
+
     protected Document createDocumentIfNeeded(LuceneSpatialTypeIndex luceneHolder, SpaceServerEntry entry) {
 
         Document doc = null;
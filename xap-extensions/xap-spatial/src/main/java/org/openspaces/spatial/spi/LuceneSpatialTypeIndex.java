@@ -17,17 +17,22 @@
 package org.openspaces.spatial.spi;
 
 import com.gigaspaces.metadata.SpaceTypeDescriptor;
+import com.gigaspaces.metrics.LatencyHistogram;
 import com.gigaspaces.query.extension.metadata.TypeQueryExtension;
 
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.store.Directory;
 
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class LuceneSpatialTypeIndex implements Closeable {
     private final Directory directory;
@@ -35,17 +40,35 @@ public class LuceneSpatialTypeIndex implements Closeable {
     private final TypeQueryExtension queryExtensionInfo;
     private final int maxUncommittedChanges;
     private final AtomicInteger uncommittedChanges = new AtomicInteger(0);
+    // Near real time search - searchers are opened from the index writer and shared by queries:
+    private final SearcherManager searcherManager;
+    private final long maxStalenessNanos;
+    private final LatencyHistogram refreshLatency;
+    private final AtomicLong changes = new AtomicLong();
+    private final Object refreshLock = new Object();
+    private volatile long refreshedChanges;
+    private volatile long lastRefreshTime = System.nanoTime();
 
     public LuceneSpatialTypeIndex(LuceneSpatialConfiguration luceneConfig, String namespace, SpaceTypeDescriptor typeDescriptor) throws IOException {
+        this(luceneConfig, namespace, typeDescriptor, null);
+    }
+
+    public LuceneSpatialTypeIndex(LuceneSpatialConfiguration luceneConfig, String namespace, SpaceTypeDescriptor typeDescriptor,
+                                  LatencyHistogram refreshLatency) throws IOException {
         this.directory = luceneConfig.getDirectory(typeDescriptor.getTypeName() + File.separator + "entries");
         this.indexWriter = new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer())
                 .setOpenMode(IndexWriterConfig.OpenMode.CREATE));
         this.queryExtensionInfo = typeDescriptor.getQueryExtensions().getByNamespace(namespace);
         this.maxUncommittedChanges = luceneConfig.getMaxUncommittedChanges();
+        this.searcherManager = luceneConfig.isNearRealTime() ? new SearcherManager(indexWriter, null) : null;
+        this.maxStalenessNanos = TimeUnit.MILLISECONDS.toNanos(luceneConfig.getMaxStaleness());
+        this.refreshLatency = refreshLatency;
     }
 
     @Override
     public void close() throws IOException {
+        if (searcherManager != null)
+            searcherManager.close();
         indexWriter.close();
     }
 
@@ -61,6 +84,57 @@ public class LuceneSpatialTypeIndex implements Closeable {
         return queryExtensionInfo;
     }
 
+    public boolean isNearRealTime() {
+        return searcherManager != null;
+    }
+
+    /**
+     * Notifies that the index writer was changed, so the next near real time search may need to
+     * refresh its searcher.
+     */
+    public void onChange() {
+        if (searcherManager != null)
+            changes.incrementAndGet();
+    }
+
+    /**
+     * Acquires the shared near real time searcher, refreshing it first if it misses changes and is
+     * older than the configured max staleness. The searcher must be released via {@link
+     * #releaseSearcher(IndexSearcher)}.
+     */
+    public IndexSearcher acquireSearcher() throws IOException {
+        if (changes.get() != refreshedChanges && System.nanoTime() - lastRefreshTime >= maxStalenessNanos) {
+            synchronized (refreshLock) {
+                final long currChanges = changes.get();
+                if (currChanges != refreshedChanges && System.nanoTime() - lastRefreshTime >= maxStalenessNanos) {
+                    final long startTime = System.nanoTime();
+                    searcherManager.maybeRefreshBlocking();
+                    final long endTime = System.nanoTime();
+                    // All changes counted before the refresh started are now visible:
+                    refreshedChanges = currChanges;
+                    lastRefreshTime = endTime;
+                    if (refreshLatency != null)
+                        refreshLatency.update(endTime - startTime);
+                }
+            }
+        }
+        return searcherManager.acquire();
+    }
+
+    public void releaseSearcher(IndexSearcher searcher) throws IOException {
+        searcherManager.release(searcher);
+    }
+
+    /**
+     * Returns the time in milliseconds since the near real time searcher was last refreshed, or 0
+     * if it is up to date.
+     */
+    public long getSearcherAge() {
+        if (searcherManager == null || changes.get() == refreshedChanges)
+            return 0;
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastRefreshTime);
+    }
+
     public void commit(boolean force) throws IOException {
         if (force || uncommittedChanges.incrementAndGet() == maxUncommittedChanges) {
             uncommittedChanges.set(0);
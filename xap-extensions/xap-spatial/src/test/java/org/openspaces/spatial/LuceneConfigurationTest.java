@@ -103,6 +103,33 @@ public class LuceneConfigurationTest {
 
     }
 
+    @Test
+    public void testNearRealTimeSearch() {
+        LuceneSpatialConfiguration luceneConfiguration = new LuceneSpatialConfiguration(new LuceneSpatialQueryExtensionProvider(), new MockConfig());
+        Assert.assertFalse("Near real time search should be disabled by default", luceneConfiguration.isNearRealTime());
+        Assert.assertEquals("Default max staleness should be 0", 0, luceneConfiguration.getMaxStaleness());
+
+        LuceneSpatialQueryExtensionProvider provider = new LuceneSpatialQueryExtensionProvider()
+                .setCustomProperty("lucene.search.near-real-time", "true")
+                .setCustomProperty("lucene.search.max-staleness", "100");
+        luceneConfiguration = new LuceneSpatialConfiguration(provider, new MockConfig());
+        Assert.assertTrue(luceneConfiguration.isNearRealTime());
+        Assert.assertEquals(100, luceneConfiguration.getMaxStaleness());
+    }
+
+    @Test
+    public void testInvalidMaxStaleness() {
+        LuceneSpatialQueryExtensionProvider provider = new LuceneSpatialQueryExtensionProvider()
+                .setCustomProperty("lucene.search.max-staleness", "-1");
+        try {
+            new LuceneSpatialConfiguration(provider, new MockConfig());
+            Assert.fail("An exception should be thrown");
+        } catch (IllegalArgumentException e) {
+            //OK
+            Assert.assertEquals("Illegal lucene.search.max-staleness: -1 - must not be negative", e.getMessage());
+        }
+    }
+
     @Test
     public void testInvalidDirectoryType() {
         LuceneSpatialQueryExtensionProvider provider = new LuceneSpatialQueryExtensionProvider()
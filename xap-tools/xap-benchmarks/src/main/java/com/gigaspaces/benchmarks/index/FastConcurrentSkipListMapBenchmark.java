@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.benchmarks.index;
+
+import com.gigaspaces.internal.backport.java.util.concurrent.FastConcurrentSkipListMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FastConcurrentSkipListMap} is the map behind ordered indexes and the lease manager.
+ *
+ * @since 15.5
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class FastConcurrentSkipListMapBenchmark {
+
+    @Param({"1000000"})
+    public int size;
+
+    private FastConcurrentSkipListMap<Long, Object> map;
+
+    @Setup
+    public void setup() {
+        map = new FastConcurrentSkipListMap<Long, Object>();
+        for (long i = 0; i < size; i++)
+            map.put(i * 2, Boolean.TRUE);
+    }
+
+    @Benchmark
+    public Object get() {
+        return map.get(randomKey() * 2);
+    }
+
+    @Benchmark
+    public Object ceilingEntry() {
+        return map.ceilingEntry(randomKey() * 2 + 1);
+    }
+
+    @Benchmark
+    public Object putAndRemove() {
+        Long key = randomKey() * 2 + 1;
+        map.put(key, Boolean.TRUE);
+        return map.remove(key);
+    }
+
+    @Benchmark
+    public Object tailMapIteration() {
+        Object last = null;
+        int count = 0;
+        for (Long key : map.tailMap(randomKey() * 2).keySet()) {
+            last = key;
+            if (++count == 100)
+                break;
+        }
+        return last;
+    }
+
+    private long randomKey() {
+        return ThreadLocalRandom.current().nextInt(size);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.benchmarks.index;
+
+import com.gigaspaces.benchmarks.space.BenchmarkEntry;
+import com.gigaspaces.benchmarks.space.EmbeddedSpaceState;
+import com.j_spaces.core.client.SQLQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries served by the type data indexes of {@link BenchmarkEntry}: the equality index, the
+ * ordered index and the compound index.
+ *
+ * @since 15.5
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class IndexLookupBenchmark {
+
+    @Param({"100"})
+    public int rangeSize;
+
+    private final SQLQuery<BenchmarkEntry> exactQuery = new SQLQuery<BenchmarkEntry>(BenchmarkEntry.class, "category = ?");
+    private final SQLQuery<BenchmarkEntry> rangeQuery = new SQLQuery<BenchmarkEntry>(BenchmarkEntry.class, "price >= ? AND price < ?");
+    private final SQLQuery<BenchmarkEntry> compoundQuery = new SQLQuery<BenchmarkEntry>(BenchmarkEntry.class, "category = ? AND region = ?");
+
+    @Benchmark
+    public Object exactIndex(EmbeddedSpaceState state) {
+        exactQuery.setParameter(1, ThreadLocalRandom.current().nextInt(EmbeddedSpaceState.CATEGORIES));
+        return state.gigaSpace.read(exactQuery);
+    }
+
+    @Benchmark
+    public Object rangeIndex(EmbeddedSpaceState state) {
+        long from = ThreadLocalRandom.current().nextInt(Math.max(1, state.entries - rangeSize));
+        rangeQuery.setParameter(1, from);
+        rangeQuery.setParameter(2, from + rangeSize);
+        return state.gigaSpace.readMultiple(rangeQuery);
+    }
+
+    @Benchmark
+    public Object compoundIndex(EmbeddedSpaceState state) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        compoundQuery.setParameter(1, random.nextInt(EmbeddedSpaceState.CATEGORIES));
+        compoundQuery.setParameter(2, EmbeddedSpaceState.REGIONS[random.nextInt(EmbeddedSpaceState.REGIONS.length)]);
+        return state.gigaSpace.read(compoundQuery);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.benchmarks.index;
+
+import com.gigaspaces.internal.utils.collections.PrimitiveKeyConcurrentHashMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The hash store of an equality index on a long property: the {@link ConcurrentHashMap} used for
+ * any property type vs. the {@link PrimitiveKeyConcurrentHashMap} used for long/int properties.
+ * <p>
+ * Run {@link #populate} with {@code -prof gc}, gc.alloc.rate.norm divided by the size is the
+ * memory allocated per entry.
+ *
+ * @since 15.5
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class IndexStoreBenchmark {
+
+    private static final int SEGMENTS = 64;
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"chm", "primitive"})
+    public String storeType;
+
+    private ConcurrentMap<Object, Object> store;
+
+    @Setup
+    public void setup() {
+        store = populate();
+    }
+
+    @Benchmark
+    public Object get() {
+        // index values arrive boxed from the entry data, so the lookup key is boxed in both cases
+        return store.get(randomKey() * 2);
+    }
+
+    @Benchmark
+    public Object getMissing() {
+        return store.get(randomKey() * 2 + 1);
+    }
+
+    @Benchmark
+    public Object putIfAbsentAndRemove() {
+        Long key = randomKey() * 2 + 1;
+        store.putIfAbsent(key, Boolean.TRUE);
+        return store.remove(key, Boolean.TRUE);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public Object populate() {
+        ConcurrentMap<Object, Object> map = createStore();
+        for (long i = 0; i < size; i++)
+            map.put(i * 2, Boolean.TRUE);
+        return map;
+    }
+
+    private ConcurrentMap<Object, Object> createStore() {
+        if ("chm".equals(storeType))
+            return new ConcurrentHashMap<Object, Object>(16, 0.75f, SEGMENTS);
+        if ("primitive".equals(storeType))
+            return new PrimitiveKeyConcurrentHashMap<Object>(Long.class, SEGMENTS);
+        throw new IllegalArgumentException("Unknown store type " + storeType);
+    }
+
+    private long randomKey() {
+        return ThreadLocalRandom.current().nextInt(size);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.benchmarks.index;
+
+import com.j_spaces.kernel.IObjectInfo;
+import com.j_spaces.kernel.IStoredList;
+import com.j_spaces.kernel.IStoredListIterator;
+import com.j_spaces.kernel.StoredListFactory;
+import com.j_spaces.kernel.list.LockFreeStoredList;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The stored list holding the entries which share a value of a non-unique index, e.g. a status
+ * property, under contention: all threads write and take entries with the same index value.
+ * Compares the lock based {@code SimpleLockStoredList}, the {@code ConcurrentStoredList} used by
+ * default, the {@code ConcurrentSegmentedStoredList} and the {@link LockFreeStoredList}.
+ *
+ * @since 15.5
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class StoredListContentionBenchmark {
+
+    @Param({"1000"})
+    public int size;
+
+    @Param({"simpleLock", "concurrent", "concurrentSegmented", "lockFree"})
+    public String listType;
+
+    private IStoredList<Object> list;
+
+    @Setup
+    public void setup() {
+        list = createList();
+        for (int i = 0; i < size; i++)
+            list.add(i);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object addAndRemove() {
+        return writeAndTake();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public Object mixedAddAndRemove() {
+        return writeAndTake();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public int mixedScan() {
+        // a query matching by the index value, stopping after a few entries like a read/take does
+        int count = 0;
+        for (IStoredListIterator<Object> slh = list.establishListScan(true); slh != null; slh = list.next(slh)) {
+            if (++count == 10) {
+                // the scan was not exhausted, so its iterator was not released by next()
+                list.freeSLHolder(slh);
+                break;
+            }
+        }
+        return count;
+    }
+
+    private Object writeAndTake() {
+        IObjectInfo<Object> oi = list.add(Boolean.TRUE);
+        list.remove(oi);
+        return oi;
+    }
+
+    private IStoredList<Object> createList() {
+        if ("simpleLock".equals(listType))
+            return StoredListFactory.createRandomScanList(true);
+        if ("concurrent".equals(listType))
+            return StoredListFactory.createConcurrentList(true);
+        if ("concurrentSegmented".equals(listType))
+            return StoredListFactory.createConcurrentSegmentedList(false);
+        if ("lockFree".equals(listType))
+            return StoredListFactory.createLockFreeList();
+        throw new IllegalArgumentException("Unknown list type " + listType);
+    }
+}
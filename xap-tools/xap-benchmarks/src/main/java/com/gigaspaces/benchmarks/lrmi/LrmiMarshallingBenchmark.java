@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.benchmarks.lrmi;
+
+import com.gigaspaces.internal.io.GSByteArrayInputStream;
+import com.gigaspaces.internal.io.GSByteArrayOutputStream;
+import com.gigaspaces.internal.io.MarshalInputStream;
+import com.gigaspaces.internal.io.MarshalOutputStream;
+import com.gigaspaces.lrmi.nio.ReplyPacket;
+import com.gigaspaces.lrmi.nio.RequestPacket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marshalling of LRMI packets the way {@code com.gigaspaces.lrmi.nio.Writer} and {@code Reader}
+ * do it: a reused {@link MarshalOutputStream} over a {@link GSByteArrayOutputStream} for writing,
+ * and a {@link MarshalInputStream} per packet for reading.
+ *
+ * @since 15.5
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LrmiMarshallingBenchmark {
+
+    @Param({"128", "4096"})
+    public int payloadSize;
+
+    private RequestPacket requestPacket;
+    private ReplyPacket<Payload> replyPacket;
+    private byte[] serializedReply;
+
+    private GSByteArrayOutputStream bos;
+    private MarshalOutputStream mos;
+
+    @Setup
+    public void setup() throws IOException {
+        Payload payload = new Payload(payloadSize);
+        requestPacket = new RequestPacket(payload);
+        replyPacket = new ReplyPacket<Payload>(payload, null);
+        bos = new GSByteArrayOutputStream();
+        mos = new MarshalOutputStream(bos, true);
+        serializedReply = marshalReply();
+    }
+
+    @Benchmark
+    public int marshalRequest() throws IOException {
+        bos.reset();
+        mos.reset();
+        requestPacket.writeExternal(mos);
+        mos.flush();
+        return bos.size();
+    }
+
+    @Benchmark
+    public byte[] marshalReplyToNewStream() throws IOException {
+        return marshalReply();
+    }
+
+    @Benchmark
+    public Object unmarshalReply() throws IOException, ClassNotFoundException {
+        MarshalInputStream mis = new MarshalInputStream(new GSByteArrayInputStream(serializedReply));
+        ReplyPacket<Payload> packet = new ReplyPacket<Payload>();
+        packet.readExternal(mis);
+        return packet.getResult();
+    }
+
+    private byte[] marshalReply() throws IOException {
+        GSByteArrayOutputStream out = new GSByteArrayOutputStream();
+        MarshalOutputStream marshalOut = new MarshalOutputStream(out, false);
+        replyPacket.writeExternal(marshalOut);
+        marshalOut.flush();
+        return out.toByteArray();
+    }
+
+    public static class Payload implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String typeName = "com.example.Trade";
+        private final long id;
+        private final Object[] values;
+
+        public Payload(int size) {
+            this.id = size;
+            this.values = new Object[]{"name-" + size, (long) size, size / 2, new byte[size]};
+        }
+    }
+}
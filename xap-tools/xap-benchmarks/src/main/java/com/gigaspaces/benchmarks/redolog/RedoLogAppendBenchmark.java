@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.benchmarks.redolog;
+
+import com.gigaspaces.internal.cluster.node.impl.backlog.BacklogWeightPolicyFactory;
+import com.gigaspaces.internal.cluster.node.impl.backlog.globalorder.GlobalOrderDeletedBacklogPacket;
+import com.gigaspaces.internal.server.space.redolog.MemoryRedoLogFile;
+import com.gigaspaces.internal.server.space.redolog.storage.StorageException;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.ByteBufferRedoLogFileConfig;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.ByteBufferRedoLogFileStorage;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.IByteBufferStorageFactory;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.mapped.MappedByteBufferStorageFactory;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.raf.RAFByteBufferStorageFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appending packets to the replication redo log, both the in-memory redo log file and the byte
+ * buffer storage used by the swap backlog. The backlog is trimmed once it exceeds {@link
+ * #maxBacklogSize} packets so the measurement reflects steady state appends. The swap backlog is
+ * measured over both the random access file and the memory mapped segment storage.
+ *
+ * @since 15.5
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RedoLogAppendBenchmark {
+
+    @Param({"100"})
+    public int batchSize;
+
+    @Param({"1000000"})
+    public int maxBacklogSize;
+
+    private MemoryRedoLogFile<GlobalOrderDeletedBacklogPacket> memoryRedoLog;
+    private long nextKey;
+
+    @Setup
+    public void setup() {
+        memoryRedoLog = new MemoryRedoLogFile<GlobalOrderDeletedBacklogPacket>("benchmark", null);
+    }
+
+    @State(Scope.Thread)
+    public static class SwapStorage {
+        @Param({"raf", "mapped"})
+        public String storageType;
+
+        private ByteBufferRedoLogFileStorage<GlobalOrderDeletedBacklogPacket> storage;
+
+        @Setup
+        public void setup() {
+            IByteBufferStorageFactory storageFactory = "mapped".equals(storageType)
+                    ? new MappedByteBufferStorageFactory("redolog_benchmark")
+                    : new RAFByteBufferStorageFactory("redolog_benchmark");
+            storage = new ByteBufferRedoLogFileStorage<GlobalOrderDeletedBacklogPacket>(storageFactory,
+                    new ByteBufferRedoLogFileConfig<GlobalOrderDeletedBacklogPacket>(), BacklogWeightPolicyFactory.create("fixed"));
+        }
+
+        @TearDown
+        public void tearDown() {
+            storage.close();
+        }
+    }
+
+    @Benchmark
+    public long memoryAppend() {
+        GlobalOrderDeletedBacklogPacket packet = new GlobalOrderDeletedBacklogPacket(nextKey, nextKey);
+        nextKey++;
+        memoryRedoLog.add(packet);
+        if (memoryRedoLog.size() > maxBacklogSize)
+            memoryRedoLog.deleteOldestPackets(maxBacklogSize / 2);
+        return memoryRedoLog.size();
+    }
+
+    @Benchmark
+    public long swapAppendBatch(SwapStorage swap) throws StorageException {
+        List<GlobalOrderDeletedBacklogPacket> batch = new ArrayList<GlobalOrderDeletedBacklogPacket>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(new GlobalOrderDeletedBacklogPacket(nextKey, nextKey));
+            nextKey++;
+        }
+        swap.storage.appendBatch(batch);
+        long size = swap.storage.size();
+        if (size > maxBacklogSize)
+            swap.storage.deleteOldestPackets(maxBacklogSize / 2);
+        return size;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.benchmarks.redolog;
+
+import com.gigaspaces.internal.cluster.node.impl.backlog.BacklogWeightPolicyFactory;
+import com.gigaspaces.internal.cluster.node.impl.backlog.globalorder.GlobalOrderDeletedBacklogPacket;
+import com.gigaspaces.internal.server.space.redolog.storage.StorageException;
+import com.gigaspaces.internal.server.space.redolog.storage.StorageReadOnlyIterator;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.ByteBufferRedoLogFileConfig;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.ByteBufferRedoLogFileStorage;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.IByteBufferStorageFactory;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.mapped.MappedByteBufferStorageFactory;
+import com.gigaspaces.internal.server.space.redolog.storage.bytebuffer.raf.RAFByteBufferStorageFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a swapped backlog back from the byte buffer storage from start to end, which is what a
+ * reconnecting target goes through while it catches up.
+ *
+ * @since 15.5
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RedoLogReplayBenchmark {
+
+    @Param({"200000"})
+    public int packets;
+
+    @Param({"raf", "mapped"})
+    public String storageType;
+
+    private ByteBufferRedoLogFileStorage<GlobalOrderDeletedBacklogPacket> swapStorage;
+
+    @Setup
+    public void setup() throws StorageException {
+        IByteBufferStorageFactory storageFactory = "mapped".equals(storageType)
+                ? new MappedByteBufferStorageFactory("redolog_replay_benchmark")
+                : new RAFByteBufferStorageFactory("redolog_replay_benchmark");
+        swapStorage = new ByteBufferRedoLogFileStorage<GlobalOrderDeletedBacklogPacket>(storageFactory,
+                new ByteBufferRedoLogFileConfig<GlobalOrderDeletedBacklogPacket>(), BacklogWeightPolicyFactory.create("fixed"));
+        List<GlobalOrderDeletedBacklogPacket> batch = new ArrayList<GlobalOrderDeletedBacklogPacket>(1000);
+        for (long key = 0; key < packets; key++) {
+            batch.add(new GlobalOrderDeletedBacklogPacket(key, key));
+            if (batch.size() == 1000) {
+                swapStorage.appendBatch(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty())
+            swapStorage.appendBatch(batch);
+    }
+
+    @TearDown
+    public void tearDown() {
+        swapStorage.close();
+    }
+
+    @Benchmark
+    public long replay() throws StorageException {
+        long lastKey = -1;
+        StorageReadOnlyIterator<GlobalOrderDeletedBacklogPacket> iterator = swapStorage.readOnlyIterator();
+        try {
+            while (iterator.hasNext())
+                lastKey = iterator.next().getKey();
+        } finally {
+            iterator.close();
+        }
+        return lastKey;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.benchmarks.space;
+
+import com.gigaspaces.annotation.pojo.CompoundSpaceIndex;
+import com.gigaspaces.annotation.pojo.SpaceClass;
+import com.gigaspaces.annotation.pojo.SpaceId;
+import com.gigaspaces.annotation.pojo.SpaceIndex;
+import com.gigaspaces.metadata.index.SpaceIndexType;
+
+/**
+ * Entry written by the space benchmarks. Carries an equality index ({@link #getCategory()}), an
+ * ordered index ({@link #getPrice()}) and a compound index over category and region.
+ *
+ * @since 15.5
+ */
+@SpaceClass
+@CompoundSpaceIndex(paths = {"category", "region"})
+public class BenchmarkEntry {
+    private Long id;
+    private Integer category;
+    private String region;
+    private Long price;
+    private Integer counter;
+    private byte[] payload;
+
+    public BenchmarkEntry() {
+    }
+
+    public BenchmarkEntry(Long id, Integer category, String region, Long price, byte[] payload) {
+        this.id = id;
+        this.category = category;
+        this.region = region;
+        this.price = price;
+        this.counter = 0;
+        this.payload = payload;
+    }
+
+    @SpaceId
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    @SpaceIndex(type = SpaceIndexType.EQUAL)
+    public Integer getCategory() {
+        return category;
+    }
+
+    public void setCategory(Integer category) {
+        this.category = category;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    @SpaceIndex(type = SpaceIndexType.ORDERED)
+    public Long getPrice() {
+        return price;
+    }
+
+    public void setPrice(Long price) {
+        this.price = price;
+    }
+
+    public Integer getCounter() {
+        return counter;
+    }
+
+    public void setCounter(Integer counter) {
+        this.counter = counter;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+}
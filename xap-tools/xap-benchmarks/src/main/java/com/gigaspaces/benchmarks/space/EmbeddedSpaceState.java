@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.benchmarks.space;
+
+import com.j_spaces.core.client.SQLQuery;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openspaces.core.GigaSpace;
+import org.openspaces.core.GigaSpaceConfigurer;
+import org.openspaces.core.space.EmbeddedSpaceConfigurer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded space shared by all benchmark threads, pre-loaded with {@link #entries} entries whose
+ * ids are {@code [0, entries)}. Ids above that range are handed out by {@link #nextFreeId()} for
+ * operations which insert new entries.
+ *
+ * @since 15.5
+ */
+@State(Scope.Benchmark)
+public class EmbeddedSpaceState {
+
+    public static final int CATEGORIES = 100;
+    public static final String[] REGIONS = {"north", "south", "east", "west"};
+
+    @Param({"100000"})
+    public int entries;
+
+    @Param({"128"})
+    public int payloadSize;
+
+    public GigaSpace gigaSpace;
+
+    private EmbeddedSpaceConfigurer spaceConfigurer;
+    private AtomicLong freeIds;
+
+    @Setup
+    public void setup() {
+        spaceConfigurer = new EmbeddedSpaceConfigurer("benchmark-space");
+        gigaSpace = new GigaSpaceConfigurer(spaceConfigurer).gigaSpace();
+        final int batchSize = 1000;
+        for (int from = 0; from < entries; from += batchSize) {
+            int to = Math.min(entries, from + batchSize);
+            BenchmarkEntry[] batch = new BenchmarkEntry[to - from];
+            for (int i = from; i < to; i++)
+                batch[i - from] = newEntry(i);
+            gigaSpace.writeMultiple(batch);
+        }
+        freeIds = new AtomicLong(entries);
+    }
+
+    /**
+     * Removes the entries inserted during the iteration so the space size stays stable between
+     * iterations.
+     */
+    @TearDown(Level.Iteration)
+    public void removeNewEntries() {
+        gigaSpace.clear(new SQLQuery<BenchmarkEntry>(BenchmarkEntry.class, "id >= ?", (long) entries));
+        freeIds.set(entries);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        spaceConfigurer.close();
+    }
+
+    public BenchmarkEntry newEntry(long id) {
+        return new BenchmarkEntry(id, (int) (id % CATEGORIES), REGIONS[(int) (id % REGIONS.length)], id, new byte[payloadSize]);
+    }
+
+    public long nextFreeId() {
+        return freeIds.getAndIncrement();
+    }
+}
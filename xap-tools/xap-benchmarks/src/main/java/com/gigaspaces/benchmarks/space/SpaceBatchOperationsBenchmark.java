@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.benchmarks.space;
+
+import com.gigaspaces.client.WriteModifiers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch operations against an embedded space. Scores are batches per second, multiply by {@link
+ * #batchSize} for entries per second.
+ *
+ * @since 15.5
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SpaceBatchOperationsBenchmark {
+
+    @Param({"100"})
+    public int batchSize;
+
+    @Benchmark
+    public Object writeMultipleNew(EmbeddedSpaceState state) {
+        BenchmarkEntry[] entries = new BenchmarkEntry[batchSize];
+        for (int i = 0; i < batchSize; i++)
+            entries[i] = state.newEntry(state.nextFreeId());
+        return state.gigaSpace.writeMultiple(entries);
+    }
+
+    @Benchmark
+    public Object updateMultiple(EmbeddedSpaceState state) {
+        BenchmarkEntry[] entries = new BenchmarkEntry[batchSize];
+        long from = randomBatchStart(state);
+        for (int i = 0; i < batchSize; i++)
+            entries[i] = state.newEntry(from + i);
+        return state.gigaSpace.writeMultiple(entries, WriteModifiers.UPDATE_ONLY);
+    }
+
+    @Benchmark
+    public Object readByIds(EmbeddedSpaceState state) {
+        Object[] ids = new Object[batchSize];
+        long from = randomBatchStart(state);
+        for (int i = 0; i < batchSize; i++)
+            ids[i] = from + i;
+        return state.gigaSpace.readByIds(BenchmarkEntry.class, ids);
+    }
+
+    @Benchmark
+    public Object readMultipleByTemplate(EmbeddedSpaceState state) {
+        BenchmarkEntry template = new BenchmarkEntry();
+        template.setCategory(ThreadLocalRandom.current().nextInt(EmbeddedSpaceState.CATEGORIES));
+        return state.gigaSpace.readMultiple(template, batchSize);
+    }
+
+    private long randomBatchStart(EmbeddedSpaceState state) {
+        return ThreadLocalRandom.current().nextInt(Math.max(1, state.entries - batchSize));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.benchmarks.space;
+
+import com.gigaspaces.client.ChangeSet;
+import com.gigaspaces.client.WriteModifiers;
+import com.gigaspaces.query.IdQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single entry operations against an embedded space. Exercises the {@code SpaceEngine}
+ * write/read/take/change paths, including type data index insert and remove.
+ *
+ * @since 15.5
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SpaceOperationsBenchmark {
+
+    private static final ChangeSet INCREMENT = new ChangeSet().increment("counter", 1);
+
+    @Benchmark
+    public Object writeNew(EmbeddedSpaceState state) {
+        return state.gigaSpace.write(state.newEntry(state.nextFreeId()));
+    }
+
+    @Benchmark
+    public Object update(EmbeddedSpaceState state) {
+        return state.gigaSpace.write(state.newEntry(randomId(state)), WriteModifiers.UPDATE_ONLY);
+    }
+
+    @Benchmark
+    public Object writeAndTake(EmbeddedSpaceState state) {
+        BenchmarkEntry entry = state.newEntry(state.nextFreeId());
+        state.gigaSpace.write(entry);
+        return state.gigaSpace.takeById(BenchmarkEntry.class, entry.getId());
+    }
+
+    @Benchmark
+    public Object readById(EmbeddedSpaceState state) {
+        return state.gigaSpace.readById(BenchmarkEntry.class, randomId(state));
+    }
+
+    @Benchmark
+    public Object readByTemplate(EmbeddedSpaceState state) {
+        BenchmarkEntry template = new BenchmarkEntry();
+        template.setCategory(ThreadLocalRandom.current().nextInt(EmbeddedSpaceState.CATEGORIES));
+        return state.gigaSpace.read(template);
+    }
+
+    @Benchmark
+    public Object change(EmbeddedSpaceState state) {
+        return state.gigaSpace.change(new IdQuery<BenchmarkEntry>(BenchmarkEntry.class, randomId(state)), INCREMENT);
+    }
+
+    static long randomId(EmbeddedSpaceState state) {
+        return ThreadLocalRandom.current().nextInt(state.entries);
+    }
+}